@@ -0,0 +1,133 @@
+package com.rental.property.search;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.geo.PinCodeDirectory;
+import org.openjdk.jmh.annotations.*;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+/**
+ * Relevance search and incremental updates against a {@link PropertySearchIndex} holding a synthetic corpus: a few
+ * dozen common listing words that each appear in up to half the descriptions, over a long Zipf-distributed tail.
+ * Sample time mode, so the report carries the p99 the search target is stated in.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class TextIndexBenchmark {
+    private static final String[] COMMON_WORDS = {"apartment", "near", "furnished", "spacious", "kitchen", "parking",
+            "balcony", "family", "lift", "semi", "park", "gated", "community", "school", "metro", "market", "modular",
+            "independent", "villa", "hospital"};
+    private static final double[] COMMON_FREQUENCIES = {0.5, 0.4, 0.35, 0.3, 0.3, 0.3, 0.25, 0.2, 0.2, 0.15, 0.15,
+            0.12, 0.12, 0.1, 0.1, 0.1, 0.08, 0.1, 0.05, 0.05};
+    private static final String[] TYPES = {"Apartment", "Villa", "Independent House", "Studio"};
+    private static final int TAIL_WORDS = 20_000;
+    private static final int TAIL_PER_DOCUMENT = 8;
+    private static final int CITIES = 50;
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        @Param("1000000")
+        int documents;
+
+        PropertySearchIndex index;
+        PropertyDocument[] current;
+        String[] tail;
+        double[] tailCumulative;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void build() {
+            random = new SplittableRandom(42);
+            tail = new String[TAIL_WORDS];
+            tailCumulative = new double[TAIL_WORDS];
+            Random letters = new Random(42);
+            double total = 0;
+            for (int i = 0; i < TAIL_WORDS; i++) {
+                char[] word = new char[4 + letters.nextInt(6)];
+                for (int c = 0; c < word.length; c++) {
+                    word[c] = (char) ('a' + letters.nextInt(26));
+                }
+                tail[i] = new String(word);
+                total += 1.0 / (i + 1);
+                tailCumulative[i] = total;
+            }
+            index = new PropertySearchIndex(null, new PinCodeDirectory());
+            current = new PropertyDocument[documents];
+            for (int i = 0; i < documents; i++) {
+                current[i] = document(i + 1L);
+                index.onPropertyChanged(new PropertyChangedEvent(i + 1L, null, current[i]));
+            }
+        }
+
+        PropertyDocument document(long propertyId) {
+            StringJoiner description = new StringJoiner(" ");
+            for (int w = 0; w < COMMON_WORDS.length; w++) {
+                if (random.nextDouble() < COMMON_FREQUENCIES[w]) {
+                    description.add(COMMON_WORDS[w]);
+                }
+            }
+            for (int w = 0; w < TAIL_PER_DOCUMENT; w++) {
+                int at = Arrays.binarySearch(tailCumulative, random.nextDouble() * tailCumulative[TAIL_WORDS - 1]);
+                description.add(tail[Math.min(at < 0 ? -at - 1 : at, TAIL_WORDS - 1)]);
+            }
+            int city = random.nextInt(CITIES);
+            return PropertyDocument.builder()
+                    .propertyId(propertyId)
+                    .landlordId(1L + random.nextInt(10_000))
+                    .streetName(tail[random.nextInt(TAIL_WORDS)] + " Road")
+                    .city("City" + city)
+                    .state("State" + city % 10)
+                    .pinCode(500_000L + random.nextInt(1000))
+                    .propertyType(TYPES[random.nextInt(TYPES.length)])
+                    .bhk((1 + random.nextInt(4)) + "BHK")
+                    .rentAmount(5000 + random.nextInt(95) * 1000)
+                    .availabilityStatus(random.nextInt(4) == 0 ? "RENTED" : "AVAILABLE")
+                    .description(description.toString())
+                    .createdDate(LocalDateTime.of(2024, 1, 1, 0, 0))
+                    .build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Query {
+        // A two letter prefix, two and three broad words together, and a narrower pair.
+        @Param({"ap", "spacious furnished", "apartment kitchen near", "gated community metro"})
+        String text;
+
+        PropertySearchCriteria criteria;
+        PropertySearchCriteria withinCity;
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            criteria = PropertySearchCriteria.builder().query(text).sort(PropertySort.RELEVANCE).page(0).size(20)
+                    .build();
+            withinCity = PropertySearchCriteria.builder().query(text).city("City7").cityMatch(CityMatch.EXACT)
+                    .sort(PropertySort.RELEVANCE).page(0).size(20).build();
+        }
+    }
+
+    @Benchmark
+    public Object search(Corpus corpus, Query query) {
+        return corpus.index.search(query.criteria);
+    }
+
+    @Benchmark
+    public Object searchWithinCity(Corpus corpus, Query query) {
+        return corpus.index.search(query.withinCity);
+    }
+
+    /** Replaces a random listing with freshly generated text, as editing a description does. */
+    @Benchmark
+    public void update(Corpus corpus) {
+        int i = corpus.random.nextInt(corpus.documents);
+        PropertyDocument before = corpus.current[i];
+        PropertyDocument after = corpus.document(before.getPropertyId());
+        corpus.index.onPropertyChanged(new PropertyChangedEvent(before.getPropertyId(), before, after));
+        corpus.current[i] = after;
+    }
+}
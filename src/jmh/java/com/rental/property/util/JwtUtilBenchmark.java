@@ -0,0 +1,112 @@
+package com.rental.property.util;
+import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.entity.SigningKey;
+import com.rental.property.repo.SigningKeyRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * What the verified-token cache costs against what it saves: the SHA-256 digest the cache is keyed by, a cache hit,
+ * the HMAC a legacy token's signature check computes, and a full uncached parse for each way a token can be signed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    // HS256 is a legacy token without a key id, verified with jwt.secret; the others are signed by the key ring.
+    @Param({"HS256", "EdDSA", "RS256"})
+    String signing;
+
+    JwtUtil jwtUtil;
+    String token;
+    byte[] signingInput;
+    Mac hmac;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        jwtUtil = new JwtUtil();
+        jwtUtil.setKeyRing(keyRing(signing.equals("HS256") ? "EdDSA" : signing));
+        jwtUtil.setSecret(SECRET);
+        jwtUtil.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtUtil.setLegacyHmacAcceptedUntil(Instant.now().plus(Duration.ofDays(1)));
+        CustomUserDetails user = new CustomUserDetails(42L, "tenant", List.of("ROLE_TENANT"), 3);
+        token = signing.equals("HS256") ? legacyToken() : jwtUtil.generateToken(user);
+        signingInput = token.substring(0, token.lastIndexOf('.')).getBytes(StandardCharsets.US_ASCII);
+        hmac = Mac.getInstance("HmacSHA256");
+        hmac.init(new SecretKeySpec(SECRET.getBytes(), "HmacSHA256"));
+        jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        return JwtUtil.digest(token);
+    }
+
+    @Benchmark
+    public Object cachedVerify() {
+        return jwtUtil.verify(token);
+    }
+
+    /** The signature computation alone, without the base64 and JSON work a parse adds to it. */
+    @Benchmark
+    public byte[] hmacSignature() {
+        return hmac.doFinal(signingInput);
+    }
+
+    @Benchmark
+    public String uncachedVerify() {
+        return jwtUtil.extractClaim(token, Claims::getSubject);
+    }
+
+    private static String legacyToken() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim(JwtUtil.USER_ID_CLAIM, 42L)
+                .claim(JwtUtil.ROLES_CLAIM, List.of("ROLE_TENANT"))
+                .claim(JwtUtil.TOKEN_VERSION_CLAIM, 3)
+                .subject("tenant")
+                .id("5f0c6c1e-8d52-4bb8-9a57-1d0e5a7f2c11")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .issuer("RentHub")
+                .audience().add("User").and()
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    /** A key ring over an in-memory list standing in for the signing_key table. */
+    private static JwtKeyRing keyRing(String algorithm) {
+        List<SigningKey> saved = new ArrayList<>();
+        SigningKeyRepository repository = (SigningKeyRepository) Proxy.newProxyInstance(
+                SigningKeyRepository.class.getClassLoader(), new Class<?>[]{SigningKeyRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        saved.add((SigningKey) args[0]);
+                        yield args[0];
+                    }
+                    case "findAllByOrderByActivatesAtAsc" -> List.copyOf(saved);
+                    default -> null;
+                });
+        JwtKeyRing keyRing = new JwtKeyRing(repository, SECRET, algorithm, Duration.ofDays(30), Duration.ofHours(1),
+                Duration.ofHours(1), Clock.systemDefaultZone());
+        keyRing.init();
+        return keyRing;
+    }
+}
@@ -1,9 +1,15 @@
 package com.rental.property.config;
+import com.rental.property.filter.ImageUrlSignatureFilter;
 import com.rental.property.filter.JwtAuthenticationFilter;
+import com.rental.property.util.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -16,6 +22,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @SuppressWarnings("ALL")
@@ -24,6 +31,7 @@ import java.util.Arrays;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ImageUrlSignatureFilter imageUrlSignatureFilter;
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -32,8 +40,14 @@ public class SecurityConfig {
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authorizeHttpRequests(authorize -> authorize
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/actuator/**").permitAll()
+                        // Images of every listing, rented ones included, live under this prefix; only a link the
+                        // API signed for a caller allowed to see the listing opens them.
+                        .requestMatchers("/api/v1/public/properties/**").access((authentication, context) ->
+                                new AuthorizationDecision(context.getRequest()
+                                        .getAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY) != null))
                         .requestMatchers("/api/v1/public/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/api/v1/landlord/**").hasRole("LANDLORD")
@@ -41,13 +55,25 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/user/**").hasAnyRole("TENANT","LANDLORD")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(imageUrlSignatureFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
+    /**
+     * BCrypt on its own bounded pool. Raising the strength rehashes each stored password the next time its owner
+     * signs in, through {@link com.rental.property.service.CustomUserDetailsService#updatePassword}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${renthub.auth.bcrypt.strength:10}") int strength,
+                                           @Value("${renthub.auth.bcrypt.workers:0}") int workers,
+                                           @Value("${renthub.auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                                           @Value("${renthub.auth.bcrypt.timeout:PT5S}") Duration timeout) {
+        // By default leave half the cores to everything else, however many logins arrive at once.
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry, threads, queueCapacity,
+                timeout);
     }
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
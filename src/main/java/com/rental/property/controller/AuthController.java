@@ -2,21 +2,38 @@ package com.rental.property.controller;
 import com.rental.property.dto.AuthRequestDTO;
 import com.rental.property.dto.AuthResponseDTO;
 import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.dto.RefreshRequestDTO;
+import com.rental.property.dto.RotatedRefreshToken;
+import com.rental.property.exception.PasswordHashingRejectedException;
+import com.rental.property.ratelimit.RateLimit;
+import com.rental.property.ratelimit.RateLimiter;
+import com.rental.property.service.RefreshTokenService;
+import com.rental.property.service.TokenRevocationService;
+import com.rental.property.service.TokenVersionService;
 import com.rental.property.util.JwtUtil;
+import com.rental.property.util.VerifiedToken;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import java.time.Duration;
+import java.util.Map;
 @RestController
 @RequestMapping("/api/v1/auth")
 @Slf4j
@@ -25,9 +42,16 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenVersionService tokenVersionService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RateLimiter rateLimiter;
     @PostMapping("/login")
     @Operation(security = {@SecurityRequirement(name = "" )})
-    public ResponseEntity<?> login(@RequestBody AuthRequestDTO authRequest) {
+    public ResponseEntity<?> login(@RequestBody AuthRequestDTO authRequest, HttpServletRequest request) {
+        // Before authenticate, so a throttled attempt costs no BCrypt work.
+        rateLimiter.check(RateLimit.LOGIN_IP, request.getRemoteAddr());
+        rateLimiter.check(RateLimit.LOGIN_USERNAME, authRequest.getUsername());
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
@@ -35,17 +59,67 @@ public class AuthController {
         } catch (BadCredentialsException e) {
             log.error("BadCredentialsException {}", e.getMessage());
             return ResponseEntity.status(401).body("Invalid username or password");
+        } catch (PasswordHashingRejectedException e) {
+            log.warn("Login shed: {}", e.getMessage());
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         } catch (Exception e) {
             log.error("Exception {}", e.getMessage());
             return ResponseEntity.status(500).body("Authentication error: " + e.getMessage());
         }
         final CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(authRequest.getUsername());
+        return ResponseEntity.ok(authResponse(userDetails, refreshTokenService.issue(userDetails)));
+    }
+    /** Trades a refresh token for a new access token and a new refresh token; the old one stops working. */
+    @PostMapping("/refresh")
+    @Operation(security = {@SecurityRequirement(name = "" )})
+    public ResponseEntity<AuthResponseDTO> refresh(@RequestBody RefreshRequestDTO refreshRequest) {
+        RotatedRefreshToken rotated = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        return ResponseEntity.ok(authResponse(rotated.getUser(), rotated.getRefreshToken()));
+    }
+    /** Signs this session out: the access token presented and, if given, the refresh token issued with it. */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(Authentication authentication,
+                                    @RequestBody(required = false) RefreshRequestDTO refreshRequest) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+            return ResponseEntity.status(401).body("Not signed in");
+        }
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
+        if (authentication.getCredentials() instanceof VerifiedToken token && token.getTokenId() != null) {
+            tokenRevocationService.revoke(token.getTokenId(), token.getExpiresAt());
+        } else {
+            // Tokens issued before they carried an id can only be revoked all together.
+            tokenVersionService.revokeTokens(userDetails.getUserId());
+        }
+        return ResponseEntity.noContent().build();
+    }
+    /** Signs the user out everywhere: every access and refresh token issued to them so far stops working. */
+    @PostMapping("/logout/all")
+    public ResponseEntity<?> logoutEverywhere(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Not signed in");
+        }
+        tokenVersionService.revokeTokens(userDetails.getUserId());
+        return ResponseEntity.noContent().build();
+    }
+    /**
+     * The public keys access tokens are signed with, so other services can verify them without calling back here.
+     * Verifiers may cache it for a few minutes; new keys are published well before they sign anything.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(security = {@SecurityRequirement(name = "" )})
+    public ResponseEntity<Map<String, ?>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtUtil.jwks());
+    }
+    private AuthResponseDTO authResponse(CustomUserDetails userDetails, String refreshToken) {
         final String jwt = jwtUtil.generateToken(userDetails);
         String role =  userDetails.getAuthorities().stream().findFirst().map(GrantedAuthority::getAuthority).get();
-        AuthResponseDTO authResponseDTO =  new AuthResponseDTO(userDetails.getUserId(),jwt,userDetails.getUsername(),
+        return new AuthResponseDTO(userDetails.getUserId(),jwt,userDetails.getUsername(),
                 userDetails.getEmail(),
-                userDetails.getFirstName(),userDetails.getLastName(),role
+                userDetails.getFirstName(),userDetails.getLastName(),role,refreshToken
         );
-        return ResponseEntity.ok(authResponseDTO);
     }
 }
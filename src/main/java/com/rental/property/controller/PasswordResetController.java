@@ -4,8 +4,11 @@ import com.rental.property.dto.OtpRequestDTO;
 import com.rental.property.dto.OtpVerifyDTO;
 import com.rental.property.dto.PasswordResetDTO;
 import com.rental.property.exception.UserNotFoundException;
+import com.rental.property.ratelimit.RateLimit;
+import com.rental.property.ratelimit.RateLimiter;
 import com.rental.property.service.PasswordResetService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,10 +28,14 @@ import java.util.Map;
 public class PasswordResetController {
 
     private final PasswordResetService passwordResetService;
+    private final RateLimiter rateLimiter;
 
     @PostMapping("/forgot")
     @Operation(summary = "Initiate password reset by sending OTP to email or mobile")
-    public ResponseEntity<?> initiatePasswordReset(@Valid @RequestBody OtpRequestDTO otpRequest) {
+    public ResponseEntity<?> initiatePasswordReset(@Valid @RequestBody OtpRequestDTO otpRequest,
+                                                   HttpServletRequest request) {
+        rateLimiter.check(RateLimit.OTP_SEND_IP, request.getRemoteAddr());
+        rateLimiter.check(RateLimit.OTP_SEND_IDENTIFIER, otpRequest.getIdentifier());
         try {
             passwordResetService.initiatePasswordReset(otpRequest);
             return ResponseEntity.ok("OTP sent successfully to " + otpRequest.getIdentifier());
@@ -43,7 +50,8 @@ public class PasswordResetController {
 
     @PostMapping("/verify-otp")
     @Operation(summary = "Verify OTP for password reset")
-    public ResponseEntity<String> verifyOtp(@Valid @RequestBody OtpVerifyDTO otpVerify) {
+    public ResponseEntity<String> verifyOtp(@Valid @RequestBody OtpVerifyDTO otpVerify, HttpServletRequest request) {
+        checkOtpGuess(request, otpVerify.getEmail());
         try {
             passwordResetService.verifyOtp(otpVerify);
             return ResponseEntity.ok("OTP verified successfully");
@@ -55,7 +63,9 @@ public class PasswordResetController {
 
     @PostMapping("/reset")
     @Operation(summary = "Reset password after OTP verification")
-    public ResponseEntity<String> resetPassword(@Valid @RequestBody PasswordResetDTO passwordReset) {
+    public ResponseEntity<String> resetPassword(@Valid @RequestBody PasswordResetDTO passwordReset,
+                                                HttpServletRequest request) {
+        checkOtpGuess(request, passwordReset.getEmail());
         try {
             passwordResetService.resetPassword(passwordReset);
             return ResponseEntity.ok("Password reset successfully");
@@ -65,6 +75,12 @@ public class PasswordResetController {
         }
     }
 
+    // Verify and reset both check the OTP, so they draw on the same buckets; six digits do not survive unthrottled guessing.
+    private void checkOtpGuess(HttpServletRequest request, String email) {
+        rateLimiter.check(RateLimit.OTP_VERIFY_IP, request.getRemoteAddr());
+        rateLimiter.check(RateLimit.OTP_VERIFY_EMAIL, email);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -13,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 @RequiredArgsConstructor
 @RestController
@@ -22,9 +23,24 @@ public class PropertyController {
     private final PropertyService propertyService;
     @PostMapping
     public ResponseEntity<PropertyResponseDto> addNewProperty(@Valid @RequestPart PropertyRequestDto propertyRequestDto,
-                                                              @RequestPart MultipartFile image) throws IOException {
+                                                              @RequestPart(required = false) MultipartFile image,
+                                                              @RequestPart(required = false) List<MultipartFile> images) throws IOException {
         log.info("Adding new property: {}", propertyRequestDto);
-        return new ResponseEntity<>(propertyService.addNewProperty(propertyRequestDto, image), HttpStatus.OK);
+        // "image" is the single cover upload older clients send; it goes first.
+        List<MultipartFile> uploads = new ArrayList<>();
+        if (image != null) {
+            uploads.add(image);
+        }
+        if (images != null) {
+            uploads.addAll(images);
+        }
+        return new ResponseEntity<>(propertyService.addNewProperty(propertyRequestDto, uploads), HttpStatus.OK);
+    }
+    @PostMapping("/{propertyId}/images")
+    public ResponseEntity<PropertyResponseDto> addPropertyImages(@PathVariable Long propertyId,
+                                                                 @RequestPart List<MultipartFile> images) throws IOException {
+        log.info("Adding {} images to property ID: {}", images.size(), propertyId);
+        return new ResponseEntity<>(propertyService.addPropertyImages(propertyId, images), HttpStatus.OK);
     }
     @GetMapping("/{id}")
     public ResponseEntity<List<PropertyResponseDto>> getAllPropertyByLandLordId(@PathVariable Long id,
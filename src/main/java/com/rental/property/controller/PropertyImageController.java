@@ -0,0 +1,187 @@
+package com.rental.property.controller;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.filter.ImageUrlSignatureFilter;
+import com.rental.property.service.PropertyService;
+import com.rental.property.storage.ImageContent;
+import com.rental.property.util.ImageUrlUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+/**
+ * Serves image bytes outside Jackson. Blob-store files are handed to Tomcat's sendfile when the connector supports
+ * it, and otherwise copied with {@link FileChannel#transferTo}. The content hash is the strong ETag; signed, versioned
+ * URLs (see {@link ImageUrlUtil}) are cacheable until the signature expires, anything else must revalidate.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/public/properties")
+public class PropertyImageController {
+    static final long ONE_YEAR_SECONDS = 31536000;
+    static final String REVALIDATE = "public, no-cache";
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private final PropertyService propertyService;
+
+    @GetMapping("/{propertyId}/images/{n}")
+    public void getPropertyImage(@PathVariable Long propertyId, @PathVariable int n,
+                                 @RequestParam(name = "v", required = false) String version,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Fetching image {} for property ID: {}", n, propertyId);
+        serve(propertyService.getPropertyImage(propertyId, n), version, request, response);
+    }
+
+    /** A downscaled rendition; the original is served until it has been rendered. */
+    @GetMapping("/{propertyId}/images/{n}/{variant}")
+    public void getPropertyImageVariant(@PathVariable Long propertyId, @PathVariable int n,
+                                        @PathVariable String variant,
+                                        @RequestParam(name = "v", required = false) String version,
+                                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant imageVariant = ImageVariant.fromPathSegment(variant);
+        log.debug("Fetching {} of image {} for property ID: {}", imageVariant, n, propertyId);
+        serve(propertyService.getPropertyImage(propertyId, n, imageVariant), version, request, response);
+    }
+
+    private static void serve(ImageContent image, String version, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        String etag = "\"" + image.getHash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(image, version, request));
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        Resource content = image.getContent();
+        long length = content.contentLength();
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = singleRange(request, etag);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start > end) {
+                    throw new IllegalArgumentException("Empty range");
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+        response.setContentType(image.getContentType() == null
+                ? MediaType.APPLICATION_OCTET_STREAM_VALUE : image.getContentType());
+        response.setContentLengthLong(end - start + 1);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (content.isFile()) {
+            sendFile(content.getFile().toPath(), start, end + 1, request, response);
+        } else {
+            try (InputStream in = content.getInputStream()) {
+                StreamUtils.copyRange(in, response.getOutputStream(), start, end);
+            }
+        }
+    }
+
+    private static void sendFile(Path file, long start, long end, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file straight from the page cache to the socket once the servlet returns.
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Multi-range requests are answered with the whole image, as RFC 9110 allows; so are malformed ranges and
+     * ranges whose {@code If-Range} validator no longer matches.
+     */
+    private static HttpRange singleRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String cacheControl(ImageContent image, String version, HttpServletRequest request) {
+        // A signed URL stops working at its expiry, so caches should not hold it any longer than that. Without a
+        // verified signature there is nothing to bound the lifetime by, so the response is never cached for longer.
+        if (!ImageUrlUtil.isCurrentVersion(version, image.getVersion())
+                || !(request.getAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY) instanceof Long expiresAt)) {
+            return REVALIDATE;
+        }
+        long maxAge = Math.min(ONE_YEAR_SECONDS, Math.max(0, expiresAt - Instant.now().getEpochSecond()));
+        return "public, max-age=" + maxAge + ", immutable";
+    }
+
+    /** Weak comparison, as If-None-Match requires. */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
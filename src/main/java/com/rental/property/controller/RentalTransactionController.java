@@ -1,8 +1,18 @@
 package com.rental.property.controller;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.dto.PropertyCatalogPageDto;
+import com.rental.property.dto.PropertyFacetsDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
 import com.rental.property.entity.Property;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySort;
+import com.rental.property.service.PropertyFacetService;
 import com.rental.property.service.PropertyService;
 import com.rental.property.service.RentalTransactionService;
 import lombok.RequiredArgsConstructor;
@@ -10,8 +20,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 @Slf4j
 @RestController
@@ -20,19 +34,106 @@ import java.util.List;
 public class RentalTransactionController {
     private final RentalTransactionService rentalTransactionService;
     private final PropertyService propertyService;
+    private final PropertyFacetService propertyFacetService;
+    private final ObjectMapper objectMapper;
     @GetMapping("/viewProperties/")
     public List<PropertyResponseDto> getAllProperty(){
         log.info("Fetching all properties");
         return rentalTransactionService.getAllProperty();
     }
+    @GetMapping("/properties")
+    public ResponseEntity<PropertyCatalogPageDto> getPropertyCatalog(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("Fetching property catalog page with cursor: {}, size: {}", cursor, size);
+        return new ResponseEntity<>(rentalTransactionService.getPropertyCatalog(cursor, size), HttpStatus.OK);
+    }
+    @GetMapping(value = "/properties/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPropertyCatalog() {
+        log.info("Streaming full property catalog");
+        ObjectWriter writer = objectMapper.writerFor(PropertyResponseDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = outputStream -> {
+            try {
+                rentalTransactionService.streamAllProperty(batch -> {
+                    try {
+                        for (PropertyResponseDto property : batch) {
+                            writer.writeValue(outputStream, property);
+                            outputStream.write('\n');
+                        }
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
     @GetMapping("/search")
     public List<PropertyResponseDto> searchProperties(
+            @RequestParam(required=false) String q,
             @RequestParam(required=false) String city,
-            @RequestParam(required=false) String minPrice,
-            @RequestParam(required=false) String maxPrice,
-            @RequestParam(required=false) String bhk){
-        log.info("Searching properties with city: {}, minPrice: {}, maxPrice: {}, bhk: {}", city, minPrice, maxPrice, bhk);
-        return rentalTransactionService.searchProperties(city,minPrice,maxPrice,bhk);
+            @RequestParam(required=false) CityMatch cityMatch,
+            @RequestParam(required=false) Double minPrice,
+            @RequestParam(required=false) Double maxPrice,
+            @RequestParam(required=false) String bhk,
+            @RequestParam(required=false) String status,
+            @RequestParam(required=false) PropertySort sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size){
+        log.info("Searching properties with q: {}, city: {} ({}), minPrice: {}, maxPrice: {}, bhk: {}, status: {}, sort: {}, page: {}, size: {}",
+                q, city, cityMatch, minPrice, maxPrice, bhk, status, sort, page, size);
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .query(q)
+                .city(city)
+                .cityMatch(cityMatch)
+                .minRent(minPrice)
+                .maxRent(maxPrice)
+                .bhk(bhk)
+                .availabilityStatus(status)
+                .sort(sort)
+                .page(page)
+                .size(size)
+                .build();
+        return rentalTransactionService.searchProperties(criteria);
+    }
+
+    @GetMapping("/search/nearby")
+    public List<PropertyResponseDto> searchNearby(
+            @RequestParam Long pinCode,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(required=false) String q,
+            @RequestParam(required=false) Double minPrice,
+            @RequestParam(required=false) Double maxPrice,
+            @RequestParam(required=false) String bhk,
+            @RequestParam(required=false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size){
+        log.info("Searching properties within {} km of pin code {}", radiusKm, pinCode);
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .query(q)
+                .minRent(minPrice)
+                .maxRent(maxPrice)
+                .bhk(bhk)
+                .availabilityStatus(status)
+                .page(page)
+                .size(size)
+                .build();
+        return rentalTransactionService.searchNearby(pinCode, radiusKm, criteria);
+    }
+
+    @GetMapping("/search/suggest")
+    public List<LocalitySuggestionDto> suggestLocalities(@RequestParam String prefix,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return rentalTransactionService.suggestLocalities(prefix, limit);
+    }
+
+    @GetMapping("/search/facets")
+    public PropertyFacetsDto getSearchFacets() {
+        return propertyFacetService.getFacets();
     }
 
     @GetMapping("/viewProperty/{propertyId}")
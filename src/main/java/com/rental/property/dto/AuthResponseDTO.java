@@ -11,4 +11,5 @@ public class  AuthResponseDTO {
     private String firstName;
     private String lastName;
     private String role;
+    private String refreshToken;
 }
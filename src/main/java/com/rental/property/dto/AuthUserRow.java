@@ -0,0 +1,19 @@
+package com.rental.property.dto;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+/**
+ * One row per role of a user, selected with a constructor expression so authentication never loads the
+ * {@code User} entity and its eager transaction and payment graph. {@code roleName} is null for a user without roles.
+ */
+@Value
+@AllArgsConstructor
+public class AuthUserRow {
+    Long userId;
+    String username;
+    String password;
+    String email;
+    String firstName;
+    String lastName;
+    Integer tokenVersion;
+    String roleName;
+}
@@ -18,6 +18,7 @@ public class CustomUserDetails implements UserDetails {
     private final String email;
     private final String firstName;
     private String lastName;
+    private final int tokenVersion;
     public CustomUserDetails(User user) {
         this.authorities =  user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.getName()))
@@ -28,6 +29,32 @@ public class CustomUserDetails implements UserDetails {
         this.firstName = user.getFirstName();
         this.lastName = user.getLastName();
         this.userId = user.getId();
+        this.tokenVersion = user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+    }
+    public CustomUserDetails(Long userId, String username, String password, String email, String firstName,
+                             String lastName, Collection<String> roles, int tokenVersion) {
+        this.authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+    }
+    /** Rebuilt from a verified token; there is no password, email or name. */
+    public CustomUserDetails(Long userId, String username, Collection<String> roles, int tokenVersion) {
+        this.authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+        this.username = username;
+        this.password = null;
+        this.email = null;
+        this.firstName = null;
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
     }
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
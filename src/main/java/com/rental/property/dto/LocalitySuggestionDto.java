@@ -0,0 +1,16 @@
+package com.rental.property.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rental.property.search.LocalityType;
+import lombok.*;
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LocalitySuggestionDto {
+    private String value;
+    private LocalityType type;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String city;
+    private long listings;
+}
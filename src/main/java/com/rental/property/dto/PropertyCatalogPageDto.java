@@ -0,0 +1,13 @@
+package com.rental.property.dto;
+import lombok.*;
+import java.util.List;
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PropertyCatalogPageDto {
+    private List<PropertyResponseDto> properties;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,14 @@
+package com.rental.property.dto;
+import lombok.*;
+import java.util.Map;
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PropertyFacetsDto {
+    private Map<String, Long> cities;
+    private Map<String, Long> bhk;
+    private Map<String, Long> propertyTypes;
+    private Map<String, Long> rentBands;
+}
@@ -1,11 +1,15 @@
 package com.rental.property.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.rental.property.entity.Address;
+import com.rental.property.util.SignedImageUrlSerializer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import java.util.List;
 @Getter
 @Setter
 @AllArgsConstructor
@@ -21,7 +25,14 @@ public class PropertyResponseDto {
         private double rentAmount;
         private String availabilityStatus;
         private String description;
-        @Lob
-        private byte[] image1;
+        @JsonSerialize(using = SignedImageUrlSerializer.class)
+        private String imageUrl;
+        @JsonSerialize(using = SignedImageUrlSerializer.class)
+        private String thumbnailUrl;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonSerialize(contentUsing = SignedImageUrlSerializer.class)
+        private List<String> imageUrls;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Double distanceKm;
 
 }
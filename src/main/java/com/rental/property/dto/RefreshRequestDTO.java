@@ -0,0 +1,6 @@
+package com.rental.property.dto;
+import lombok.Data;
+@Data
+public class RefreshRequestDTO {
+    private String refreshToken;
+}
@@ -1,4 +1,6 @@
 package com.rental.property.dto;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.rental.property.util.SignedImageUrlSerializer;
 import lombok.*;
 import java.time.LocalDate;
 @Getter
@@ -16,5 +18,8 @@ public class RentalTransactionResponseDto {
     private String status;
     private LocalDate startDate;
     private LocalDate endDate;
-    private byte[] image;
+    @JsonSerialize(using = SignedImageUrlSerializer.class)
+    private String imageUrl;
+    @JsonSerialize(using = SignedImageUrlSerializer.class)
+    private String thumbnailUrl;
 }
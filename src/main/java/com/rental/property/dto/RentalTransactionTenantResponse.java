@@ -1,4 +1,6 @@
 package com.rental.property.dto;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.rental.property.util.SignedImageUrlSerializer;
 import lombok.*;
 @Getter
 @Setter
@@ -12,5 +14,8 @@ public class RentalTransactionTenantResponse {
     String bhk;
     String description;
     String status;
-    byte [] image;
+    @JsonSerialize(using = SignedImageUrlSerializer.class)
+    String imageUrl;
+    @JsonSerialize(using = SignedImageUrlSerializer.class)
+    String thumbnailUrl;
 }
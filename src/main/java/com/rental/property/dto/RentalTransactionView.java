@@ -0,0 +1,26 @@
+package com.rental.property.dto;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import java.time.LocalDate;
+/**
+ * Flat row for transaction lists, selected with a constructor expression so the property's image blob
+ * (and the eager user/property graph) is never loaded.
+ */
+@Value
+@AllArgsConstructor
+public class RentalTransactionView {
+    Long transactionId;
+    Long propertyId;
+    String streetName;
+    String city;
+    String state;
+    Long pinCode;
+    String bhk;
+    String description;
+    String status;
+    LocalDate startDate;
+    LocalDate endDate;
+    String userName;
+    Long mobileNo;
+    String imageHash;
+}
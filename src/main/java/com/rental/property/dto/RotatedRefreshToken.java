@@ -0,0 +1,8 @@
+package com.rental.property.dto;
+import lombok.Value;
+/** The user a refresh token belonged to and the token that replaces it. */
+@Value
+public class RotatedRefreshToken {
+    CustomUserDetails user;
+    String refreshToken;
+}
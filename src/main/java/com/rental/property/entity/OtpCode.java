@@ -0,0 +1,25 @@
+package com.rental.property.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/** A one-time password waiting to be redeemed, stored as a keyed digest. The row is useless once it expires. */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "otp_code", indexes = @Index(name = "idx_otp_code_expires", columnList = "expires_at"))
+public class OtpCode {
+    @Id
+    @Column(name = "otp_key", length = 255)
+    private String key;
+    @Column(name = "code_hash", nullable = false, length = 64)
+    private String codeHash;
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package com.rental.property.entity;
+import com.rental.property.enums.OutboxEmailStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/**
+ * An email waiting in the outbox. A worker leases a row before sending it, so a row is never sent by two workers at
+ * once; a lease left behind by a crashed worker simply runs out. The body is cleared once the email is sent or given
+ * up on. Mail that is useless after a deadline, such as a one-time code, carries it in {@code not_after}.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+public class OutboxEmail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "sender", nullable = false)
+    private String sender;
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+    @Column(name = "subject", nullable = false)
+    private String subject;
+    @Column(name = "body", length = 8000)
+    private String body;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OutboxEmailStatus status;
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    @Column(name = "not_after")
+    private LocalDateTime notAfter;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
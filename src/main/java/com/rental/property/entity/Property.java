@@ -1,6 +1,7 @@
 package com.rental.property.entity;
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 @Entity
@@ -9,7 +10,11 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name="Property_Details")
+@Table(name="Property_Details", indexes = {
+        @Index(name = "idx_property_city_status_bhk_rent", columnList = "city, availability_status, bhk, rent_amount"),
+        @Index(name = "idx_property_city_status_rent", columnList = "city, availability_status, rent_amount"),
+        @Index(name = "idx_property_status_rent", columnList = "availability_status, rent_amount")
+})
 public class Property  extends BaseAudit {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,8 +34,25 @@ public class Property  extends BaseAudit {
     private double rentAmount;
     private String availabilityStatus;
     private String description;
+    // Legacy inline image, moved out to the blob store by ImageMigrationService; new listings only set imageHash.
     @Lob
     private byte[] image1;
+    // The cover image (position 1 of images, or the migrated image1).
+    @Column(length = 64)
+    private String imageHash;
+    private String imageContentType;
+    private Long imageSize;
+    // Failed renditions of the image with hash variantFailedHash; written only by PropertyRepository.recordVariantFailure.
+    @Column(length = 64, insertable = false, updatable = false)
+    private String variantFailedHash;
+    @Column(insertable = false, updatable = false)
+    private Integer variantAttempts;
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime variantFailedAt;
+    @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position")
+    @Builder.Default
+    private List<PropertyImage> images = new ArrayList<>();
 
     @Version
     private  Long  version;
@@ -0,0 +1,31 @@
+package com.rental.property.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/**
+ * One of a property's ordered images, stored in the blob store under {@code hash}. Position 1 is the cover and is
+ * mirrored on {@link Property#getImageHash()} so list queries never join this table.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "property_image", uniqueConstraints =
+        @UniqueConstraint(name = "uk_property_image_position", columnNames = {"property_id", "image_position"}))
+public class PropertyImage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "property_id")
+    private Property property;
+    @Column(name = "image_position", nullable = false)
+    private int position;
+    @Column(nullable = false, length = 64)
+    private String hash;
+    private String contentType;
+    private Long size;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.rental.property.entity;
+import com.rental.property.enums.ImageVariant;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+/**
+ * A rendition of a property's image in the blob store. {@code sourceHash} is the image it was made from, so rows
+ * left behind by a replaced image are recognised as stale.
+ */
+@Entity
+@Table(name = "property_image_variant", uniqueConstraints =
+        @UniqueConstraint(name = "uk_property_image_variant", columnNames = {"property_id", "variant"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PropertyImageVariant {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "property_id", nullable = false)
+    private Long propertyId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageVariant variant;
+    @Column(nullable = false, length = 64)
+    private String sourceHash;
+    @Column(nullable = false, length = 64)
+    private String hash;
+    private String contentType;
+    private Integer width;
+    private Integer height;
+    private Long size;
+    private LocalDateTime createdAt;
+}
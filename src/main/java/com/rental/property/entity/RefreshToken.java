@@ -0,0 +1,39 @@
+package com.rental.property.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/**
+ * A refresh token, stored only as the SHA-256 of its value. Every rotation adds a row to the same family and marks
+ * the previous one used; a used token coming back means it was copied, so the whole family is revoked.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "refresh_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_token_expires", columnList = "expires_at")
+        })
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+    // The user's token version at issue; a logout or password reset bumps it and so ends the family.
+    private int tokenVersion;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    private LocalDateTime usedAt;
+    private boolean revoked;
+    private LocalDateTime createdAt;
+}
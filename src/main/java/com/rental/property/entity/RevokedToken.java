@@ -0,0 +1,24 @@
+package com.rental.property.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/** An access token revoked before its expiry, by its {@code jti}. The row is useless once the token expires. */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at"),
+        @Index(name = "idx_revoked_token_created", columnList = "created_at")
+})
+public class RevokedToken {
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.rental.property.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/**
+ * A JWT signing key pair. The public half is published as a JWK from {@code activatesAt - publish-ahead} on; the
+ * private half is stored encrypted and signs tokens from {@code activatesAt} until a newer key takes over.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "signing_key")
+public class SigningKey {
+    @Id
+    @Column(name = "kid", length = 64)
+    private String kid;
+    @Column(name = "algorithm", nullable = false, length = 16)
+    private String algorithm;
+    @Column(name = "public_key", nullable = false, length = 1024)
+    private byte[] publicKey;
+    @Column(name = "private_key", nullable = false, length = 4096)
+    private byte[] privateKey;
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
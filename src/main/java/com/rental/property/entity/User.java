@@ -24,6 +24,8 @@ public class User {
     private String lastName;
     private Long mobileNo;
     private Long role;
+    // Bumped to revoke every token issued so far; tokens carry the version they were issued under.
+    private Integer tokenVersion;
     @OneToMany(mappedBy = "user")
     private List<Property> propertyList=new ArrayList<>();
     @ManyToMany(fetch = FetchType.EAGER)
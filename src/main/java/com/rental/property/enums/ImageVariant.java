@@ -0,0 +1,26 @@
+package com.rental.property.enums;
+import java.util.Locale;
+/** Downscaled renditions of an uploaded image, bounded by {@link #getMaxDimension()} on the longer side. */
+public enum ImageVariant {
+    THUMBNAIL(200),
+    CARD(640),
+    FULL(1600);
+    private final int maxDimension;
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+    public String getPathSegment() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+    public static ImageVariant fromPathSegment(String segment) {
+        for (ImageVariant variant : values()) {
+            if (variant.getPathSegment().equals(segment)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown image variant: " + segment);
+    }
+}
@@ -0,0 +1,6 @@
+package com.rental.property.enums;
+public enum OutboxEmailStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,8 @@
+package com.rental.property.event;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+@Getter
+@AllArgsConstructor
+public class EmailQueuedEvent {
+    private final int count;
+}
@@ -0,0 +1,21 @@
+package com.rental.property.event;
+import com.rental.property.entity.Property;
+import com.rental.property.search.PropertyDocument;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+@Getter
+@AllArgsConstructor
+public class PropertyChangedEvent {
+    private final Long propertyId;
+    private final PropertyDocument before;
+    private final PropertyDocument after;
+    public static PropertyChangedEvent saved(PropertyDocument before, Property after) {
+        return new PropertyChangedEvent(after.getPropertyId(), before, PropertyDocument.from(after));
+    }
+    public static PropertyChangedEvent deleted(Property property) {
+        return new PropertyChangedEvent(property.getPropertyId(), PropertyDocument.from(property), null);
+    }
+    public boolean isDeleted() {
+        return after == null;
+    }
+}
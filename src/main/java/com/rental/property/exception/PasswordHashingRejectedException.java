@@ -0,0 +1,13 @@
+package com.rental.property.exception;
+
+/** Thrown when the password hashing pool is saturated; the caller should retry shortly. */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
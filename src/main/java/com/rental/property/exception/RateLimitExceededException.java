@@ -0,0 +1,16 @@
+package com.rental.property.exception;
+
+/** Thrown when a caller is over a rate limit. Carries no stack trace: it is raised on purpose, often and cheaply. */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
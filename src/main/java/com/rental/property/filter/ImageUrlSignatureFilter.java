@@ -0,0 +1,46 @@
+package com.rental.property.filter;
+import com.rental.property.util.ImageUrlSigner;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+/**
+ * Checks signed image URLs ahead of {@link JwtAuthenticationFilter}. A valid one is marked on the request so the
+ * JWT filter skips its user lookup; an unsigned, forged or expired one is refused, so an image can only be fetched
+ * through a link the API handed out.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ImageUrlSignatureFilter extends OncePerRequestFilter {
+    /** Set to the URL's expiry, in epoch seconds, once the signature has been checked. */
+    public static final String VERIFIED_EXPIRY = ImageUrlSignatureFilter.class.getName() + ".EXPIRY";
+    private static final String IMAGE_PATH_PREFIX = "/api/v1/public/properties/";
+    private final ImageUrlSigner signer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+                || !request.getRequestURI().startsWith(IMAGE_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String expires = request.getParameter(ImageUrlSigner.EXPIRES_PARAM);
+        if (!signer.isValid(request.getRequestURI(), request.getParameter("v"), expires,
+                request.getParameter(ImageUrlSigner.SIGNATURE_PARAM))) {
+            log.debug("Rejecting image URL with a missing, bad or expired signature: {}", request.getRequestURI());
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Image link is invalid or has expired");
+            return;
+        }
+        request.setAttribute(VERIFIED_EXPIRY, Long.parseLong(expires));
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,6 +1,10 @@
 package com.rental.property.filter;
+import com.rental.property.dto.CustomUserDetails;
 import com.rental.property.service.CustomUserDetailsService;
+import com.rental.property.service.TokenRevocationService;
+import com.rental.property.service.TokenVersionService;
 import com.rental.property.util.JwtUtil;
+import com.rental.property.util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,33 +24,55 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
+
+    // A signed image URL stands in for the token, so image fetches never reach the user table.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY) != null;
+    }
+
     @Override
     public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        VerifiedToken token = null;
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(token);
+                token = jwtUtil.verify(authHeader.substring(7));
             } catch (Exception e) {
-                log.error("Error extracting username from token: {}", e.getMessage());
+                log.error("Error verifying token: {}", e.getMessage());
             }
         } else {
             log.debug("No Authorization header or invalid format for request: {}", request.getRequestURI());
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
+        if (token != null && token.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String username = token.getSubject();
+            CustomUserDetails principal = JwtUtil.toUserDetails(token);
+            UserDetails userDetails;
+            boolean valid;
+            // Signature and expiry were checked by verify; only revocation is left, this token's or all the user's.
+            if (tokenRevocationService.isRevoked(token.getTokenId())) {
+                userDetails = null;
+                valid = false;
+            } else if (principal != null) {
+                userDetails = principal;
+                valid = tokenVersionService.isCurrent(principal.getUserId(), principal.getTokenVersion());
+            } else {
+                // Issued before tokens carried the user id and roles.
+                userDetails = userDetailsService.loadUserByUsername(username);
+                valid = username.equals(userDetails.getUsername());
+            }
+            if (valid) {
                 UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(userDetails, token, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 log.debug("Authenticated user: {} for request: {}", username, request.getRequestURI());
             } else {
-                log.warn("Invalid JWT token for user: {}", username);
+                log.warn("Invalid or revoked JWT token for user: {}", username);
             }
         }
         filterChain.doFilter(request, response);
@@ -0,0 +1,42 @@
+package com.rental.property.geo;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * Fixed lat/lon grid used to bucket properties so a radius query only visits the cells its bounding box overlaps.
+ */
+public final class GeoGrid {
+    // 0.05 degrees is roughly 5.5 km of latitude, about the spread of a city pin-code area.
+    static final double CELL_DEGREES = 0.05;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final int OFFSET = 1 << 16;
+    private GeoGrid() {
+    }
+    public static long cellOf(GeoPoint point) {
+        return key(row(point.getLatitude()), column(point.getLongitude()));
+    }
+    public static List<Long> cellsWithin(GeoPoint center, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(center.getLatitude())), 0.01);
+        double lonDelta = Math.min(radiusKm / (KM_PER_DEGREE * cosLat), 180);
+        int minRow = row(Math.max(center.getLatitude() - latDelta, -90));
+        int maxRow = row(Math.min(center.getLatitude() + latDelta, 90));
+        int minColumn = column(center.getLongitude() - lonDelta);
+        int maxColumn = column(center.getLongitude() + lonDelta);
+        List<Long> cells = new ArrayList<>((maxRow - minRow + 1) * (maxColumn - minColumn + 1));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                cells.add(key(row, column));
+            }
+        }
+        return cells;
+    }
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+    private static int column(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+    private static long key(int row, int column) {
+        return ((long) (row + OFFSET) << 32) | (column + OFFSET);
+    }
+}
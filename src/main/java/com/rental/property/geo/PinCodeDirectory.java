@@ -0,0 +1,57 @@
+package com.rental.property.geo;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+/**
+ * Pin-code centroid table loaded from a local CSV of {@code pin_code,latitude,longitude} rows.
+ */
+@Slf4j
+@Component
+public class PinCodeDirectory {
+    @Value("${renthub.geo.pincode-centroids:classpath:geo/pincode-centroids.csv}")
+    private Resource centroids;
+    private Map<Long, GeoPoint> centroidsByPinCode = Map.of();
+
+    @PostConstruct
+    public void load() {
+        Map<Long, GeoPoint> loaded = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(centroids.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || !Character.isDigit(line.charAt(0))) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                loaded.put(Long.valueOf(columns[0].trim()),
+                        new GeoPoint(Double.parseDouble(columns[1].trim()), Double.parseDouble(columns[2].trim())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read pin-code centroids from " + centroids, e);
+        }
+        centroidsByPinCode = Map.copyOf(loaded);
+        log.info("Loaded {} pin-code centroids", centroidsByPinCode.size());
+    }
+
+    public Optional<GeoPoint> locate(Long pinCode) {
+        return pinCode == null ? Optional.empty() : Optional.ofNullable(centroidsByPinCode.get(pinCode));
+    }
+
+    public Set<Long> pinCodesWithin(GeoPoint center, double radiusKm) {
+        Set<Long> pinCodes = new HashSet<>();
+        centroidsByPinCode.forEach((pinCode, point) -> {
+            if (center.distanceKm(point) <= radiusKm) {
+                pinCodes.add(pinCode);
+            }
+        });
+        return pinCodes;
+    }
+}
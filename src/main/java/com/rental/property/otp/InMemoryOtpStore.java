@@ -0,0 +1,262 @@
+package com.rental.property.otp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+/**
+ * Codes held in this instance only, for single-node deployments. Checks read a concurrent map without locking.
+ * Expiry runs on a hierarchical timing wheel, so each tick only touches the codes that are due and scheduling or
+ * cancelling a code is O(1). Past {@code max-entries} the code closest to expiry is evicted, so memory stays
+ * bounded however many resets are requested.
+ */
+@Component
+@ConditionalOnProperty(name = "renthub.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+    private final Map<String, Code> codes = new ConcurrentHashMap<>();
+    private final Wheel wheel = new Wheel();
+    private final OtpHasher hasher;
+    private final int maxAttempts;
+    private final int maxEntries;
+    private final long tickNanos;
+    private final LongSupplier nanoTime;
+    private final long origin;
+    private final Counter evictions;
+
+    @Autowired
+    public InMemoryOtpStore(OtpHasher hasher, MeterRegistry meterRegistry,
+                            @Value("${renthub.otp.max-attempts:5}") int maxAttempts,
+                            @Value("${renthub.otp.memory.max-entries:100000}") int maxEntries,
+                            @Value("${renthub.otp.memory.tick:PT1S}") Duration tick) {
+        this(hasher, meterRegistry, maxAttempts, maxEntries, tick, System::nanoTime);
+    }
+
+    public InMemoryOtpStore(OtpHasher hasher, MeterRegistry meterRegistry, int maxAttempts, int maxEntries,
+                            Duration tick, LongSupplier nanoTime) {
+        this.hasher = hasher;
+        this.maxAttempts = maxAttempts;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.tickNanos = Math.max(1, tick.toNanos());
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+        this.evictions = Counter.builder("renthub.otp.evicted")
+                .description("Codes dropped before expiry because the store was full")
+                .register(meterRegistry);
+        Gauge.builder("renthub.otp.codes", codes, Map::size)
+                .description("One-time passwords held in memory").register(meterRegistry);
+    }
+
+    @Override
+    public void save(String key, String otp, Duration ttl) {
+        Code code = new Code(key, hasher.hash(key, otp), nanoTime.getAsLong() + ttl.toNanos());
+        synchronized (wheel) {
+            Code previous = codes.put(key, code);
+            if (previous != null) {
+                wheel.unlink(previous);
+            }
+            wheel.schedule(code, tickOf(code.expiresAt) + 1);
+            while (codes.size() > maxEntries) {
+                Code victim = wheel.soonest();
+                wheel.unlink(victim);
+                codes.remove(victim.key, victim);
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public Result verify(String key, String otp) {
+        Code code = key == null ? null : codes.get(key);
+        if (code == null) {
+            return Result.INVALID;
+        }
+        if (nanoTime.getAsLong() - code.expiresAt >= 0) {
+            remove(code);
+            return Result.EXPIRED;
+        }
+        if (code.attempts.incrementAndGet() > maxAttempts) {
+            remove(code);
+            return Result.EXHAUSTED;
+        }
+        return hasher.matches(code.hash, key, otp) ? Result.VALID : Result.INVALID;
+    }
+
+    @Override
+    public void remove(String key) {
+        synchronized (wheel) {
+            Code code = codes.remove(key);
+            if (code != null) {
+                wheel.unlink(code);
+            }
+        }
+    }
+
+    /** Drops the codes whose time is up. */
+    @Scheduled(fixedDelayString = "${renthub.otp.memory.tick:PT1S}")
+    public void expire() {
+        long now = tickOf(nanoTime.getAsLong());
+        synchronized (wheel) {
+            wheel.advance(now, code -> codes.remove(code.key, code));
+        }
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    private void remove(Code code) {
+        synchronized (wheel) {
+            if (codes.remove(code.key, code)) {
+                wheel.unlink(code);
+            }
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return Math.floorDiv(nanos - origin, tickNanos);
+    }
+
+    private static final class Code {
+        private final String key;
+        private final String hash;
+        private final long expiresAt;
+        private final AtomicInteger attempts = new AtomicInteger();
+        // Wheel bookkeeping, guarded by the wheel's lock.
+        private long deadline;
+        private int level = -1;
+        private int slot;
+        private Code prev;
+        private Code next;
+
+        Code(String key, String hash, long expiresAt) {
+            this.key = key;
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Three levels of 64 slots: level 0 holds codes due within 64 ticks, one slot per tick; level 1 codes due within
+     * 64^2 ticks, one slot per 64 ticks; level 2 within 64^3. Whenever level 0 wraps, the next level 1 slot is
+     * cascaded down (and likewise level 2 into level 1), so every code reaches a level 0 slot on its deadline tick.
+     */
+    private static final class Wheel {
+        private static final int BITS = 6;
+        private static final int SLOTS = 1 << BITS;
+        private static final int MASK = SLOTS - 1;
+        private static final int LEVELS = 3;
+        private static final long SPAN = 1L << (BITS * LEVELS);
+        private final Code[][] slots = new Code[LEVELS][SLOTS];
+        private long current;
+
+        void schedule(Code code, long deadline) {
+            code.deadline = Math.max(deadline, current + 1);
+            // Beyond the top level's span a code is parked in its farthest slot and filed again when that cascades.
+            long at = Math.min(code.deadline, current + SPAN - 1);
+            long delta = at - current;
+            int level = 0;
+            while (delta >= 1L << (BITS * (level + 1))) {
+                level++;
+            }
+            link(code, level, (int) ((at >>> (BITS * level)) & MASK));
+        }
+
+        void advance(long target, Consumer<Code> onExpired) {
+            while (current < target) {
+                current++;
+                int index = (int) (current & MASK);
+                if (index == 0) {
+                    int index1 = (int) ((current >>> BITS) & MASK);
+                    cascade(1, index1);
+                    if (index1 == 0) {
+                        cascade(2, (int) ((current >>> (2 * BITS)) & MASK));
+                    }
+                }
+                Code code = detach(0, index);
+                while (code != null) {
+                    Code next = code.next;
+                    code.next = null;
+                    if (code.deadline <= current) {
+                        onExpired.accept(code);
+                    } else {
+                        schedule(code, code.deadline);
+                    }
+                    code = next;
+                }
+            }
+        }
+
+        /** A code due in the earliest occupied slot; exact within level 0, to the slot's span above it. */
+        Code soonest() {
+            for (int level = 0; level < LEVELS; level++) {
+                long base = current >>> (BITS * level);
+                for (int i = 1; i <= SLOTS; i++) {
+                    Code head = slots[level][(int) ((base + i) & MASK)];
+                    if (head != null) {
+                        return head;
+                    }
+                }
+            }
+            throw new IllegalStateException("The timing wheel is empty");
+        }
+
+        void unlink(Code code) {
+            if (code.level < 0) {
+                return;
+            }
+            if (code.prev == null) {
+                slots[code.level][code.slot] = code.next;
+            } else {
+                code.prev.next = code.next;
+            }
+            if (code.next != null) {
+                code.next.prev = code.prev;
+            }
+            code.prev = null;
+            code.next = null;
+            code.level = -1;
+        }
+
+        private void link(Code code, int level, int slot) {
+            Code head = slots[level][slot];
+            code.level = level;
+            code.slot = slot;
+            code.prev = null;
+            code.next = head;
+            if (head != null) {
+                head.prev = code;
+            }
+            slots[level][slot] = code;
+        }
+
+        private void cascade(int level, int slot) {
+            Code code = detach(level, slot);
+            while (code != null) {
+                Code next = code.next;
+                code.next = null;
+                schedule(code, code.deadline);
+                code = next;
+            }
+        }
+
+        /** Empties a slot and returns its former list, whose codes are no longer on the wheel. */
+        private Code detach(int level, int slot) {
+            Code head = slots[level][slot];
+            slots[level][slot] = null;
+            for (Code code = head; code != null; code = code.next) {
+                code.level = -1;
+                code.prev = null;
+            }
+            return head;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.rental.property.otp;
+import com.rental.property.entity.OtpCode;
+import com.rental.property.repo.OtpCodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+/**
+ * Codes in the {@code otp_code} table, so a code sent by one instance can be redeemed on any other. An attempt is
+ * taken with a conditional update before the code is compared, so parallel guesses cannot exceed the limit.
+ * Expired rows are purged in batches, each its own short transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "renthub.otp.store", havingValue = "jdbc")
+@Slf4j
+public class JdbcOtpStore implements OtpStore {
+    private final OtpCodeRepository repository;
+    private final OtpHasher hasher;
+    private final int maxAttempts;
+    private final int purgeBatchSize;
+
+    public JdbcOtpStore(OtpCodeRepository repository, OtpHasher hasher,
+                        @Value("${renthub.otp.max-attempts:5}") int maxAttempts,
+                        @Value("${renthub.otp.jdbc.purge-batch-size:500}") int purgeBatchSize) {
+        this.repository = repository;
+        this.hasher = hasher;
+        this.maxAttempts = maxAttempts;
+        this.purgeBatchSize = Math.max(1, purgeBatchSize);
+    }
+
+    @Override
+    @Transactional
+    public void save(String key, String otp, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(OtpCode.builder()
+                .key(key)
+                .codeHash(hasher.hash(key, otp))
+                .attempts(0)
+                .expiresAt(now.plus(ttl))
+                .createdAt(now)
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public Result verify(String key, String otp) {
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.claimAttempt(key, maxAttempts, now) == 1) {
+            return repository.findById(key)
+                    .filter(code -> hasher.matches(code.getCodeHash(), key, otp))
+                    .map(code -> Result.VALID)
+                    .orElse(Result.INVALID);
+        }
+        OtpCode code = repository.findById(key).orElse(null);
+        if (code == null) {
+            return Result.INVALID;
+        }
+        repository.delete(code);
+        return code.getExpiresAt().isAfter(now) ? Result.EXHAUSTED : Result.EXPIRED;
+    }
+
+    @Override
+    @Transactional
+    public void remove(String key) {
+        repository.deleteById(key);
+    }
+
+    @Scheduled(fixedDelayString = "${renthub.otp.jdbc.purge-interval:PT5M}",
+            initialDelayString = "${renthub.otp.jdbc.purge-interval:PT5M}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        List<String> keys;
+        do {
+            keys = repository.findExpiredKeys(now, PageRequest.of(0, purgeBatchSize));
+            if (!keys.isEmpty()) {
+                repository.deleteAllByIdInBatch(keys);
+                purged += keys.size();
+            }
+        } while (keys.size() == purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired one-time passwords", purged);
+        }
+        return purged;
+    }
+}
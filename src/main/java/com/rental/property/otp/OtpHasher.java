@@ -0,0 +1,29 @@
+package com.rental.property.otp;
+import com.rental.property.util.KeyedHmac;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+/**
+ * Keyed digests of one-time passwords, so stores never hold a usable code. The key is bound in, so a digest copied
+ * onto another account's row does not verify there.
+ */
+@Component
+public class OtpHasher {
+    private final KeyedHmac hmac;
+
+    public OtpHasher(@Value("${renthub.otp.hash-secret:${jwt.secret}}") String secret) {
+        this.hmac = KeyedHmac.forPurpose(secret, "renthub-otp");
+    }
+
+    public String hash(String key, String otp) {
+        return HexFormat.of().formatHex(hmac.sign(key + '\0' + otp));
+    }
+
+    /** Compares in constant time. */
+    public boolean matches(String hash, String key, String otp) {
+        return otp != null && MessageDigest.isEqual(hash.getBytes(StandardCharsets.US_ASCII),
+                hash(key, otp).getBytes(StandardCharsets.US_ASCII));
+    }
+}
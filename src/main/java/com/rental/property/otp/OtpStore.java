@@ -0,0 +1,16 @@
+package com.rental.property.otp;
+import java.time.Duration;
+/**
+ * One-time passwords waiting to be redeemed, keyed by the account they were sent to. Every check takes one of the
+ * code's attempts, right or wrong, and a code that runs out of attempts or time is gone.
+ */
+public interface OtpStore {
+    enum Result { VALID, INVALID, EXPIRED, EXHAUSTED }
+
+    /** Stores a code, replacing any earlier code for the same key along with its used attempts. */
+    void save(String key, String otp, Duration ttl);
+
+    Result verify(String key, String otp);
+
+    void remove(String key);
+}
@@ -0,0 +1,27 @@
+package com.rental.property.ratelimit;
+import lombok.Getter;
+import java.time.Duration;
+/**
+ * The throttled operations and their defaults: a bucket holds {@code capacity} attempts and refills completely
+ * over {@code refillPeriod}. Each can be overridden with {@code renthub.rate-limit.<key>.capacity} and
+ * {@code renthub.rate-limit.<key>.refill-period}.
+ */
+@Getter
+public enum RateLimit {
+    LOGIN_IP("login.ip", 30, Duration.ofMinutes(1)),
+    LOGIN_USERNAME("login.username", 10, Duration.ofMinutes(5)),
+    OTP_SEND_IP("otp-send.ip", 10, Duration.ofMinutes(15)),
+    OTP_SEND_IDENTIFIER("otp-send.identifier", 3, Duration.ofMinutes(15)),
+    OTP_VERIFY_IP("otp-verify.ip", 30, Duration.ofMinutes(15)),
+    OTP_VERIFY_EMAIL("otp-verify.email", 5, Duration.ofMinutes(15));
+
+    private final String key;
+    private final int defaultCapacity;
+    private final Duration defaultRefillPeriod;
+
+    RateLimit(String key, int defaultCapacity, Duration defaultRefillPeriod) {
+        this.key = key;
+        this.defaultCapacity = defaultCapacity;
+        this.defaultRefillPeriod = defaultRefillPeriod;
+    }
+}
@@ -0,0 +1,174 @@
+package com.rental.property.ratelimit;
+import com.rental.property.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+/**
+ * In-process token buckets for the unauthenticated endpoints that are expensive to serve: login (BCrypt) and the
+ * password reset flow (SMTP, OTP guessing). Buckets live in lock stripes, each an LRU map capped at its share of
+ * {@code max-buckets}, so memory stays bounded however many keys an attacker invents. A full bucket carries no
+ * state, so idle ones are swept away. Limits are per instance: with N instances a caller gets N times the budget.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+    private final Map<RateLimit, Limit> limits = new EnumMap<>(RateLimit.class);
+    private final Map<RateLimit, Counter> rejections = new EnumMap<>(RateLimit.class);
+    private final Stripe[] stripes;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public RateLimiter(Environment environment, MeterRegistry meterRegistry,
+                       @Value("${renthub.rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${renthub.rate-limit.stripes:64}") int stripes) {
+        this(meterRegistry, maxBuckets, stripes, System::nanoTime, limit -> new Limit(
+                environment.getProperty("renthub.rate-limit." + limit.getKey() + ".capacity", Integer.class,
+                        limit.getDefaultCapacity()),
+                environment.getProperty("renthub.rate-limit." + limit.getKey() + ".refill-period", Duration.class,
+                        limit.getDefaultRefillPeriod())));
+    }
+
+    public RateLimiter(MeterRegistry meterRegistry, int maxBuckets, int stripes, LongSupplier nanoTime,
+                       Function<RateLimit, Limit> config) {
+        this.nanoTime = nanoTime;
+        int count = Integer.highestOneBit(Math.max(1, stripes));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(Math.max(1, maxBuckets / count));
+        }
+        for (RateLimit limit : RateLimit.values()) {
+            limits.put(limit, config.apply(limit));
+            rejections.put(limit, Counter.builder("renthub.rate.limit.rejected")
+                    .description("Requests turned away with 429")
+                    .tag("limit", limit.getKey())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("renthub.rate.limit.buckets", this, RateLimiter::size)
+                .description("Rate limit buckets held in memory").register(meterRegistry);
+    }
+
+    /** Takes one attempt from the caller's bucket, or throws {@link RateLimitExceededException} if it is empty. */
+    public void check(RateLimit limit, String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        Limit config = limits.get(limit);
+        String bucketKey = limit.ordinal() + ":" + key.trim().toLowerCase(Locale.ROOT);
+        Stripe stripe = stripes[spread(bucketKey.hashCode()) & (stripes.length - 1)];
+        long waitNanos;
+        synchronized (stripe) {
+            long now = nanoTime.getAsLong();
+            Bucket bucket = stripe.computeIfAbsent(bucketKey, k -> new Bucket(config.capacity, now));
+            waitNanos = bucket.tryTake(config, now);
+        }
+        if (waitNanos > 0) {
+            rejections.get(limit).increment();
+            long retryAfter = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            log.debug("Rate limit {} exceeded for {}, retry in {}s", limit.getKey(), key, retryAfter);
+            throw new RateLimitExceededException("Too many attempts, try again later", retryAfter);
+        }
+    }
+
+    /** Drops buckets that have refilled completely; they are indistinguishable from a fresh one. */
+    @Scheduled(fixedDelayString = "${renthub.rate-limit.sweep-interval:PT1M}")
+    public void evictIdle() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                long now = nanoTime.getAsLong();
+                for (Iterator<Map.Entry<String, Bucket>> it = stripe.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Bucket> entry = it.next();
+                    Limit config = limits.get(RateLimit.values()[limitOf(entry.getKey())]);
+                    if (entry.getValue().isFull(config, now)) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static int limitOf(String bucketKey) {
+        return Integer.parseInt(bucketKey.substring(0, bucketKey.indexOf(':')));
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    public static final class Limit {
+        private final int capacity;
+        private final double tokensPerNano;
+
+        public Limit(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updatedAt = now;
+        }
+
+        /** Returns 0 if a token was taken, otherwise how long until one is available. */
+        long tryTake(Limit limit, long now) {
+            refill(limit, now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / limit.tokensPerNano);
+        }
+
+        boolean isFull(Limit limit, long now) {
+            refill(limit, now);
+            return tokens >= limit.capacity;
+        }
+
+        private void refill(Limit limit, long now) {
+            tokens = Math.min(limit.capacity, tokens + (now - updatedAt) * limit.tokensPerNano);
+            updatedAt = now;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxBuckets;
+
+        Stripe(int maxBuckets) {
+            super(16, 0.75f, true);
+            this.maxBuckets = maxBuckets;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxBuckets;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.rental.property.repo;
+import com.rental.property.entity.OtpCode;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+@Repository
+public interface OtpCodeRepository extends JpaRepository<OtpCode, String> {
+    /** Takes one attempt; 0 when the code is missing, expired or out of attempts. */
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.attempts = o.attempts + 1 "
+            + "WHERE o.key = :key AND o.attempts < :maxAttempts AND o.expiresAt > :now")
+    int claimAttempt(@Param("key") String key, @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+    @Query("SELECT o.key FROM OtpCode o WHERE o.expiresAt <= :now")
+    List<String> findExpiredKeys(@Param("now") LocalDateTime now, Pageable page);
+}
@@ -0,0 +1,52 @@
+package com.rental.property.repo;
+import com.rental.property.entity.OutboxEmail;
+import com.rental.property.enums.OutboxEmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+    @Query("SELECT e.id FROM OutboxEmail e WHERE e.status = :status AND e.nextAttemptAt <= :now "
+            + "AND (e.leaseUntil IS NULL OR e.leaseUntil < :now) ORDER BY e.nextAttemptAt, e.id")
+    List<Long> findDueIds(@Param("status") OutboxEmailStatus status, @Param("now") LocalDateTime now, Pageable page);
+    /** Leases the rows nobody else leased in the meantime; read them back with {@link #findByLeaseOwner}. */
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.leaseOwner = :owner, e.leaseUntil = :leaseUntil "
+            + "WHERE e.id IN :ids AND e.status = :status AND (e.leaseUntil IS NULL OR e.leaseUntil < :now)")
+    int lease(@Param("ids") Collection<Long> ids, @Param("status") OutboxEmailStatus status,
+              @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("now") LocalDateTime now);
+    List<OutboxEmail> findByLeaseOwner(String leaseOwner);
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = :status, e.sentAt = :sentAt, e.body = NULL, e.lastError = NULL, "
+            + "e.leaseOwner = NULL, e.leaseUntil = NULL WHERE e.id IN :ids AND e.leaseOwner = :owner")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                 @Param("status") OutboxEmailStatus status, @Param("sentAt") LocalDateTime sentAt);
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :error, e.leaseOwner = NULL, e.leaseUntil = NULL WHERE e.id = :id AND e.leaseOwner = :owner")
+    int markFailed(@Param("id") Long id, @Param("owner") String owner, @Param("status") OutboxEmailStatus status,
+                   @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = :status, e.attempts = :attempts, e.body = NULL, e.lastError = :error, "
+            + "e.leaseOwner = NULL, e.leaseUntil = NULL WHERE e.id = :id AND e.leaseOwner = :owner")
+    int markDead(@Param("id") Long id, @Param("owner") String owner, @Param("status") OutboxEmailStatus status,
+                 @Param("attempts") int attempts, @Param("error") String error);
+    /** Gives up on unleased mail past its {@code notAfter}, whether it is due now or waiting out a backoff. */
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = :dead, e.body = NULL, e.lastError = :error, e.leaseOwner = NULL, "
+            + "e.leaseUntil = NULL WHERE e.status = :pending AND e.notAfter < :now "
+            + "AND (e.leaseUntil IS NULL OR e.leaseUntil < :now)")
+    int expire(@Param("pending") OutboxEmailStatus pending, @Param("dead") OutboxEmailStatus dead,
+               @Param("now") LocalDateTime now, @Param("error") String error);
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e WHERE e.status <> :pending AND e.createdAt < :cutoff")
+    int deleteFinishedBefore(@Param("pending") OutboxEmailStatus pending, @Param("cutoff") LocalDateTime cutoff);
+}
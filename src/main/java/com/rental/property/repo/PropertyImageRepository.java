@@ -0,0 +1,18 @@
+package com.rental.property.repo;
+import com.rental.property.entity.PropertyImage;
+import com.rental.property.storage.ImageRef;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface PropertyImageRepository extends JpaRepository<PropertyImage, Long> {
+    @Query("SELECT NEW com.rental.property.storage.ImageRef(i.hash, i.contentType, i.size) FROM PropertyImage i " +
+            "WHERE i.property.propertyId = :propertyId AND i.position = :position")
+    Optional<ImageRef> findImageRef(@Param("propertyId") Long propertyId, @Param("position") int position);
+    List<PropertyImage> findByProperty_PropertyIdOrderByPosition(Long propertyId);
+    @Query("SELECT COALESCE(MAX(i.position), 0) FROM PropertyImage i WHERE i.property.propertyId = :propertyId")
+    int findLastPosition(@Param("propertyId") Long propertyId);
+}
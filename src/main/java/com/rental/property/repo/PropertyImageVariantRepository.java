@@ -0,0 +1,17 @@
+package com.rental.property.repo;
+import com.rental.property.entity.PropertyImageVariant;
+import com.rental.property.enums.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+@Repository
+public interface PropertyImageVariantRepository extends JpaRepository<PropertyImageVariant, Long> {
+    Optional<PropertyImageVariant> findByPropertyIdAndVariant(Long propertyId, ImageVariant variant);
+    boolean existsByPropertyIdAndSourceHash(Long propertyId, String sourceHash);
+    @Modifying
+    @Query("DELETE FROM PropertyImageVariant v WHERE v.propertyId = :propertyId")
+    int deleteByPropertyId(@Param("propertyId") Long propertyId);
+}
@@ -1,21 +1,81 @@
 package com.rental.property.repo;
 import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
+import com.rental.property.search.FacetGroup;
+import com.rental.property.search.LocalityGroup;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.storage.ImageRef;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 @Repository
-public interface PropertyRepository  extends JpaRepository<Property,Long> {
-    @Query("SELECT p FROM Property p WHERE " +
-            "(:city IS NULL OR LOWER(p.address.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
-            "(:minPrice IS NULL OR p.rentAmount >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR p.rentAmount <= :maxPrice) AND " +
-            "(:bhk IS NULL OR p.bhk = :bhk)")
-    List<Property> searchProperties(String city, String maxPrice, String minPrice, String bhk);
-    @Query("SELECT p from Property  p where p.user.id=:id")
-    Page<Property> findPropertyByOwnerId(Long id, Pageable page);
+public interface PropertyRepository  extends JpaRepository<Property,Long>, JpaSpecificationExecutor<Property>,
+        PropertyRepositoryCustom {
+    String DOCUMENT = "NEW com.rental.property.search.PropertyDocument(p.propertyId, p.landlordId, p.address.streetName, " +
+            "p.address.city, p.address.state, p.address.pinCode, p.propertyType, p.bhk, p.rentAmount, " +
+            "p.availabilityStatus, p.description, p.createdDate, p.imageHash)";
+    // The bands of PropertyFacetServiceImpl.rentBand, so the reconcile query returns one row per facet combination.
+    String RENT_BAND = "CASE WHEN p.rentAmount < 10000 THEN '0-10000' WHEN p.rentAmount < 20000 THEN '10000-20000' " +
+            "WHEN p.rentAmount < 30000 THEN '20000-30000' WHEN p.rentAmount < 50000 THEN '30000-50000' ELSE '50000+' END";
+    @Query(value = "SELECT " + DOCUMENT + " FROM Property p WHERE p.user.id = :id",
+            countQuery = "SELECT COUNT(p) FROM Property p WHERE p.user.id = :id")
+    Page<PropertyDocument> findDocumentsByOwnerId(@Param("id") Long id, Pageable page);
+    @Query("SELECT " + DOCUMENT + " FROM Property p WHERE p.propertyId > :afterId ORDER BY p.propertyId")
+    List<PropertyDocument> findDocumentsAfter(@Param("afterId") Long afterId, Limit limit);
+    @Query("SELECT " + DOCUMENT + " FROM Property p ORDER BY p.propertyId")
+    List<PropertyDocument> findAllDocuments();
+    @Query("SELECT " + DOCUMENT + " FROM Property p WHERE p.propertyId IN :ids")
+    List<PropertyDocument> findDocumentsByIds(@Param("ids") Collection<Long> ids);
+    @Query("SELECT " + DOCUMENT + " FROM RentalTransaction r JOIN r.property p " +
+            "WHERE r.user.id = :tenantId AND r.status = 'Completed' AND p.availabilityStatus = 'Rented'")
+    List<PropertyDocument> findRentedDocumentsByTenantId(@Param("tenantId") Long tenantId);
+    // Held while a listing's images are numbered, so two uploads cannot take the same position.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Property p WHERE p.propertyId = :propertyId")
+    Optional<Property> findByIdForUpdate(@Param("propertyId") Long propertyId);
+    @Query("SELECT p.image1 FROM Property p WHERE p.propertyId = :propertyId")
+    Optional<byte[]> findImageById(@Param("propertyId") Long propertyId);
+    @Query("SELECT NEW com.rental.property.storage.ImageRef(p.imageHash, p.imageContentType, p.imageSize) " +
+            "FROM Property p WHERE p.propertyId = :propertyId")
+    Optional<ImageRef> findImageRefById(@Param("propertyId") Long propertyId);
+    @Query("SELECT p.propertyId FROM Property p WHERE p.imageHash IS NOT NULL AND p.propertyId > :afterId AND NOT EXISTS " +
+            "(SELECT v.id FROM PropertyImageVariant v WHERE v.propertyId = p.propertyId AND v.sourceHash = p.imageHash) " +
+            "AND (p.variantFailedHash IS NULL OR p.variantFailedHash <> p.imageHash OR p.variantAttempts < :maxAttempts) " +
+            "ORDER BY p.propertyId")
+    List<Long> findIdsWithoutImageVariants(@Param("afterId") Long afterId, @Param("maxAttempts") int maxAttempts,
+                                           Limit limit);
+    @Modifying
+    @Query("UPDATE Property p SET p.variantAttempts = CASE WHEN p.variantFailedHash = :hash " +
+            "THEN p.variantAttempts + 1 ELSE 1 END, p.variantFailedHash = :hash, p.variantFailedAt = :failedAt " +
+            "WHERE p.propertyId = :propertyId")
+    int recordVariantFailure(@Param("propertyId") Long propertyId, @Param("hash") String hash,
+                             @Param("failedAt") LocalDateTime failedAt);
+    @Query("SELECT p.propertyId FROM Property p WHERE p.image1 IS NOT NULL AND p.propertyId > :afterId ORDER BY p.propertyId")
+    List<Long> findIdsWithLegacyImage(@Param("afterId") Long afterId, Limit limit);
+    @Modifying
+    @Query("UPDATE Property p SET p.imageHash = :hash, p.imageContentType = :contentType, p.imageSize = :size, " +
+            "p.image1 = NULL, p.version = p.version + 1 WHERE p.propertyId = :propertyId")
+    int moveImageToBlobStore(@Param("propertyId") Long propertyId, @Param("hash") String hash,
+                             @Param("contentType") String contentType, @Param("size") Long size);
+    @Query("SELECT NEW com.rental.property.search.FacetGroup(p.address.city, p.bhk, p.propertyType, " + RENT_BAND +
+            ", COUNT(p)) FROM Property p WHERE p.availabilityStatus = :status " +
+            "GROUP BY p.address.city, p.bhk, p.propertyType, " + RENT_BAND)
+    List<FacetGroup> countAvailableByFacets(@Param("status") String status);
+    @Query("SELECT NEW com.rental.property.search.LocalityGroup(p.address.city, p.address.state, p.address.streetName, COUNT(p)) " +
+            "FROM Property p WHERE p.availabilityStatus = :status " +
+            "GROUP BY p.address.city, p.address.state, p.address.streetName")
+    List<LocalityGroup> countAvailableByLocality(@Param("status") String status);
 
 }
@@ -0,0 +1,9 @@
+package com.rental.property.repo;
+import com.rental.property.entity.Property;
+import com.rental.property.search.PropertyDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
+public interface PropertyRepositoryCustom {
+    List<PropertyDocument> findDocuments(Specification<Property> specification, Pageable pageable);
+}
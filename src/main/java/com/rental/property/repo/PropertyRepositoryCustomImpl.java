@@ -0,0 +1,44 @@
+package com.rental.property.repo;
+import com.rental.property.entity.Address;
+import com.rental.property.entity.Property;
+import com.rental.property.search.PropertyDocument;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import java.util.List;
+/**
+ * Specification queries that select the listing columns straight into {@link PropertyDocument}, so the
+ * image blob on {@link Property} is never read for list views.
+ */
+@RequiredArgsConstructor
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+    private final EntityManager entityManager;
+    @Override
+    public List<PropertyDocument> findDocuments(Specification<Property> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PropertyDocument> query = cb.createQuery(PropertyDocument.class);
+        Root<Property> root = query.from(Property.class);
+        Path<Address> address = root.get("address");
+        query.select(cb.construct(PropertyDocument.class, root.get("propertyId"), root.get("landlordId"),
+                address.get("streetName"), address.get("city"), address.get("state"), address.get("pinCode"),
+                root.get("propertyType"), root.get("bhk"), root.get("rentAmount"), root.get("availabilityStatus"),
+                root.get("description"), root.get("createdDate"), root.get("imageHash")));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<PropertyDocument> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+}
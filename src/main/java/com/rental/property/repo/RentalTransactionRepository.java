@@ -1,5 +1,6 @@
 package com.rental.property.repo;
 import com.rental.property.dto.RentalTransactionResponseDto;
+import com.rental.property.dto.RentalTransactionView;
 import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
 import com.rental.property.entity.User;
@@ -16,5 +17,14 @@ public interface RentalTransactionRepository extends JpaRepository<RentalTransac
     List<RentalTransaction> findByLandLordId(Long landlordId);
 
     List<RentalTransaction> findByUser(User user);
+    String VIEW = "NEW com.rental.property.dto.RentalTransactionView(rt.transactionId, p.propertyId, " +
+            "p.address.streetName, p.address.city, p.address.state, p.address.pinCode, p.bhk, p.description, " +
+            "rt.status, rt.startDate, rt.endDate, u.username, u.mobileNo, p.imageHash)";
+    @Query("SELECT " + VIEW + " FROM RentalTransaction rt JOIN rt.property p JOIN rt.user u WHERE p.propertyId = :propertyId")
+    List<RentalTransactionView> findViewsByPropertyId(@Param("propertyId") Long propertyId);
+    @Query("SELECT " + VIEW + " FROM RentalTransaction rt JOIN rt.property p JOIN rt.user u WHERE p.user.id = :landlordId")
+    List<RentalTransactionView> findViewsByLandLordId(@Param("landlordId") Long landlordId);
+    @Query("SELECT " + VIEW + " FROM RentalTransaction rt JOIN rt.property p JOIN rt.user u WHERE u.id = :userId")
+    List<RentalTransactionView> findViewsByUserId(@Param("userId") Long userId);
 
 }
@@ -0,0 +1,17 @@
+package com.rental.property.repo;
+import com.rental.property.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Query("SELECT r FROM RevokedToken r WHERE r.createdAt >= :since AND r.expiresAt > :now")
+    List<RevokedToken> findActiveSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,9 @@
+package com.rental.property.repo;
+import com.rental.property.entity.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findAllByOrderByActivatesAtAsc();
+}
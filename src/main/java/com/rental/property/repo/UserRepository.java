@@ -1,13 +1,26 @@
 package com.rental.property.repo;
+import com.rental.property.dto.AuthUserRow;
 import com.rental.property.entity.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    @Query("SELECT new com.rental.property.dto.AuthUserRow(u.id, u.username, u.password, u.email, u.firstName, "
+            + "u.lastName, COALESCE(u.tokenVersion, 0), r.name) FROM User u LEFT JOIN u.roles r WHERE u.username = :username")
+    List<AuthUserRow> findAuthRowsByUsername(@Param("username") String username);
     Optional<User> findById(Long id);
     Optional<Object> findByEmail(@NotBlank(message = "Email cannot be blank") @Email(message = "Email should be valid") String email);
     Optional<User> findByMobileNo(Long mobileNo);
+    @Query("SELECT COALESCE(u.tokenVersion, 0) FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = COALESCE(u.tokenVersion, 0) + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
\ No newline at end of file
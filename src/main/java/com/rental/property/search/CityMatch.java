@@ -0,0 +1,6 @@
+package com.rental.property.search;
+public enum CityMatch {
+    EXACT,
+    PREFIX,
+    CONTAINS
+}
@@ -0,0 +1,12 @@
+package com.rental.property.search;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+@Value
+@AllArgsConstructor
+public class FacetGroup {
+    String city;
+    String bhk;
+    String propertyType;
+    String rentBand;
+    long count;
+}
@@ -0,0 +1,29 @@
+package com.rental.property.search;
+import java.util.Arrays;
+import java.util.BitSet;
+class IntPostingList {
+    private int[] docIds = new int[4];
+    private int size;
+    void add(int docId) {
+        if (size == docIds.length) {
+            docIds = Arrays.copyOf(docIds, size * 2);
+        }
+        docIds[size++] = docId;
+    }
+    void remove(int docId) {
+        for (int i = 0; i < size; i++) {
+            if (docIds[i] == docId) {
+                docIds[i] = docIds[--size];
+                return;
+            }
+        }
+    }
+    boolean isEmpty() {
+        return size == 0;
+    }
+    void setAll(BitSet target) {
+        for (int i = 0; i < size; i++) {
+            target.set(docIds[i]);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.rental.property.search;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.repo.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+/**
+ * City, state and locality suggestions ranked by available listings, served from a {@link LocalityTrie} that is
+ * loaded from a GROUP BY on startup, adjusted from {@link PropertyChangedEvent}s and periodically reloaded to
+ * bound drift, the same way the facet counts are kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalityAutocomplete {
+    static final String AVAILABLE = "Available";
+    private final PropertyRepository propertyRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LocalityTrie trie = new LocalityTrie();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${renthub.autocomplete.reload-interval:PT15M}",
+            initialDelayString = "${renthub.autocomplete.reload-interval:PT15M}")
+    public void reload() {
+        LocalityTrie fresh = new LocalityTrie();
+        Map<String, Long> cities = new HashMap<>();
+        Map<String, Long> states = new HashMap<>();
+        for (LocalityGroup group : propertyRepository.countAvailableByLocality(AVAILABLE)) {
+            fresh.add(LocalityType.LOCALITY, group.getStreetName(), group.getCity(), group.getCount());
+            if (group.getCity() != null) {
+                cities.merge(group.getCity(), group.getCount(), Long::sum);
+            }
+            if (group.getState() != null) {
+                states.merge(group.getState(), group.getCount(), Long::sum);
+            }
+        }
+        cities.forEach((city, count) -> fresh.add(LocalityType.CITY, city, null, count));
+        states.forEach((state, count) -> fresh.add(LocalityType.STATE, state, null, count));
+        lock.writeLock().lock();
+        try {
+            trie = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Locality autocomplete loaded with {} suggestions", fresh.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            count(event.getBefore(), -1);
+            count(event.getAfter(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<LocalitySuggestionDto> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            List<LocalitySuggestionDto> suggestions = new ArrayList<>(limit);
+            for (LocalityTrie.Entry entry : trie.suggest(prefix, limit)) {
+                suggestions.add(LocalitySuggestionDto.builder()
+                        .value(entry.value)
+                        .type(entry.type)
+                        .city(entry.city)
+                        .listings(entry.count)
+                        .build());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void count(PropertyDocument document, long delta) {
+        if (document != null && AVAILABLE.equalsIgnoreCase(document.getAvailabilityStatus())) {
+            trie.add(LocalityType.CITY, document.getCity(), null, delta);
+            trie.add(LocalityType.STATE, document.getState(), null, delta);
+            trie.add(LocalityType.LOCALITY, document.getStreetName(), document.getCity(), delta);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.rental.property.search;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+@Value
+@AllArgsConstructor
+public class LocalityGroup {
+    String city;
+    String state;
+    String streetName;
+    long count;
+}
@@ -0,0 +1,273 @@
+package com.rental.property.search;
+import java.util.*;
+/**
+ * Radix trie over normalized city, state and street names. Every entry is reachable from its full name and from
+ * each later word, so "nagar" finds "Anna Nagar". Each node caches the highest listing count in its subtree,
+ * which lets {@link #suggest} walk best-first and stop after {@code limit} entries instead of visiting the
+ * whole subtree under a short prefix.
+ */
+class LocalityTrie {
+    // Highest count first; on ties a finished entry beats a subtree that can at best equal it.
+    private static final Comparator<Object> FRONTIER_ORDER = Comparator.comparingLong(LocalityTrie::rank).reversed()
+            .thenComparing(item -> item instanceof Entry entry ? entry.value : "\uffff");
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    void add(LocalityType type, String value, String city, long delta) {
+        String key = normalize(value);
+        if (key == null || delta == 0) {
+            return;
+        }
+        String cityKey = type == LocalityType.LOCALITY ? normalize(city) : null;
+        String id = type + "\u0000" + key + "\u0000" + cityKey;
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            if (delta < 0) {
+                return;
+            }
+            entry = new Entry(type, value.trim(), type == LocalityType.LOCALITY && city != null ? city.trim() : null,
+                    keysOf(key));
+            entries.put(id, entry);
+            entry.count = delta;
+            for (String entryKey : entry.keys) {
+                insert(entryKey, entry);
+            }
+            return;
+        }
+        entry.count += delta;
+        if (entry.count > 0) {
+            for (String entryKey : entry.keys) {
+                Deque<Node> path = pathTo(entryKey);
+                if (delta > 0) {
+                    raise(path, entry.count);
+                } else {
+                    lower(path);
+                }
+            }
+            return;
+        }
+        entries.remove(id);
+        for (String entryKey : entry.keys) {
+            remove(entryKey, entry);
+        }
+    }
+
+    List<Entry> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node start = key == null ? null : find(key);
+        if (start == null) {
+            return List.of();
+        }
+        PriorityQueue<Object> frontier = new PriorityQueue<>(FRONTIER_ORDER);
+        frontier.add(start);
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entry> result = new ArrayList<>(limit);
+        while (!frontier.isEmpty() && result.size() < limit) {
+            Object next = frontier.poll();
+            if (next instanceof Entry entry) {
+                if (seen.add(entry)) {
+                    result.add(entry);
+                }
+            } else {
+                Node node = (Node) next;
+                frontier.addAll(node.entries);
+                frontier.addAll(node.children.values());
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toLowerCase(c));
+            } else if (!normalized.isEmpty() && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.isEmpty() ? null : normalized.toString();
+    }
+
+    private static long rank(Object item) {
+        return item instanceof Entry entry ? entry.count : ((Node) item).best;
+    }
+
+    private static List<String> keysOf(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (!Character.isLetterOrDigit(key.charAt(i - 1)) && Character.isLetterOrDigit(key.charAt(i))) {
+                keys.add(key.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        String rest = key;
+        while (true) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, rest);
+            if (common == rest.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            rest = rest.substring(common);
+        }
+    }
+
+    private void insert(String key, Entry entry) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        path.push(node);
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                child = new Node(rest);
+                node.children.put(rest.charAt(0), child);
+                rest = "";
+            } else {
+                int common = commonPrefix(child.label, rest);
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    split.best = child.best;
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    node.children.put(split.label.charAt(0), split);
+                    child = split;
+                }
+                rest = rest.substring(common);
+            }
+            node = child;
+            path.push(node);
+        }
+        node.entries.add(entry);
+        raise(path, entry.count);
+    }
+
+    private void remove(String key, Entry entry) {
+        Deque<Node> path = pathTo(key);
+        if (path == null) {
+            return;
+        }
+        Node node = path.pop();
+        node.entries.remove(entry);
+        while (!path.isEmpty()) {
+            Node parent = path.pop();
+            if (node.entries.isEmpty() && node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+            } else if (node.entries.isEmpty() && node.children.size() == 1) {
+                Node only = node.children.values().iterator().next();
+                only.label = node.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+            } else {
+                node.recompute();
+            }
+            node = parent;
+        }
+        node.recompute();
+    }
+
+    private static void raise(Deque<Node> path, long count) {
+        for (Node node : path) {
+            if (node.best >= count) {
+                return;
+            }
+            node.best = count;
+        }
+    }
+
+    private static void lower(Deque<Node> path) {
+        for (Node node : path) {
+            long previous = node.best;
+            node.recompute();
+            if (node.best == previous) {
+                return;
+            }
+        }
+    }
+
+    private Deque<Node> pathTo(String key) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        path.push(node);
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null || !rest.startsWith(child.label)) {
+                return null;
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.push(node);
+        }
+        return path;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    static final class Entry {
+        final LocalityType type;
+        final String value;
+        final String city;
+        final List<String> keys;
+        long count;
+
+        Entry(LocalityType type, String value, String city, List<String> keys) {
+            this.type = type;
+            this.value = value;
+            this.city = city;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<Entry> entries = new ArrayList<>(1);
+        private long best;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void recompute() {
+            long max = 0;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.count);
+            }
+            for (Node child : children.values()) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+}
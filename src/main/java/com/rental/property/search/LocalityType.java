@@ -0,0 +1,4 @@
+package com.rental.property.search;
+public enum LocalityType {
+    CITY, STATE, LOCALITY
+}
@@ -0,0 +1,7 @@
+package com.rental.property.search;
+import lombok.Value;
+@Value
+public class NearbyProperty {
+    Long propertyId;
+    double distanceKm;
+}
@@ -0,0 +1,43 @@
+package com.rental.property.search;
+import com.rental.property.entity.Property;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import java.time.LocalDateTime;
+@Value
+@Builder
+@AllArgsConstructor
+public class PropertyDocument {
+    Long propertyId;
+    Long landlordId;
+    String streetName;
+    String city;
+    String state;
+    Long pinCode;
+    String propertyType;
+    String bhk;
+    double rentAmount;
+    String availabilityStatus;
+    String description;
+    LocalDateTime createdDate;
+    String imageHash;
+    public static PropertyDocument from(Property property) {
+        PropertyDocumentBuilder builder = PropertyDocument.builder()
+                .propertyId(property.getPropertyId())
+                .landlordId(property.getLandlordId())
+                .propertyType(property.getPropertyType())
+                .bhk(property.getBhk())
+                .rentAmount(property.getRentAmount())
+                .availabilityStatus(property.getAvailabilityStatus())
+                .description(property.getDescription())
+                .createdDate(property.getCreatedDate())
+                .imageHash(property.getImageHash());
+        if (property.getAddress() != null) {
+            builder.streetName(property.getAddress().getStreetName())
+                    .city(property.getAddress().getCity())
+                    .state(property.getAddress().getState())
+                    .pinCode(property.getAddress().getPinCode());
+        }
+        return builder.build();
+    }
+}
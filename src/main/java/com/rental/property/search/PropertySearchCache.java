@@ -0,0 +1,110 @@
+package com.rental.property.search;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.rental.property.dto.PropertyResponseDto;
+import com.rental.property.event.PropertyChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+/**
+ * Size-bounded cache of tenant search pages. Entries are dropped when a changed listing matched their filters
+ * before or after the change, so unrelated writes leave popular searches cached.
+ */
+@Component
+public class PropertySearchCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final int DTO_OVERHEAD_BYTES = 512;
+    private final Cache<SearchCacheKey, List<PropertyResponseDto>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PropertySearchCache(MeterRegistry meterRegistry,
+                               @Value("${renthub.search-cache.max-weight-bytes:33554432}") long maxWeightBytes,
+                               @Value("${renthub.search-cache.ttl:PT2M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher(PropertySearchCache::weigh)
+                .expireAfter(new SearchPageExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "propertySearch");
+    }
+
+    public List<PropertyResponseDto> get(SearchCacheKey key, Supplier<List<PropertyResponseDto>> search) {
+        List<PropertyResponseDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        List<PropertyResponseDto> result = List.copyOf(search.get());
+        // Skip caching if a listing changed while we searched; the result may predate that change. An
+        // invalidation can also land between the check and the put, so check again and drop what we stored.
+        if (generation == invalidations.get()) {
+            cache.put(key, result);
+            if (generation != invalidations.get()) {
+                cache.invalidate(key);
+            }
+        }
+        return result;
+    }
+
+    // Runs after the search index has applied the same event so a re-populated entry sees the new state.
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.matches(event.getBefore()) || key.matches(event.getAfter()));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static int weigh(SearchCacheKey key, List<PropertyResponseDto> page) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        for (PropertyResponseDto dto : page) {
+            bytes += DTO_OVERHEAD_BYTES + (dto.getDescription() == null ? 0 : dto.getDescription().length() * 2L);
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * First pages are what most tenants see and are re-requested constantly; deep pages and empty results
+     * are rarely repeated, so they get a fraction of the TTL and make room sooner.
+     */
+    private static class SearchPageExpiry implements Expiry<SearchCacheKey, List<PropertyResponseDto>> {
+        private final long ttlNanos;
+
+        SearchPageExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(SearchCacheKey key, List<PropertyResponseDto> value, long currentTime) {
+            if (value.isEmpty()) {
+                return ttlNanos / 4;
+            }
+            return key.getPage() == 0 ? ttlNanos : ttlNanos / 2;
+        }
+
+        @Override
+        public long expireAfterUpdate(SearchCacheKey key, List<PropertyResponseDto> value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(SearchCacheKey key, List<PropertyResponseDto> value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
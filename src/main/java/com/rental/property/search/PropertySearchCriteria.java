@@ -0,0 +1,19 @@
+package com.rental.property.search;
+import lombok.*;
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PropertySearchCriteria {
+    private String query;
+    private String city;
+    private CityMatch cityMatch;
+    private Double minRent;
+    private Double maxRent;
+    private String bhk;
+    private String availabilityStatus;
+    private PropertySort sort;
+    private int page;
+    private int size;
+}
@@ -0,0 +1,381 @@
+package com.rental.property.search;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.geo.GeoGrid;
+import com.rental.property.geo.GeoPoint;
+import com.rental.property.geo.PinCodeDirectory;
+import com.rental.property.repo.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+/**
+ * In-memory inverted index for tenant search: bitmap posting lists per city, bhk, availability status and
+ * pin-code grid cell, a sorted rent map and a BM25 {@link TextIndex}, rebuilt on startup and kept current from
+ * {@link PropertyChangedEvent}s.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertySearchIndex {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private final PropertyRepository propertyRepository;
+    private final PinCodeDirectory pinCodeDirectory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings();
+    private List<PropertyChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Postings fresh = new Postings();
+        try {
+            Long afterId = 0L;
+            List<PropertyDocument> batch;
+            do {
+                batch = propertyRepository.findDocumentsAfter(afterId, Limit.of(REBUILD_BATCH_SIZE));
+                batch.forEach(fresh::upsert);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getPropertyId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            log.error("Property search index rebuild failed, searches will use the database: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Changes committed while we were loading may or may not be in the batches; replaying them is idempotent.
+            pendingDuringRebuild.forEach(fresh::apply);
+            pendingDuringRebuild = null;
+            postings = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Property search index built with {} documents", fresh.size());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            postings.apply(event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Long> search(PropertySearchCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            return postings.search(criteria);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<NearbyProperty> searchNearby(GeoPoint center, double radiusKm, PropertySearchCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            return postings.nearby(center, radiusKm, criteria);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record ScoredDocument(float score, long propertyId) {
+    }
+
+    static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    class Postings {
+        private final Map<Long, Integer> docIdsByProperty = new HashMap<>();
+        private final List<PropertyDocument> documents = new ArrayList<>();
+        private final List<GeoPoint> points = new ArrayList<>();
+        private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+        private final BitSet live = new BitSet();
+        private final TreeMap<String, BitSet> byCity = new TreeMap<>();
+        private final Map<String, BitSet> byBhk = new HashMap<>();
+        private final Map<String, BitSet> byStatus = new HashMap<>();
+        private final TreeMap<Double, IntPostingList> byRent = new TreeMap<>();
+        private final Map<Long, BitSet> byCell = new HashMap<>();
+        private final TextIndex text = new TextIndex();
+
+        void apply(PropertyChangedEvent event) {
+            if (event.isDeleted()) {
+                remove(event.getPropertyId());
+            } else {
+                upsert(event.getAfter());
+            }
+        }
+
+        void upsert(PropertyDocument document) {
+            remove(document.getPropertyId());
+            int docId = freeDocIds.isEmpty() ? documents.size() : freeDocIds.pop();
+            GeoPoint point = pinCodeDirectory.locate(document.getPinCode()).orElse(null);
+            if (docId == documents.size()) {
+                documents.add(document);
+                points.add(point);
+            } else {
+                documents.set(docId, document);
+                points.set(docId, point);
+            }
+            docIdsByProperty.put(document.getPropertyId(), docId);
+            live.set(docId);
+            addPosting(byCity, normalize(document.getCity()), docId);
+            addPosting(byBhk, normalize(document.getBhk()), docId);
+            addPosting(byStatus, normalize(document.getAvailabilityStatus()), docId);
+            byRent.computeIfAbsent(document.getRentAmount(), rent -> new IntPostingList()).add(docId);
+            if (point != null) {
+                addPosting(byCell, GeoGrid.cellOf(point), docId);
+            }
+            text.add(docId, document);
+        }
+
+        void remove(Long propertyId) {
+            Integer docId = docIdsByProperty.remove(propertyId);
+            if (docId == null) {
+                return;
+            }
+            PropertyDocument document = documents.get(docId);
+            removePosting(byCity, normalize(document.getCity()), docId);
+            removePosting(byBhk, normalize(document.getBhk()), docId);
+            removePosting(byStatus, normalize(document.getAvailabilityStatus()), docId);
+            IntPostingList rentPostings = byRent.get(document.getRentAmount());
+            rentPostings.remove(docId);
+            if (rentPostings.isEmpty()) {
+                byRent.remove(document.getRentAmount());
+            }
+            GeoPoint point = points.get(docId);
+            if (point != null) {
+                removePosting(byCell, GeoGrid.cellOf(point), docId);
+            }
+            text.remove(docId, document);
+            documents.set(docId, null);
+            points.set(docId, null);
+            live.clear(docId);
+            freeDocIds.push(docId);
+        }
+
+        List<Long> search(PropertySearchCriteria criteria) {
+            BitSet docIds = match(criteria);
+            Comparator<PropertyDocument> order = criteria.getSort() != null ? criteria.getSort().getComparator()
+                    : Comparator.comparing(PropertyDocument::getPropertyId);
+            List<String> terms = TextIndex.queryTerms(criteria.getQuery());
+            if (!terms.isEmpty()) {
+                if (criteria.getSort() == PropertySort.RELEVANCE) {
+                    return byScore(terms, docIds, criteria.getPage(), criteria.getSize());
+                }
+                docIds = text.matching(terms, docIds);
+            }
+            return propertyIds(docIds, order, criteria.getPage(), criteria.getSize());
+        }
+
+        private List<Long> byScore(List<String> terms, BitSet docIds, int page, int size) {
+            Comparator<ScoredDocument> order = Comparator.comparingDouble(ScoredDocument::score).reversed()
+                    .thenComparingLong(ScoredDocument::propertyId);
+            int limit = size > 0 ? (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE) : Integer.MAX_VALUE;
+            PriorityQueue<ScoredDocument> heap = new PriorityQueue<>(Math.min(limit, 1024), order.reversed());
+            text.score(terms, docIds, new TextIndex.ScoredDocConsumer() {
+                @Override
+                public void accept(int docId, float score) {
+                    if (heap.size() < limit) {
+                        heap.add(new ScoredDocument(score, documents.get(docId).getPropertyId()));
+                    } else if (score >= heap.peek().score()) {
+                        // Most docs score below the worst kept one, and scores tie often (a one word query scores
+                        // by length alone), so both are turned away before anything is allocated.
+                        ScoredDocument worst = heap.peek();
+                        long propertyId = documents.get(docId).getPropertyId();
+                        if (score > worst.score() || propertyId < worst.propertyId()) {
+                            heap.poll();
+                            heap.add(new ScoredDocument(score, propertyId));
+                        }
+                    }
+                }
+
+                @Override
+                public float minimumScore() {
+                    return heap.size() < limit ? Float.NEGATIVE_INFINITY : heap.peek().score();
+                }
+            });
+            List<ScoredDocument> selected = new ArrayList<>(heap);
+            selected.sort(order);
+            int from = size > 0 ? Math.min(page * size, selected.size()) : 0;
+            List<Long> propertyIds = new ArrayList<>(selected.size() - from);
+            for (ScoredDocument document : selected.subList(from, selected.size())) {
+                propertyIds.add(document.propertyId());
+            }
+            return propertyIds;
+        }
+
+        BitSet match(PropertySearchCriteria criteria) {
+            BitSet result = (BitSet) live.clone();
+            String city = normalize(criteria.getCity());
+            if (city != null) {
+                result.and(cityMatches(city, criteria.getCityMatch()));
+            }
+            intersect(result, byBhk, normalize(criteria.getBhk()));
+            intersect(result, byStatus, normalize(criteria.getAvailabilityStatus()));
+            if (criteria.getMinRent() != null || criteria.getMaxRent() != null) {
+                double min = criteria.getMinRent() != null ? criteria.getMinRent() : Double.NEGATIVE_INFINITY;
+                double max = criteria.getMaxRent() != null ? criteria.getMaxRent() : Double.POSITIVE_INFINITY;
+                BitSet rentMatches = new BitSet();
+                if (min <= max) {
+                    byRent.subMap(min, true, max, true).values().forEach(list -> list.setAll(rentMatches));
+                }
+                result.and(rentMatches);
+            }
+            return result;
+        }
+
+        private BitSet cityMatches(String city, CityMatch cityMatch) {
+            BitSet matches = new BitSet();
+            switch (cityMatch == null ? CityMatch.PREFIX : cityMatch) {
+                case EXACT -> {
+                    BitSet docIds = byCity.get(city);
+                    if (docIds != null) {
+                        matches.or(docIds);
+                    }
+                }
+                case PREFIX -> byCity.subMap(city, true, city + Character.MAX_VALUE, true).values().forEach(matches::or);
+                // The city vocabulary is small, so substring matching walks the keys rather than the documents.
+                case CONTAINS -> byCity.forEach((key, docIds) -> {
+                    if (key.contains(city)) {
+                        matches.or(docIds);
+                    }
+                });
+            }
+            return matches;
+        }
+
+        private List<Long> propertyIds(BitSet docIds, Comparator<PropertyDocument> order, int page, int size) {
+            List<PropertyDocument> selected;
+            if (size > 0) {
+                // Only the first (page + 1) * size documents in sort order matter, so keep a bounded max-heap of them.
+                int limit = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+                PriorityQueue<PropertyDocument> heap = new PriorityQueue<>(Math.min(limit, 1024), order.reversed());
+                for (int docId = docIds.nextSetBit(0); docId >= 0; docId = docIds.nextSetBit(docId + 1)) {
+                    PropertyDocument document = documents.get(docId);
+                    if (heap.size() < limit) {
+                        heap.add(document);
+                    } else if (order.compare(document, heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(document);
+                    }
+                }
+                selected = new ArrayList<>(heap);
+            } else {
+                selected = new ArrayList<>(docIds.cardinality());
+                for (int docId = docIds.nextSetBit(0); docId >= 0; docId = docIds.nextSetBit(docId + 1)) {
+                    selected.add(documents.get(docId));
+                }
+            }
+            selected.sort(order);
+            int from = size > 0 ? Math.min(page * size, selected.size()) : 0;
+            List<Long> propertyIds = new ArrayList<>(selected.size() - from);
+            for (PropertyDocument document : selected.subList(from, selected.size())) {
+                propertyIds.add(document.getPropertyId());
+            }
+            return propertyIds;
+        }
+
+        List<NearbyProperty> nearby(GeoPoint center, double radiusKm, PropertySearchCriteria criteria) {
+            BitSet candidates = new BitSet();
+            for (Long cell : GeoGrid.cellsWithin(center, radiusKm)) {
+                BitSet docIds = byCell.get(cell);
+                if (docIds != null) {
+                    candidates.or(docIds);
+                }
+            }
+            candidates.and(match(criteria));
+            List<String> terms = TextIndex.queryTerms(criteria.getQuery());
+            if (!terms.isEmpty()) {
+                candidates = text.matching(terms, candidates);
+            }
+            Comparator<NearbyProperty> order = Comparator.comparingDouble(NearbyProperty::getDistanceKm)
+                    .thenComparing(NearbyProperty::getPropertyId);
+            int limit = (int) Math.min((long) (criteria.getPage() + 1) * criteria.getSize(), Integer.MAX_VALUE);
+            PriorityQueue<NearbyProperty> heap = new PriorityQueue<>(Math.min(limit, 1024), order.reversed());
+            for (int docId = candidates.nextSetBit(0); docId >= 0; docId = candidates.nextSetBit(docId + 1)) {
+                double distanceKm = center.distanceKm(points.get(docId));
+                if (distanceKm > radiusKm) {
+                    continue;
+                }
+                NearbyProperty match = new NearbyProperty(documents.get(docId).getPropertyId(), distanceKm);
+                if (heap.size() < limit) {
+                    heap.add(match);
+                } else if (order.compare(match, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(match);
+                }
+            }
+            List<NearbyProperty> selected = new ArrayList<>(heap);
+            selected.sort(order);
+            return selected.subList(Math.min(criteria.getPage() * criteria.getSize(), selected.size()), selected.size());
+        }
+
+        int size() {
+            return docIdsByProperty.size();
+        }
+
+        private static void intersect(BitSet result, Map<String, BitSet> postings, String key) {
+            if (key != null) {
+                BitSet docIds = postings.get(key);
+                if (docIds == null) {
+                    result.clear();
+                } else {
+                    result.and(docIds);
+                }
+            }
+        }
+
+        private static <K> void addPosting(Map<K, BitSet> postings, K key, int docId) {
+            if (key != null) {
+                postings.computeIfAbsent(key, k -> new BitSet()).set(docId);
+            }
+        }
+
+        private static <K> void removePosting(Map<K, BitSet> postings, K key, int docId) {
+            if (key == null) {
+                return;
+            }
+            BitSet docIds = postings.get(key);
+            if (docIds != null) {
+                docIds.clear(docId);
+                if (docIds.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.rental.property.search;
+import org.springframework.data.domain.Sort;
+import java.util.Comparator;
+public enum PropertySort {
+    RENT_ASC(Sort.by(Sort.Order.asc("rentAmount"), Sort.Order.asc("propertyId")),
+            Comparator.comparingDouble(PropertyDocument::getRentAmount).thenComparing(PropertyDocument::getPropertyId)),
+    RENT_DESC(Sort.by(Sort.Order.desc("rentAmount"), Sort.Order.asc("propertyId")),
+            Comparator.comparingDouble(PropertyDocument::getRentAmount).reversed().thenComparing(PropertyDocument::getPropertyId)),
+    // Property ids are identity-generated, so the newest listing always has the highest id.
+    NEWEST(Sort.by(Sort.Order.desc("propertyId")),
+            Comparator.comparing(PropertyDocument::getPropertyId).reversed()),
+    BHK(Sort.by(Sort.Order.asc("bhk"), Sort.Order.asc("propertyId")),
+            Comparator.comparing(PropertyDocument::getBhk, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                    .thenComparing(PropertyDocument::getPropertyId)),
+    // BM25 score when a text query is given; the database fallback and text-less searches have no score, so newest first.
+    RELEVANCE(Sort.by(Sort.Order.desc("propertyId")),
+            Comparator.comparing(PropertyDocument::getPropertyId).reversed());
+    private final Sort sort;
+    private final Comparator<PropertyDocument> comparator;
+    PropertySort(Sort sort, Comparator<PropertyDocument> comparator) {
+        this.sort = sort;
+        this.comparator = comparator;
+    }
+    public Sort getSort() {
+        return sort;
+    }
+    public Comparator<PropertyDocument> getComparator() {
+        return comparator;
+    }
+}
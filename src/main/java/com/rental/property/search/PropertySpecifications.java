@@ -0,0 +1,102 @@
+package com.rental.property.search;
+import com.rental.property.entity.Property;
+import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+public class PropertySpecifications {
+    // Backslash would need dialect-specific quoting in the rendered ESCAPE clause, so use a neutral character.
+    private static final char LIKE_ESCAPE = '!';
+    // Plain comparisons keep the composite indexes usable; MySQL's default collation already makes them case-insensitive.
+    public static Specification<Property> cityMatches(String city, CityMatch cityMatch) {
+        return (root, query, cb) -> {
+            if (city == null || city.isBlank()) {
+                return null;
+            }
+            String value = city.trim();
+            return switch (cityMatch == null ? CityMatch.PREFIX : cityMatch) {
+                case EXACT -> cb.equal(root.get("address").get("city"), value);
+                case PREFIX -> cb.like(root.get("address").get("city"), escapeLike(value) + "%", LIKE_ESCAPE);
+                case CONTAINS -> cb.like(root.get("address").get("city"), "%" + escapeLike(value) + "%", LIKE_ESCAPE);
+            };
+        };
+    }
+    public static Specification<Property> rentBetween(Double minRent, Double maxRent) {
+        return (root, query, cb) -> {
+            if (minRent != null && maxRent != null) {
+                return cb.between(root.get("rentAmount"), minRent, maxRent);
+            }
+            if (minRent != null) {
+                return cb.greaterThanOrEqualTo(root.get("rentAmount"), minRent);
+            }
+            if (maxRent != null) {
+                return cb.lessThanOrEqualTo(root.get("rentAmount"), maxRent);
+            }
+            return null;
+        };
+    }
+    public static Specification<Property> bhkEquals(String bhk) {
+        return (root, query, cb) -> bhk == null || bhk.isBlank() ? null : cb.equal(root.get("bhk"), bhk.trim());
+    }
+    public static Specification<Property> availabilityStatusEquals(String availabilityStatus) {
+        return (root, query, cb) -> availabilityStatus == null || availabilityStatus.isBlank() ? null
+                : cb.equal(root.get("availabilityStatus"), availabilityStatus.trim());
+    }
+    public static Specification<Property> pinCodeIn(Collection<Long> pinCodes) {
+        return (root, query, cb) -> pinCodes.isEmpty() ? cb.disjunction() : root.get("address").get("pinCode").in(pinCodes);
+    }
+    /**
+     * Restricts to the given pin codes and orders nearest first, then by id, so the database can page a nearby search
+     * while the grid index is loading. Every listing in a pin code sits at its centroid, so ranking the pin codes by
+     * distance ranks the listings.
+     */
+    public static Specification<Property> pinCodesNearestFirst(Map<Long, Double> distanceByPinCode) {
+        return (root, query, cb) -> {
+            if (distanceByPinCode.isEmpty()) {
+                return cb.disjunction();
+            }
+            Expression<Long> pinCode = root.get("address").get("pinCode");
+            List<Map.Entry<Long, Double>> nearestFirst = new ArrayList<>(distanceByPinCode.entrySet());
+            nearestFirst.sort(Map.Entry.comparingByValue());
+            CriteriaBuilder.SimpleCase<Long, Integer> rank = cb.selectCase(pinCode);
+            for (int i = 0; i < nearestFirst.size(); i++) {
+                rank.when(nearestFirst.get(i).getKey(), i);
+            }
+            query.orderBy(cb.asc(rank.otherwise(nearestFirst.size())), cb.asc(root.get("propertyId")));
+            return pinCode.in(distanceByPinCode.keySet());
+        };
+    }
+    // Only used while the in-memory text index is loading, so the unindexable lower()/LIKE scan is acceptable.
+    public static Specification<Property> textMatches(String text) {
+        return (root, query, cb) -> {
+            List<String> terms = TextIndex.queryTerms(text);
+            if (terms.isEmpty()) {
+                return null;
+            }
+            List<Expression<String>> fields = List.of(root.get("description"), root.get("propertyType"), root.get("bhk"),
+                    root.get("address").get("streetName"), root.get("address").get("city"), root.get("address").get("state"));
+            List<Predicate> termPredicates = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                String pattern = "%" + escapeLike(term) + "%";
+                termPredicates.add(cb.or(fields.stream()
+                        .map(field -> cb.like(cb.lower(field), pattern, LIKE_ESCAPE))
+                        .toArray(Predicate[]::new)));
+            }
+            return cb.and(termPredicates.toArray(Predicate[]::new));
+        };
+    }
+    public static Specification<Property> matching(PropertySearchCriteria criteria) {
+        return Specification.where(textMatches(criteria.getQuery()))
+                .and(cityMatches(criteria.getCity(), criteria.getCityMatch()))
+                .and(availabilityStatusEquals(criteria.getAvailabilityStatus()))
+                .and(bhkEquals(criteria.getBhk()))
+                .and(rentBetween(criteria.getMinRent(), criteria.getMaxRent()));
+    }
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,60 @@
+package com.rental.property.search;
+import lombok.Value;
+import java.util.List;
+/**
+ * Normalized form of a {@link PropertySearchCriteria}, so "Chennai " and "chennai" share a cache entry.
+ */
+@Value
+public class SearchCacheKey {
+    List<String> terms;
+    String city;
+    CityMatch cityMatch;
+    Double minRent;
+    Double maxRent;
+    String bhk;
+    String availabilityStatus;
+    PropertySort sort;
+    int page;
+    int size;
+    public static SearchCacheKey of(PropertySearchCriteria criteria) {
+        return new SearchCacheKey(TextIndex.queryTerms(criteria.getQuery()),
+                PropertySearchIndex.normalize(criteria.getCity()), criteria.getCityMatch(),
+                criteria.getMinRent(), criteria.getMaxRent(),
+                PropertySearchIndex.normalize(criteria.getBhk()),
+                PropertySearchIndex.normalize(criteria.getAvailabilityStatus()),
+                criteria.getSort(), criteria.getPage(), criteria.getSize());
+    }
+    /**
+     * Whether the listing falls inside this search's filters, ignoring sort and page: a change to such a listing
+     * can alter any page of the result.
+     */
+    public boolean matches(PropertyDocument document) {
+        if (document == null) {
+            return false;
+        }
+        if (city != null) {
+            String documentCity = PropertySearchIndex.normalize(document.getCity());
+            if (documentCity == null) {
+                return false;
+            }
+            boolean cityMatches = switch (cityMatch == null ? CityMatch.PREFIX : cityMatch) {
+                case EXACT -> documentCity.equals(city);
+                case PREFIX -> documentCity.startsWith(city);
+                case CONTAINS -> documentCity.contains(city);
+            };
+            if (!cityMatches) {
+                return false;
+            }
+        }
+        if (bhk != null && !bhk.equals(PropertySearchIndex.normalize(document.getBhk()))) {
+            return false;
+        }
+        if (availabilityStatus != null && !availabilityStatus.equals(PropertySearchIndex.normalize(document.getAvailabilityStatus()))) {
+            return false;
+        }
+        if ((minRent != null && document.getRentAmount() < minRent) || (maxRent != null && document.getRentAmount() > maxRent)) {
+            return false;
+        }
+        return TextIndex.matchesAll(terms, document);
+    }
+}
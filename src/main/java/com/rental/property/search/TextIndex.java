@@ -0,0 +1,531 @@
+package com.rental.property.search;
+import java.util.*;
+/**
+ * Edge n-gram inverted index over listing text with BM25 scoring. Doc ids are shared with the owning
+ * {@link PropertySearchIndex} so text matches intersect directly with its structured bitmaps.
+ */
+class TextIndex {
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 15;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "at", "for", "in", "is", "of", "on",
+            "or", "the", "to", "with");
+    private final Map<String, TermPostings> postings = new HashMap<>();
+    private int[] lengths = new int[1024];
+    private long totalLength;
+    private int documentCount;
+
+    static String textOf(PropertyDocument document) {
+        return String.join(" ", Objects.toString(document.getDescription(), ""),
+                Objects.toString(document.getPropertyType(), ""), Objects.toString(document.getBhk(), ""),
+                Objects.toString(document.getStreetName(), ""), Objects.toString(document.getCity(), ""),
+                Objects.toString(document.getState(), ""), Objects.toString(document.getPinCode(), ""));
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (token.length() >= MIN_GRAM && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokens(query)) {
+            // Documents are indexed by edge n-grams, so a query token matches any word it is a prefix of.
+            terms.add(token.length() > MAX_GRAM ? token.substring(0, MAX_GRAM) : token);
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static boolean matchesAll(List<String> terms, PropertyDocument document) {
+        if (terms.isEmpty()) {
+            return true;
+        }
+        List<String> tokens = tokens(textOf(document));
+        for (String term : terms) {
+            if (tokens.stream().noneMatch(token -> token.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void add(int docId, PropertyDocument document) {
+        List<String> tokens = tokens(textOf(document));
+        // Set first: the posting lists bound their blocks by the lengths of the docs they take in.
+        if (docId >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(docId + 1, lengths.length * 2));
+        }
+        lengths[docId] = tokens.size();
+        grams(tokens).forEach((gram, frequency) ->
+                postings.computeIfAbsent(gram, g -> new TermPostings()).add(docId, frequency));
+        totalLength += tokens.size();
+        documentCount++;
+    }
+
+    void remove(int docId, PropertyDocument document) {
+        for (String gram : grams(tokens(textOf(document))).keySet()) {
+            TermPostings termPostings = postings.get(gram);
+            if (termPostings != null) {
+                termPostings.remove(docId);
+                if (termPostings.size() == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        totalLength -= lengths[docId];
+        lengths[docId] = 0;
+        documentCount--;
+    }
+
+    /** The docs in {@code filter} containing every query term, intersected rarest term first. */
+    BitSet matching(List<String> terms, BitSet filter) {
+        List<TermPostings> termPostings = postingsOf(terms);
+        if (termPostings == null) {
+            return new BitSet();
+        }
+        BitSet candidates = filter;
+        int count = filter.cardinality();
+        for (TermPostings list : termPostings) {
+            candidates = list.intersect(candidates, count);
+            count = candidates.cardinality();
+            if (count == 0) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Hands every doc in {@code filter} containing all query terms to {@code consumer} with its BM25 score, in no
+     * particular order. A single term is scored straight off its posting list; with more, the docs are narrowed down
+     * as bitmaps first and only the survivors are looked up, so nothing is allocated per candidate doc beyond them.
+     * A single term also skips whole blocks of its posting list that cannot beat {@link
+     * ScoredDocConsumer#minimumScore()}.
+     */
+    void score(List<String> terms, BitSet filter, ScoredDocConsumer consumer) {
+        List<TermPostings> termPostings = postingsOf(terms);
+        if (termPostings == null) {
+            return;
+        }
+        double averageLength = documentCount == 0 ? 1 : Math.max(1, (double) totalLength / documentCount);
+        Bm25 bm25 = new Bm25(averageLength);
+        if (termPostings.size() == 1) {
+            TermPostings list = termPostings.get(0);
+            float idf = (float) idf(list.size());
+            list.forEachWithin(filter,
+                    (maxFrequency, minLength) -> idf * bm25.weight(maxFrequency, minLength) >= consumer.minimumScore(),
+                    (docId, frequency) -> consumer.accept(docId, idf * bm25.weight(frequency, lengths[docId])));
+            return;
+        }
+        BitSet candidates = matching(terms, filter);
+        int[] docIds = candidates.stream().toArray();
+        float[] scores = new float[docIds.length];
+        int[] frequencies = new int[docIds.length];
+        for (TermPostings list : termPostings) {
+            list.frequencies(docIds, frequencies);
+            float idf = (float) idf(list.size());
+            for (int i = 0; i < docIds.length; i++) {
+                scores[i] += idf * bm25.weight(frequencies[i], lengths[docIds[i]]);
+            }
+        }
+        for (int i = 0; i < docIds.length; i++) {
+            consumer.accept(docIds[i], scores[i]);
+        }
+    }
+
+    /**
+     * The BM25 term weight for one query. Most terms occur once in a description and descriptions are short, so
+     * those weights are tabulated by length up front and the scoring loops do no division for them.
+     */
+    private static final class Bm25 {
+        private static final int TABULATED_LENGTHS = 256;
+        private final double normBase;
+        private final double normPerToken;
+        private final float[] singleOccurrence = new float[TABULATED_LENGTHS];
+
+        Bm25(double averageLength) {
+            normBase = K1 * (1 - B);
+            normPerToken = K1 * B / averageLength;
+            for (int length = 0; length < TABULATED_LENGTHS; length++) {
+                singleOccurrence[length] = (float) compute(1, length);
+            }
+        }
+
+        float weight(int frequency, int length) {
+            return frequency == 1 && length < TABULATED_LENGTHS ? singleOccurrence[length] : (float) compute(frequency, length);
+        }
+
+        private double compute(int frequency, int length) {
+            return frequency * (K1 + 1) / (frequency + normBase + normPerToken * length);
+        }
+    }
+
+    /** The posting lists of the terms, rarest first, or null if a term is in no doc at all. */
+    private List<TermPostings> postingsOf(List<String> terms) {
+        List<TermPostings> termPostings = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            TermPostings list = postings.get(term);
+            if (list == null) {
+                return null;
+            }
+            termPostings.add(list);
+        }
+        termPostings.sort(Comparator.comparingInt(TermPostings::size));
+        return termPostings;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static Map<String, Integer> grams(List<String> tokens) {
+        Map<String, Integer> grams = new HashMap<>();
+        for (String token : tokens) {
+            for (int n = MIN_GRAM; n <= Math.min(token.length(), MAX_GRAM); n++) {
+                grams.merge(token.substring(0, n), 1, Integer::sum);
+            }
+        }
+        return grams;
+    }
+
+    @FunctionalInterface
+    interface ScoredDocConsumer {
+        void accept(int docId, float score);
+
+        /** Docs scoring below this are of no interest, and may be skipped without being handed over. */
+        default float minimumScore() {
+            return Float.NEGATIVE_INFINITY;
+        }
+    }
+
+    @FunctionalInterface
+    interface BlockBound {
+        /** Whether a block whose docs have the term at most this often and are at least this long may score. */
+        boolean mayScore(int maxFrequency, int minLength);
+    }
+
+    @FunctionalInterface
+    interface PostingConsumer {
+        void accept(int docId, int frequency);
+    }
+
+    /**
+     * Doc ids in an ascending run followed by a short unsorted tail of recent additions, which is merged into the run
+     * once it fills. Removing a doc finds it by binary search and leaves a tombstone (frequency 0), which re-adding
+     * the same id revives in place; tombstones are squeezed out once they are a quarter of the run. An edit therefore
+     * costs O(log n) per gram however common the gram is, and a short candidate list can probe a long posting list
+     * instead of scanning it. The tail grows with the square root of the run, so merging it in stays a small share of
+     * the adds that fill it.
+     * <p>
+     * A term in {@value #DENSE_SIZE} docs or more also keeps them as a bitmap, along with the docs that have it more
+     * than once, so intersecting common terms is a word-wise AND and their frequencies are mostly a bit test.
+     * <p>
+     * The run is split into blocks of {@value #BLOCK} entries, each with the highest frequency and shortest doc in
+     * it, which bound the score of anything in the block. The bounds only ever loosen between compactions (a removed
+     * doc keeps its block's bound), so they stay safe to skip on.
+     */
+    final class TermPostings {
+        private static final int MIN_TAIL_CAPACITY = 64;
+        static final int DENSE_SIZE = 1 << 14;
+        private static final int BLOCK = 128;
+        private int[] docIds = new int[2];
+        private int[] frequencies = new int[2];
+        private int run;
+        private int tail;
+        private int tombstones;
+        private int size;
+        private BitSet dense;
+        private BitSet repeated;
+        private int[] blockMaxFrequency = new int[1];
+        private int[] blockMinLength = new int[1];
+
+        int size() {
+            return size;
+        }
+
+        void add(int docId, int frequency) {
+            // Ids handed out in ascending order, as on a rebuild, extend the run directly.
+            if (tail == 0 && (run == 0 || docIds[run - 1] < docId)) {
+                append(docId, frequency);
+                if (run % BLOCK == 0) {
+                    startBlock(run / BLOCK);
+                }
+                raiseBlock(run++, docId, frequency);
+            } else {
+                // The owning index reuses freed doc ids, so an edit usually lands on its own tombstone.
+                int at = Arrays.binarySearch(docIds, 0, run, docId);
+                if (at >= 0) {
+                    if (frequencies[at] == 0) {
+                        tombstones--;
+                        size++;
+                    }
+                    frequencies[at] = frequency;
+                    raiseBlock(at, docId, frequency);
+                } else {
+                    append(docId, frequency);
+                    if (++tail >= Math.max(MIN_TAIL_CAPACITY, (int) Math.sqrt(run))) {
+                        compact();
+                    }
+                }
+            }
+            if (dense != null) {
+                dense.set(docId);
+                repeated.set(docId, frequency > 1);
+            } else if (size >= DENSE_SIZE) {
+                dense = new BitSet();
+                repeated = new BitSet();
+                for (int i = 0, end = run + tail; i < end; i++) {
+                    if (frequencies[i] > 0) {
+                        dense.set(docIds[i]);
+                        repeated.set(docIds[i], frequencies[i] > 1);
+                    }
+                }
+            }
+        }
+
+        private void startBlock(int block) {
+            if (block == blockMaxFrequency.length) {
+                blockMaxFrequency = Arrays.copyOf(blockMaxFrequency, block * 2);
+                blockMinLength = Arrays.copyOf(blockMinLength, block * 2);
+            }
+            blockMaxFrequency[block] = 0;
+            blockMinLength[block] = Integer.MAX_VALUE;
+        }
+
+        private void raiseBlock(int at, int docId, int frequency) {
+            int block = at / BLOCK;
+            blockMaxFrequency[block] = Math.max(blockMaxFrequency[block], frequency);
+            blockMinLength[block] = Math.min(blockMinLength[block], lengths[docId]);
+        }
+
+        private void append(int docId, int frequency) {
+            if (run + tail == docIds.length) {
+                docIds = Arrays.copyOf(docIds, docIds.length * 2);
+                frequencies = Arrays.copyOf(frequencies, frequencies.length * 2);
+            }
+            docIds[run + tail] = docId;
+            frequencies[run + tail] = frequency;
+            size++;
+        }
+
+        void remove(int docId) {
+            if (dense != null) {
+                dense.clear(docId);
+                repeated.clear(docId);
+            }
+            int at = Arrays.binarySearch(docIds, 0, run, docId);
+            if (at >= 0 && frequencies[at] > 0) {
+                frequencies[at] = 0;
+                size--;
+                if (++tombstones * 4 > run) {
+                    compact();
+                }
+                return;
+            }
+            for (int i = run, end = run + tail; i < end; i++) {
+                if (docIds[i] == docId) {
+                    docIds[i] = docIds[end - 1];
+                    frequencies[i] = frequencies[end - 1];
+                    tail--;
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Hands each of this term's docs that are in {@code filter} to {@code consumer}, in no particular order,
+         * passing over blocks of the run that {@code bound} rules out. The bound is asked again before each block.
+         */
+        void forEachWithin(BitSet filter, BlockBound bound, PostingConsumer consumer) {
+            if ((long) filter.cardinality() * log2(run) < run) {
+                for (int docId = filter.nextSetBit(0); docId >= 0; docId = filter.nextSetBit(docId + 1)) {
+                    int at = Arrays.binarySearch(docIds, 0, run, docId);
+                    if (at >= 0 && frequencies[at] > 0) {
+                        consumer.accept(docId, frequencies[at]);
+                    }
+                }
+            } else {
+                for (int block = 0, start = 0; start < run; block++, start += BLOCK) {
+                    if (!bound.mayScore(blockMaxFrequency[block], blockMinLength[block])) {
+                        continue;
+                    }
+                    for (int i = start, end = Math.min(start + BLOCK, run); i < end; i++) {
+                        if (frequencies[i] > 0 && filter.get(docIds[i])) {
+                            consumer.accept(docIds[i], frequencies[i]);
+                        }
+                    }
+                }
+            }
+            for (int i = run, end = run + tail; i < end; i++) {
+                if (filter.get(docIds[i])) {
+                    consumer.accept(docIds[i], frequencies[i]);
+                }
+            }
+        }
+
+        /** The docs of {@code candidates}, {@code candidateCount} of them, that contain this term. */
+        BitSet intersect(BitSet candidates, int candidateCount) {
+            if (dense != null && candidateCount > run >>> 6) {
+                BitSet result = (BitSet) candidates.clone();
+                result.and(dense);
+                return result;
+            }
+            BitSet result = new BitSet();
+            if ((long) candidateCount * log2(run) < run) {
+                for (int docId = candidates.nextSetBit(0); docId >= 0; docId = candidates.nextSetBit(docId + 1)) {
+                    int at = Arrays.binarySearch(docIds, 0, run, docId);
+                    if (at >= 0 && frequencies[at] > 0) {
+                        result.set(docId);
+                    }
+                }
+            } else {
+                for (int i = 0; i < run; i++) {
+                    if (frequencies[i] > 0 && candidates.get(docIds[i])) {
+                        result.set(docIds[i]);
+                    }
+                }
+            }
+            for (int i = run, end = run + tail; i < end; i++) {
+                if (candidates.get(docIds[i])) {
+                    result.set(docIds[i]);
+                }
+            }
+            return result;
+        }
+
+        /** Fills {@code out[i]} with the frequency of {@code ascending[i]}, 0 where the doc lacks the term. */
+        void frequencies(int[] ascending, int[] out) {
+            int count = ascending.length;
+            if (dense != null) {
+                // Bit tests, and for a doc that has the term more than once a search onwards from the last one found.
+                for (int i = 0, from = 0; i < count; i++) {
+                    int docId = ascending[i];
+                    if (!dense.get(docId)) {
+                        out[i] = 0;
+                    } else if (!repeated.get(docId)) {
+                        out[i] = 1;
+                    } else {
+                        int at = gallop(docId, from);
+                        if (at >= 0) {
+                            out[i] = frequencies[at];
+                            from = at + 1;
+                        } else {
+                            out[i] = tailFrequencyOf(docId);
+                            from = -at - 1;
+                        }
+                    }
+                }
+                return;
+            }
+            Arrays.fill(out, 0);
+            if ((long) count * log2(run) < run + count) {
+                for (int i = 0; i < count; i++) {
+                    int at = Arrays.binarySearch(docIds, 0, run, ascending[i]);
+                    if (at >= 0) {
+                        out[i] = frequencies[at];
+                    }
+                }
+            } else {
+                // Both sides ascending: one merge walk.
+                for (int i = 0, j = 0; i < run && j < count; ) {
+                    if (docIds[i] < ascending[j]) {
+                        i++;
+                    } else if (docIds[i] > ascending[j]) {
+                        j++;
+                    } else {
+                        out[j++] = frequencies[i++];
+                    }
+                }
+            }
+            for (int i = run, end = run + tail; i < end; i++) {
+                int at = Arrays.binarySearch(ascending, 0, count, docIds[i]);
+                if (at >= 0) {
+                    out[at] = frequencies[i];
+                }
+            }
+        }
+
+        /** Binary search of the run from {@code from} on, within a range doubled until it passes {@code docId}. */
+        private int gallop(int docId, int from) {
+            int low = from;
+            int high = from;
+            for (int step = 1; high < run && docIds[high] < docId; step <<= 1) {
+                low = high + 1;
+                high = from + step;
+            }
+            return Arrays.binarySearch(docIds, low, Math.min(high + 1, run), docId);
+        }
+
+        private int tailFrequencyOf(int docId) {
+            for (int i = run, end = run + tail; i < end; i++) {
+                if (docIds[i] == docId) {
+                    return frequencies[i];
+                }
+            }
+            return 0;
+        }
+
+        /** Merges the tail into the run and drops tombstones, in one pass over the run. */
+        private void compact() {
+            long[] recent = new long[tail];
+            for (int i = 0; i < tail; i++) {
+                recent[i] = ((long) docIds[run + i] << 32) | frequencies[run + i];
+            }
+            Arrays.sort(recent);
+            int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, size)) << 1);
+            int[] mergedIds = new int[capacity];
+            int[] mergedFrequencies = new int[capacity];
+            int count = 0;
+            for (int i = 0, k = 0; i < run || k < recent.length; ) {
+                if (i < run && frequencies[i] == 0) {
+                    i++;
+                } else if (k == recent.length || (i < run && docIds[i] < (int) (recent[k] >>> 32))) {
+                    mergedIds[count] = docIds[i];
+                    mergedFrequencies[count++] = frequencies[i++];
+                } else {
+                    mergedIds[count] = (int) (recent[k] >>> 32);
+                    mergedFrequencies[count++] = (int) recent[k++];
+                }
+            }
+            docIds = mergedIds;
+            frequencies = mergedFrequencies;
+            run = count;
+            tail = 0;
+            tombstones = 0;
+            blockMaxFrequency = new int[Math.max(1, (capacity + BLOCK - 1) / BLOCK)];
+            blockMinLength = new int[blockMaxFrequency.length];
+            for (int i = 0; i < run; i++) {
+                if (i % BLOCK == 0) {
+                    startBlock(i / BLOCK);
+                }
+                raiseBlock(i, docIds[i], frequencies[i]);
+            }
+            if (dense != null && size < DENSE_SIZE / 2) {
+                dense = null;
+                repeated = null;
+            }
+        }
+
+        private static int log2(int n) {
+            return 32 - Integer.numberOfLeadingZeros(Math.max(1, n));
+        }
+    }
+}
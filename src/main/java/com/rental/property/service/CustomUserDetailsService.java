@@ -1,32 +1,124 @@
 package com.rental.property.service;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rental.property.dto.AuthUserRow;
 import com.rental.property.dto.CustomUserDetails;
 import com.rental.property.entity.User;
 import com.rental.property.repo.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import java.util.stream.Collectors;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Loads principals for login and legacy tokens with a single projection query, never the {@code User} entity.
+ * Recently loaded principals are cached, so the second lookup a login makes is free; the cache is cleared for a
+ * user once a change to their profile, password or token version commits here, and the TTL bounds how long a change
+ * made on another instance can go unseen.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
+    private final Cache<String, CustomUserDetails> principals;
+    // The username each cached principal is keyed by, so a user known only by id is found without a scan.
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+                                    @Value("${renthub.auth.principal-cache.max-size:10000}") long maxSize,
+                                    @Value("${renthub.auth.principal-cache.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .evictionListener((String username, CustomUserDetails principal, RemovalCause cause) ->
+                        usernames.remove(principal.getUserId(), username))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "authPrincipal");
+    }
+
     @Override
     public CustomUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        log.info("User   found username {} , role s ize {}" , user.getUsername(),user.getRoles().size());
+        CustomUserDetails principal = principals.get(username, this::load);
+        log.debug("User found username {}, roles {}", principal.getUsername(), principal.getAuthorities().size());
+        return principal;
+    }
+
+    /**
+     * Forgets the cached principal, e.g. after the user's profile changed. Inside a transaction this waits for the
+     * commit; forgetting it earlier lets a concurrent login cache the old row again.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget(username);
+                }
+            });
+        } else {
+            forget(username);
+        }
+    }
+
+    /** Forgets the cached principal of a user known only by id. */
+    public void invalidate(Long userId) {
+        String username = usernames.get(userId);
+        if (username != null) {
+            invalidate(username);
+        }
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash used a weaker cost than
+     * configured, with the password already rehashed. Existing tokens stay valid: the password itself is unchanged.
+     */
+    @Override
+    public CustomUserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        invalidate(user.getUsername());
+        log.info("Rehashed the password of user {} at the configured cost", user.getUsername());
+        return new CustomUserDetails(user);
+    }
+
+    private void forget(String username) {
+        // Atomic with loads of the same username, so the index never outlives or misses the entry.
+        principals.asMap().computeIfPresent(username, (key, principal) -> {
+            usernames.remove(principal.getUserId(), key);
+            return null;
+        });
+    }
 
-         new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName()))
-                        .collect(Collectors.toList())
-        );
-         return new CustomUserDetails(user);
+    // Runs inside the cache's compute for this username.
+    private CustomUserDetails load(String username) {
+        List<AuthUserRow> rows = userRepository.findAuthRowsByUsername(username);
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        AuthUserRow user = rows.get(0);
+        List<String> roles = rows.stream()
+                .filter(row -> Objects.equals(row.getUserId(), user.getUserId()) && row.getRoleName() != null)
+                .map(AuthUserRow::getRoleName)
+                .toList();
+        usernames.put(user.getUserId(), username);
+        return new CustomUserDetails(user.getUserId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                user.getFirstName(), user.getLastName(), roles,
+                user.getTokenVersion() == null ? 0 : user.getTokenVersion());
     }
-}
\ No newline at end of file
+}
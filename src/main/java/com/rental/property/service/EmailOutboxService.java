@@ -0,0 +1,12 @@
+package com.rental.property.service;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+@Service
+public interface EmailOutboxService {
+    void enqueue(SimpleMailMessage message);
+    /** For mail that must not go out after {@code notAfter}, such as a one-time code. */
+    void enqueue(SimpleMailMessage message, LocalDateTime notAfter);
+    int dispatchBatch();
+    int purgeFinished();
+}
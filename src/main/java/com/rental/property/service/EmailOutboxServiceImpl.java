@@ -0,0 +1,287 @@
+package com.rental.property.service;
+import com.rental.property.entity.OutboxEmail;
+import com.rental.property.enums.OutboxEmailStatus;
+import com.rental.property.event.EmailQueuedEvent;
+import com.rental.property.repo.OutboxEmailRepository;
+import com.rental.property.util.SmtpConnectionPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Outgoing email, written to the {@code email_outbox} table in the caller's transaction and delivered by a small
+ * pool of workers, so a request never waits on the SMTP server and an email is only sent if the work that queued it
+ * commits. Each worker leases a batch of due rows and sends it over one pooled connection. A failed send is retried
+ * with exponential backoff; a rejected recipient, running out of attempts, or still being unsent at its
+ * {@code notAfter} leaves the row DEAD, and a DEAD row keeps no body. Delivery is at least once: a worker that dies
+ * between sending and recording the result leaves its lease to run out.
+ */
+@Slf4j
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+    private final OutboxEmailRepository repository;
+    private final SmtpConnectionPool connectionPool;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int workers;
+    private final ExecutorService executor;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Counter expired;
+    private final Timer batchTimer;
+    private volatile boolean running;
+
+    @Value("${renthub.mail.outbox.batch-size:20}")
+    private int batchSize = 20;
+    @Value("${renthub.mail.outbox.poll-interval:PT5S}")
+    private Duration pollInterval = Duration.ofSeconds(5);
+    @Value("${renthub.mail.outbox.lease:PT2M}")
+    private Duration lease = Duration.ofMinutes(2);
+    @Value("${renthub.mail.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+    @Value("${renthub.mail.outbox.backoff-initial:PT30S}")
+    private Duration backoffInitial = Duration.ofSeconds(30);
+    @Value("${renthub.mail.outbox.backoff-max:PT1H}")
+    private Duration backoffMax = Duration.ofHours(1);
+    @Value("${renthub.mail.outbox.retention:P7D}")
+    private Duration retention = Duration.ofDays(7);
+
+    public EmailOutboxServiceImpl(OutboxEmailRepository repository,
+                                  SmtpConnectionPool connectionPool,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${renthub.mail.outbox.workers:2}") int workers) {
+        this.repository = repository;
+        this.connectionPool = connectionPool;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.workers = Math.max(0, workers);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workers),
+                new CustomizableThreadFactory("email-outbox-"));
+        this.sent = Counter.builder("renthub.mail.outbox.sent").register(meterRegistry);
+        this.retried = Counter.builder("renthub.mail.outbox.retried")
+                .description("Sends that failed and were scheduled again").register(meterRegistry);
+        this.dead = Counter.builder("renthub.mail.outbox.dead")
+                .description("Emails given up on").register(meterRegistry);
+        this.expired = Counter.builder("renthub.mail.outbox.expired")
+                .description("Emails dropped unsent because they were past their deadline").register(meterRegistry);
+        this.batchTimer = Timer.builder("renthub.mail.outbox.batch")
+                .description("Time to send one leased batch").register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(SimpleMailMessage message) {
+        enqueue(message, null);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(SimpleMailMessage message, LocalDateTime notAfter) {
+        LocalDateTime now = LocalDateTime.now();
+        String[] recipients = message.getTo() == null ? new String[0] : message.getTo();
+        for (String recipient : recipients) {
+            repository.save(OutboxEmail.builder()
+                    .sender(message.getFrom())
+                    .recipient(recipient)
+                    .subject(message.getSubject())
+                    .body(message.getText())
+                    .status(OutboxEmailStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(now)
+                    .notAfter(notAfter)
+                    .createdAt(now)
+                    .build());
+        }
+        eventPublisher.publishEvent(new EmailQueuedEvent(recipients.length));
+    }
+
+    /** Wakes a worker once the rows are visible to it, instead of leaving them to the next poll. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        if (wakeups.availablePermits() < workers) {
+            wakeups.release();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drain);
+        }
+        log.info("Started {} email outbox workers", workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Batches cut short keep their lease, and are sent again once it runs out.
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        String owner = UUID.randomUUID().toString();
+        List<OutboxEmail> batch = transactionTemplate.execute(status -> {
+            // An expired code is worse than none, so stale rows go DEAD here rather than into the batch.
+            int stale = repository.expire(OutboxEmailStatus.PENDING, OutboxEmailStatus.DEAD, now,
+                    "Not sent before its deadline");
+            if (stale > 0) {
+                expired.increment(stale);
+                log.warn("Dropped {} emails that were not sent before their deadline", stale);
+            }
+            List<Long> ids = repository.findDueIds(OutboxEmailStatus.PENDING, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty() || repository.lease(ids, OutboxEmailStatus.PENDING, owner, now.plus(lease), now) == 0) {
+                return List.<OutboxEmail>of();
+            }
+            return repository.findByLeaseOwner(owner);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        batchTimer.record(() -> send(batch, owner));
+        return batch.size();
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${renthub.mail.outbox.purge-interval:PT1H}",
+            initialDelayString = "${renthub.mail.outbox.purge-interval:PT1H}")
+    public int purgeFinished() {
+        int purged = repository.deleteFinishedBefore(OutboxEmailStatus.PENDING, LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} sent or dead emails from the outbox", purged);
+        }
+        return purged;
+    }
+
+    private void drain() {
+        while (running) {
+            int leased = 0;
+            try {
+                leased = dispatchBatch();
+            } catch (RuntimeException e) {
+                log.warn("Email outbox batch failed: {}", e.getMessage());
+            }
+            // A full batch suggests there is more waiting, so go straight back for it.
+            if (leased < batchSize) {
+                try {
+                    wakeups.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void send(List<OutboxEmail> batch, String owner) {
+        List<Long> delivered = new ArrayList<>();
+        List<Failure> failures = new ArrayList<>();
+        SmtpConnectionPool.Connection connection = connectionPool.borrow();
+        try {
+            connection.open();
+            for (OutboxEmail email : batch) {
+                try {
+                    connection.send(toMessage(connection, email));
+                    delivered.add(email.getId());
+                } catch (MessagingException e) {
+                    failures.add(new Failure(email, e));
+                }
+            }
+        } catch (MessagingException e) {
+            // Could not reach or log in to the server: nothing in this batch was tried.
+            batch.forEach(email -> failures.add(new Failure(email, e)));
+        } finally {
+            connectionPool.release(connection);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                repository.markSent(delivered, owner, OutboxEmailStatus.SENT, now);
+            }
+            failures.forEach(failure -> recordFailure(failure, owner, now));
+        });
+        sent.increment(delivered.size());
+    }
+
+    private void recordFailure(Failure failure, String owner, LocalDateTime now) {
+        OutboxEmail email = failure.email;
+        int attempts = email.getAttempts() + 1;
+        boolean giveUp = attempts >= maxAttempts || isPermanent(failure.error);
+        String error = failure.error.getMessage() == null ? failure.error.getClass().getSimpleName()
+                : failure.error.getMessage();
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        if (giveUp) {
+            repository.markDead(email.getId(), owner, OutboxEmailStatus.DEAD, attempts, error);
+            dead.increment();
+            log.warn("Giving up on email {} to {} after {} attempts: {}", email.getId(), email.getRecipient(),
+                    attempts, error);
+        } else {
+            repository.markFailed(email.getId(), owner, OutboxEmailStatus.PENDING, attempts,
+                    now.plus(backoff(attempts)), error);
+            retried.increment();
+        }
+    }
+
+    /** Doubles from {@code backoff-initial} up to {@code backoff-max}, jittered so retries after an outage spread out. */
+    private Duration backoff(int attempts) {
+        long delay = Math.min(backoffMax.toMillis(), backoffInitial.toMillis() << Math.min(attempts - 1, 30));
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private static boolean isPermanent(MessagingException error) {
+        // A recipient the server refused outright (5xx), or an address that does not even parse.
+        return error instanceof AddressException || (error instanceof SendFailedException failed
+                && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0);
+    }
+
+    private static MimeMessage toMessage(SmtpConnectionPool.Connection connection, OutboxEmail email)
+            throws MessagingException {
+        MimeMessage message = connection.createMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(email.getSender());
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody() == null ? "" : email.getBody());
+        return message;
+    }
+
+    private record Failure(OutboxEmail email, MessagingException error) {
+    }
+}
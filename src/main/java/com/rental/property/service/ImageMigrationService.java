@@ -0,0 +1,6 @@
+package com.rental.property.service;
+import org.springframework.stereotype.Service;
+@Service
+public interface ImageMigrationService {
+    int migrateLegacyImages();
+}
@@ -0,0 +1,86 @@
+package com.rental.property.service;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.BlobStore;
+import com.rental.property.util.ImageContentTypeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+/**
+ * Moves legacy {@code image1} LOBs into the {@link BlobStore}, one batch per transaction. Each row is read alone,
+ * so memory stays bounded by a single image. Once a run finds nothing left it stops querying, because new
+ * listings never write {@code image1}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageMigrationServiceImpl implements ImageMigrationService {
+    private final PropertyRepository propertyRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${renthub.blob-store.migration-batch-size:100}")
+    private int batchSize = 100;
+
+    private volatile boolean completed;
+
+    @Override
+    @Scheduled(fixedDelayString = "${renthub.blob-store.migration-interval:PT10M}",
+            initialDelayString = "${renthub.blob-store.migration-initial-delay:PT1M}")
+    public int migrateLegacyImages() {
+        if (completed) {
+            return 0;
+        }
+        int migrated = 0;
+        int failed = 0;
+        Long afterId = 0L;
+        List<Long> batch;
+        do {
+            batch = propertyRepository.findIdsWithLegacyImage(afterId, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Long> ids = batch;
+            int moved = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Long propertyId : ids) {
+                    if (migrate(propertyId)) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            migrated += moved;
+            failed += batch.size() - moved;
+            afterId = batch.get(batch.size() - 1);
+        } while (batch.size() == batchSize);
+        if (migrated > 0 || failed > 0) {
+            log.info("Moved {} property images to the blob store, {} failed and will be retried", migrated, failed);
+        }
+        completed = failed == 0;
+        return migrated;
+    }
+
+    private boolean migrate(Long propertyId) {
+        byte[] image = propertyRepository.findImageById(propertyId).orElse(null);
+        if (image == null) {
+            // Cleared since the batch was selected, nothing left to move.
+            return true;
+        }
+        try {
+            BlobInfo blob = blobStore.put(new ByteArrayInputStream(image));
+            return propertyRepository.moveImageToBlobStore(propertyId, blob.getHash(),
+                    ImageContentTypeUtil.detect(image), blob.getSize()) == 1;
+        } catch (IOException e) {
+            log.error("Could not move image of property {} to the blob store: {}", propertyId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.rental.property.service;
+import org.springframework.stereotype.Service;
+@Service
+public interface ImageVariantService {
+    boolean submit(Long propertyId);
+    boolean generateVariants(Long propertyId);
+    int queueMissingVariants();
+}
@@ -0,0 +1,321 @@
+package com.rental.property.service;
+import com.rental.property.entity.PropertyImageVariant;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.repo.PropertyImageVariantRepository;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.BlobStore;
+import com.rental.property.storage.ImageRef;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+/**
+ * Renders the {@link ImageVariant}s of a property's image on a bounded worker pool, off the request thread. Work is
+ * queued when a listing's image changes; anything the queue could not take, or that was lost on restart, is found
+ * again by the periodic sweep, so a full queue only delays renditions. Until a rendition exists the image endpoint
+ * serves the original. Failed renders are counted against the image, and one that keeps failing is left out of the
+ * sweep until the landlord replaces it.
+ */
+@Slf4j
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+    // Refuse to decode anything larger; a small compressed file can otherwise expand to gigabytes of pixels.
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+    private final PropertyRepository propertyRepository;
+    private final PropertyImageVariantRepository variantRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final Timer processingTimer;
+    private final Counter failures;
+
+    @Value("${renthub.images.variant-sweep-batch-size:100}")
+    private int sweepBatchSize = 100;
+
+    // After this many failed renders of the same image the sweep stops retrying it; a new image starts over.
+    @Value("${renthub.images.variant-max-attempts:3}")
+    private int maxAttempts = 3;
+
+    public ImageVariantServiceImpl(PropertyRepository propertyRepository,
+                                   PropertyImageVariantRepository variantRepository,
+                                   BlobStore blobStore,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${renthub.images.workers:2}") int workers,
+                                   @Value("${renthub.images.queue-capacity:200}") int queueCapacity) {
+        this.propertyRepository = propertyRepository;
+        this.variantRepository = variantRepository;
+        this.blobStore = blobStore;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-variants-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("renthub.image.pipeline.queue.depth", executor, e -> e.getQueue().size())
+                .description("Images waiting to be rendered").register(meterRegistry);
+        Gauge.builder("renthub.image.pipeline.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Images being rendered").register(meterRegistry);
+        this.processingTimer = Timer.builder("renthub.image.pipeline.processing")
+                .description("Time to render all variants of one image").register(meterRegistry);
+        this.failures = Counter.builder("renthub.image.pipeline.failures").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        String before = event.getBefore() == null ? null : event.getBefore().getImageHash();
+        String after = event.isDeleted() ? null : event.getAfter().getImageHash();
+        // A deleted listing is queued too; the worker finds it gone and drops its renditions.
+        if (event.isDeleted() || (after != null && !after.equals(before))) {
+            submit(event.getPropertyId());
+        }
+    }
+
+    @Override
+    public boolean submit(Long propertyId) {
+        if (!queued.add(propertyId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                // Leave the set first so a change that arrives while this runs is queued again.
+                queued.remove(propertyId);
+                processingTimer.record(() -> generateVariants(propertyId));
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(propertyId);
+            log.warn("Image pipeline queue is full, property {} is left for the next sweep", propertyId);
+            return false;
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${renthub.images.variant-sweep-interval:PT15M}",
+            initialDelayString = "${renthub.images.variant-sweep-initial-delay:PT2M}")
+    public int queueMissingVariants() {
+        int submitted = 0;
+        Long afterId = 0L;
+        List<Long> batch;
+        do {
+            batch = propertyRepository.findIdsWithoutImageVariants(afterId, maxAttempts, Limit.of(sweepBatchSize));
+            for (Long propertyId : batch) {
+                if (!submit(propertyId)) {
+                    log.info("Queued {} images for rendering before the queue filled up", submitted);
+                    return submitted;
+                }
+                submitted++;
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == sweepBatchSize);
+        if (submitted > 0) {
+            log.info("Queued {} images without renditions", submitted);
+        }
+        return submitted;
+    }
+
+    @Override
+    public boolean generateVariants(Long propertyId) {
+        String sourceHash = null;
+        try {
+            Optional<ImageRef> imageRef = propertyRepository.findImageRefById(propertyId);
+            if (imageRef.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> variantRepository.deleteByPropertyId(propertyId));
+                return false;
+            }
+            sourceHash = imageRef.get().getHash();
+            if (sourceHash == null || variantRepository.existsByPropertyIdAndSourceHash(propertyId, sourceHash)) {
+                return false;
+            }
+            Optional<Resource> source = blobStore.get(sourceHash);
+            if (source.isEmpty()) {
+                log.warn("Blob {} for property {} is missing, no renditions made", sourceHash, propertyId);
+                recordFailure(propertyId, sourceHash);
+                return false;
+            }
+            List<PropertyImageVariant> variants = render(propertyId, imageRef.get(), source.get());
+            String rendered = sourceHash;
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                // The landlord may have replaced the image while we were rendering the old one.
+                String current = propertyRepository.findImageRefById(propertyId).map(ImageRef::getHash).orElse(null);
+                if (!rendered.equals(current)) {
+                    return false;
+                }
+                variantRepository.deleteByPropertyId(propertyId);
+                variantRepository.saveAll(variants);
+                return true;
+            }));
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            log.error("Could not render image variants for property {}: {}", propertyId, e.getMessage());
+            if (sourceHash != null) {
+                recordFailure(propertyId, sourceHash);
+            }
+            return false;
+        }
+    }
+
+    private void recordFailure(Long propertyId, String sourceHash) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    propertyRepository.recordVariantFailure(propertyId, sourceHash, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // Not recorded, so the next sweep tries again; that is all this costs.
+            log.warn("Could not record the failed render of property {}: {}", propertyId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Anything still queued is picked up by the sweep after the restart.
+        executor.shutdownNow();
+    }
+
+    private List<PropertyImageVariant> render(Long propertyId, ImageRef source, Resource content) throws IOException {
+        BufferedImage image = decode(content);
+        if (image == null) {
+            // Not decodable with ImageIO (WebP, for one) or too large to: the original is the only rendition.
+            return List.of(variant(propertyId, ImageVariant.FULL, source.getHash(),
+                    new BlobInfo(source.getHash(), source.getSize()), source.getContentType(), null, null));
+        }
+        boolean servable = source.getContentType() != null && source.getContentType().startsWith("image/");
+        List<PropertyImageVariant> variants = new ArrayList<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            double scale = Math.min(1.0, (double) variant.getMaxDimension() / Math.max(image.getWidth(), image.getHeight()));
+            if (scale == 1.0 && servable) {
+                variants.add(variant(propertyId, variant, source.getHash(), new BlobInfo(source.getHash(), source.getSize()),
+                        source.getContentType(), image.getWidth(), image.getHeight()));
+                continue;
+            }
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            boolean alpha = image.getColorModel().hasAlpha();
+            BufferedImage scaled = scale(image, width, height, alpha);
+            byte[] encoded = alpha ? encodePng(scaled) : encodeJpeg(scaled);
+            BlobInfo blob = blobStore.put(new ByteArrayInputStream(encoded));
+            variants.add(variant(propertyId, variant, source.getHash(), blob,
+                    alpha ? MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE, width, height));
+        }
+        return variants;
+    }
+
+    private static PropertyImageVariant variant(Long propertyId, ImageVariant variant, String sourceHash, BlobInfo blob,
+                                                String contentType, Integer width, Integer height) {
+        return PropertyImageVariant.builder()
+                .propertyId(propertyId)
+                .variant(variant)
+                .sourceHash(sourceHash)
+                .hash(blob.getHash())
+                .contentType(contentType)
+                .width(width)
+                .height(height)
+                .size(blob.getSize())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static BufferedImage decode(Resource content) throws IOException {
+        try (InputStream in = content.getInputStream(); ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    log.warn("Not decoding an image of {} pixels, the original is kept as its only rendition", pixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Halves the image until the next step reaches the target, which keeps bilinear scaling from aliasing. */
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "png", out)) {
+            throw new IOException("No PNG writer available");
+        }
+        return out.toByteArray();
+    }
+}
@@ -8,14 +8,17 @@ import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
 import com.rental.property.entity.User;
 import com.rental.property.enums.LeaseStatus;
+import com.rental.property.event.PropertyChangedEvent;
 import com.rental.property.repo.LeaseRepository;
 import com.rental.property.repo.PropertyRepository;
 import com.rental.property.repo.RentalTransactionRepository;
 import com.rental.property.repo.UserRepository;
+import com.rental.property.search.PropertyDocument;
 import com.rental.property.util.PdfGeneratorUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -33,6 +36,7 @@ public class LeaseServiceImpl implements LeaseService {
     private final PropertyRepository propertyRepository;
     private final UserRepository userRepository;
     private final LeaseRepository leaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public byte[] generateLeasePreview(Long transactionId) {
@@ -64,8 +68,10 @@ public class LeaseServiceImpl implements LeaseService {
             leaseToSave.setCreatedAt(LocalDateTime.now());
             leaseToSave.setProperty(property);
             leaseToSave.setRentalTransaction(rentalTransaction);
+            PropertyDocument before = PropertyDocument.from(property);
             property.setAvailabilityStatus("Rented");
             propertyRepository.save(property);
+            eventPublisher.publishEvent(PropertyChangedEvent.saved(before, property));
         }
 
         leaseToSave.setUpdatedAt(LocalDateTime.now());
@@ -134,10 +140,12 @@ public class LeaseServiceImpl implements LeaseService {
             Lease lease = optionalLease.get();
             lease.setStatus(LeaseStatus.TERMINATED);
             lease.getRentalTransaction().setStatus("TERMINATED");
+            PropertyDocument before = PropertyDocument.from(property);
             property.setAvailabilityStatus("Available");
             lease.setUpdatedAt(LocalDateTime.now());
             leaseRepository.save(lease);
             propertyRepository.save(property);
+            eventPublisher.publishEvent(PropertyChangedEvent.saved(before, property));
             return "Lease terminated successfully";
         } else {
             return "No active lease found for property ID: " + propertyId;
@@ -5,17 +5,17 @@ import com.rental.property.dto.OtpVerifyDTO;
 import com.rental.property.dto.PasswordResetDTO;
 import com.rental.property.entity.User;
 import com.rental.property.exception.UserNotFoundException;
+import com.rental.property.otp.OtpStore;
 import com.rental.property.repo.UserRepository;
 import com.rental.property.util.EmailUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.regex.Pattern;
 
 @Service
@@ -25,29 +25,31 @@ public class PasswordResetServiceImpl implements PasswordResetService {
     private final UserRepository userRepository;
     private final EmailUtil emailUtil;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final OtpStore otpStore;
+    private final SecureRandom random = new SecureRandom();
 
     @Value("${otp.expiration.minutes:10}")
     private int otpExpirationMinutes;
 
-    private final Map<String, OtpData> otpStore = new HashMap<>();
-
     @Override
+    @Transactional
     public void initiatePasswordReset(OtpRequestDTO otpRequest) {
         User user = findUserByIdentifier(otpRequest.getIdentifier());
         String otp = generateOtp();
-        storeOtp(user.getEmail(), otp);
-        emailUtil.sendOtpEmail(user.getEmail(), otp);
+        Duration validity = Duration.ofMinutes(otpExpirationMinutes);
+        otpStore.save(user.getEmail(), otp, validity);
+        // Only queued here: the outbox sends it after commit, together with the code when the store is jdbc.
+        emailUtil.sendOtpEmail(user.getEmail(), otp, validity);
     }
 
     @Override
     public void verifyOtp(OtpVerifyDTO otpVerify) {
-        OtpData otpData = otpStore.get(otpVerify.getEmail());
-        if (otpData == null || !otpData.getOtp().equals(otpVerify.getOtp())) {
-            throw new IllegalArgumentException("Invalid OTP");
-        }
-        if (otpData.getExpirationTime().isBefore(LocalDateTime.now())) {
-            otpStore.remove(otpVerify.getEmail());
-            throw new IllegalArgumentException("OTP has expired");
+        switch (otpStore.verify(otpVerify.getEmail(), otpVerify.getOtp())) {
+            case VALID -> { }
+            case EXPIRED -> throw new IllegalArgumentException("OTP has expired");
+            case EXHAUSTED -> throw new IllegalArgumentException("Too many attempts, request a new OTP");
+            default -> throw new IllegalArgumentException("Invalid OTP");
         }
     }
 
@@ -64,6 +66,8 @@ public class PasswordResetServiceImpl implements PasswordResetService {
 
         user.setPassword(passwordEncoder.encode(passwordReset.getNewPassword()));
         userRepository.save(user);
+        // Sessions opened with the old password should not outlive it.
+        tokenVersionService.revokeTokens(user.getId());
         otpStore.remove(passwordReset.getEmail());
     }
 
@@ -86,33 +90,11 @@ public class PasswordResetServiceImpl implements PasswordResetService {
     }
 
     private String generateOtp() {
-        return String.format("%06d", new Random().nextInt(999999));
-    }
-
-    private void storeOtp(String email, String otp) {
-        otpStore.put(email, new OtpData(otp, LocalDateTime.now().plusMinutes(otpExpirationMinutes)));
+        return String.format("%06d", random.nextInt(1_000_000));
     }
 
     private boolean isValidPassword(String password) {
         String PASSWORD_PATTERN = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!])(?=\\S+$).{8,}$";
         return password != null && Pattern.compile(PASSWORD_PATTERN).matcher(password).matches();
     }
-
-    private static class OtpData {
-        private final String otp;
-        private final LocalDateTime expirationTime;
-
-        public OtpData(String otp, LocalDateTime expirationTime) {
-            this.otp = otp;
-            this.expirationTime = expirationTime;
-        }
-
-        public String getOtp() {
-            return otp;
-        }
-
-        public LocalDateTime getExpirationTime() {
-            return expirationTime;
-        }
-    }
-}
\ No newline at end of file
+}
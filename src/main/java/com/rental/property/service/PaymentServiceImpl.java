@@ -5,9 +5,12 @@ import com.rental.property.dto.PaymentTenantResponse;
 import com.rental.property.entity.Lease;
 import com.rental.property.entity.Payment;
 import com.rental.property.entity.PaymentInfo;
+import com.rental.property.entity.Property;
+import com.rental.property.event.PropertyChangedEvent;
 import com.rental.property.exception.PaymentNotFoundException;
 import com.rental.property.repo.LeaseRepository;
 import com.rental.property.repo.PaymentRepository;
+import com.rental.property.search.PropertyDocument;
 import com.rental.property.util.PaymentMapper;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
@@ -17,6 +20,7 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -30,6 +34,7 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final LeaseRepository leaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${stripe.api.key}")
     private String stripeApiKey;
@@ -81,9 +86,12 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setPaymentInfo(paymentInfo);
 
             payment.getLease().getRentalTransaction().setStatus("Completed");
-            payment.getLease().getProperty().setAvailabilityStatus("Rented");
+            Property property = payment.getLease().getProperty();
+            PropertyDocument before = PropertyDocument.from(property);
+            property.setAvailabilityStatus("Rented");
 
             Payment savedPayment = paymentRepository.save(payment);
+            eventPublisher.publishEvent(PropertyChangedEvent.saved(before, property));
             log.info("Payment created successfully for lease ID: {}", leaseId);
             return PaymentMapper.toDTO(savedPayment);
 
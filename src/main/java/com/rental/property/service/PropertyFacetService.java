@@ -0,0 +1,8 @@
+package com.rental.property.service;
+import com.rental.property.dto.PropertyFacetsDto;
+import org.springframework.stereotype.Service;
+@Service
+public interface PropertyFacetService {
+    PropertyFacetsDto getFacets();
+    void reconcile();
+}
@@ -0,0 +1,135 @@
+package com.rental.property.service;
+import com.rental.property.dto.PropertyFacetsDto;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.search.FacetGroup;
+import com.rental.property.search.PropertyDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.*;
+/**
+ * Facet counts over available listings, adjusted from {@link PropertyChangedEvent}s and periodically
+ * replaced with a fresh GROUP BY so any drift (e.g. an event racing a reconcile) is bounded by the interval.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PropertyFacetServiceImpl implements PropertyFacetService {
+    static final String AVAILABLE = "Available";
+    // PropertyRepository.RENT_BAND computes the same bands in the reconcile query; change both together.
+    private static final double[] RENT_BAND_LIMITS = {10000, 20000, 30000, 50000};
+    private final PropertyRepository propertyRepository;
+    private Counts counts = new Counts();
+
+    @Override
+    public synchronized PropertyFacetsDto getFacets() {
+        return PropertyFacetsDto.builder()
+                .cities(sortedByCount(counts.cities))
+                .bhk(sortedByCount(counts.bhk))
+                .propertyTypes(sortedByCount(counts.propertyTypes))
+                .rentBands(byBand(counts.rentBands))
+                .build();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${renthub.facets.reconcile-interval:PT15M}",
+            initialDelayString = "${renthub.facets.reconcile-interval:PT15M}")
+    public void reconcile() {
+        Counts fresh = new Counts();
+        for (FacetGroup group : propertyRepository.countAvailableByFacets(AVAILABLE)) {
+            fresh.add(group.getCity(), group.getBhk(), group.getPropertyType(), group.getRentBand(), group.getCount());
+        }
+        synchronized (this) {
+            if (!fresh.equals(counts)) {
+                log.info("Property facet counts reconciled against the database");
+            }
+            counts = fresh;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        count(event.getBefore(), -1);
+        count(event.getAfter(), 1);
+    }
+
+    private void count(PropertyDocument document, long delta) {
+        if (document != null && AVAILABLE.equalsIgnoreCase(document.getAvailabilityStatus())) {
+            counts.add(document.getCity(), document.getBhk(), document.getPropertyType(), rentBand(document.getRentAmount()),
+                    delta);
+        }
+    }
+
+    static String rentBand(double rentAmount) {
+        long lower = 0;
+        for (double limit : RENT_BAND_LIMITS) {
+            if (rentAmount < limit) {
+                return lower + "-" + (long) limit;
+            }
+            lower = (long) limit;
+        }
+        return lower + "+";
+    }
+
+    private static Map<String, Long> sortedByCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static Map<String, Long> byBand(Map<String, Long> counts) {
+        Map<String, Long> bands = new LinkedHashMap<>();
+        double lower = 0;
+        for (double limit : RENT_BAND_LIMITS) {
+            String band = rentBand(lower);
+            bands.put(band, counts.getOrDefault(band, 0L));
+            lower = limit;
+        }
+        String top = rentBand(lower);
+        bands.put(top, counts.getOrDefault(top, 0L));
+        return bands;
+    }
+
+    private static class Counts {
+        private final Map<String, Long> cities = new HashMap<>();
+        private final Map<String, Long> bhk = new HashMap<>();
+        private final Map<String, Long> propertyTypes = new HashMap<>();
+        private final Map<String, Long> rentBands = new HashMap<>();
+
+        void add(String city, String bhkValue, String propertyType, String rentBand, long delta) {
+            add(cities, city, delta);
+            add(bhk, bhkValue, delta);
+            add(propertyTypes, propertyType, delta);
+            add(rentBands, rentBand, delta);
+        }
+
+        private static void add(Map<String, Long> counts, String key, long delta) {
+            if (key == null || key.isBlank()) {
+                return;
+            }
+            counts.compute(key.trim(), (k, current) -> {
+                long next = (current == null ? 0 : current) + delta;
+                return next > 0 ? next : null;
+            });
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Counts that && cities.equals(that.cities) && bhk.equals(that.bhk)
+                    && propertyTypes.equals(that.propertyTypes) && rentBands.equals(that.rentBands);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cities, bhk, propertyTypes, rentBands);
+        }
+    }
+}
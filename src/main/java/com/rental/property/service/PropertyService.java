@@ -3,6 +3,8 @@ import com.rental.property.dto.PropertyRequestDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionResponseDto;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.storage.ImageContent;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -10,8 +12,11 @@ import java.io.IOException;
 import java.util.List;
 @Service
 public interface PropertyService {
-    PropertyResponseDto addNewProperty(PropertyRequestDto propertyRequestDto, MultipartFile image) throws IOException;
+    PropertyResponseDto addNewProperty(PropertyRequestDto propertyRequestDto, List<MultipartFile> images) throws IOException;
+    PropertyResponseDto addPropertyImages(Long propertyId, List<MultipartFile> images) throws IOException;
     PropertyResponseDto getPropertyById(Long propertyId);
+    ImageContent getPropertyImage(Long propertyId, int n);
+    ImageContent getPropertyImage(Long propertyId, int n, ImageVariant variant);
     PropertyResponseDto updateProperty(Long propertyId, PropertyRequestDto propertyRequestDto);
     void deleteProperty(Long propertyId);
     List<PropertyResponseDto> getAllPropertyByLandLordId(Long ownerId, Pageable pageable);
@@ -1,18 +1,37 @@
 package com.rental.property.service;
+import com.rental.property.dto.CustomUserDetails;
 import com.rental.property.dto.PropertyRequestDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionResponseDto;
 import com.rental.property.entity.Property;
+import com.rental.property.entity.PropertyImage;
 import com.rental.property.entity.RentalTransaction;
 import com.rental.property.entity.User;
+import com.rental.property.event.PropertyChangedEvent;
 import com.rental.property.exception.PropertyNotFoundException;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.repo.PropertyImageRepository;
+import com.rental.property.repo.PropertyImageVariantRepository;
 import com.rental.property.repo.PropertyRepository;
 import com.rental.property.repo.RentalTransactionRepository;
 import com.rental.property.repo.UserRepository;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.BlobStore;
+import com.rental.property.storage.FileSystemBlobStore;
+import com.rental.property.storage.ImageRef;
+import com.rental.property.storage.ImageCache;
+import com.rental.property.storage.ImageContent;
 import com.rental.property.util.EntityMapper;
+import com.rental.property.util.ImageContentTypeUtil;
+import com.rental.property.util.ImageUrlUtil;
 import com.rental.property.util.RentalTransactionMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -21,11 +40,14 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -40,9 +62,17 @@ public class PropertyServiceImpl implements PropertyService {
     private final UserRepository userRepository;
     private final RentalTransactionRepository rentalTransactionRepository;
     private final RentalTransactionMapper rentalTransactionMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlobStore blobStore;
+    private final PropertyImageVariantRepository imageVariantRepository;
+    private final PropertyImageRepository propertyImageRepository;
+    private final ImageCache imageCache;
+
+    @Value("${renthub.images.max-per-property:10}")
+    private int maxImagesPerProperty = 10;
 
     @Override
-    public PropertyResponseDto addNewProperty(PropertyRequestDto propertyRequestDto, MultipartFile image) throws IOException {
+    public PropertyResponseDto addNewProperty(PropertyRequestDto propertyRequestDto, List<MultipartFile> images) throws IOException {
         Property propObj = entityMapper.convertPropRequestDtoToProperty(propertyRequestDto);
 // propObj.setLandlordId(propObj.getUser().getId());
         Set<String> roles =
@@ -51,19 +81,93 @@ public class PropertyServiceImpl implements PropertyService {
             Long currentLandLordId = getCurrentLandLordId();
             User landlord = userRepository.findById(currentLandLordId).get();
             propObj.setUser(landlord);
-            propObj.setImage1(image.getBytes());
+            requireImages(images, 0);
+            List<PropertyImage> stored = storeImages(propObj, images, ImageUrlUtil.PRIMARY_IMAGE);
+            propObj.setImages(new ArrayList<>(stored));
+            setCover(propObj, stored.get(0));
             propObj.setLandlordId(currentLandLordId);
             propObj.setCreatedBy(landlord.getUsername());
             propObj.setCreatedDate(LocalDateTime.now());
             Property savedProp = propertyRepository.save(propObj);
+            eventPublisher.publishEvent(PropertyChangedEvent.saved(null, savedProp));
             return entityMapper.convertPropToPropResponseDto(savedProp);
         } else {
             throw new RuntimeException("Sign in as landlord");
         }
     }
 
+    @Override
+    @Transactional
+    public PropertyResponseDto addPropertyImages(Long propertyId, List<MultipartFile> images) throws IOException {
+        Property existing = propertyRepository.findByIdForUpdate(propertyId).orElseThrow(() -> new PropertyNotFoundException("No such property"));
+        if (!existing.getUser().getId().equals(getCurrentLandLordId())) {
+            throw new AuthorizationDeniedException("This property does not belongs to you");
+        }
+        boolean hasCover = existing.getImageHash() != null || existing.getImage1() != null;
+        int last = propertyImageRepository.findLastPosition(propertyId);
+        if (last == 0 && hasCover) {
+            // Listed before properties had several images; its only image is the cover.
+            last = ImageUrlUtil.PRIMARY_IMAGE;
+        }
+        requireImages(images, last);
+        List<PropertyImage> stored = storeImages(existing, images, last + 1);
+        propertyImageRepository.saveAll(stored);
+        if (!hasCover) {
+            PropertyDocument before = PropertyDocument.from(existing);
+            setCover(existing, stored.get(0));
+            propertyRepository.save(existing);
+            eventPublisher.publishEvent(PropertyChangedEvent.saved(before, existing));
+        }
+        return getPropertyById(propertyId);
+    }
+
+    private void requireImages(List<MultipartFile> images, int existing) {
+        if (images == null || images.isEmpty()) {
+            throw new IllegalArgumentException("At least one image is required");
+        }
+        if (existing + images.size() > maxImagesPerProperty) {
+            throw new IllegalArgumentException("A property can have at most " + maxImagesPerProperty + " images");
+        }
+        for (MultipartFile image : images) {
+            if (image.isEmpty()) {
+                throw new IllegalArgumentException("Image " + image.getOriginalFilename() + " is empty");
+            }
+        }
+    }
+
+    // Uploads are read from the container's temp files straight into the blob store, never whole into memory.
+    private List<PropertyImage> storeImages(Property property, List<MultipartFile> images, int firstPosition) throws IOException {
+        List<PropertyImage> stored = new ArrayList<>(images.size());
+        int position = firstPosition;
+        for (MultipartFile image : images) {
+            BlobInfo blob;
+            try (InputStream content = image.getInputStream()) {
+                blob = blobStore.put(content);
+            }
+            stored.add(PropertyImage.builder()
+                    .property(property)
+                    .position(position++)
+                    .hash(blob.getHash())
+                    .size(blob.getSize())
+                    .contentType(ImageContentTypeUtil.detect(image.getInputStream()))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return stored;
+    }
+
+    private static void setCover(Property property, PropertyImage cover) {
+        property.setImageHash(cover.getHash());
+        property.setImageSize(cover.getSize());
+        property.setImageContentType(cover.getContentType());
+    }
+
     private Long getCurrentLandLordId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof CustomUserDetails principal && principal.getUserId() != null) {
+            return principal.getUserId();
+        }
         if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof UserDetails) {
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             String username = userDetails.getUsername();
@@ -81,13 +185,29 @@ public class PropertyServiceImpl implements PropertyService {
         Property property = propertyRepository.findById(propertyId).orElseThrow(() -> new PropertyNotFoundException("No " +
                 "such " +
                 "property"));
-        return entityMapper.convertPropToPropResponseDto(property);
+        PropertyResponseDto propertyResponseDto = entityMapper.convertPropToPropResponseDto(property);
+        propertyResponseDto.setImageUrls(imageUrls(property));
+        return propertyResponseDto;
+    }
+
+    private List<String> imageUrls(Property property) {
+        List<String> urls = new ArrayList<>();
+        if (property.getImageHash() != null || property.getImage1() != null) {
+            urls.add(ImageUrlUtil.propertyImageUrl(property.getPropertyId(), property.getImageHash()));
+        }
+        for (PropertyImage image : propertyImageRepository.findByProperty_PropertyIdOrderByPosition(property.getPropertyId())) {
+            if (image.getPosition() != ImageUrlUtil.PRIMARY_IMAGE) {
+                urls.add(ImageUrlUtil.propertyImageUrl(property.getPropertyId(), image.getPosition(), image.getHash()));
+            }
+        }
+        return urls;
     }
 
     @Override
     public PropertyResponseDto updateProperty(Long propertyId, PropertyRequestDto propertyRequestDto) {
         Property existing = propertyRepository.findById(propertyId).orElseThrow(() -> new PropertyNotFoundException("No such property"));
         if (existing.getUser().getId() == getCurrentLandLordId()) {
+            PropertyDocument before = PropertyDocument.from(existing);
             existing.setAddress(propertyRequestDto.getAddress());
             existing.setDescription(propertyRequestDto.getDescription());
             existing.setAvailabilityStatus(propertyRequestDto.getAvailabilityStatus());
@@ -97,6 +217,7 @@ public class PropertyServiceImpl implements PropertyService {
             existing.setUpdatedDate(LocalDateTime.now());
             existing.setLandlordId(existing.getLandlordId());
             propertyRepository.save(existing);
+            eventPublisher.publishEvent(PropertyChangedEvent.saved(before, existing));
             return entityMapper.convertPropToPropResponseDto(existing);
         } else {
             throw new AuthorizationDeniedException("This property does not belongs to you");
@@ -109,6 +230,7 @@ public class PropertyServiceImpl implements PropertyService {
                 "property does not exist"));
         if (property.getUser().getId() == getCurrentLandLordId()) {
             propertyRepository.deleteById(propertyId);
+            eventPublisher.publishEvent(PropertyChangedEvent.deleted(property));
         } else {
             throw new AuthorizationDeniedException("This property does not belongs to you");
         }
@@ -116,11 +238,56 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     public List<PropertyResponseDto> getAllPropertyByLandLordId(Long id, Pageable pageable) {
-        Page<Property> propertyPage = propertyRepository.findPropertyByOwnerId(id, pageable);
-        List<Property> propertyList = propertyPage.getContent();
+        Page<PropertyDocument> propertyPage = propertyRepository.findDocumentsByOwnerId(id, pageable);
+        List<PropertyDocument> propertyList = propertyPage.getContent();
         log.info("Total records fetched from DB = {} total pages = {} records in each page {} is {} ",
                 propertyPage.getTotalElements(), propertyPage.getTotalPages(), propertyPage.getNumber(), propertyList.size());
-        return entityMapper.propListToPropResponseDtoList(propertyList);
+        return entityMapper.documentListToPropResponseDtoList(propertyList);
+    }
+
+    @Override
+    public ImageContent getPropertyImage(Long propertyId, int n) {
+        return readOriginal(propertyId, findImageRef(propertyId, n));
+    }
+
+    @Override
+    public ImageContent getPropertyImage(Long propertyId, int n, ImageVariant variant) {
+        ImageRef imageRef = findImageRef(propertyId, n);
+        // Only the cover is rendered; other images are served as uploaded.
+        if (n == ImageUrlUtil.PRIMARY_IMAGE && imageRef.getHash() != null) {
+            Optional<ImageContent> rendition = imageVariantRepository.findByPropertyIdAndVariant(propertyId, variant)
+                    .filter(v -> v.getSourceHash().equals(imageRef.getHash()))
+                    .flatMap(v -> imageCache.get(v.getHash())
+                            .map(content -> new ImageContent(content, v.getContentType(), v.getHash(), imageRef.getHash())));
+            if (rendition.isPresent()) {
+                return rendition.get();
+            }
+        }
+        // Not rendered yet: serve the original, unversioned so caches come back for the rendition.
+        ImageContent original = readOriginal(propertyId, imageRef);
+        return new ImageContent(original.getContent(), original.getContentType(), original.getHash(), null);
+    }
+
+    private ImageRef findImageRef(Long propertyId, int n) {
+        if (n == ImageUrlUtil.PRIMARY_IMAGE) {
+            return propertyRepository.findImageRefById(propertyId)
+                    .orElseThrow(() -> new PropertyNotFoundException("No such property"));
+        }
+        return propertyImageRepository.findImageRef(propertyId, n)
+                .orElseThrow(() -> new PropertyNotFoundException("No such image for this property"));
+    }
+
+    private ImageContent readOriginal(Long propertyId, ImageRef imageRef) {
+        if (imageRef.getHash() != null) {
+            Resource content = imageCache.get(imageRef.getHash())
+                    .orElseThrow(() -> new PropertyNotFoundException("Image not found for this property"));
+            return new ImageContent(content, imageRef.getContentType(), imageRef.getHash(), imageRef.getHash());
+        }
+        // Not migrated to the blob store yet; hashing gives the same ETag the blob will have once it is.
+        byte[] legacy = propertyRepository.findImageById(propertyId)
+                .orElseThrow(() -> new PropertyNotFoundException("Image not found for this property"));
+        String hash = FileSystemBlobStore.hashOf(legacy);
+        return new ImageContent(new ByteArrayResource(legacy), ImageContentTypeUtil.detect(legacy), hash, hash);
     }
 
     @Override
@@ -137,9 +304,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     public List<RentalTransactionResponseDto> getAllTenantTransactions(Long propertyId) {
-        Property property = propertyRepository.findById(propertyId).get();
-        List<RentalTransaction> rentalTransactionList = rentalTransactionRepository.findByProperty(property);
-        return RentalTransactionMapper.convertToResponseDtoList(rentalTransactionList);
+        return RentalTransactionMapper.viewsToResponseDtoList(rentalTransactionRepository.findViewsByPropertyId(propertyId));
     }
 
 //    @Override
@@ -154,21 +319,17 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     public List<RentalTransactionResponseDto> getAllTenantTransactionsByLandLordId(Long landlordId) {
-        List<RentalTransaction> rentalTransactionList=rentalTransactionRepository.findByLandLordId(landlordId);
-        return RentalTransactionMapper.convertToResponseDtoList(rentalTransactionList);
+        return RentalTransactionMapper.viewsToResponseDtoList(rentalTransactionRepository.findViewsByLandLordId(landlordId));
     }
 
     @Override
     public List<PropertyResponseDto> getAllPropertyById(Long id) {
 
-        User tenant = userRepository.findById(id).orElseThrow(() -> new RuntimeException("Tenant not found with ID: " + id));
-        List<RentalTransaction> rentedTransactions = rentalTransactionRepository.findAllByUser_Id(id);
-        log.info("Rented transactions {}",rentedTransactions);
-        List<RentalTransaction> rentalTransactionList=rentedTransactions.stream().filter(r->r.getStatus().equals(
-                "Completed")).collect(Collectors.toList());
-        List<Property> rentedProperties = rentalTransactionList.stream()
-                .map(RentalTransaction::getProperty).filter(p->p.getAvailabilityStatus().equals("Rented"))
-                .collect(Collectors.toList());
-        return entityMapper.propListToPropResponseDtoList(rentedProperties);
+        if (!userRepository.existsById(id)) {
+            throw new RuntimeException("Tenant not found with ID: " + id);
+        }
+        List<PropertyDocument> rentedProperties = propertyRepository.findRentedDocumentsByTenantId(id);
+        log.info("Rented properties {}", rentedProperties.size());
+        return entityMapper.documentListToPropResponseDtoList(rentedProperties);
     }
 }
\ No newline at end of file
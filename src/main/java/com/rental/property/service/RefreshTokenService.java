@@ -0,0 +1,9 @@
+package com.rental.property.service;
+import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.dto.RotatedRefreshToken;
+public interface RefreshTokenService {
+    String issue(CustomUserDetails user);
+    RotatedRefreshToken rotate(String refreshToken);
+    void revoke(String refreshToken);
+    int purgeExpired();
+}
@@ -0,0 +1,124 @@
+package com.rental.property.service;
+import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.dto.RotatedRefreshToken;
+import com.rental.property.entity.RefreshToken;
+import com.rental.property.entity.User;
+import com.rental.property.exception.InvalidRefreshTokenException;
+import com.rental.property.repo.RefreshTokenRepository;
+import com.rental.property.repo.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+/**
+ * Issues and rotates refresh tokens. The token is 256 random bits, so an unsalted SHA-256 is enough to keep the
+ * table useless to whoever reads it. Refreshing needs no password check, only this table and the user row.
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                                   @Value("${renthub.auth.refresh-token.ttl:P14D}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+    }
+
+    /** Starts a new family, one per sign-in. */
+    @Override
+    @Transactional
+    public String issue(CustomUserDetails user) {
+        return newToken(userRepository.getReferenceById(user.getUserId()), UUID.randomUUID().toString(),
+                user.getTokenVersion());
+    }
+
+    // Rejections must still commit, or a detected reuse would roll back its own family revocation.
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public RotatedRefreshToken rotate(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is not recognised"));
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            log.warn("Refresh token of user {} was reused, revoked its family {}",
+                    current.getUser().getId(), current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token was already used");
+        }
+        User user = current.getUser();
+        int tokenVersion = user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+        if (tokenVersion != current.getTokenVersion()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token was revoked");
+        }
+        return new RotatedRefreshToken(new CustomUserDetails(user), newToken(user, current.getFamilyId(), tokenVersion));
+    }
+
+    /** Ends the token's family; an unknown token is ignored so logout never fails on it. */
+    @Override
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /** Used tokens are kept until they expire so a late replay is still recognised as reuse. */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${renthub.auth.refresh-token.purge-interval:PT1H}",
+            initialDelayString = "${renthub.auth.refresh-token.purge-initial-delay:PT5M}")
+    public int purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+        return purged;
+    }
+
+    private String newToken(User user, String familyId, int tokenVersion) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .tokenVersion(tokenVersion)
+                .expiresAt(now.plus(ttl))
+                .createdAt(now)
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
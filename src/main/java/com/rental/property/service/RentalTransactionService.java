@@ -1,13 +1,21 @@
 package com.rental.property.service;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.dto.PropertyCatalogPageDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
+import com.rental.property.search.PropertySearchCriteria;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.function.Consumer;
 @Service
 public interface RentalTransactionService {
     List<PropertyResponseDto> getAllProperty();
-    List<PropertyResponseDto> searchProperties(String city, String minPrice, String maxPrice, String bhk);
+    PropertyCatalogPageDto getPropertyCatalog(String cursor, int size);
+    void streamAllProperty(Consumer<List<PropertyResponseDto>> batchConsumer);
+    List<PropertyResponseDto> searchProperties(PropertySearchCriteria criteria);
+    List<PropertyResponseDto> searchNearby(Long pinCode, double radiusKm, PropertySearchCriteria criteria);
+    List<LocalitySuggestionDto> suggestLocalities(String prefix, int limit);
     RentalTransactionDto applyForProperty(Long propertyId, RentalTransactionDto rentalTransactionDto, Long userId);
     List<RentalTransactionTenantResponse> viewApplicationStatus(Long userId);
 }
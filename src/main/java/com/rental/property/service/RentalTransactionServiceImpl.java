@@ -1,5 +1,7 @@
 package com.rental.property.service;
 import com.fasterxml.jackson.databind.annotation.JsonAppend;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.dto.PropertyCatalogPageDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
@@ -7,15 +9,35 @@ import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
 import com.rental.property.entity.User;
 import com.rental.property.exception.PropertyNotFoundException;
+import com.rental.property.geo.GeoPoint;
+import com.rental.property.geo.PinCodeDirectory;
 import com.rental.property.repo.PropertyRepository;
 import com.rental.property.repo.RentalTransactionRepository;
 import com.rental.property.repo.UserRepository;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.LocalityAutocomplete;
+import com.rental.property.search.NearbyProperty;
+import com.rental.property.search.PropertySearchCache;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySearchIndex;
+import com.rental.property.search.PropertySort;
+import com.rental.property.search.PropertySpecifications;
+import com.rental.property.search.SearchCacheKey;
+import com.rental.property.util.CatalogCursorUtil;
 import com.rental.property.util.EntityMapper;
 import com.rental.property.util.RentalTransactionMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 @RequiredArgsConstructor
 @Service
 public class RentalTransactionServiceImpl implements RentalTransactionService {
@@ -23,15 +45,157 @@ public class RentalTransactionServiceImpl implements RentalTransactionService {
     private final UserRepository userRepository;
     private  final RentalTransactionRepository rentalTransactionRepository;
     private  final EntityMapper entityMapper;
+    private final PropertySearchIndex propertySearchIndex;
+    private final PinCodeDirectory pinCodeDirectory;
+    private final PropertySearchCache propertySearchCache;
+    private final LocalityAutocomplete localityAutocomplete;
+    private static final int MAX_CATALOG_PAGE_SIZE = 200;
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final double MAX_NEARBY_RADIUS_KM = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_SUGGEST_PREFIX_LENGTH = 50;
+    private static final int MAX_SUGGESTIONS = 20;
     @Override
     public List<PropertyResponseDto> getAllProperty() {
-        List<Property> propertyList=propertyRepository.findAll();
-        return entityMapper.propListToPropResponseDtoList(propertyList);
+        return entityMapper.documentListToPropResponseDtoList(propertyRepository.findAllDocuments());
     }
     @Override
-    public List<PropertyResponseDto> searchProperties(String city, String minPrice, String maxPrice, String bhk) {
-        List<Property> propertyList=propertyRepository.searchProperties(city,maxPrice,minPrice,bhk);
-        return entityMapper.propListToPropResponseDtoList(propertyList);
+    public PropertyCatalogPageDto getPropertyCatalog(String cursor, int size) {
+        if (size < 1 || size > MAX_CATALOG_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CATALOG_PAGE_SIZE);
+        }
+        Long afterId = CatalogCursorUtil.decode(cursor);
+        // Fetch one extra row so we know whether another page exists without a COUNT query.
+        List<PropertyDocument> propertyList = propertyRepository.findDocumentsAfter(afterId, Limit.of(size + 1));
+        boolean hasMore = propertyList.size() > size;
+        List<PropertyDocument> page = hasMore ? propertyList.subList(0, size) : propertyList;
+        String nextCursor = hasMore ? CatalogCursorUtil.encode(page.get(page.size() - 1).getPropertyId()) : null;
+        return PropertyCatalogPageDto.builder()
+                .properties(entityMapper.documentListToPropResponseDtoList(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+    @Override
+    public void streamAllProperty(Consumer<List<PropertyResponseDto>> batchConsumer) {
+        Long afterId = 0L;
+        List<PropertyDocument> batch;
+        do {
+            // Projections are never managed, so the open-in-view persistence context does not grow per batch.
+            batch = propertyRepository.findDocumentsAfter(afterId, Limit.of(STREAM_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getPropertyId();
+            batchConsumer.accept(entityMapper.documentListToPropResponseDtoList(batch));
+        } while (batch.size() == STREAM_BATCH_SIZE);
+    }
+    @Override
+    public List<PropertyResponseDto> searchProperties(PropertySearchCriteria criteria) {
+        validateSearch(criteria);
+        if (criteria.getCityMatch() == null) {
+            criteria.setCityMatch(CityMatch.PREFIX);
+        }
+        if (criteria.getSort() == null) {
+            boolean hasQuery = criteria.getQuery() != null && !criteria.getQuery().isBlank();
+            criteria.setSort(hasQuery ? PropertySort.RELEVANCE : PropertySort.NEWEST);
+        }
+        return propertySearchCache.get(SearchCacheKey.of(criteria), () -> findMatchingProperties(criteria));
+    }
+    private List<PropertyResponseDto> findMatchingProperties(PropertySearchCriteria criteria) {
+        if (!propertySearchIndex.isReady()) {
+            List<PropertyDocument> page = propertyRepository.findDocuments(PropertySpecifications.matching(criteria),
+                    PageRequest.of(criteria.getPage(), criteria.getSize(), criteria.getSort().getSort()));
+            return entityMapper.documentListToPropResponseDtoList(page);
+        }
+        List<Long> propertyIds = propertySearchIndex.search(criteria);
+        if (propertyIds.isEmpty()) {
+            return List.of();
+        }
+        return entityMapper.documentListToPropResponseDtoList(findAllInOrder(propertyIds));
+    }
+    @Override
+    public List<PropertyResponseDto> searchNearby(Long pinCode, double radiusKm, PropertySearchCriteria criteria) {
+        validateSearch(criteria);
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+        GeoPoint center = pinCodeDirectory.locate(pinCode)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown pin code: " + pinCode));
+        List<NearbyProperty> matches;
+        if (propertySearchIndex.isReady()) {
+            matches = propertySearchIndex.searchNearby(center, radiusKm, criteria);
+        } else {
+            matches = searchNearbyInDatabase(center, radiusKm, criteria);
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        List<Long> propertyIds = new ArrayList<>(matches.size());
+        matches.forEach(match -> propertyIds.add(match.getPropertyId()));
+        List<PropertyResponseDto> responseList = entityMapper.documentListToPropResponseDtoList(findAllInOrder(propertyIds));
+        Map<Long, Double> distances = new HashMap<>();
+        matches.forEach(match -> distances.put(match.getPropertyId(), match.getDistanceKm()));
+        responseList.forEach(dto -> dto.setDistanceKm(Math.round(distances.get(dto.getPropertyId()) * 100) / 100.0));
+        return responseList;
+    }
+    @Override
+    public List<LocalitySuggestionDto> suggestLocalities(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank");
+        }
+        if (prefix.length() > MAX_SUGGEST_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Prefix cannot exceed " + MAX_SUGGEST_PREFIX_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return localityAutocomplete.suggest(prefix, limit);
+    }
+    private List<NearbyProperty> searchNearbyInDatabase(GeoPoint center, double radiusKm, PropertySearchCriteria criteria) {
+        Map<Long, Double> distanceByPinCode = new HashMap<>();
+        for (Long pinCode : pinCodeDirectory.pinCodesWithin(center, radiusKm)) {
+            pinCodeDirectory.locate(pinCode).ifPresent(point -> distanceByPinCode.put(pinCode, center.distanceKm(point)));
+        }
+        // Ordered and paged in SQL, so only the requested page is read however many listings are in range.
+        List<PropertyDocument> page = propertyRepository.findDocuments(PropertySpecifications.matching(criteria)
+                        .and(PropertySpecifications.pinCodesNearestFirst(distanceByPinCode)),
+                PageRequest.of(criteria.getPage(), criteria.getSize()));
+        List<NearbyProperty> matches = new ArrayList<>(page.size());
+        for (PropertyDocument property : page) {
+            matches.add(new NearbyProperty(property.getPropertyId(), distanceByPinCode.get(property.getPinCode())));
+        }
+        return matches;
+    }
+    private void validateSearch(PropertySearchCriteria criteria) {
+        if (criteria.getPage() < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (criteria.getSize() < 1 || criteria.getSize() > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        if (criteria.getMinRent() != null && criteria.getMaxRent() != null
+                && criteria.getMinRent() > criteria.getMaxRent()) {
+            throw new IllegalArgumentException("Minimum rent cannot exceed maximum rent");
+        }
+        if (criteria.getQuery() != null && criteria.getQuery().length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search text cannot exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+    }
+    private List<PropertyDocument> findAllInOrder(List<Long> propertyIds) {
+        Map<Long, PropertyDocument> propertiesById = new HashMap<>();
+        for (PropertyDocument property : propertyRepository.findDocumentsByIds(propertyIds)) {
+            propertiesById.put(property.getPropertyId(), property);
+        }
+        List<PropertyDocument> propertyList = new ArrayList<>(propertyIds.size());
+        for (Long propertyId : propertyIds) {
+            PropertyDocument property = propertiesById.get(propertyId);
+            if (property != null) {
+                propertyList.add(property);
+            }
+        }
+        return propertyList;
     }
     @Override
     public RentalTransactionDto applyForProperty(Long propertyId, RentalTransactionDto dto, Long userId) {
@@ -53,7 +217,6 @@ public class RentalTransactionServiceImpl implements RentalTransactionService {
     }
     @Override
     public List<RentalTransactionTenantResponse> viewApplicationStatus(Long userId) {
-        List<RentalTransaction> rentalTransactionList=rentalTransactionRepository.findAllByUser_Id(userId);
-        return RentalTransactionMapper.convertToTenantResponseList(rentalTransactionList);
+        return RentalTransactionMapper.viewsToTenantResponseList(rentalTransactionRepository.findViewsByUserId(userId));
     }
 }
@@ -0,0 +1,8 @@
+package com.rental.property.service;
+import java.time.Instant;
+public interface TokenRevocationService {
+    void revoke(String tokenId, Instant expiresAt);
+    boolean isRevoked(String tokenId);
+    void sync();
+    int purgeExpired();
+}
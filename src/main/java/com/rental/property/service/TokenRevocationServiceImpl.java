@@ -0,0 +1,181 @@
+package com.rental.property.service;
+import com.rental.property.entity.RevokedToken;
+import com.rental.property.repo.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+/**
+ * Revoked token ids, persisted in {@code revoked_token} and mirrored in memory so the per-request check never
+ * reaches the database. A counting Bloom filter answers "not revoked" for almost every token in a few array
+ * reads; only its rare positives consult the exact map. Counters are decremented when an entry expires, so the
+ * filter stays as sparse as the set of revocations still in force. Revocations made on other instances are
+ * picked up on the next sync.
+ */
+@Service
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration syncInterval;
+    private final CountingBloomFilter filter;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final Counter falsePositives;
+    private volatile LocalDateTime syncedUpTo = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+                                      @Value("${renthub.auth.revocation.expected-revocations:10000}") int expected,
+                                      @Value("${renthub.auth.revocation.sync-interval:PT10S}") Duration syncInterval) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.syncInterval = syncInterval;
+        this.filter = new CountingBloomFilter(expected, 0.01);
+        Gauge.builder("renthub.auth.revoked.tokens", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("renthub.auth.revocation.filter.false.positives")
+                .description("Revocation checks the Bloom filter could not rule out for a token that was not revoked")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZONE))
+                .createdAt(LocalDateTime.now())
+                .build());
+        remember(tokenId, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(tokenId);
+        if (expiresAt == null) {
+            falsePositives.increment();
+            return false;
+        }
+        return expiresAt.isAfter(Instant.now());
+    }
+
+    /** Loads revocations recorded since the last sync, by this or any other instance. */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${renthub.auth.revocation.sync-interval:PT10S}",
+            initialDelayString = "${renthub.auth.revocation.sync-interval:PT10S}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the previous window so rows committed late, or stamped by a slightly slow clock, are not missed.
+        LocalDateTime since = syncedUpTo.minus(syncInterval.multipliedBy(3));
+        int loaded = 0;
+        for (RevokedToken token : revokedTokenRepository.findActiveSince(since, now)) {
+            if (remember(token.getTokenId(), token.getExpiresAt().atZone(ZONE).toInstant())) {
+                loaded++;
+            }
+        }
+        syncedUpTo = now;
+        if (loaded > 0) {
+            log.debug("Loaded {} token revocations", loaded);
+        }
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${renthub.auth.revocation.purge-interval:PT5M}",
+            initialDelayString = "${renthub.auth.revocation.purge-interval:PT5M}")
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        revoked.forEach((tokenId, expiresAt) -> {
+            if (!expiresAt.isAfter(now) && revoked.remove(tokenId, expiresAt)) {
+                filter.remove(tokenId);
+            }
+        });
+        return revokedTokenRepository.deleteExpired(LocalDateTime.ofInstant(now, ZONE));
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // The filter is updated before the map so a reader never finds the map entry hidden behind a zero counter.
+    private boolean remember(String tokenId, Instant expiresAt) {
+        filter.add(tokenId);
+        if (revoked.putIfAbsent(tokenId, expiresAt) != null) {
+            filter.remove(tokenId);
+            return false;
+        }
+        return true;
+    }
+
+    /** Bloom filter with counters instead of bits so entries can be removed again. */
+    static final class CountingBloomFilter {
+        private final AtomicIntegerArray counters;
+        private final int hashes;
+
+        CountingBloomFilter(int expected, double falsePositiveRate) {
+            int n = Math.max(expected, 1);
+            int size = (int) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.counters = new AtomicIntegerArray(size);
+            this.hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            for (int i = 0; i < hashes; i++) {
+                counters.incrementAndGet(index(hash, i));
+            }
+        }
+
+        void remove(String key) {
+            long hash = hash(key);
+            for (int i = 0; i < hashes; i++) {
+                counters.decrementAndGet(index(hash, i));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            for (int i = 0; i < hashes; i++) {
+                if (counters.get(index(hash, i)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Double hashing: the i-th probe is h1 + i * h2 over one 64-bit FNV-1a hash of the key.
+        private int index(long hash, int i) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            return Math.floorMod(h1 + i * h2, counters.length());
+        }
+
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.rental.property.service;
+public interface TokenVersionService {
+    boolean isCurrent(Long userId, int tokenVersion);
+    void revokeTokens(Long userId);
+}
@@ -0,0 +1,76 @@
+package com.rental.property.service;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.rental.property.repo.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.Optional;
+/**
+ * Tracks the token version of recently active users so a token can be checked for revocation without loading
+ * the user. A miss costs one single-column read; the TTL bounds how long another instance's revocation can go
+ * unseen here.
+ */
+@Service
+@Slf4j
+public class TokenVersionServiceImpl implements TokenVersionService {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomUserDetailsService userDetailsService;
+    private final LoadingCache<Long, Optional<Integer>> versions;
+
+    public TokenVersionServiceImpl(UserRepository userRepository, TransactionTemplate transactionTemplate,
+                                   CustomUserDetailsService userDetailsService, MeterRegistry meterRegistry,
+                                   @Value("${renthub.auth.token-version-cache.max-size:10000}") long maxSize,
+                                   @Value("${renthub.auth.token-version-cache.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        // Its own transaction, so a revocation deferred to after a commit is not lost in the finished one.
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userDetailsService = userDetailsService;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(userRepository::findTokenVersionById);
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersion");
+    }
+
+    @Override
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        // A deleted user has no version, so none of their tokens are current.
+        return versions.get(userId).map(current -> current == tokenVersion).orElse(false);
+    }
+
+    /** Revokes every token the user holds. Inside a transaction this waits for the commit, so a rollback keeps them. */
+    @Override
+    public void revokeTokens(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revoke(userId);
+                }
+            });
+        } else {
+            revoke(userId);
+        }
+    }
+
+    private void revoke(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.incrementTokenVersion(userId);
+            // A cached principal still carries the old version, and a token issued from it would be dead on arrival.
+            userDetailsService.invalidate(userId);
+        });
+        versions.invalidate(userId);
+        log.info("Revoked all tokens of user {}", userId);
+    }
+}
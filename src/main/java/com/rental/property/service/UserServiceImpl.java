@@ -11,6 +11,7 @@ import com.rental.property.util.UserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -33,6 +34,12 @@ public class UserServiceImpl implements UserService{
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
 
     private static final String PASSWORD_PATTERN =
             "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!])(?=\\S+$).{8,}$";
@@ -70,8 +77,12 @@ public class UserServiceImpl implements UserService{
     }
 
     @Override
+    @Transactional
     public UserDto updateProfile(Long id, UserDto userDto) {
         User user =userRepository.findById(id).get();
+        String previousUsername = user.getUsername();
+        boolean credentialsChanged = !previousUsername.equals(userDto.getUsername())
+                || !passwordEncoder.matches(userDto.getPassword(), user.getPassword());
         user.setUsername(userDto.getUsername());
         user.setPassword(passwordEncoder.encode(userDto.getPassword()));
         user.setFirstName(userDto.getFirstName());
@@ -79,6 +90,11 @@ public class UserServiceImpl implements UserService{
         user.setEmail(userDto.getEmail());
         user.setMobileNo(userDto.getMobileNo());
         userRepository.save(user);
+        // Both take effect once the change commits. Tokens carry the username and outlive the old password.
+        userDetailsService.invalidate(previousUsername);
+        if (credentialsChanged) {
+            tokenVersionService.revokeTokens(id);
+        }
         return userUtil.convertUserToUserDto(user);
     }
 
@@ -0,0 +1,9 @@
+package com.rental.property.storage;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+@Value
+@AllArgsConstructor
+public class BlobInfo {
+    String hash;
+    long size;
+}
@@ -0,0 +1,9 @@
+package com.rental.property.storage;
+import org.springframework.core.io.Resource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+public interface BlobStore {
+    BlobInfo put(InputStream content) throws IOException;
+    Optional<Resource> get(String hash);
+}
@@ -0,0 +1,359 @@
+package com.rental.property.storage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * LRU cache of hot image blobs in front of the {@link BlobStore}. Bytes are kept off-heap in fixed-size direct
+ * pages drawn from a pool capped at the byte budget, so cached images add nothing to heap size or GC work and
+ * the pool never grows past the budget. Blobs are content-addressed and never change, so entries only age out.
+ * Each entry carries a CRC32C that is checked before it is served; a mismatch drops the entry and reads the store.
+ */
+@Component
+@Slf4j
+public class ImageCache {
+    private final BlobStore blobStore;
+    private final PagePool pool;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Counter corruptions;
+
+    public ImageCache(BlobStore blobStore, MeterRegistry meterRegistry,
+                      @Value("${renthub.image-cache.max-bytes:67108864}") long maxBytes,
+                      @Value("${renthub.image-cache.max-entry-bytes:2097152}") long maxEntryBytes,
+                      @Value("${renthub.image-cache.page-bytes:16384}") int pageBytes) {
+        this.blobStore = blobStore;
+        this.pool = new PagePool(pageBytes, (int) Math.min(maxBytes / pageBytes, Integer.MAX_VALUE));
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        Gauge.builder("renthub.image.cache.hit.ratio", this, ImageCache::hitRatio)
+                .description("Share of image reads served from the off-heap cache")
+                .register(meterRegistry);
+        Gauge.builder("renthub.image.cache.resident", pool, PagePool::residentBytes)
+                .description("Off-heap bytes held by cached images, including evicted ones still being sent")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("renthub.image.cache.entries", this, ImageCache::size).register(meterRegistry);
+        this.corruptions = Counter.builder("renthub.image.cache.corruptions")
+                .description("Cached images dropped because their checksum no longer matched")
+                .register(meterRegistry);
+    }
+
+    /** Serves the blob from the cache, or from the store and caches it for next time if it fits. */
+    public Optional<Resource> get(String hash) {
+        Entry entry = lookup(hash);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(new CachedResource(hash, entry));
+        }
+        misses.increment();
+        Optional<Resource> content = blobStore.get(hash);
+        content.ifPresent(resource -> load(hash, resource));
+        return content;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private Entry lookup(String hash) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(hash);
+            if (entry == null || !entry.retain()) {
+                return null;
+            }
+        }
+        try {
+            if (entry.checksum() == entry.expectedChecksum) {
+                return entry;
+            }
+        } finally {
+            entry.release();
+        }
+        log.warn("Cached image {} failed its checksum, dropping it", hash);
+        corruptions.increment();
+        synchronized (entries) {
+            if (entries.remove(hash, entry)) {
+                entry.release();
+            }
+        }
+        return null;
+    }
+
+    private void load(String hash, Resource resource) {
+        try {
+            long length = resource.contentLength();
+            if (length == 0 || length > maxEntryBytes) {
+                return;
+            }
+            ByteBuffer[] pages = reserve(pool.pagesFor(length));
+            if (pages == null) {
+                return;
+            }
+            Entry entry;
+            try (ReadableByteChannel channel = resource.readableChannel()) {
+                entry = new Entry(pool, pages, length, fill(pages, length, channel));
+            } catch (IOException | RuntimeException e) {
+                pool.free(pages);
+                throw e;
+            }
+            synchronized (entries) {
+                if (entries.putIfAbsent(hash, entry) != null) {
+                    entry.release();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Not caching image {}: {}", hash, e.getMessage());
+        }
+    }
+
+    // Evicts from the least recently used end until the pool can hand out the pages. Evicted entries that are
+    // still being sent keep their pages until the response is done, so this can come up short and skip caching.
+    private ByteBuffer[] reserve(int count) {
+        synchronized (entries) {
+            Iterator<Entry> lru = entries.values().iterator();
+            ByteBuffer[] pages;
+            while ((pages = pool.allocate(count)) == null && lru.hasNext()) {
+                Entry eldest = lru.next();
+                lru.remove();
+                eldest.release();
+            }
+            return pages;
+        }
+    }
+
+    private static long fill(ByteBuffer[] pages, long length, ReadableByteChannel channel) throws IOException {
+        long remaining = length;
+        for (ByteBuffer page : pages) {
+            ByteBuffer target = page.duplicate().clear().limit((int) Math.min(page.capacity(), remaining));
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new EOFException("Blob is shorter than its reported length");
+                }
+            }
+            remaining -= target.limit();
+        }
+        return checksum(pages, length);
+    }
+
+    private static long checksum(ByteBuffer[] pages, long length) {
+        CRC32C crc = new CRC32C();
+        long remaining = length;
+        for (ByteBuffer page : pages) {
+            ByteBuffer content = page.duplicate().clear().limit((int) Math.min(page.capacity(), remaining));
+            remaining -= content.remaining();
+            crc.update(content);
+        }
+        return crc.getValue();
+    }
+
+    /** Pages are reference counted: the cache holds one reference and every open stream holds another. */
+    private static final class Entry {
+        private final PagePool pool;
+        private final ByteBuffer[] pages;
+        private final long length;
+        private final long expectedChecksum;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        Entry(PagePool pool, ByteBuffer[] pages, long length, long expectedChecksum) {
+            this.pool = pool;
+            this.pages = pages;
+            this.length = length;
+            this.expectedChecksum = expectedChecksum;
+        }
+
+        boolean retain() {
+            for (;;) {
+                int count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                pool.free(pages);
+            }
+        }
+
+        long checksum() {
+            return ImageCache.checksum(pages, length);
+        }
+    }
+
+    private final class CachedResource extends AbstractResource {
+        private final String hash;
+        private final Entry entry;
+
+        CachedResource(String hash, Entry entry) {
+            this.hash = hash;
+            this.entry = entry;
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached image [" + hash + "]";
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return entry.length;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (entry.retain()) {
+                return new EntryInputStream(entry);
+            }
+            // Evicted and its pages reused since the lookup; the store still has it.
+            return blobStore.get(hash).orElseThrow(() -> new FileNotFoundException(getDescription())).getInputStream();
+        }
+    }
+
+    private static final class EntryInputStream extends InputStream {
+        private final Entry entry;
+        private final int pageBytes;
+        private long position;
+        private boolean closed;
+
+        EntryInputStream(Entry entry) {
+            this.entry = entry;
+            this.pageBytes = entry.pages[0].capacity();
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureOpen();
+            if (position >= entry.length) {
+                return -1;
+            }
+            byte b = entry.pages[(int) (position / pageBytes)].get((int) (position % pageBytes));
+            position++;
+            return b & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= entry.length) {
+                return -1;
+            }
+            int offset = (int) (position % pageBytes);
+            int n = (int) Math.min(Math.min(len, pageBytes - offset), entry.length - position);
+            entry.pages[(int) (position / pageBytes)].get(offset, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            ensureOpen();
+            long skipped = Math.max(0, Math.min(n, entry.length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureOpen();
+            return (int) Math.min(entry.length - position, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                entry.release();
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+
+    /** Direct pages are allocated on first use and recycled after that; they are never handed back to the OS. */
+    private static final class PagePool {
+        private final int pageBytes;
+        private final int maxPages;
+        private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+        private int allocated;
+
+        PagePool(int pageBytes, int maxPages) {
+            this.pageBytes = pageBytes;
+            this.maxPages = maxPages;
+        }
+
+        int pagesFor(long length) {
+            return (int) ((length + pageBytes - 1) / pageBytes);
+        }
+
+        synchronized ByteBuffer[] allocate(int count) {
+            if (free.size() + maxPages - allocated < count) {
+                return null;
+            }
+            ByteBuffer[] pages = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                if (free.isEmpty()) {
+                    allocated++;
+                    pages[i] = ByteBuffer.allocateDirect(pageBytes);
+                } else {
+                    pages[i] = free.pop();
+                }
+            }
+            return pages;
+        }
+
+        synchronized void free(ByteBuffer[] pages) {
+            for (ByteBuffer page : pages) {
+                free.push(page);
+            }
+        }
+
+        synchronized long residentBytes() {
+            return (long) (allocated - free.size()) * pageBytes;
+        }
+    }
+}
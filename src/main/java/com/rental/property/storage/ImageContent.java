@@ -0,0 +1,16 @@
+package com.rental.property.storage;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.springframework.core.io.Resource;
+/**
+ * Image bytes ready to serve. {@code version} is the hash that versioned URLs for this image carry; it is null when
+ * the bytes are a stand-in (an original served before its rendition exists) and must not be cached as final.
+ */
+@Value
+@AllArgsConstructor
+public class ImageContent {
+    Resource content;
+    String contentType;
+    String hash;
+    String version;
+}
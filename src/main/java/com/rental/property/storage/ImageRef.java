@@ -0,0 +1,10 @@
+package com.rental.property.storage;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+@Value
+@AllArgsConstructor
+public class ImageRef {
+    String hash;
+    String contentType;
+    Long size;
+}
@@ -0,0 +1,24 @@
+package com.rental.property.util;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+public class CatalogCursorUtil {
+    private static final String CURSOR_PREFIX = "pid:";
+    public static String encode(Long lastPropertyId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastPropertyId).getBytes(StandardCharsets.UTF_8));
+    }
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid catalog cursor");
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid catalog cursor", e);
+        }
+    }
+}
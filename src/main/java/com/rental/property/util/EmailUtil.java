@@ -1,11 +1,14 @@
 package com.rental.property.util;
 
+import com.rental.property.service.EmailOutboxService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 @Component
 @RequiredArgsConstructor
 public class EmailUtil {
@@ -15,7 +18,7 @@ public class EmailUtil {
         Dear User,
 
         Your One-Time Password (OTP) for resetting your password is: %s
-        This OTP is valid for 10 minutes. Please do not share it with anyone.
+        This OTP is valid for %d minutes. Please do not share it with anyone.
 
         If you did not request a password reset, please ignore this email or contact support.
 
@@ -23,17 +26,21 @@ public class EmailUtil {
         RentHUB Team
         """;
 
-    private final JavaMailSender javaMailSender;
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${spring.mail.from-address:no-reply@rentalproperty.com}")
     private String fromEmail;
 
-    public void sendOtpEmail(String to, String otp) {
+    /**
+     * Queues the email in the outbox; it goes out once the caller's transaction commits, and not at all once the
+     * code has expired.
+     */
+    public void sendOtpEmail(String to, String otp, Duration validity) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(fromEmail);
         message.setTo(to);
         message.setSubject(OTP_SUBJECT);
-        message.setText(String.format(OTP_MESSAGE_TEMPLATE, otp));
-        javaMailSender.send(message);
+        message.setText(String.format(OTP_MESSAGE_TEMPLATE, otp, validity.toMinutes()));
+        emailOutboxService.enqueue(message, LocalDateTime.now().plus(validity));
     }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ import com.rental.property.dto.PropertyRequestDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.entity.Address;
 import com.rental.property.entity.Property;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.search.PropertyDocument;
 import org.springframework.stereotype.Component;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -32,7 +34,24 @@ public class EntityMapper {
                 .rentAmount(property.getRentAmount())
                 .availabilityStatus(property.getAvailabilityStatus())
                 .description(property.getDescription())
-                .image1(property.getImage1())
+                .imageUrl(ImageUrlUtil.propertyImageUrl(property.getPropertyId(), property.getImageHash()))
+                .thumbnailUrl(ImageUrlUtil.propertyImageUrl(property.getPropertyId(), property.getImageHash(),
+                        ImageVariant.THUMBNAIL))
+                .build();
+    }
+    public PropertyResponseDto convertDocumentToPropResponseDto(PropertyDocument document) {
+        return PropertyResponseDto.builder()
+                .propertyId(document.getPropertyId())
+                .landLordId(document.getLandlordId())
+                .address(new Address(document.getStreetName(), document.getCity(), document.getState(), document.getPinCode()))
+                .propertyType(document.getPropertyType())
+                .bhk(document.getBhk())
+                .rentAmount(document.getRentAmount())
+                .availabilityStatus(document.getAvailabilityStatus())
+                .description(document.getDescription())
+                .imageUrl(ImageUrlUtil.propertyImageUrl(document.getPropertyId(), document.getImageHash()))
+                .thumbnailUrl(ImageUrlUtil.propertyImageUrl(document.getPropertyId(), document.getImageHash(),
+                        ImageVariant.THUMBNAIL))
                 .build();
     }
     public List<PropertyResponseDto> propListToPropResponseDtoList(List<Property> properties) {
@@ -40,6 +59,9 @@ public class EntityMapper {
                 properties.stream().map(p->convertPropToPropResponseDto(p)).collect(Collectors.toList());
         return propertyResponseDtoList;
     }
+    public List<PropertyResponseDto> documentListToPropResponseDtoList(List<PropertyDocument> documents) {
+        return documents.stream().map(this::convertDocumentToPropResponseDto).collect(Collectors.toList());
+    }
     public List<Property> propRequestDtoListToPropList(List<PropertyRequestDto> propertyRequestDtoList){
         List<Property> propertyList=
                 propertyRequestDtoList.stream().map(p->convertPropRequestDtoToProperty(p)).collect(Collectors.toList());
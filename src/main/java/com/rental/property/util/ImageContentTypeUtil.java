@@ -0,0 +1,45 @@
+package com.rental.property.util;
+import org.springframework.http.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
+/**
+ * Detects the image type from magic bytes. Anything that is not a known raster format is served as
+ * application/octet-stream, so uploaded HTML or SVG can never be rendered from the public image URL.
+ */
+public class ImageContentTypeUtil {
+    private static final int HEADER_LENGTH = 12;
+    public static String detect(byte[] content) {
+        if (content == null) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        if (startsWith(content, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(content, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (startsWith(content, 0, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (startsWith(content, 0, 'R', 'I', 'F', 'F') && startsWith(content, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+    public static String detect(InputStream content) throws IOException {
+        try (content) {
+            return detect(content.readNBytes(HEADER_LENGTH));
+        }
+    }
+    private static boolean startsWith(byte[] content, int offset, int... magic) {
+        if (content.length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((content[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
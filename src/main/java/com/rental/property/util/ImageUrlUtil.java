@@ -0,0 +1,36 @@
+package com.rental.property.util;
+import com.rental.property.enums.ImageVariant;
+public class ImageUrlUtil {
+    private static final String PROPERTY_IMAGE_PATH = "/api/v1/public/properties/%d/images/%d";
+    private static final String PROPERTY_IMAGE_VARIANT_PATH = PROPERTY_IMAGE_PATH + "/%s";
+    public static final int PRIMARY_IMAGE = 1;
+    public static final int VERSION_LENGTH = 16;
+    /**
+     * The {@code v} parameter is a prefix of the content hash, so the URL changes whenever the image does and
+     * the image endpoint can hand out immutable cache headers for it.
+     */
+    public static String propertyImageUrl(Long propertyId, String imageHash) {
+        return propertyImageUrl(propertyId, PRIMARY_IMAGE, imageHash);
+    }
+    public static String propertyImageUrl(Long propertyId, int position, String imageHash) {
+        if (propertyId == null) {
+            return null;
+        }
+        return versioned(String.format(PROPERTY_IMAGE_PATH, propertyId, position), imageHash);
+    }
+    /** Renditions are derived from the original, so its hash versions them too. */
+    public static String propertyImageUrl(Long propertyId, String imageHash, ImageVariant variant) {
+        if (propertyId == null) {
+            return null;
+        }
+        return versioned(String.format(PROPERTY_IMAGE_VARIANT_PATH, propertyId, PRIMARY_IMAGE, variant.getPathSegment()),
+                imageHash);
+    }
+    private static String versioned(String url, String imageHash) {
+        return imageHash == null ? url : url + "?v=" + imageHash.substring(0, VERSION_LENGTH);
+    }
+    public static boolean isCurrentVersion(String version, String imageHash) {
+        return version != null && imageHash != null && version.length() == VERSION_LENGTH
+                && imageHash.startsWith(version);
+    }
+}
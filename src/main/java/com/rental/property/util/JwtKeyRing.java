@@ -0,0 +1,265 @@
+package com.rental.property.util;
+import com.rental.property.entity.SigningKey;
+import com.rental.property.repo.SigningKeyRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * The asymmetric keys access tokens are signed with, shared by every instance through the {@code signing_key}
+ * table. A new key is published in the JWKS {@code publish-ahead} before it signs anything, so verifiers that cache
+ * the key set know its {@code kid} before the first token carrying it arrives. A superseded key stays published
+ * until the last token it could have signed has expired, then it is deleted. Private keys are stored encrypted
+ * with a key derived from {@code jwt.secret}.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+    private static final int IV_BYTES = 12;
+    private static final Duration UNKNOWN_KID_RELOAD_INTERVAL = Duration.ofSeconds(5);
+    private final SigningKeyRepository repository;
+    private final SecretKeySpec encryptionKey;
+    private final Algorithm algorithm;
+    private final Duration rotationPeriod;
+    private final Duration publishAhead;
+    private final Duration tokenLifetime;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+    private volatile LocalDateTime lastReload = LocalDateTime.MIN;
+
+    @Autowired
+    public JwtKeyRing(SigningKeyRepository repository,
+                      @Value("${renthub.auth.jwt.key-encryption-secret:${jwt.secret}}") String encryptionSecret,
+                      @Value("${renthub.auth.jwt.algorithm:RS256}") String algorithm,
+                      @Value("${renthub.auth.jwt.rotation-period:P30D}") Duration rotationPeriod,
+                      @Value("${renthub.auth.jwt.publish-ahead:PT1H}") Duration publishAhead,
+                      @Value("${jwt.expiration:900000}") long expirationMillis) {
+        this(repository, encryptionSecret, algorithm, rotationPeriod, publishAhead, Duration.ofMillis(expirationMillis),
+                Clock.systemDefaultZone());
+    }
+
+    public JwtKeyRing(SigningKeyRepository repository, String encryptionSecret, String algorithm,
+                      Duration rotationPeriod, Duration publishAhead, Duration tokenLifetime, Clock clock) {
+        if (rotationPeriod.compareTo(publishAhead) <= 0) {
+            throw new IllegalArgumentException("renthub.auth.jwt.rotation-period must be longer than publish-ahead");
+        }
+        this.repository = repository;
+        this.encryptionKey = new SecretKeySpec(KeyedHmac.deriveKey(encryptionSecret, "renthub-jwt-signing-key"), "AES");
+        this.algorithm = Algorithm.valueOf(algorithm);
+        this.rotationPeriod = rotationPeriod;
+        this.publishAhead = publishAhead;
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+    }
+
+    /** Loads the shared keys, creating the first one on a fresh database so tokens can be issued straight away. */
+    @PostConstruct
+    public void init() {
+        reload();
+        if (current() == null) {
+            create(LocalDateTime.now(clock));
+            reload();
+        }
+    }
+
+    /**
+     * Picks up keys created by other instances, publishes the next key once the current one is due for rotation
+     * and drops keys no unexpired token can carry. Two instances rotating at once just publish one spare key.
+     */
+    @Scheduled(fixedDelayString = "${renthub.auth.jwt.reload-interval:PT1M}",
+            initialDelayString = "${renthub.auth.jwt.reload-interval:PT1M}")
+    public void rotate() {
+        reload();
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<ActiveKey> keys = snapshot.keys;
+        boolean changed = false;
+        if (keys.isEmpty() || !keys.get(keys.size() - 1).activatesAt.plus(rotationPeriod).minus(publishAhead).isAfter(now)) {
+            create(now.plus(publishAhead));
+            changed = true;
+        }
+        // Instances may sign with a superseded key until their next reload, which publish-ahead comfortably covers.
+        List<String> retired = new ArrayList<>();
+        for (int i = 0; i + 1 < keys.size(); i++) {
+            LocalDateTime supersededAt = keys.get(i + 1).activatesAt;
+            if (supersededAt.plus(tokenLifetime).plus(publishAhead).isBefore(now)) {
+                retired.add(keys.get(i).kid);
+            }
+        }
+        if (!retired.isEmpty()) {
+            repository.deleteAllById(retired);
+            log.info("Retired JWT signing keys {}", retired);
+            changed = true;
+        }
+        if (changed) {
+            reload();
+        }
+    }
+
+    /** The newest key that has reached its activation time, which new tokens are signed with. */
+    public ActiveKey current() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<ActiveKey> keys = snapshot.keys;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            if (!keys.get(i).activatesAt.isAfter(now)) {
+                return keys.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The verification key for a {@code kid}, or null if there is none. An unknown kid may belong to a key another
+     * instance created at boot, so it triggers a reload, at most once every few seconds.
+     */
+    public PublicKey publicKey(String kid) {
+        ActiveKey key = snapshot.byKid.get(kid);
+        if (key == null && lastReload.plus(UNKNOWN_KID_RELOAD_INTERVAL).isBefore(LocalDateTime.now(clock))) {
+            reload();
+            key = snapshot.byKid.get(kid);
+        }
+        return key == null ? null : key.publicKey;
+    }
+
+    /** The public halves of every published key, including the next key before it starts signing. */
+    public Map<String, ?> jwks() {
+        return snapshot.jwks;
+    }
+
+    private void reload() {
+        lastReload = LocalDateTime.now(clock);
+        List<ActiveKey> keys = new ArrayList<>();
+        for (SigningKey key : repository.findAllByOrderByActivatesAtAsc()) {
+            try {
+                Algorithm alg = Algorithm.valueOf(key.getAlgorithm());
+                KeyFactory factory = KeyFactory.getInstance(alg.keyAlgorithm);
+                keys.add(new ActiveKey(key.getKid(), alg.signature, key.getActivatesAt(),
+                        factory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getKid(), key.getPrivateKey()))),
+                        factory.generatePublic(new X509EncodedKeySpec(key.getPublicKey()))));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping JWT signing key {} that cannot be loaded: {}", key.getKid(), e.getMessage());
+            }
+        }
+        snapshot = new Snapshot(keys);
+    }
+
+    private void create(LocalDateTime activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.keyAlgorithm);
+            if (algorithm.keySize > 0) {
+                generator.initialize(algorithm.keySize, random);
+            }
+            KeyPair pair = generator.generateKeyPair();
+            String kid = Jwks.builder().key(pair.getPublic()).idFromThumbprint().build().getId();
+            repository.save(SigningKey.builder()
+                    .kid(kid)
+                    .algorithm(algorithm.name())
+                    .publicKey(pair.getPublic().getEncoded())
+                    .privateKey(encrypt(kid, pair.getPrivate().getEncoded()))
+                    .activatesAt(activatesAt)
+                    .createdAt(LocalDateTime.now(clock))
+                    .build());
+            log.info("Created {} JWT signing key {} active from {}", algorithm, kid, activatesAt);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create a JWT signing key", e);
+        }
+    }
+
+    private byte[] encrypt(String kid, byte[] plain) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(128, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] sealed = cipher.doFinal(plain);
+        byte[] out = Arrays.copyOf(iv, IV_BYTES + sealed.length);
+        System.arraycopy(sealed, 0, out, IV_BYTES, sealed.length);
+        return out;
+    }
+
+    private byte[] decrypt(String kid, byte[] sealed) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(128, sealed, 0, IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+    }
+
+    private enum Algorithm {
+        RS256(Jwts.SIG.RS256, "RSA", 2048),
+        EdDSA(Jwts.SIG.EdDSA, "Ed25519", 0);
+
+        private final SignatureAlgorithm signature;
+        private final String keyAlgorithm;
+        private final int keySize;
+
+        Algorithm(SignatureAlgorithm signature, String keyAlgorithm, int keySize) {
+            this.signature = signature;
+            this.keyAlgorithm = keyAlgorithm;
+            this.keySize = keySize;
+        }
+    }
+
+    @Getter
+    public static final class ActiveKey {
+        private final String kid;
+        private final SignatureAlgorithm algorithm;
+        private final LocalDateTime activatesAt;
+        private final PrivateKey privateKey;
+        private final PublicKey publicKey;
+
+        ActiveKey(String kid, SignatureAlgorithm algorithm, LocalDateTime activatesAt, PrivateKey privateKey,
+                  PublicKey publicKey) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.activatesAt = activatesAt;
+            this.privateKey = privateKey;
+            this.publicKey = publicKey;
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<ActiveKey> keys;
+        private final Map<String, ActiveKey> byKid = new HashMap<>();
+        private final Map<String, ?> jwks;
+
+        Snapshot(List<ActiveKey> keys) {
+            this.keys = List.copyOf(keys);
+            List<Map<String, ?>> published = new ArrayList<>();
+            for (ActiveKey key : keys) {
+                byKid.put(key.kid, key);
+                // Copied into a plain map: jjwt's JwkSet hides its "keys" member from anything reading it as a map.
+                published.add(new LinkedHashMap<>(Jwks.builder().key(key.publicKey).id(key.kid)
+                        .algorithm(key.algorithm.getId()).publicKeyUse("sig").build()));
+            }
+            this.jwks = Map.of("keys", List.copyOf(published));
+        }
+    }
+}
@@ -1,75 +1,236 @@
 package com.rental.property.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.rental.property.dto.CustomUserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 @Getter
 @Setter
 @Component
 @Slf4j
 public class JwtUtil {
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final String TOKEN_VERSION_CLAIM = "ver";
     @Value("${jwt.secret}")
     private String secret;
     @Value("${jwt.expiration:900000}")
     private Long expiration;
+    @Value("${renthub.auth.verified-token-cache.max-size:10000}")
+    private long verifiedTokenCacheMaxSize = 10000;
+    /** Tokens signed with the HMAC secret lived 24 hours; unset, they are refused. */
+    @Value("${renthub.auth.jwt.legacy-hmac-accepted-until:}")
+    private Instant legacyHmacAcceptedUntil;
+    @Autowired
+    private JwtKeyRing keyRing;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SecretKey legacyKey;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private JwtParser parser;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Cache<String, VerifiedToken> verifiedTokens;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    /**
+     * Builds the parser once. Tokens are signed by the key ring and verified by their {@code kid}; a token without
+     * one was signed with the HMAC secret before the key ring existed and is accepted until the configured cutoff.
+     * Tokens that verified are remembered by digest until they expire, so a client repeating its token skips the
+     * base64, JSON and signature work; the raw token is never kept.
+     */
+    @PostConstruct
+    void init() {
+        legacyKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    if (!acceptsLegacyHmac()) {
+                        throw new UnsupportedJwtException("Token has no key id");
+                    }
+                    return legacyKey;
+                }
+                PublicKey key = keyRing.publicKey(kid);
+                if (key == null) {
+                    throw new SignatureException("Unknown signing key " + kid);
+                }
+                return key;
+            }
+        }).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+        init();
     }
+
+    /** The public keys tokens may be signed with, for gateways and other services to verify tokens themselves. */
+    public Map<String, ?> jwks() {
+        return keyRing.jwks();
+    }
+
+    /**
+     * Checks the signature and expiry and returns the claims, parsing the token at most once per cache lifetime.
+     * Throws {@link io.jsonwebtoken.JwtException} when the token is forged, malformed or expired.
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Token is empty");
+        }
+        String digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified == null) {
+            Jws<Claims> jws = parser.parseSignedClaims(token);
+            verified = toVerifiedToken(jws.getPayload());
+            if (jws.getHeader().getKeyId() == null) {
+                // Anyone with the shared secret can mint these, so a cached one must not outlive the cutoff either.
+                Duration untilCutoff = Duration.between(Instant.now(), legacyHmacAcceptedUntil);
+                Duration untilExpiry = Duration.between(Instant.now(), verified.getExpiresAt());
+                verifiedTokens.policy().expireVariably().orElseThrow().put(digest, verified,
+                        untilCutoff.compareTo(untilExpiry) < 0 ? untilCutoff : untilExpiry);
+            } else {
+                verifiedTokens.put(digest, verified);
+            }
+        }
+        return verified;
+    }
+
+    private boolean acceptsLegacyHmac() {
+        return legacyHmacAcceptedUntil != null && Instant.now().isBefore(legacyHmacAcceptedUntil);
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).getExpiresAt());
     }
+    /** Parses the token again without the cache; prefer {@link #verify} for anything on the request path. */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return claimsResolver.apply(parser.parseSignedClaims(token).getPayload());
     }
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof CustomUserDetails user) {
+            claims.put(USER_ID_CLAIM, user.getUserId());
+            claims.put(ROLES_CLAIM, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList());
+            claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
+    /**
+     * The principal carried by a verified token, so requests need no user lookup. Returns null for tokens issued
+     * before they carried the user id and roles.
+     */
+    public CustomUserDetails extractUserDetails(String token) {
+        return toUserDetails(verify(token));
+    }
+    public static CustomUserDetails toUserDetails(VerifiedToken token) {
+        if (token.getUserId() == null || token.getRoles() == null) {
+            return null;
+        }
+        return new CustomUserDetails(token.getUserId(), token.getSubject(), token.getRoles(), token.getTokenVersion());
+    }
     private String createToken(Map<String, Object> claims, String subject) {
+        JwtKeyRing.ActiveKey key = keyRing.current();
         return Jwts.builder()
+                .header().keyId(key.getKid()).and()
                 .claims(claims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .issuer("RentHub")
                 .audience().add("User").and()
-                .signWith(getSigningKey())
+                .signWith(key.getPrivateKey(), key.getAlgorithm())
                 .compact();
     }
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return verify(token).getSubject().equals(userDetails.getUsername());
         } catch (Exception e) {
             log.error(" Exception in validateToken {} with message ", e.getCause(), e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiry");
+        }
+        Long userId = claims.get(USER_ID_CLAIM) instanceof Number id ? id.longValue() : null;
+        List<String> roles = claims.get(ROLES_CLAIM) instanceof List<?> names
+                ? names.stream().map(String::valueOf).toList() : null;
+        int version = claims.get(TOKEN_VERSION_CLAIM) instanceof Number n ? n.intValue() : 0;
+        return new VerifiedToken(claims.getSubject(), claims.getId(), userId, roles, version,
+                claims.getExpiration().toInstant());
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.rental.property.util;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+/**
+ * HMAC-SHA256 under a key derived from a configured secret for one purpose. Several features default to
+ * {@code jwt.secret}; deriving a key per purpose keeps a MAC or key made for one of them from being valid for another.
+ */
+public final class KeyedHmac {
+    private static final String ALGORITHM = "HmacSHA256";
+    private final ThreadLocal<Mac> macs;
+
+    private KeyedHmac(byte[] key) {
+        SecretKeySpec spec = new SecretKeySpec(key, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> newMac(spec));
+    }
+
+    public static KeyedHmac forPurpose(String secret, String purpose) {
+        return new KeyedHmac(deriveKey(secret, purpose));
+    }
+
+    /** The HMAC of {@code purpose} under {@code secret}, for callers that need key material rather than a MAC. */
+    public static byte[] deriveKey(String secret, String purpose) {
+        return newMac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM))
+                .doFinal(purpose.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public byte[] sign(String message) {
+        return macs.get().doFinal(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
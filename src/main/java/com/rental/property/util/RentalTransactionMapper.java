@@ -2,8 +2,10 @@ package com.rental.property.util;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionResponseDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
+import com.rental.property.dto.RentalTransactionView;
 import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
+import com.rental.property.enums.ImageVariant;
 import org.springframework.stereotype.Component;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -47,7 +49,10 @@ public class RentalTransactionMapper {
                 .bhk(transaction.getProperty().getBhk())
                 .status(transaction.getStatus())
                 .startDate(transaction.getStartDate())
-                .endDate(transaction.getEndDate()).image(transaction.getProperty().getImage1())
+                .endDate(transaction.getEndDate()).imageUrl(ImageUrlUtil.propertyImageUrl(transaction.getProperty().getPropertyId(),
+                        transaction.getProperty().getImageHash()))
+                .thumbnailUrl(ImageUrlUtil.propertyImageUrl(transaction.getProperty().getPropertyId(),
+                        transaction.getProperty().getImageHash(), ImageVariant.THUMBNAIL))
                 .userName(transaction.getUser().getUsername()) // added username
                 .mobileNo(String.valueOf(transaction.getUser().getMobileNo()))  // added mobile number
                 .build();
@@ -68,7 +73,50 @@ public class RentalTransactionMapper {
                 .bhk(transaction.getProperty().getBhk())
                 .description(transaction.getProperty().getDescription())
                 .status(transaction.getStatus())
-                .image(transaction.getProperty().getImage1())
+                .imageUrl(ImageUrlUtil.propertyImageUrl(transaction.getProperty().getPropertyId(),
+                        transaction.getProperty().getImageHash()))
+                .thumbnailUrl(ImageUrlUtil.propertyImageUrl(transaction.getProperty().getPropertyId(),
+                        transaction.getProperty().getImageHash(), ImageVariant.THUMBNAIL))
                 .build();
     }
+    public static List<RentalTransactionResponseDto> viewsToResponseDtoList(List<RentalTransactionView> views) {
+        return views.stream()
+                .map(v->viewToResponseDto(v))
+                .collect(Collectors.toList());
+    }
+    public static RentalTransactionResponseDto viewToResponseDto(RentalTransactionView view) {
+        return RentalTransactionResponseDto.builder()
+                .transactionId(view.getTransactionId())
+                .propertyId(view.getPropertyId())
+                .address(formatAddress(view))
+                .bhk(view.getBhk())
+                .status(view.getStatus())
+                .startDate(view.getStartDate())
+                .endDate(view.getEndDate())
+                .imageUrl(ImageUrlUtil.propertyImageUrl(view.getPropertyId(), view.getImageHash()))
+                .thumbnailUrl(ImageUrlUtil.propertyImageUrl(view.getPropertyId(), view.getImageHash(), ImageVariant.THUMBNAIL))
+                .userName(view.getUserName())
+                .mobileNo(String.valueOf(view.getMobileNo()))
+                .build();
+    }
+    public static List<RentalTransactionTenantResponse> viewsToTenantResponseList(List<RentalTransactionView> views) {
+        return views.stream()
+                .map(v->viewToTenantResponse(v))
+                .collect(Collectors.toList());
+    }
+    public static RentalTransactionTenantResponse viewToTenantResponse(RentalTransactionView view) {
+        return RentalTransactionTenantResponse.builder()
+                .propertyId(view.getPropertyId())
+                .transactionId(view.getTransactionId())
+                .address(formatAddress(view))
+                .bhk(view.getBhk())
+                .description(view.getDescription())
+                .status(view.getStatus())
+                .imageUrl(ImageUrlUtil.propertyImageUrl(view.getPropertyId(), view.getImageHash()))
+                .thumbnailUrl(ImageUrlUtil.propertyImageUrl(view.getPropertyId(), view.getImageHash(), ImageVariant.THUMBNAIL))
+                .build();
+    }
+    private static String formatAddress(RentalTransactionView view) {
+        return view.getStreetName() + ", " + view.getCity() + ", " + view.getState() + " " + view.getPinCode();
+    }
 }
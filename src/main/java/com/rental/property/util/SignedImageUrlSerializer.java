@@ -0,0 +1,22 @@
+package com.rental.property.util;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+/**
+ * Signs image URLs as responses are written rather than when DTOs are mapped, so DTOs held in the search cache
+ * never go out with an expired link. Spring's ObjectMapper supplies the signer.
+ */
+public class SignedImageUrlSerializer extends StdSerializer<String> {
+    private final ImageUrlSigner signer;
+
+    public SignedImageUrlSerializer(ImageUrlSigner signer) {
+        super(String.class);
+        this.signer = signer;
+    }
+
+    @Override
+    public void serialize(String url, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeString(signer.sign(url));
+    }
+}
@@ -0,0 +1,161 @@
+package com.rental.property.util;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+/**
+ * Open SMTP connections kept between batches, so a burst of emails pays for the connect, TLS handshake and login
+ * once per connection rather than once per message as {@link JavaMailSenderImpl#send} does. Connections are handed
+ * out most recently used first, so the ones a quiet period leaves unused age out past {@code idle-timeout}.
+ */
+@Slf4j
+@Component
+public class SmtpConnectionPool {
+    private final JavaMailSenderImpl mailSender;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final int maxIdle;
+    private final long idleTimeoutNanos;
+    private final Counter opened;
+
+    public SmtpConnectionPool(JavaMailSenderImpl mailSender, MeterRegistry meterRegistry,
+                              @Value("${renthub.mail.outbox.workers:2}") int maxIdle,
+                              @Value("${renthub.mail.smtp.idle-timeout:PT30S}") Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.maxIdle = Math.max(1, maxIdle);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.opened = Counter.builder("renthub.mail.smtp.connections.opened")
+                .description("SMTP connections opened").register(meterRegistry);
+    }
+
+    /** An idle connection that still answers, or a new one that connects on first use. */
+    public Connection borrow() {
+        Connection connection;
+        while ((connection = pollIdle()) != null) {
+            if (System.nanoTime() - connection.lastUsed < idleTimeoutNanos && connection.isOpen()) {
+                return connection;
+            }
+            connection.close();
+        }
+        return new Connection();
+    }
+
+    public void release(Connection connection) {
+        if (connection.transport == null) {
+            return;
+        }
+        connection.lastUsed = System.nanoTime();
+        synchronized (idle) {
+            if (idle.size() < maxIdle) {
+                idle.addFirst(connection);
+                return;
+            }
+        }
+        connection.close();
+    }
+
+    @Scheduled(fixedDelayString = "${renthub.mail.smtp.idle-timeout:PT30S}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        while (true) {
+            Connection connection;
+            synchronized (idle) {
+                connection = idle.peekLast();
+                if (connection == null || now - connection.lastUsed < idleTimeoutNanos) {
+                    return;
+                }
+                idle.removeLast();
+            }
+            connection.close();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        Connection connection;
+        while ((connection = pollIdle()) != null) {
+            connection.close();
+        }
+    }
+
+    public int idleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    private Connection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    /** One SMTP session; not thread-safe, a connection belongs to whoever borrowed it. */
+    public final class Connection {
+        private Transport transport;
+        private long lastUsed;
+
+        private Connection() {
+        }
+
+        public MimeMessage createMessage() {
+            return mailSender.createMimeMessage();
+        }
+
+        public void open() throws MessagingException {
+            if (transport != null) {
+                return;
+            }
+            String protocol = mailSender.getProtocol() == null ? "smtp" : mailSender.getProtocol();
+            Transport candidate = mailSender.getSession().getTransport(protocol);
+            candidate.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+                    mailSender.getPassword());
+            transport = candidate;
+            opened.increment();
+        }
+
+        public void send(MimeMessage message) throws MessagingException {
+            open();
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                // A rejected recipient leaves the session usable; a dropped one is reopened on the next send.
+                if (!isOpen()) {
+                    close();
+                }
+                throw e;
+            }
+        }
+
+        /** Asks the server, so this costs a round trip. */
+        public boolean isOpen() {
+            return transport != null && transport.isConnected();
+        }
+
+        public void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Closing SMTP connection failed: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.rental.property.util;
+import lombok.Value;
+import java.time.Instant;
+import java.util.List;
+/**
+ * The claims of a token whose signature and expiry have been checked. {@code tokenId}, {@code userId} and
+ * {@code roles} are null for tokens issued before they carried them.
+ */
+@Value
+public class VerifiedToken {
+    String subject;
+    String tokenId;
+    Long userId;
+    List<String> roles;
+    int tokenVersion;
+    Instant expiresAt;
+
+    public VerifiedToken(String subject, String tokenId, Long userId, List<String> roles, int tokenVersion,
+                         Instant expiresAt) {
+        this.subject = subject;
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.roles = roles == null ? null : List.copyOf(roles);
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+}
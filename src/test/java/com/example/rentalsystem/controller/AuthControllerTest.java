@@ -3,8 +3,19 @@ import com.rental.property.controller.AuthController;
 import com.rental.property.dto.AuthRequestDTO;
 import com.rental.property.dto.AuthResponseDTO;
 import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.dto.RefreshRequestDTO;
+import com.rental.property.dto.RotatedRefreshToken;
 import com.rental.property.entity.Role;
+import com.rental.property.exception.InvalidRefreshTokenException;
+import com.rental.property.exception.PasswordHashingRejectedException;
+import com.rental.property.exception.RateLimitExceededException;
+import com.rental.property.ratelimit.RateLimit;
+import com.rental.property.ratelimit.RateLimiter;
+import com.rental.property.service.RefreshTokenService;
+import com.rental.property.service.TokenRevocationService;
+import com.rental.property.service.TokenVersionService;
 import com.rental.property.util.JwtUtil;
+import com.rental.property.util.VerifiedToken;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,23 +23,31 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 public class AuthControllerTest {
@@ -38,8 +57,17 @@ public class AuthControllerTest {
     private UserDetailsService userDetailsService;
     @Mock
     private JwtUtil jwtUtil;
+    @Mock
+    private TokenVersionService tokenVersionService;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    @Mock
+    private RateLimiter rateLimiter;
     @InjectMocks
     private AuthController authController;
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
     @Test
     void testLoginSuccessful() {
         AuthRequestDTO authRequest = new AuthRequestDTO();
@@ -51,11 +79,13 @@ public class AuthControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
         when(jwtUtil.generateToken(userDetails)).thenReturn("mockedJwtToken");
-        ResponseEntity<?> response = authController.login(authRequest);
+        when(refreshTokenService.issue(userDetails)).thenReturn("refreshToken");
+        ResponseEntity<?> response = authController.login(authRequest, request);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         AuthResponseDTO authResponse = (AuthResponseDTO) response.getBody();
         assertEquals("mockedJwtToken", authResponse.getJwt());
+        assertEquals("refreshToken", authResponse.getRefreshToken());
         assertEquals("test@example.com", authResponse.getEmail());
         assertEquals("Test", authResponse.getFirstName());
         assertEquals("User", authResponse.getLastName());
@@ -70,7 +100,7 @@ public class AuthControllerTest {
         authRequest.setPassword("wrongpassword");
         doThrow(new BadCredentialsException("Invalid username or password"))
                 .when(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        ResponseEntity<?> response = authController.login(authRequest);
+        ResponseEntity<?> response = authController.login(authRequest, request);
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
         assertEquals("Invalid username or password", response.getBody());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
@@ -84,13 +114,111 @@ public class AuthControllerTest {
         authRequest.setPassword("password");
         doThrow(new RuntimeException("Authentication failed"))
                 .when(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        ResponseEntity<?> response = authController.login(authRequest);
+        ResponseEntity<?> response = authController.login(authRequest, request);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Authentication error: Authentication failed", response.getBody());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userDetailsService, times(0)).loadUserByUsername(anyString());
         verify(jwtUtil, times(0)).generateToken(any());
     }
+    @Test
+    void testLoginThrottledBeforeAuthentication() {
+        AuthRequestDTO authRequest = new AuthRequestDTO();
+        authRequest.setUsername("victim");
+        authRequest.setPassword("guess");
+        request.setRemoteAddr("203.0.113.7");
+        lenient().doThrow(new RateLimitExceededException("Too many attempts, try again later", 30))
+                .when(rateLimiter).check(RateLimit.LOGIN_USERNAME, "victim");
+        assertThrows(RateLimitExceededException.class, () -> authController.login(authRequest, request));
+        verify(rateLimiter).check(RateLimit.LOGIN_IP, "203.0.113.7");
+        verifyNoInteractions(authenticationManager, userDetailsService, jwtUtil);
+    }
+    @Test
+    void testLoginShedWhenHashingPoolIsFull() {
+        AuthRequestDTO authRequest = new AuthRequestDTO();
+        authRequest.setUsername("testuser");
+        authRequest.setPassword("password");
+        doThrow(new PasswordHashingRejectedException("Too many password checks in progress, try again shortly"))
+                .when(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        ResponseEntity<?> response = authController.login(authRequest, request);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        verifyNoInteractions(userDetailsService, jwtUtil, refreshTokenService);
+    }
+    @Test
+    void testRefreshRotatesWithoutPasswordCheck() {
+        CustomUserDetails userDetails = new CustomUserDetails(createUser());
+        RefreshRequestDTO refreshRequest = new RefreshRequestDTO();
+        refreshRequest.setRefreshToken("oldRefresh");
+        when(refreshTokenService.rotate("oldRefresh")).thenReturn(new RotatedRefreshToken(userDetails, "newRefresh"));
+        when(jwtUtil.generateToken(userDetails)).thenReturn("newJwt");
+        ResponseEntity<AuthResponseDTO> response = authController.refresh(refreshRequest);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("newJwt", response.getBody().getJwt());
+        assertEquals("newRefresh", response.getBody().getRefreshToken());
+        assertEquals("testuser", response.getBody().getUserName());
+        verifyNoInteractions(authenticationManager, userDetailsService);
+    }
+    @Test
+    void testRefreshRejected() {
+        RefreshRequestDTO refreshRequest = new RefreshRequestDTO();
+        refreshRequest.setRefreshToken("reused");
+        when(refreshTokenService.rotate("reused")).thenThrow(new InvalidRefreshTokenException("Refresh token was already used"));
+        assertThrows(InvalidRefreshTokenException.class, () -> authController.refresh(refreshRequest));
+        verifyNoInteractions(jwtUtil);
+    }
+    @Test
+    void testLogoutRevokesThisTokenAndRefreshFamily() {
+        CustomUserDetails principal = new CustomUserDetails(7L, "testuser", Set.of("ROLE_TENANT"), 0);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        VerifiedToken token = new VerifiedToken("testuser", "jti-1", 7L, List.of("ROLE_TENANT"), 0, expiresAt);
+        RefreshRequestDTO refreshRequest = new RefreshRequestDTO();
+        refreshRequest.setRefreshToken("refresh");
+        ResponseEntity<?> response = authController.logout(
+                new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities()), refreshRequest);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(tokenRevocationService).revoke("jti-1", expiresAt);
+        verify(refreshTokenService).revoke("refresh");
+        verifyNoInteractions(tokenVersionService);
+    }
+    @Test
+    void testLogoutLegacyTokenRevokesAllTokens() {
+        CustomUserDetails principal = new CustomUserDetails(7L, "testuser", Set.of("ROLE_TENANT"), 0);
+        VerifiedToken token = new VerifiedToken("testuser", null, null, null, 0, Instant.now().plusSeconds(600));
+        ResponseEntity<?> response = authController.logout(
+                new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities()), null);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(tokenVersionService).revokeTokens(7L);
+        verifyNoInteractions(tokenRevocationService, refreshTokenService);
+    }
+    @Test
+    void testLogoutWithoutToken() {
+        ResponseEntity<?> response = authController.logout(null, null);
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(tokenVersionService, tokenRevocationService);
+    }
+    @Test
+    void testLogoutEverywhereRevokesTokens() {
+        CustomUserDetails principal = new CustomUserDetails(7L, "testuser", Set.of("ROLE_TENANT"), 0);
+        ResponseEntity<?> response = authController.logoutEverywhere(principal);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(tokenVersionService).revokeTokens(7L);
+    }
+    @Test
+    void testLogoutEverywhereWithoutToken() {
+        ResponseEntity<?> response = authController.logoutEverywhere(null);
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(tokenVersionService);
+    }
+    @Test
+    void testJwksIsCacheable() {
+        Map<String, ?> jwks = Map.of("keys", List.of(Map.of("kid", "k1", "kty", "OKP")));
+        doReturn(jwks).when(jwtUtil).jwks();
+        ResponseEntity<Map<String, ?>> response = authController.jwks();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(jwks, response.getBody());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+    }
     private com.rental.property.entity.User createUser() {
         com.rental.property.entity.User user = new com.rental.property.entity.User();
         user.setUsername("testuser");
@@ -24,6 +24,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,14 +41,38 @@ public class PropertyControllerTest {
         PropertyRequestDto requestDto = new PropertyRequestDto();
         MultipartFile image = new MockMultipartFile("image", "test.jpg", "image/jpeg", "test image content".getBytes());
         PropertyResponseDto responseDto = new PropertyResponseDto();
-        when(propertyService.addNewProperty(requestDto, image)).thenReturn(responseDto);
+        when(propertyService.addNewProperty(requestDto, List.of(image))).thenReturn(responseDto);
 
-        ResponseEntity<PropertyResponseDto> response = propertyController.addNewProperty(requestDto, image);
+        ResponseEntity<PropertyResponseDto> response = propertyController.addNewProperty(requestDto, image, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(responseDto, response.getBody());
-        verify(propertyService, times(1)).addNewProperty(requestDto, image);
+        verify(propertyService, times(1)).addNewProperty(requestDto, List.of(image));
+    }
+
+    @Test
+    void addNewProperty_LegacyImageGoesBeforeImages() throws IOException {
+        PropertyRequestDto requestDto = new PropertyRequestDto();
+        MultipartFile cover = new MockMultipartFile("image", "cover.jpg", "image/jpeg", "cover".getBytes());
+        MultipartFile other = new MockMultipartFile("images", "other.jpg", "image/jpeg", "other".getBytes());
+        when(propertyService.addNewProperty(requestDto, List.of(cover, other))).thenReturn(new PropertyResponseDto());
+
+        ResponseEntity<PropertyResponseDto> response = propertyController.addNewProperty(requestDto, cover, List.of(other));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void addPropertyImages_ReturnsUpdatedProperty() throws IOException {
+        MultipartFile image = new MockMultipartFile("images", "more.jpg", "image/jpeg", "more".getBytes());
+        PropertyResponseDto responseDto = new PropertyResponseDto();
+        when(propertyService.addPropertyImages(1L, List.of(image))).thenReturn(responseDto);
+
+        ResponseEntity<PropertyResponseDto> response = propertyController.addPropertyImages(1L, List.of(image));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(responseDto, response.getBody());
     }
 
     @Test
@@ -0,0 +1,251 @@
+package com.example.rentalsystem.controller;
+
+import com.rental.property.controller.PropertyImageController;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.exception.PropertyNotFoundException;
+import com.rental.property.filter.ImageUrlSignatureFilter;
+import com.rental.property.service.PropertyService;
+import com.rental.property.storage.ImageContent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PropertyImageControllerTest {
+
+    private static final String HASH = "0123456789abcdef".repeat(4);
+    private static final byte[] BYTES = {10, 11, 12, 13, 14};
+
+    @InjectMocks
+    private PropertyImageController propertyImageController;
+
+    @Mock
+    private PropertyService propertyService;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private void stubImage(Long propertyId, ImageContent image) {
+        when(propertyService.getPropertyImage(propertyId, 1)).thenReturn(image);
+    }
+
+    @Test
+    void getPropertyImage_ServesBytesWithStrongEtagAndRevalidation() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("\"" + HASH + "\"", response.getHeader("ETag"));
+        assertEquals("public, no-cache", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        assertEquals(5, response.getContentLengthLong());
+        assertArrayEquals(BYTES, response.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImage_UnsignedVersionedUrl_MustRevalidate() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+
+        propertyImageController.getPropertyImage(1L, 1, HASH.substring(0, 16), request, response);
+
+        assertEquals("public, no-cache", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void getPropertyImage_SignedVersionedUrl_CachedOnlyUntilExpiry() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        long expiresAt = Instant.now().getEpochSecond() + 600;
+        request.setAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY, expiresAt);
+
+        propertyImageController.getPropertyImage(1L, 1, HASH.substring(0, 16), request, response);
+
+        String cacheControl = response.getHeader("Cache-Control");
+        long maxAge = Long.parseLong(cacheControl.replaceAll("\\D+", ""));
+        assertTrue(maxAge <= 600 && maxAge >= 590, cacheControl);
+        assertTrue(cacheControl.endsWith(", immutable"));
+    }
+
+    @Test
+    void getPropertyImage_StaleVersion_MustRevalidate() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+
+        propertyImageController.getPropertyImage(1L, 1, "ffffffffffffffff", request, response);
+
+        assertEquals("public, no-cache", response.getHeader("Cache-Control"));
+        assertArrayEquals(BYTES, response.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImage_MatchingIfNoneMatch_Returns304WithoutBody() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        request.addHeader("If-None-Match", "\"other\", W/\"" + HASH + "\"");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("\"" + HASH + "\"", response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getPropertyImage_SingleRange_Returns206() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        request.addHeader("Range", "bytes=1-2");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 1-2/5", response.getHeader("Content-Range"));
+        assertEquals(2, response.getContentLengthLong());
+        assertArrayEquals(new byte[]{11, 12}, response.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImage_SuffixRange_ServesTail() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        request.addHeader("Range", "bytes=-2");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals("bytes 3-4/5", response.getHeader("Content-Range"));
+        assertArrayEquals(new byte[]{13, 14}, response.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImage_UnsatisfiableRange_Returns416() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        request.addHeader("Range", "bytes=10-20");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */5", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getPropertyImage_StaleIfRangeOrMultipleRanges_ServesWholeImage() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        request.addHeader("Range", "bytes=1-2");
+        request.addHeader("If-Range", "\"old\"");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(BYTES, response.getContentAsByteArray());
+
+        MockHttpServletRequest multi = new MockHttpServletRequest("GET", "/");
+        multi.addHeader("Range", "bytes=0-0,2-3");
+        MockHttpServletResponse multiResponse = new MockHttpServletResponse();
+        propertyImageController.getPropertyImage(1L, 1, null, multi, multiResponse);
+        assertEquals(200, multiResponse.getStatus());
+        assertArrayEquals(BYTES, multiResponse.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImage_FileWithoutSendfile_TransfersRangeFromChannel(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve(HASH), BYTES);
+        stubImage(1L, new ImageContent(new FileSystemResource(file), "image/png", HASH, HASH));
+        request.addHeader("Range", "bytes=2-");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(new byte[]{12, 13, 14}, response.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImage_FileWithSendfile_HandsFileToContainer(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve(HASH), BYTES);
+        stubImage(1L, new ImageContent(new FileSystemResource(file), "image/png", HASH, HASH));
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=1-3");
+
+        propertyImageController.getPropertyImage(1L, 1, null, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(4L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(3, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getPropertyImage_Head_SendsHeadersOnly() throws Exception {
+        stubImage(1L, new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, HASH));
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", "/");
+
+        propertyImageController.getPropertyImage(1L, 1, null, head, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(5, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getPropertyImage_UnknownContentType_FallsBackToOctetStream() throws Exception {
+        stubImage(2L, new ImageContent(new ByteArrayResource("plain bytes".getBytes()), null, HASH, HASH));
+
+        propertyImageController.getPropertyImage(2L, 1, null, request, response);
+
+        assertEquals("application/octet-stream", response.getContentType());
+    }
+
+    @Test
+    void getPropertyImageVariant_RenditionOfCurrentSource_IsImmutable() throws Exception {
+        String thumbHash = "fedcba9876543210".repeat(4);
+        when(propertyService.getPropertyImage(1L, 1, ImageVariant.THUMBNAIL)).thenReturn(
+                new ImageContent(new ByteArrayResource(BYTES), "image/jpeg", thumbHash, HASH));
+
+        request.setAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY, Instant.now().getEpochSecond() + 7200);
+
+        propertyImageController.getPropertyImageVariant(1L, 1, "thumbnail", HASH.substring(0, 16), request, response);
+
+        assertEquals("\"" + thumbHash + "\"", response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").matches("public, max-age=7(19\\d|200), immutable"),
+                response.getHeader("Cache-Control"));
+        assertEquals("image/jpeg", response.getContentType());
+    }
+
+    @Test
+    void getPropertyImageVariant_OriginalStandIn_MustRevalidate() throws Exception {
+        when(propertyService.getPropertyImage(1L, 1, ImageVariant.CARD)).thenReturn(
+                new ImageContent(new ByteArrayResource(BYTES), "image/png", HASH, null));
+
+        propertyImageController.getPropertyImageVariant(1L, 1, "card", HASH.substring(0, 16), request, response);
+
+        assertEquals("public, no-cache", response.getHeader("Cache-Control"));
+        assertArrayEquals(BYTES, response.getContentAsByteArray());
+    }
+
+    @Test
+    void getPropertyImageVariant_UnknownVariant_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> propertyImageController.getPropertyImageVariant(1L, 1, "huge", null, request, response));
+    }
+
+    @Test
+    void getPropertyImage_MissingProperty_Throws() {
+        when(propertyService.getPropertyImage(3L, 1)).thenThrow(new PropertyNotFoundException("No such property"));
+
+        assertThrows(PropertyNotFoundException.class,
+                () -> propertyImageController.getPropertyImage(3L, 1, null, request, response));
+    }
+}
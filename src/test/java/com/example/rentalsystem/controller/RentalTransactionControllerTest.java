@@ -1,14 +1,22 @@
 package com.example.rentalsystem.controller;
 
 import com.rental.property.controller.RentalTransactionController;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.dto.PropertyFacetsDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
 import com.rental.property.entity.Address;
+import com.rental.property.search.LocalityType;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySort;
+import com.rental.property.service.PropertyFacetService;
 import com.rental.property.service.PropertyService;
 import com.rental.property.service.RentalTransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -18,8 +26,10 @@ import org.springframework.http.ResponseEntity;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class RentalTransactionControllerTest {
@@ -33,6 +43,9 @@ public class RentalTransactionControllerTest {
     @Mock
     private PropertyService propertyService;
 
+    @Mock
+    private PropertyFacetService propertyFacetService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -63,16 +76,58 @@ public class RentalTransactionControllerTest {
         List<PropertyResponseDto> mockSearchResults = Arrays.asList(
                 PropertyResponseDto.builder().propertyId(3L).address(Address.builder().city("Chennai").build()).bhk("2BHK").build()
         );
-        when(rentalTransactionService.searchProperties("Chennai", "10000", "20000", "2BHK")).thenReturn(mockSearchResults);
+        ArgumentCaptor<PropertySearchCriteria> criteriaCaptor = ArgumentCaptor.forClass(PropertySearchCriteria.class);
+        when(rentalTransactionService.searchProperties(criteriaCaptor.capture())).thenReturn(mockSearchResults);
 
         // Act
-        List<PropertyResponseDto> result = rentalTransactionController.searchProperties("Chennai", "10000", "20000", "2BHK");
+        List<PropertyResponseDto> result = rentalTransactionController.searchProperties("balcony", "Chennai", CityMatch.EXACT,
+                10000.0, 20000.0, "2BHK", "Available", PropertySort.RENT_ASC, 1, 10);
 
         // Assert
         assertEquals(1, result.size());
         assertEquals("Chennai", result.get(0).getAddress().getCity());
         assertEquals("2BHK", result.get(0).getBhk());
-        verify(rentalTransactionService, times(1)).searchProperties("Chennai", "10000", "20000", "2BHK");
+        PropertySearchCriteria criteria = criteriaCaptor.getValue();
+        assertEquals("balcony", criteria.getQuery());
+        assertEquals(CityMatch.EXACT, criteria.getCityMatch());
+        assertEquals(10000.0, criteria.getMinRent());
+        assertEquals(20000.0, criteria.getMaxRent());
+        assertEquals("Available", criteria.getAvailabilityStatus());
+        assertEquals(PropertySort.RENT_ASC, criteria.getSort());
+        assertEquals(1, criteria.getPage());
+        assertEquals(10, criteria.getSize());
+    }
+
+    @Test
+    void searchNearby_shouldPassPinCodeRadiusAndFiltersToService() {
+        List<PropertyResponseDto> mockResults = List.of(PropertyResponseDto.builder().propertyId(3L).distanceKm(1.5).build());
+        ArgumentCaptor<PropertySearchCriteria> criteriaCaptor = ArgumentCaptor.forClass(PropertySearchCriteria.class);
+        when(rentalTransactionService.searchNearby(eq(600017L), eq(3.0), criteriaCaptor.capture())).thenReturn(mockResults);
+
+        List<PropertyResponseDto> result = rentalTransactionController.searchNearby(600017L, 3.0, null, null, 20000.0, "2BHK",
+                "Available", 0, 20);
+
+        assertEquals(1.5, result.get(0).getDistanceKm());
+        assertEquals(20000.0, criteriaCaptor.getValue().getMaxRent());
+        assertEquals("2BHK", criteriaCaptor.getValue().getBhk());
+        assertEquals(20, criteriaCaptor.getValue().getSize());
+    }
+
+    @Test
+    void suggestLocalities_shouldDelegateToService() {
+        List<LocalitySuggestionDto> suggestions = List.of(
+                LocalitySuggestionDto.builder().value("Chennai").type(LocalityType.CITY).listings(3).build());
+        when(rentalTransactionService.suggestLocalities("che", 10)).thenReturn(suggestions);
+
+        assertEquals(suggestions, rentalTransactionController.suggestLocalities("che", 10));
+    }
+
+    @Test
+    void getSearchFacets_shouldReturnFacetsFromService() {
+        PropertyFacetsDto facets = PropertyFacetsDto.builder().cities(Map.of("Chennai", 3L)).build();
+        when(propertyFacetService.getFacets()).thenReturn(facets);
+
+        assertEquals(3L, rentalTransactionController.getSearchFacets().getCities().get("Chennai"));
     }
 
     @Test
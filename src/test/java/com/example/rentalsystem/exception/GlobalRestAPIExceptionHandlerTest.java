@@ -1,7 +1,10 @@
 package com.example.rentalsystem.exception;
 
 import com.rental.property.exception.GlobalRestAPIExceptionHandler;
+import com.rental.property.exception.InvalidRefreshTokenException;
+import com.rental.property.exception.PasswordHashingRejectedException;
 import com.rental.property.exception.PropertyNotFoundException;
+import com.rental.property.exception.RateLimitExceededException;
 import com.rental.property.exception.UserAlreadyExistsException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.NoSuchElementException;
 import java.util.Map;
@@ -71,4 +75,40 @@ class GlobalRestAPIExceptionHandlerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Invalid argument", response.getBody());
     }
+
+    @Test
+    void testHandleMaxUploadSizeExceededException() {
+        MaxUploadSizeExceededException exception = new MaxUploadSizeExceededException(50L * 1024 * 1024);
+        ResponseEntity<String> response = exceptionHandler.handleMaxUploadSizeExceededException(exception);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        assertEquals("Upload is too large", response.getBody());
+    }
+
+    @Test
+    void testHandleInvalidRefreshTokenException() {
+        InvalidRefreshTokenException exception = new InvalidRefreshTokenException("Refresh token was already used");
+        ResponseEntity<String> response = exceptionHandler.handleInvalidRefreshTokenException(exception);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals("Refresh token was already used", response.getBody());
+    }
+
+    @Test
+    void testHandlePasswordHashingRejectedException() {
+        PasswordHashingRejectedException exception = new PasswordHashingRejectedException("Try again shortly");
+        ResponseEntity<String> response = exceptionHandler.handlePasswordHashingRejectedException(exception);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void testHandleRateLimitExceededException() {
+        RateLimitExceededException exception = new RateLimitExceededException("Too many attempts, try again later", 42);
+        ResponseEntity<String> response = exceptionHandler.handleRateLimitExceededException(exception);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("42", response.getHeaders().getFirst("Retry-After"));
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.rentalsystem.filter;
+import com.rental.property.filter.ImageUrlSignatureFilter;
+import com.rental.property.util.ImageUrlSigner;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.*;
+class ImageUrlSignatureFilterTest {
+    private final ImageUrlSigner signer = new ImageUrlSigner("mysecretkey123456789012345678901234567890", Duration.ofHours(1));
+    private final ImageUrlSignatureFilter filter = new ImageUrlSignatureFilter(signer);
+    private static MockHttpServletRequest get(String url) {
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri.getPath());
+        uri.getQueryParams().forEach((name, values) -> request.addParameter(name, values.toArray(String[]::new)));
+        return request;
+    }
+    @Test
+    void signedUrl_IsMarkedVerifiedAndPassedOn() throws Exception {
+        String signed = signer.sign("/api/v1/public/properties/3/images/1/thumbnail?v=0123456789abcdef");
+        MockHttpServletRequest request = get(signed);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertSame(request, chain.getRequest());
+        assertEquals(Long.valueOf(request.getParameter("exp")), request.getAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY));
+    }
+    @Test
+    void signatureForAnotherImage_IsForbidden() throws Exception {
+        String signed = signer.sign("/api/v1/public/properties/3/images/1?v=0123456789abcdef");
+        MockHttpServletRequest request = get(signed.replace("/3/", "/4/"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+        assertNull(request.getAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY));
+    }
+    @Test
+    void unsignedUrl_IsForbidden() throws Exception {
+        MockHttpServletRequest request = get("/api/v1/public/properties/3/images/1?v=0123456789abcdef");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+    @Test
+    void signatureStrippedFromHead_IsForbidden() throws Exception {
+        String signed = signer.sign("/api/v1/public/properties/3/images/1");
+        MockHttpServletRequest request = get(signed);
+        request.setMethod("HEAD");
+        request.removeParameter("sig");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+    @Test
+    void signatureParameterOutsideImages_IsIgnored() throws Exception {
+        MockHttpServletRequest request = get("/api/v1/tenant/search?sig=whatever");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+}
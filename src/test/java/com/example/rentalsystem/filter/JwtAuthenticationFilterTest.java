@@ -1,8 +1,13 @@
 package com.example.rentalsystem.filter;
 import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.filter.ImageUrlSignatureFilter;
 import com.rental.property.filter.JwtAuthenticationFilter;
 import com.rental.property.service.CustomUserDetailsService;
+import com.rental.property.service.TokenRevocationService;
+import com.rental.property.service.TokenVersionService;
 import com.rental.property.util.JwtUtil;
+import com.rental.property.util.VerifiedToken;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,19 +17,31 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 class JwtAuthenticationFilterTest {
+    private static final Instant EXPIRES_AT = Instant.now().plusSeconds(900);
     @Mock
     private JwtUtil jwtUtil;
     @Mock
     private CustomUserDetailsService userDetailsService;
+    @Mock
+    private TokenVersionService tokenVersionService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     @Mock
@@ -45,11 +62,12 @@ class JwtAuthenticationFilterTest {
         String token = "validToken";
         String username = "testUser";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
+        VerifiedToken verified = new VerifiedToken(username, null, null, null, 0, EXPIRES_AT);
+        when(jwtUtil.verify(token)).thenReturn(verified);
         when(userDetailsService.loadUserByUsername(username)).thenReturn(customUserDetails);
-        when(jwtUtil.validateToken(token, customUserDetails)).thenReturn(true);
+        when(customUserDetails.getUsername()).thenReturn(username);
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(customUserDetails, null, customUserDetails.getAuthorities());
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(customUserDetails, verified, customUserDetails.getAuthorities());
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         assertEquals(authToken, SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
@@ -57,11 +75,19 @@ class JwtAuthenticationFilterTest {
     @Test
     void doFilterInternal_invalidToken_doesNotAuthenticateUser() throws ServletException, IOException {
         String token = "invalidToken";
-        String username = "testUser";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(customUserDetails);
-        when(jwtUtil.validateToken(token, customUserDetails)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenThrow(new SignatureException("JWT signature does not match"));
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+    @Test
+    void doFilterInternal_legacyTokenForRenamedUser_doesNotAuthenticateUser() throws ServletException, IOException {
+        when(request.getHeader("Authorization")).thenReturn("Bearer legacyToken");
+        when(jwtUtil.verify("legacyToken")).thenReturn(new VerifiedToken("oldName", null, null, null, 0, EXPIRES_AT));
+        when(userDetailsService.loadUserByUsername("oldName")).thenReturn(customUserDetails);
+        when(customUserDetails.getUsername()).thenReturn("newName");
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
@@ -73,5 +99,51 @@ class JwtAuthenticationFilterTest {
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
     }
+    @Test
+    void doFilterInternal_tokenWithClaims_authenticatesWithoutUserLookup() throws ServletException, IOException {
+        when(request.getHeader("Authorization")).thenReturn("Bearer claimsToken");
+        when(jwtUtil.verify("claimsToken"))
+                .thenReturn(new VerifiedToken("testUser", "jti-3", 4L, List.of("ROLE_TENANT"), 3, EXPIRES_AT));
+        when(tokenVersionService.isCurrent(4L, 3)).thenReturn(true);
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        CustomUserDetails principal =
+                (CustomUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(4L, principal.getUserId());
+        assertEquals("testUser", principal.getUsername());
+        assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_TENANT")), principal.getAuthorities());
+        assertEquals("jti-3", ((VerifiedToken) SecurityContextHolder.getContext().getAuthentication().getCredentials()).getTokenId());
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+    @Test
+    void doFilterInternal_revokedToken_doesNotAuthenticateUser() throws ServletException, IOException {
+        when(request.getHeader("Authorization")).thenReturn("Bearer oldToken");
+        when(jwtUtil.verify("oldToken"))
+                .thenReturn(new VerifiedToken("testUser", "jti-2", 4L, List.of("ROLE_TENANT"), 2, EXPIRES_AT));
+        when(tokenVersionService.isCurrent(4L, 2)).thenReturn(false);
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+    @Test
+    void doFilterInternal_revokedTokenId_doesNotAuthenticateUser() throws ServletException, IOException {
+        when(request.getHeader("Authorization")).thenReturn("Bearer loggedOutToken");
+        when(jwtUtil.verify("loggedOutToken"))
+                .thenReturn(new VerifiedToken("testUser", "jti-9", 4L, List.of("ROLE_TENANT"), 3, EXPIRES_AT));
+        when(tokenRevocationService.isRevoked("jti-9")).thenReturn(true);
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService, tokenVersionService);
+        verify(filterChain).doFilter(request, response);
+    }
+    @Test
+    void doFilter_verifiedSignedImageUrl_skipsUserLookup() throws ServletException, IOException {
+        MockHttpServletRequest signedRequest = new MockHttpServletRequest("GET", "/api/v1/public/properties/1/images/1");
+        signedRequest.addHeader("Authorization", "Bearer validToken");
+        signedRequest.setAttribute(ImageUrlSignatureFilter.VERIFIED_EXPIRY, 1L);
+        jwtAuthenticationFilter.doFilter(signedRequest, new MockHttpServletResponse(), filterChain);
+        verifyNoInteractions(jwtUtil, userDetailsService, tokenVersionService, tokenRevocationService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
 }
- 
\ No newline at end of file
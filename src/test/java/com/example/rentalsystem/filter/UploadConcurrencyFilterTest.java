@@ -0,0 +1,61 @@
+package com.example.rentalsystem.filter;
+import com.rental.property.filter.UploadConcurrencyFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+class UploadConcurrencyFilterTest {
+    private final UploadConcurrencyFilter filter = new UploadConcurrencyFilter(1, Duration.ofMillis(20));
+    private static MockHttpServletRequest upload() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/landlord/properties");
+        request.setContentType("multipart/form-data; boundary=xyz");
+        return request;
+    }
+    @Test
+    void uploadBeyondLimit_IsRejectedWith503() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        // The second upload arrives while the first one still holds the only permit.
+        filter.doFilter(upload(), accepted, (req, res) -> filter.doFilter(upload(), rejected, new MockFilterChain()));
+        assertEquals(200, accepted.getStatus());
+        assertEquals(503, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+    }
+    @Test
+    void permitIsReleasedAfterEachUpload() throws Exception {
+        AtomicInteger served = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(upload(), response, (req, res) -> served.incrementAndGet());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(3, served.get());
+    }
+    @Test
+    void permitIsReleasedWhenUploadFails() throws Exception {
+        try {
+            filter.doFilter(upload(), new MockHttpServletResponse(), (req, res) -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (IllegalStateException expected) {
+            // the permit must still come back
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(upload(), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+    @Test
+    void nonMultipartRequests_AreNotLimited() throws Exception {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        MockHttpServletRequest json = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        json.setContentType("application/json");
+        filter.doFilter(upload(), new MockHttpServletResponse(), (req, res) -> filter.doFilter(json, inner, new MockFilterChain()));
+        assertEquals(200, inner.getStatus());
+        assertNull(inner.getHeader("Retry-After"));
+    }
+}
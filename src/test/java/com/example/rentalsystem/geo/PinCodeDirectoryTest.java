@@ -0,0 +1,47 @@
+package com.example.rentalsystem.geo;
+import com.rental.property.geo.GeoGrid;
+import com.rental.property.geo.GeoPoint;
+import com.rental.property.geo.PinCodeDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+class PinCodeDirectoryTest {
+    private PinCodeDirectory pinCodeDirectory;
+    @BeforeEach
+    void setUp() {
+        String csv = "# comment\npin_code,latitude,longitude\n600017,13.0418,80.2341\n600040,13.0850,80.2101\n560001,12.9750,77.6060\n";
+        pinCodeDirectory = new PinCodeDirectory();
+        ReflectionTestUtils.setField(pinCodeDirectory, "centroids", new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+        pinCodeDirectory.load();
+    }
+    @Test
+    void locate_shouldReturnCentroidForKnownPinCode() {
+        assertEquals(new GeoPoint(13.0418, 80.2341), pinCodeDirectory.locate(600017L).orElseThrow());
+        assertTrue(pinCodeDirectory.locate(999999L).isEmpty());
+        assertTrue(pinCodeDirectory.locate(null).isEmpty());
+    }
+    @Test
+    void pinCodesWithin_shouldOnlyIncludeCentroidsInsideRadius() {
+        GeoPoint tNagar = pinCodeDirectory.locate(600017L).orElseThrow();
+        assertEquals(Set.of(600017L), pinCodeDirectory.pinCodesWithin(tNagar, 2));
+        assertEquals(Set.of(600017L, 600040L), pinCodeDirectory.pinCodesWithin(tNagar, 10));
+    }
+    @Test
+    void distanceKm_shouldMatchKnownCityDistance() {
+        GeoPoint chennai = new GeoPoint(13.0827, 80.2707);
+        GeoPoint bangalore = new GeoPoint(12.9716, 77.5946);
+        assertEquals(290, chennai.distanceKm(bangalore), 5);
+        assertEquals(0, chennai.distanceKm(chennai), 1e-9);
+    }
+    @Test
+    void cellsWithin_shouldCoverTheCellOfEveryPointInRadius() {
+        GeoPoint center = new GeoPoint(13.0418, 80.2341);
+        GeoPoint nearby = new GeoPoint(13.0850, 80.2101);
+        assertTrue(GeoGrid.cellsWithin(center, 6).contains(GeoGrid.cellOf(nearby)));
+        assertFalse(GeoGrid.cellsWithin(center, 1).contains(GeoGrid.cellOf(new GeoPoint(12.9750, 77.6060))));
+    }
+}
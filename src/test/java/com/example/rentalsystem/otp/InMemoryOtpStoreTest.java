@@ -0,0 +1,144 @@
+package com.example.rentalsystem.otp;
+
+import com.rental.property.otp.InMemoryOtpStore;
+import com.rental.property.otp.OtpHasher;
+import com.rental.property.otp.OtpStore.Result;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOtpStoreTest {
+
+    private static final String EMAIL = "test@example.com";
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InMemoryOtpStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore(100);
+    }
+
+    @Test
+    void verify_RightCodeValidWrongCodeInvalid() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+
+        assertEquals(Result.INVALID, store.verify(EMAIL, "654321"));
+        assertEquals(Result.VALID, store.verify(EMAIL, "123456"));
+        assertEquals(Result.INVALID, store.verify("other@example.com", "123456"));
+        assertEquals(Result.INVALID, store.verify(null, "123456"));
+    }
+
+    @Test
+    void verify_EveryCheckTakesAnAttempt() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Result.INVALID, store.verify(EMAIL, "000000"));
+        }
+        assertEquals(Result.VALID, store.verify(EMAIL, "123456"));
+
+        assertEquals(Result.EXHAUSTED, store.verify(EMAIL, "123456"));
+        assertEquals(0, store.size());
+        assertEquals(Result.INVALID, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void save_NewCodeReplacesOldAndResetsAttempts() {
+        store.save(EMAIL, "111111", Duration.ofMinutes(10));
+        for (int i = 0; i < 5; i++) {
+            store.verify(EMAIL, "000000");
+        }
+        store.save(EMAIL, "222222", Duration.ofMinutes(10));
+
+        assertEquals(Result.INVALID, store.verify(EMAIL, "111111"));
+        assertEquals(Result.VALID, store.verify(EMAIL, "222222"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void verify_ExpiredBeforeTheWheelGotToIt() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        advance(Duration.ofMinutes(10));
+
+        assertEquals(Result.EXPIRED, store.verify(EMAIL, "123456"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expire_DropsCodesNobodyRedeemed() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        store.save("late@example.com", "123456", Duration.ofMinutes(30));
+
+        advance(Duration.ofMinutes(9));
+        store.expire();
+        assertEquals(2, store.size());
+
+        advance(Duration.ofMinutes(1).plusSeconds(2));
+        store.expire();
+        assertEquals(1, store.size());
+        assertEquals(Result.VALID, store.verify("late@example.com", "123456"));
+    }
+
+    @Test
+    void remove_ForgetsTheCode() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        store.remove(EMAIL);
+        store.remove(EMAIL);
+
+        assertEquals(0, store.size());
+        assertEquals(Result.INVALID, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void save_PastMaxEntriesEvictsTheCodeClosestToExpiry() {
+        store = newStore(3);
+        store.save("a", "111111", Duration.ofMinutes(5));
+        store.save("b", "111111", Duration.ofMinutes(1));
+        store.save("c", "111111", Duration.ofMinutes(10));
+        store.save("d", "111111", Duration.ofMinutes(10));
+
+        assertEquals(3, store.size());
+        assertEquals(Result.INVALID, store.verify("b", "111111"));
+        assertEquals(Result.VALID, store.verify("a", "111111"));
+        assertEquals(1.0, meterRegistry.get("renthub.otp.evicted").counter().count());
+    }
+
+    @Test
+    void expire_MatchesANaiveScanAcrossEveryWheelLevel() {
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        store = newStore(10_000);
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 10; i++) {
+                String key = "user" + random.nextInt(1500);
+                // Up to 100 hours, past the 64^3 second span of the top level.
+                long ttlSeconds = 1 + (long) (random.nextDouble() * random.nextDouble() * 360_000);
+                store.save(key, "123456", Duration.ofSeconds(ttlSeconds));
+                deadlines.put(key, nanos.get() + Duration.ofSeconds(ttlSeconds).toNanos());
+            }
+            advance(Duration.ofSeconds(1 + random.nextInt(4000)));
+            store.expire();
+            long now = nanos.get();
+            // Time moves in whole ticks here, so the wheel drops each code exactly one tick after its deadline.
+            deadlines.values().removeIf(deadline -> deadline + Duration.ofSeconds(1).toNanos() <= now);
+            assertEquals(deadlines.size(), store.size(), "round " + round);
+        }
+    }
+
+    private InMemoryOtpStore newStore(int maxEntries) {
+        return new InMemoryOtpStore(new OtpHasher("mysecretkey123456789012345678901234567890"), meterRegistry, 5,
+                maxEntries, Duration.ofSeconds(1), nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.rentalsystem.otp;
+
+import com.rental.property.entity.OtpCode;
+import com.rental.property.otp.JdbcOtpStore;
+import com.rental.property.otp.OtpHasher;
+import com.rental.property.otp.OtpStore.Result;
+import com.rental.property.repo.OtpCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ContextConfiguration(classes = JdbcOtpStoreTest.Config.class)
+class JdbcOtpStoreTest {
+
+    @Configuration
+    @EntityScan(basePackageClasses = OtpCode.class)
+    @EnableJpaRepositories(basePackageClasses = OtpCodeRepository.class)
+    static class Config {
+    }
+
+    private static final String EMAIL = "test@example.com";
+
+    @Autowired
+    private OtpCodeRepository repository;
+
+    private JdbcOtpStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JdbcOtpStore(repository, new OtpHasher("mysecretkey123456789012345678901234567890"), 5, 2);
+    }
+
+    @Test
+    void verify_RightCodeValidWrongCodeInvalid() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+
+        assertEquals(Result.INVALID, store.verify(EMAIL, "654321"));
+        assertEquals(Result.VALID, store.verify(EMAIL, "123456"));
+        assertEquals(Result.INVALID, store.verify("other@example.com", "123456"));
+        assertNotEquals("123456", repository.findById(EMAIL).orElseThrow().getCodeHash());
+    }
+
+    @Test
+    void verify_EveryCheckTakesAnAttempt() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Result.INVALID, store.verify(EMAIL, "000000"));
+        }
+        assertEquals(Result.VALID, store.verify(EMAIL, "123456"));
+
+        assertEquals(Result.EXHAUSTED, store.verify(EMAIL, "123456"));
+        assertTrue(repository.findById(EMAIL).isEmpty());
+    }
+
+    @Test
+    void verify_ExpiredCodeIsDeleted() {
+        store.save(EMAIL, "123456", Duration.ofSeconds(-1));
+
+        assertEquals(Result.EXPIRED, store.verify(EMAIL, "123456"));
+        assertTrue(repository.findById(EMAIL).isEmpty());
+    }
+
+    @Test
+    void save_NewCodeReplacesOldAndResetsAttempts() {
+        store.save(EMAIL, "111111", Duration.ofMinutes(10));
+        for (int i = 0; i < 5; i++) {
+            store.verify(EMAIL, "000000");
+        }
+        store.save(EMAIL, "222222", Duration.ofMinutes(10));
+
+        assertEquals(Result.INVALID, store.verify(EMAIL, "111111"));
+        assertEquals(Result.VALID, store.verify(EMAIL, "222222"));
+    }
+
+    @Test
+    void remove_DeletesTheRow() {
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        store.remove(EMAIL);
+        store.remove(EMAIL);
+
+        assertTrue(repository.findById(EMAIL).isEmpty());
+    }
+
+    @Test
+    void purgeExpired_DeletesExpiredRowsInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            repository.save(OtpCode.builder().key("old" + i).codeHash("x").expiresAt(now.minusMinutes(i + 1))
+                    .createdAt(now.minusHours(1)).build());
+        }
+        store.save(EMAIL, "123456", Duration.ofMinutes(10));
+        repository.flush();
+
+        assertEquals(5, store.purgeExpired());
+        assertEquals(1, repository.count());
+        assertEquals(0, store.purgeExpired());
+    }
+}
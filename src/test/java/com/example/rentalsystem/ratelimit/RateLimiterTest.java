@@ -0,0 +1,103 @@
+package com.example.rentalsystem.ratelimit;
+
+import com.rental.property.exception.RateLimitExceededException;
+import com.rental.property.ratelimit.RateLimit;
+import com.rental.property.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Three attempts refilling over a minute: one new attempt every 20 seconds.
+        rateLimiter = new RateLimiter(meterRegistry, 1000, 4, now::get,
+                limit -> new RateLimiter.Limit(3, Duration.ofMinutes(1)));
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void testCheck_AllowsBurstThenRejectsWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.check(RateLimit.LOGIN_USERNAME, "alice");
+        }
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.check(RateLimit.LOGIN_USERNAME, "alice"));
+        assertEquals(20, ex.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("renthub.rate.limit.rejected").tag("limit", "login.username").counter().count());
+    }
+
+    @Test
+    void testCheck_RefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.check(RateLimit.LOGIN_USERNAME, "alice");
+        }
+        advance(Duration.ofSeconds(20));
+        rateLimiter.check(RateLimit.LOGIN_USERNAME, "alice");
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.check(RateLimit.LOGIN_USERNAME, "alice"));
+    }
+
+    @Test
+    void testCheck_KeysAndLimitsAreIndependentButCaseInsensitive() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.check(RateLimit.LOGIN_USERNAME, "Alice");
+        }
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.check(RateLimit.LOGIN_USERNAME, " alice"));
+        rateLimiter.check(RateLimit.LOGIN_USERNAME, "bob");
+        rateLimiter.check(RateLimit.OTP_VERIFY_EMAIL, "alice");
+        rateLimiter.check(RateLimit.LOGIN_USERNAME, null);
+    }
+
+    @Test
+    void testEvictIdle_DropsOnlyRefilledBuckets() {
+        rateLimiter.check(RateLimit.LOGIN_IP, "198.51.100.1");
+        advance(Duration.ofSeconds(30));
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.check(RateLimit.LOGIN_IP, "198.51.100.2");
+        }
+        advance(Duration.ofSeconds(5));
+
+        rateLimiter.evictIdle();
+
+        assertEquals(1, rateLimiter.size());
+        assertEquals(1, meterRegistry.get("renthub.rate.limit.buckets").gauge().value());
+    }
+
+    @Test
+    void testCheck_BucketCountIsBounded() {
+        RateLimiter small = new RateLimiter(new SimpleMeterRegistry(), 8, 4, now::get,
+                limit -> new RateLimiter.Limit(3, Duration.ofMinutes(1)));
+        for (int i = 0; i < 1000; i++) {
+            small.check(RateLimit.LOGIN_IP, "10.0.0." + i);
+        }
+        assertTrue(small.size() <= 8);
+    }
+
+    @Test
+    void testSpringConstructor_ReadsPerLimitOverrides() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("renthub.rate-limit.otp-send.identifier.capacity", "1");
+        RateLimiter configured = new RateLimiter(environment, new SimpleMeterRegistry(), 1000, 4);
+
+        configured.check(RateLimit.OTP_SEND_IDENTIFIER, "a@example.com");
+        assertThrows(RateLimitExceededException.class,
+                () -> configured.check(RateLimit.OTP_SEND_IDENTIFIER, "a@example.com"));
+        configured.check(RateLimit.OTP_SEND_IP, "198.51.100.1");
+        configured.check(RateLimit.OTP_SEND_IP, "198.51.100.1");
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.rentalsystem.repo;
+import com.rental.property.entity.Address;
+import com.rental.property.entity.Property;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.FacetGroup;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySort;
+import com.rental.property.search.PropertySpecifications;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.rentalsystem.repo.PropertyRepositoryExplainTest$CapturingInspector"})
+@ContextConfiguration(classes = PropertyRepositoryExplainTest.Config.class)
+class PropertyRepositoryExplainTest {
+    @Configuration
+    @EntityScan(basePackageClasses = Property.class)
+    @EnableJpaRepositories(basePackageClasses = PropertyRepository.class)
+    static class Config {
+    }
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @BeforeEach
+    void setUp() {
+        String[] cities = {"Chennai", "Bangalore", "Mumbai", "Pune"};
+        String[] statuses = {"Available", "Rented"};
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            properties.add(Property.builder()
+                    .address(new Address("Street " + i, cities[i % cities.length], "State", 600000L + i))
+                    .bhk((i % 3 + 1) + "BHK")
+                    .rentAmount(5000 + i * 100)
+                    .availabilityStatus(statuses[i % statuses.length])
+                    .build());
+        }
+        propertyRepository.saveAllAndFlush(properties);
+        jdbcTemplate.execute("ANALYZE");
+    }
+    @Test
+    void citySearch_shouldUseCityStatusBhkRentIndex() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .city("Chennai").cityMatch(CityMatch.EXACT).availabilityStatus("Available").bhk("2BHK")
+                .minRent(8000.0).maxRent(20000.0).build();
+        String plan = explain(criteria);
+        assertTrue(plan.contains("IDX_PROPERTY_CITY_STATUS_BHK_RENT"), plan);
+    }
+    @Test
+    void cityPrefixSearch_shouldUseCityLeadingIndex() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .city("Chen").cityMatch(CityMatch.PREFIX).build();
+        String plan = explain(criteria);
+        assertTrue(plan.contains("IDX_PROPERTY_CITY_STATUS"), plan);
+        assertFalse(plan.contains("TABLESCAN"), plan);
+    }
+    @Test
+    void statusAndRentSearch_shouldUseStatusRentIndex() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .availabilityStatus("Available").minRent(8000.0).maxRent(12000.0).build();
+        String plan = explain(criteria);
+        assertTrue(plan.contains("IDX_PROPERTY_STATUS_RENT"), plan);
+    }
+    @Test
+    void nearbyFallback_shouldOrderAndPageByPinCodeDistanceInSql() {
+        Map<Long, Double> distanceByPinCode = Map.of(600010L, 5.0, 600003L, 1.0, 600150L, 3.0);
+        List<PropertyDocument> all = propertyRepository.findDocuments(
+                PropertySpecifications.pinCodesNearestFirst(distanceByPinCode), PageRequest.of(0, 100));
+        List<Long> pinCodes = all.stream().map(PropertyDocument::getPinCode).distinct().toList();
+        assertEquals(List.of(600003L, 600150L, 600010L), pinCodes);
+        CapturingInspector.STATEMENTS.clear();
+        List<PropertyDocument> second = propertyRepository.findDocuments(
+                PropertySpecifications.pinCodesNearestFirst(distanceByPinCode), PageRequest.of(1, 2));
+        assertEquals(all.subList(2, Math.min(4, all.size())).stream().map(PropertyDocument::getPropertyId).toList(),
+                second.stream().map(PropertyDocument::getPropertyId).toList());
+        String sql = CapturingInspector.STATEMENTS.get(CapturingInspector.STATEMENTS.size() - 1);
+        assertTrue(sql.contains("order by case"), sql);
+        assertTrue(sql.contains("offset") || sql.contains("fetch"), sql);
+        assertTrue(propertyRepository.findDocuments(PropertySpecifications.pinCodesNearestFirst(Map.of()),
+                PageRequest.of(0, 2)).isEmpty());
+    }
+    @Test
+    void variantSweep_shouldSkipAnImageThatKeepsFailingUntilItIsReplaced() {
+        List<Long> ids = propertyRepository.findAll(Sort.by("propertyId")).stream().map(Property::getPropertyId)
+                .limit(2).toList();
+        jdbcTemplate.update("UPDATE property_details SET image_hash = 'a' WHERE property_id IN (?, ?)", ids.get(0), ids.get(1));
+        for (int attempt = 0; attempt < 3; attempt++) {
+            propertyRepository.recordVariantFailure(ids.get(0), "a", LocalDateTime.now());
+            assertEquals(List.of(ids.get(0), ids.get(1)).subList(attempt < 2 ? 0 : 1, 2),
+                    propertyRepository.findIdsWithoutImageVariants(0L, 3, Limit.of(10)));
+        }
+        // A new image gets its own attempts.
+        jdbcTemplate.update("UPDATE property_details SET image_hash = 'b' WHERE property_id = ?", ids.get(0));
+        assertEquals(ids, propertyRepository.findIdsWithoutImageVariants(0L, 3, Limit.of(10)));
+        propertyRepository.recordVariantFailure(ids.get(0), "b", LocalDateTime.now());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT variant_attempts FROM property_details WHERE property_id = ?", Integer.class, ids.get(0)));
+    }
+    @Test
+    void countAvailableByFacets_shouldGroupByRentBand() {
+        List<FacetGroup> groups = propertyRepository.countAvailableByFacets("Available");
+        // Two cities, three BHKs and three bands at most, rather than one row per distinct rent.
+        assertTrue(groups.size() <= 18, groups.toString());
+        Map<String, Long> bands = groups.stream()
+                .collect(Collectors.groupingBy(FacetGroup::getRentBand, TreeMap::new, Collectors.summingLong(FacetGroup::getCount)));
+        assertEquals(Map.of("0-10000", countAvailable(0, 10000), "10000-20000", countAvailable(10000, 20000),
+                "20000-30000", countAvailable(20000, 30000)), bands);
+    }
+    @Test
+    void findByIdForUpdate_shouldLockTheRow() {
+        Long id = propertyRepository.findAll(Sort.by("propertyId")).get(0).getPropertyId();
+        CapturingInspector.STATEMENTS.clear();
+        assertTrue(propertyRepository.findByIdForUpdate(id).isPresent());
+        String sql = CapturingInspector.STATEMENTS.get(CapturingInspector.STATEMENTS.size() - 1);
+        assertTrue(sql.contains("for update"), sql);
+    }
+    private long countAvailable(double minRent, double maxRent) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM property_details WHERE availability_status = 'Available' " +
+                "AND rent_amount >= ? AND rent_amount < ?", Long.class, minRent, maxRent);
+    }
+    private String explain(PropertySearchCriteria criteria) {
+        CapturingInspector.STATEMENTS.clear();
+        propertyRepository.findDocuments(PropertySpecifications.matching(criteria), Pageable.unpaged(PropertySort.RENT_ASC.getSort()));
+        String sql = CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        assertFalse(sql.contains("?"), sql);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.rentalsystem.search;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.search.LocalityAutocomplete;
+import com.rental.property.search.LocalityGroup;
+import com.rental.property.search.LocalityType;
+import com.rental.property.search.PropertyDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.*;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+@ExtendWith(MockitoExtension.class)
+class LocalityAutocompleteTest {
+    @Mock
+    private PropertyRepository propertyRepository;
+    @InjectMocks
+    private LocalityAutocomplete localityAutocomplete;
+    @BeforeEach
+    void setUp() {
+        when(propertyRepository.countAvailableByLocality("Available")).thenReturn(List.of(
+                new LocalityGroup("Chennai", "Tamil Nadu", "Anna Nagar", 5),
+                new LocalityGroup("Chennai", "Tamil Nadu", "T Nagar", 3),
+                new LocalityGroup("Chengalpattu", "Tamil Nadu", "GST Road", 1),
+                new LocalityGroup("Bangalore", "Karnataka", "MG Road", 4)));
+        localityAutocomplete.reload();
+    }
+    @Test
+    void suggest_shouldRankPrefixMatchesByAvailableListings() {
+        List<LocalitySuggestionDto> suggestions = localityAutocomplete.suggest("che", 10);
+        assertEquals(List.of("Chennai", "Chengalpattu"), values(suggestions));
+        assertEquals(8, suggestions.get(0).getListings());
+        assertEquals(LocalityType.CITY, suggestions.get(0).getType());
+    }
+    @Test
+    void suggest_shouldMatchLaterWordsOfLocalitiesAndCarryTheirCity() {
+        List<LocalitySuggestionDto> suggestions = localityAutocomplete.suggest("nag", 10);
+        assertEquals(List.of("Anna Nagar", "T Nagar"), values(suggestions));
+        assertEquals("Chennai", suggestions.get(0).getCity());
+        assertEquals(List.of("Tamil Nadu"), values(localityAutocomplete.suggest("  TAMIL   n", 10)));
+        assertEquals(List.of("MG Road", "GST Road"), values(localityAutocomplete.suggest("road", 10)));
+    }
+    @Test
+    void suggest_shouldHonourLimitAndReturnNothingForUnknownPrefix() {
+        assertEquals(List.of("Tamil Nadu"), values(localityAutocomplete.suggest("t", 1)));
+        assertTrue(localityAutocomplete.suggest("pune", 10).isEmpty());
+        assertTrue(localityAutocomplete.suggest("chennaix", 10).isEmpty());
+    }
+    @Test
+    void onPropertyChanged_shouldAddAndRemoveSuggestionsIncrementally() {
+        PropertyDocument pune = document(10L, "Pune", "Maharashtra", "Koregaon Park", "Available");
+        localityAutocomplete.onPropertyChanged(new PropertyChangedEvent(10L, null, pune));
+        assertEquals(List.of("Pune"), values(localityAutocomplete.suggest("pu", 10)));
+        assertEquals(List.of("Koregaon Park"), values(localityAutocomplete.suggest("park", 10)));
+        localityAutocomplete.onPropertyChanged(new PropertyChangedEvent(10L, pune,
+                document(10L, "Pune", "Maharashtra", "Koregaon Park", "Rented")));
+        assertTrue(localityAutocomplete.suggest("pu", 10).isEmpty());
+        assertTrue(localityAutocomplete.suggest("koregaon", 10).isEmpty());
+    }
+    @Test
+    void onPropertyChanged_shouldKeepSiblingsReachableAfterPruning() {
+        localityAutocomplete.onPropertyChanged(new PropertyChangedEvent(20L,
+                document(20L, "Chengalpattu", "Tamil Nadu", "GST Road", "Available"), null));
+        assertEquals(List.of("Chennai"), values(localityAutocomplete.suggest("chen", 10)));
+        assertEquals(List.of("Chennai"), values(localityAutocomplete.suggest("chennai", 10)));
+        PropertyDocument chembur = document(21L, "Chembur", "Maharashtra", "Station Road", "Available");
+        localityAutocomplete.onPropertyChanged(new PropertyChangedEvent(21L, null, chembur));
+        assertEquals(List.of("Chennai", "Chembur"), values(localityAutocomplete.suggest("che", 10)));
+    }
+    @Test
+    void suggest_shouldAgreeWithBruteForceUnderRandomChurn() {
+        Random random = new Random(42);
+        String[] words = {"an", "anna", "annex", "nagar", "na", "nad", "road", "ro", "rohini", "t"};
+        Map<String, Integer> expected = new HashMap<>();
+        long id = 100;
+        for (int step = 0; step < 2000; step++) {
+            String street = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            boolean remove = expected.getOrDefault(street, 0) > 0 && random.nextBoolean();
+            PropertyDocument document = document(id++, "Zed", "Zed State", street, "Available");
+            localityAutocomplete.onPropertyChanged(remove
+                    ? new PropertyChangedEvent(document.getPropertyId(), document, null)
+                    : new PropertyChangedEvent(document.getPropertyId(), null, document));
+            expected.merge(street, remove ? -1 : 1, Integer::sum);
+            expected.values().removeIf(count -> count == 0);
+        }
+        for (String word : words) {
+            for (int length = 1; length <= word.length(); length++) {
+                String prefix = word.substring(0, length);
+                Set<String> matches = expected.keySet().stream()
+                        .filter(street -> street.startsWith(prefix) || street.substring(street.indexOf(' ') + 1).startsWith(prefix))
+                        .collect(Collectors.toSet());
+                List<LocalitySuggestionDto> suggestions = localityAutocomplete.suggest(prefix, 200).stream()
+                        .filter(suggestion -> suggestion.getType() == LocalityType.LOCALITY && "Zed".equals(suggestion.getCity()))
+                        .collect(Collectors.toList());
+                assertEquals(matches, new HashSet<>(values(suggestions)), prefix);
+                for (LocalitySuggestionDto suggestion : suggestions) {
+                    assertEquals(expected.get(suggestion.getValue()).longValue(), suggestion.getListings());
+                }
+                for (int i = 1; i < suggestions.size(); i++) {
+                    assertTrue(suggestions.get(i - 1).getListings() >= suggestions.get(i).getListings(), prefix);
+                }
+            }
+        }
+    }
+    private static List<String> values(List<LocalitySuggestionDto> suggestions) {
+        return suggestions.stream().map(LocalitySuggestionDto::getValue).collect(Collectors.toList());
+    }
+    private static PropertyDocument document(Long id, String city, String state, String street, String status) {
+        return PropertyDocument.builder().propertyId(id).city(city).state(state).streetName(street)
+                .availabilityStatus(status).build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.rentalsystem.search;
+import com.rental.property.dto.PropertyResponseDto;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.search.PropertySearchCache;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySort;
+import com.rental.property.search.SearchCacheKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+class PropertySearchCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private PropertySearchCache propertySearchCache;
+    private AtomicInteger searches;
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        propertySearchCache = new PropertySearchCache(meterRegistry, 1 << 20, Duration.ofMinutes(1));
+        searches = new AtomicInteger();
+    }
+    @Test
+    void get_shouldReuseResultForEquivalentCriteria() {
+        search(criteria("Chennai", "2BHK"));
+        search(criteria(" CHENNAI", "2bhk"));
+        search(criteria("Chennai", "3BHK"));
+        assertEquals(2, searches.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "propertySearch").tag("result", "hit")
+                .functionCounter().count());
+    }
+    @Test
+    void onPropertyChanged_shouldOnlyEvictSearchesTheListingMatched() {
+        search(criteria("Chennai", "2BHK"));
+        search(criteria("Bangalore", "2BHK"));
+        propertySearchCache.onPropertyChanged(new PropertyChangedEvent(1L, null, document("Chennai", "2BHK", "Available")));
+        search(criteria("Chennai", "2BHK"));
+        search(criteria("Bangalore", "2BHK"));
+        assertEquals(3, searches.get());
+    }
+    @Test
+    void onPropertyChanged_shouldEvictWhenListingLeavesTheResult() {
+        PropertySearchCriteria available = criteria("Chennai", "2BHK");
+        available.setAvailabilityStatus("Available");
+        search(available);
+        propertySearchCache.onPropertyChanged(new PropertyChangedEvent(1L, document("Chennai", "2BHK", "Available"),
+                document("Chennai", "2BHK", "Rented")));
+        search(available);
+        assertEquals(2, searches.get());
+    }
+    @Test
+    void get_shouldNotCacheResultComputedWhileAListingChanged() {
+        PropertySearchCriteria criteria = criteria("Chennai", "2BHK");
+        propertySearchCache.get(SearchCacheKey.of(criteria), () -> {
+            propertySearchCache.onPropertyChanged(new PropertyChangedEvent(9L, null, document("Pune", "1BHK", "Available")));
+            return List.of(PropertyResponseDto.builder().propertyId(1L).build());
+        });
+        assertEquals(0, propertySearchCache.size());
+    }
+    private void search(PropertySearchCriteria criteria) {
+        propertySearchCache.get(SearchCacheKey.of(criteria), () -> {
+            searches.incrementAndGet();
+            return List.of(PropertyResponseDto.builder().propertyId(1L).build());
+        });
+    }
+    private PropertySearchCriteria criteria(String city, String bhk) {
+        return PropertySearchCriteria.builder().city(city).cityMatch(CityMatch.PREFIX).bhk(bhk)
+                .sort(PropertySort.NEWEST).page(0).size(20).build();
+    }
+    private PropertyDocument document(String city, String bhk, String status) {
+        return PropertyDocument.builder().propertyId(1L).city(city).bhk(bhk).rentAmount(15000).availabilityStatus(status).build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.rentalsystem.search;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.geo.GeoPoint;
+import com.rental.property.geo.PinCodeDirectory;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.NearbyProperty;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySearchIndex;
+import com.rental.property.search.PropertySort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+@ExtendWith(MockitoExtension.class)
+class PropertySearchIndexTest {
+    private static final GeoPoint T_NAGAR = new GeoPoint(13.0418, 80.2341);
+    private static final GeoPoint ANNA_NAGAR = new GeoPoint(13.0850, 80.2101);
+    private static final GeoPoint MG_ROAD = new GeoPoint(12.9750, 77.6060);
+    @Mock
+    private PropertyRepository propertyRepository;
+    @Mock
+    private PinCodeDirectory pinCodeDirectory;
+    @InjectMocks
+    private PropertySearchIndex propertySearchIndex;
+    @BeforeEach
+    void setUp() {
+        lenient().when(pinCodeDirectory.locate(any())).thenReturn(Optional.empty());
+        lenient().when(pinCodeDirectory.locate(600017L)).thenReturn(Optional.of(T_NAGAR));
+        lenient().when(pinCodeDirectory.locate(600040L)).thenReturn(Optional.of(ANNA_NAGAR));
+        lenient().when(pinCodeDirectory.locate(560001L)).thenReturn(Optional.of(MG_ROAD));
+        when(propertyRepository.findDocumentsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                document(1L, "Chennai", "2BHK", 15000, "Available", 600040L),
+                document(2L, "Chennai", "3BHK", 25000, "Rented", 600017L),
+                document(3L, "Bangalore", "2BHK", 18000, "Available", 560001L),
+                document(4L, "New Chennai", "2BHK", 9000, "Available", 600017L)));
+        propertySearchIndex.rebuild();
+    }
+    @Test
+    void rebuild_shouldMarkIndexReady() {
+        assertTrue(propertySearchIndex.isReady());
+        assertEquals(List.of(1L, 2L, 3L, 4L), propertySearchIndex.search(new PropertySearchCriteria()));
+    }
+    @Test
+    void search_shouldIntersectCityBhkAndRentRange() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .city("chennai").bhk("2bhk").minRent(10000.0).maxRent(20000.0).build();
+        assertEquals(List.of(1L), propertySearchIndex.search(criteria));
+    }
+    @Test
+    void search_shouldMatchCitySubstringAndStatus() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .city("Chen").cityMatch(CityMatch.CONTAINS).availabilityStatus("Available").build();
+        assertEquals(List.of(1L, 4L), propertySearchIndex.search(criteria));
+    }
+    @Test
+    void search_shouldMatchCityPrefixByDefaultAndExactOnRequest() {
+        assertEquals(List.of(1L, 2L), propertySearchIndex.search(PropertySearchCriteria.builder().city("chen").build()));
+        assertTrue(propertySearchIndex.search(PropertySearchCriteria.builder().city("chen").cityMatch(CityMatch.EXACT).build()).isEmpty());
+        assertEquals(List.of(4L), propertySearchIndex.search(
+                PropertySearchCriteria.builder().city("new chennai").cityMatch(CityMatch.EXACT).build()));
+    }
+    @Test
+    void search_shouldSortAndPage() {
+        PropertySearchCriteria firstPage = PropertySearchCriteria.builder().sort(PropertySort.RENT_ASC).page(0).size(3).build();
+        assertEquals(List.of(4L, 1L, 3L), propertySearchIndex.search(firstPage));
+        PropertySearchCriteria secondPage = PropertySearchCriteria.builder().sort(PropertySort.RENT_ASC).page(1).size(3).build();
+        assertEquals(List.of(2L), propertySearchIndex.search(secondPage));
+        PropertySearchCriteria newest = PropertySearchCriteria.builder().sort(PropertySort.NEWEST).page(0).size(2).build();
+        assertEquals(List.of(4L, 3L), propertySearchIndex.search(newest));
+        PropertySearchCriteria pastEnd = PropertySearchCriteria.builder().sort(PropertySort.RENT_DESC).page(5).size(3).build();
+        assertTrue(propertySearchIndex.search(pastEnd).isEmpty());
+    }
+    @Test
+    void search_shouldReturnNothingForUnknownValuesOrInvertedRange() {
+        assertTrue(propertySearchIndex.search(PropertySearchCriteria.builder().bhk("5BHK").build()).isEmpty());
+        assertTrue(propertySearchIndex.search(PropertySearchCriteria.builder().minRent(30000.0).maxRent(1000.0).build()).isEmpty());
+    }
+    @Test
+    void onPropertyChanged_shouldApplyUpdatesAndDeletes() {
+        PropertyDocument before = document(2L, "Chennai", "3BHK", 25000, "Rented");
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(2L, before,
+                document(2L, "Chennai", "3BHK", 25000, "Available")));
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(3L, document(3L, "Bangalore", "2BHK", 18000, "Available"), null));
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(5L, null, document(5L, "Pune", "1BHK", 7000, "Available")));
+        PropertySearchCriteria available = PropertySearchCriteria.builder().availabilityStatus("available").build();
+        assertEquals(List.of(1L, 2L, 4L, 5L), propertySearchIndex.search(available));
+        assertTrue(propertySearchIndex.search(PropertySearchCriteria.builder().city("Bangalore").build()).isEmpty());
+    }
+    @Test
+    void searchNearby_shouldReturnPropertiesInRadiusByDistance() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder().page(0).size(10).build();
+        List<NearbyProperty> nearby = propertySearchIndex.searchNearby(T_NAGAR, 10, criteria);
+        assertEquals(List.of(2L, 4L, 1L), nearby.stream().map(NearbyProperty::getPropertyId).toList());
+        assertEquals(0, nearby.get(0).getDistanceKm(), 1e-9);
+        assertTrue(nearby.get(2).getDistanceKm() > 5);
+        assertEquals(List.of(2L, 4L), propertySearchIndex.searchNearby(T_NAGAR, 2, criteria).stream()
+                .map(NearbyProperty::getPropertyId).toList());
+    }
+    @Test
+    void searchNearby_shouldApplyFiltersPagingAndFollowMoves() {
+        PropertySearchCriteria available = PropertySearchCriteria.builder().availabilityStatus("Available").page(0).size(1).build();
+        assertEquals(List.of(4L), propertySearchIndex.searchNearby(T_NAGAR, 10, available).stream()
+                .map(NearbyProperty::getPropertyId).toList());
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(4L, null,
+                document(4L, "Bangalore", "2BHK", 9000, "Available", 560001L)));
+        assertEquals(List.of(1L), propertySearchIndex.searchNearby(T_NAGAR, 10, available).stream()
+                .map(NearbyProperty::getPropertyId).toList());
+    }
+    @Test
+    void search_shouldRankTextMatchesByBm25AndCombineWithFilters() {
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(1L, null, PropertyDocument.builder().propertyId(1L)
+                .city("Chennai").bhk("2BHK").rentAmount(15000).availabilityStatus("Available")
+                .description("Sea facing apartment with balcony").build()));
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(4L, null, PropertyDocument.builder().propertyId(4L)
+                .city("New Chennai").bhk("2BHK").rentAmount(9000).availabilityStatus("Available")
+                .description("Balcony flat, large balcony, garden view balcony").build()));
+        PropertySearchCriteria byRelevance = PropertySearchCriteria.builder().query("balc").sort(PropertySort.RELEVANCE)
+                .page(0).size(10).build();
+        assertEquals(List.of(4L, 1L), propertySearchIndex.search(byRelevance));
+        PropertySearchCriteria allTerms = PropertySearchCriteria.builder().query("Sea balcony").page(0).size(10).build();
+        assertEquals(List.of(1L), propertySearchIndex.search(allTerms));
+        PropertySearchCriteria filtered = PropertySearchCriteria.builder().query("balcony").maxRent(10000.0).page(0).size(10).build();
+        assertEquals(List.of(4L), propertySearchIndex.search(filtered));
+        assertTrue(propertySearchIndex.search(PropertySearchCriteria.builder().query("pool").build()).isEmpty());
+    }
+    @Test
+    void search_shouldMatchAddressFieldsAndDropStaleTextOnUpdate() {
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(3L, null, PropertyDocument.builder().propertyId(3L)
+                .streetName("MG Road").city("Bangalore").propertyType("Villa").description("Quiet garden villa").build()));
+        assertEquals(List.of(3L), propertySearchIndex.search(PropertySearchCriteria.builder().query("mg villa").build()));
+        propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(3L, null, PropertyDocument.builder().propertyId(3L)
+                .streetName("Brigade Road").city("Bangalore").propertyType("Apartment").build()));
+        assertTrue(propertySearchIndex.search(PropertySearchCriteria.builder().query("villa").build()).isEmpty());
+        assertEquals(List.of(3L), propertySearchIndex.search(PropertySearchCriteria.builder().query("brig").build()));
+    }
+    @Test
+    void search_shouldMatchANaiveScanThroughRandomEditsAndDeletes() {
+        assertMatchesANaiveScanAfterRandomEdits(400, 3000, "");
+    }
+    @Test
+    void search_shouldMatchANaiveScanOnceCommonTermsKeepBitmaps() {
+        // Enough listings that "apartment" passes the dense posting threshold, and edits and deletes land on it.
+        assertMatchesANaiveScanAfterRandomEdits(30_000, 45_000, "apartment ");
+    }
+    private void assertMatchesANaiveScanAfterRandomEdits(int properties, int rounds, String everyDescription) {
+        String[] words = {"sea", "seaside", "balcony", "ball", "garden", "gated", "villa", "view", "pool", "quiet"};
+        Random random = new Random(7);
+        Map<Long, String> descriptions = new HashMap<>();
+        for (int round = 0; round < rounds; round++) {
+            long id = 10 + random.nextInt(properties);
+            if (random.nextInt(5) == 0) {
+                propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(id, document(id, "Pune", "1BHK", 1, "Available"), null));
+                descriptions.remove(id);
+                continue;
+            }
+            StringBuilder description = new StringBuilder(everyDescription);
+            for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+                description.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            descriptions.put(id, description.toString());
+            propertySearchIndex.onPropertyChanged(new PropertyChangedEvent(id, null, PropertyDocument.builder()
+                    .propertyId(id).description(description.toString()).build()));
+        }
+        for (String query : List.of("se", "sea", "seas", "ba", "ball", "balcony", "ga", "gated garden", "vi", "sea view",
+                "pool quiet", "qu villa", "ap", "apartment sea", "apart gated garden")) {
+            List<Long> expected = new ArrayList<>();
+            List<String> terms = List.of(query.split(" "));
+            new TreeMap<>(descriptions).forEach((id, description) -> {
+                List<String> tokens = List.of(description.split(" "));
+                if (terms.stream().allMatch(term -> tokens.stream().anyMatch(token -> token.startsWith(term)))) {
+                    expected.add(id);
+                }
+            });
+            assertEquals(expected, propertySearchIndex.search(PropertySearchCriteria.builder().query(query).build()).stream().filter(id -> id >= 10).toList(), query);
+            List<Long> ranked = propertySearchIndex.search(PropertySearchCriteria.builder().query(query)
+                    .sort(PropertySort.RELEVANCE).build());
+            assertEquals(new HashSet<>(expected), ranked.stream().filter(id -> id >= 10).collect(Collectors.toSet()), query);
+            // A page is picked without scoring every match, and must still be that slice of the full ranking.
+            for (int page = 0; page < 2; page++) {
+                assertEquals(ranked.subList(Math.min(page * 10, ranked.size()), Math.min((page + 1) * 10, ranked.size())),
+                        propertySearchIndex.search(PropertySearchCriteria.builder().query(query)
+                                .sort(PropertySort.RELEVANCE).page(page).size(10).build()), query);
+            }
+        }
+    }
+    private PropertyDocument document(Long id, String city, String bhk, double rent, String status) {
+        return document(id, city, bhk, rent, status, null);
+    }
+    private PropertyDocument document(Long id, String city, String bhk, double rent, String status, Long pinCode) {
+        return PropertyDocument.builder().propertyId(id).city(city).bhk(bhk).rentAmount(rent).availabilityStatus(status)
+                .pinCode(pinCode).build();
+    }
+}
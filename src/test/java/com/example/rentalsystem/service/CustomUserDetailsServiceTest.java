@@ -1,17 +1,21 @@
 package com.example.rentalsystem.service;
+import com.rental.property.dto.AuthUserRow;
 import com.rental.property.dto.CustomUserDetails;
 import com.rental.property.entity.User;
-import com.rental.property.entity.Role;
 import com.rental.property.repo.UserRepository;
 import com.rental.property.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,45 +23,104 @@ import static org.mockito.Mockito.*;
 class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
-    @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this); // Initialize mocks
+        customUserDetailsService = new CustomUserDetailsService(userRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(1));
     }
     @Test
     void testLoadUserByUsername_UserFound() {
         // Arrange
         String username = "testuser";
-        User user = new User();
-        user.setUsername(username);
-        user.setPassword("password");
-        Role role = new Role();
-        role.setName("ROLE_LANDLORD");
-        Set<Role> roles = new HashSet<>();
-        roles.add(role);
-        user.setRoles(roles);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(userRepository.findAuthRowsByUsername(username)).thenReturn(List.of(
+                row(7L, username, "ROLE_LANDLORD"), row(7L, username, "ROLE_TENANT")));
         // Act
         CustomUserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
         // Assert
         assertNotNull(userDetails);
+        assertEquals(7L, userDetails.getUserId());
         assertEquals(username, userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
-        java.util.Collection<? extends SimpleGrantedAuthority> authoritiesCollection = (java.util.Collection<? extends SimpleGrantedAuthority>) userDetails.getAuthorities();
-        assertEquals(1, authoritiesCollection.size());
-        assertTrue(authoritiesCollection.stream().anyMatch(auth -> auth.getAuthority().equals("ROLE_LANDLORD")));
-        verify(userRepository, times(1)).findByUsername(username);
+        assertEquals("test@example.com", userDetails.getEmail());
+        assertEquals("Test", userDetails.getFirstName());
+        assertEquals("User", userDetails.getLastName());
+        assertEquals(3, userDetails.getTokenVersion());
+        assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_LANDLORD"), new SimpleGrantedAuthority("ROLE_TENANT")),
+                userDetails.getAuthorities());
+        verify(userRepository, times(1)).findAuthRowsByUsername(username);
+        verify(userRepository, never()).findByUsername(any());
+    }
+    @Test
+    void testLoadUserByUsername_UserWithoutRoles() {
+        when(userRepository.findAuthRowsByUsername("testuser")).thenReturn(List.of(row(7L, "testuser", null)));
+        assertTrue(customUserDetailsService.loadUserByUsername("testuser").getAuthorities().isEmpty());
     }
     @Test
     void testLoadUserByUsername_UserNotFound() {
         // Arrange
         String username = "nonexistentuser";
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(userRepository.findAuthRowsByUsername(username)).thenReturn(List.of());
         // Act & Assert
         assertThrows(UsernameNotFoundException.class, () -> {
             customUserDetailsService.loadUserByUsername(username);
         });
-        verify(userRepository, times(1)).findByUsername(username);
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername(username));
+        verify(userRepository, times(2)).findAuthRowsByUsername(username);
+    }
+    @Test
+    void testLoadUserByUsername_CachedUntilInvalidated() {
+        when(userRepository.findAuthRowsByUsername("testuser")).thenReturn(List.of(row(7L, "testuser", "ROLE_TENANT")));
+        CustomUserDetails first = customUserDetailsService.loadUserByUsername("testuser");
+        assertSame(first, customUserDetailsService.loadUserByUsername("testuser"));
+        verify(userRepository, times(1)).findAuthRowsByUsername("testuser");
+
+        customUserDetailsService.invalidate("testuser");
+        assertNotSame(first, customUserDetailsService.loadUserByUsername("testuser"));
+
+        customUserDetailsService.invalidate(8L);
+        customUserDetailsService.loadUserByUsername("testuser");
+        verify(userRepository, times(2)).findAuthRowsByUsername("testuser");
+
+        customUserDetailsService.invalidate(7L);
+        customUserDetailsService.loadUserByUsername("testuser");
+        verify(userRepository, times(3)).findAuthRowsByUsername("testuser");
+    }
+    @Test
+    void testInvalidate_InsideATransactionWaitsForTheCommit() {
+        when(userRepository.findAuthRowsByUsername("testuser")).thenReturn(List.of(row(7L, "testuser", "ROLE_TENANT")));
+        CustomUserDetails first = customUserDetailsService.loadUserByUsername("testuser");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            customUserDetailsService.invalidate(7L);
+            assertSame(first, customUserDetailsService.loadUserByUsername("testuser"));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNotSame(first, customUserDetailsService.loadUserByUsername("testuser"));
+        verify(userRepository, times(2)).findAuthRowsByUsername("testuser");
+    }
+    @Test
+    void testUpdatePassword_StoresRehashedPassword() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setPassword("$2a$04$weak");
+        user.setRoles(new HashSet<>());
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.findAuthRowsByUsername("testuser")).thenReturn(List.of(row(7L, "testuser", "ROLE_TENANT")));
+        customUserDetailsService.loadUserByUsername("testuser");
+
+        CustomUserDetails updated = customUserDetailsService.updatePassword(new CustomUserDetails(user), "$2a$12$strong");
+
+        assertEquals("$2a$12$strong", updated.getPassword());
+        assertEquals("$2a$12$strong", user.getPassword());
+        verify(userRepository).save(user);
+        customUserDetailsService.loadUserByUsername("testuser");
+        verify(userRepository, times(2)).findAuthRowsByUsername("testuser");
+    }
+    private static AuthUserRow row(Long id, String username, String role) {
+        return new AuthUserRow(id, username, "password", "test@example.com", "Test", "User", 3, role);
     }
-}
\ No newline at end of file
+}
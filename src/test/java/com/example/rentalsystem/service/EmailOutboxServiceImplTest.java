@@ -0,0 +1,295 @@
+package com.example.rentalsystem.service;
+
+import com.example.rentalsystem.util.FakeSmtpServer;
+import com.rental.property.entity.OutboxEmail;
+import com.rental.property.enums.OutboxEmailStatus;
+import com.rental.property.event.EmailQueuedEvent;
+import com.rental.property.repo.OutboxEmailRepository;
+import com.rental.property.service.EmailOutboxServiceImpl;
+import com.rental.property.util.SmtpConnectionPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ContextConfiguration(classes = EmailOutboxServiceImplTest.Config.class)
+// The service commits its own leases and results, as it does on a worker thread.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxServiceImplTest {
+
+    @Configuration
+    @EntityScan(basePackageClasses = OutboxEmail.class)
+    @EnableJpaRepositories(basePackageClasses = OutboxEmailRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private OutboxEmailRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private FakeSmtpServer server;
+    private SmtpConnectionPool pool;
+    private EmailOutboxServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        server = new FakeSmtpServer();
+        pool = newPool(server.getPort());
+        service = newService(pool);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.shutdown();
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    void enqueue_OnlyWritesTheOutbox() {
+        service.enqueue(message("a@example.com", "b@example.com"));
+
+        List<OutboxEmail> rows = repository.findAll();
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.getStatus() == OutboxEmailStatus.PENDING));
+        assertEquals("Your code is 123456", rows.get(0).getBody());
+        assertTrue(server.getReceived().isEmpty());
+        verify(eventPublisher).publishEvent(any(EmailQueuedEvent.class));
+    }
+
+    @Test
+    void dispatchBatch_SendsOverOneConnectionAndClearsTheBody() {
+        service.enqueue(message("a@example.com", "b@example.com", "c@example.com"));
+
+        assertEquals(3, service.dispatchBatch());
+        assertEquals(0, service.dispatchBatch());
+
+        assertEquals(3, server.getReceived().size());
+        assertEquals(1, server.getConnections());
+        assertTrue(server.getReceived().get(0).data().contains("Your code is 123456"));
+        for (OutboxEmail row : repository.findAll()) {
+            assertEquals(OutboxEmailStatus.SENT, row.getStatus());
+            assertNull(row.getBody());
+            assertNotNull(row.getSentAt());
+            assertNull(row.getLeaseOwner());
+        }
+        assertEquals(3.0, meterRegistry.get("renthub.mail.outbox.sent").counter().count());
+    }
+
+    @Test
+    void dispatchBatch_TakesAtMostOneBatchAndReusesTheConnection() {
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        service.enqueue(message("a@example.com", "b@example.com", "c@example.com"));
+
+        assertEquals(2, service.dispatchBatch());
+        assertEquals(1, service.dispatchBatch());
+
+        assertEquals(3, server.getReceived().size());
+        assertEquals(1, server.getConnections());
+    }
+
+    @Test
+    void dispatchBatch_DeferredRecipientIsRetriedWithBackoff() {
+        service.enqueue(message("later@example.com", "a@example.com"));
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(2, service.dispatchBatch());
+
+        OutboxEmail deferred = row("later@example.com");
+        assertEquals(OutboxEmailStatus.PENDING, deferred.getStatus());
+        assertEquals(1, deferred.getAttempts());
+        assertNotNull(deferred.getLastError());
+        assertNull(deferred.getLeaseOwner());
+        // Half to all of the 30 second initial delay.
+        assertFalse(deferred.getNextAttemptAt().isBefore(before.plusSeconds(15)));
+        assertFalse(deferred.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+        assertEquals(OutboxEmailStatus.SENT, row("a@example.com").getStatus());
+        assertEquals(0, service.dispatchBatch());
+    }
+
+    @Test
+    void dispatchBatch_DeadAfterMaxAttempts() {
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "backoffInitial", Duration.ZERO);
+        service.enqueue(message("later@example.com"));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, service.dispatchBatch());
+        }
+
+        OutboxEmail dead = row("later@example.com");
+        assertEquals(OutboxEmailStatus.DEAD, dead.getStatus());
+        assertEquals(3, dead.getAttempts());
+        assertNull(dead.getBody());
+        assertEquals(0, service.dispatchBatch());
+        assertEquals(2.0, meterRegistry.get("renthub.mail.outbox.retried").counter().count());
+        assertEquals(1.0, meterRegistry.get("renthub.mail.outbox.dead").counter().count());
+    }
+
+    @Test
+    void dispatchBatch_RejectedRecipientIsDeadAtOnce() {
+        service.enqueue(message("reject@example.com"));
+
+        assertEquals(1, service.dispatchBatch());
+
+        OutboxEmail dead = row("reject@example.com");
+        assertEquals(OutboxEmailStatus.DEAD, dead.getStatus());
+        assertEquals(1, dead.getAttempts());
+        assertNull(dead.getBody());
+        assertNull(dead.getLeaseOwner());
+    }
+
+    @Test
+    void dispatchBatch_PastItsDeadlineIsDeadWithoutSending() {
+        service.enqueue(message("a@example.com"), LocalDateTime.now().minusSeconds(1));
+        service.enqueue(message("b@example.com"), LocalDateTime.now().plusMinutes(10));
+
+        assertEquals(1, service.dispatchBatch());
+
+        OutboxEmail expired = row("a@example.com");
+        assertEquals(OutboxEmailStatus.DEAD, expired.getStatus());
+        assertNull(expired.getBody());
+        assertEquals(0, expired.getAttempts());
+        assertEquals(OutboxEmailStatus.SENT, row("b@example.com").getStatus());
+        assertEquals(1, server.getReceived().size());
+        assertEquals(1.0, meterRegistry.get("renthub.mail.outbox.expired").counter().count());
+    }
+
+    @Test
+    void dispatchBatch_ExpiresARowWaitingOutItsBackoff() {
+        service.enqueue(message("later@example.com"), LocalDateTime.now().plusMinutes(10));
+        assertEquals(1, service.dispatchBatch());
+        OutboxEmail deferred = row("later@example.com");
+        assertEquals(OutboxEmailStatus.PENDING, deferred.getStatus());
+        deferred.setNotAfter(LocalDateTime.now().minusSeconds(1));
+        repository.save(deferred);
+
+        assertEquals(0, service.dispatchBatch());
+
+        OutboxEmail expired = row("later@example.com");
+        assertEquals(OutboxEmailStatus.DEAD, expired.getStatus());
+        assertNull(expired.getBody());
+    }
+
+    @Test
+    void dispatchBatch_UnreachableServerRetriesTheWholeBatch() throws Exception {
+        int port = server.getPort();
+        server.close();
+        pool = newPool(port);
+        service = newService(pool);
+        service.enqueue(message("a@example.com", "b@example.com"));
+
+        assertEquals(2, service.dispatchBatch());
+
+        for (OutboxEmail row : repository.findAll()) {
+            assertEquals(OutboxEmailStatus.PENDING, row.getStatus());
+            assertEquals(1, row.getAttempts());
+            assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        }
+        assertEquals(0, pool.idleCount());
+    }
+
+    @Test
+    void dispatchBatch_SkipsRowsLeasedByAnotherWorker() {
+        service.enqueue(message("a@example.com", "b@example.com"));
+        OutboxEmail leased = row("a@example.com");
+        leased.setLeaseOwner("another-worker");
+        leased.setLeaseUntil(LocalDateTime.now().plusMinutes(1));
+        repository.save(leased);
+
+        assertEquals(1, service.dispatchBatch());
+
+        assertEquals(OutboxEmailStatus.PENDING, row("a@example.com").getStatus());
+        assertEquals(OutboxEmailStatus.SENT, row("b@example.com").getStatus());
+    }
+
+    @Test
+    void dispatchBatch_PicksUpAnExpiredLease() {
+        service.enqueue(message("a@example.com"));
+        OutboxEmail abandoned = row("a@example.com");
+        abandoned.setLeaseOwner("crashed-worker");
+        abandoned.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        repository.save(abandoned);
+
+        assertEquals(1, service.dispatchBatch());
+        assertEquals(OutboxEmailStatus.SENT, row("a@example.com").getStatus());
+    }
+
+    @Test
+    void purgeFinished_KeepsPendingAndRecentRows() {
+        LocalDateTime old = LocalDateTime.now().minusDays(8);
+        repository.saveAll(List.of(outboxRow("sent@example.com", OutboxEmailStatus.SENT, old),
+                outboxRow("dead@example.com", OutboxEmailStatus.DEAD, old),
+                outboxRow("pending@example.com", OutboxEmailStatus.PENDING, old),
+                outboxRow("recent@example.com", OutboxEmailStatus.SENT, LocalDateTime.now())));
+
+        Integer purged = new TransactionTemplate(transactionManager).execute(status -> service.purgeFinished());
+
+        assertEquals(2, purged);
+        assertEquals(2, repository.count());
+    }
+
+    private EmailOutboxServiceImpl newService(SmtpConnectionPool connectionPool) {
+        return new EmailOutboxServiceImpl(repository, connectionPool, new TransactionTemplate(transactionManager),
+                eventPublisher, meterRegistry, 2);
+    }
+
+    private SmtpConnectionPool newPool(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        properties.put("mail.smtp.timeout", "2000");
+        mailSender.setJavaMailProperties(properties);
+        return new SmtpConnectionPool(mailSender, meterRegistry, 2, Duration.ofMinutes(1));
+    }
+
+    private OutboxEmail row(String recipient) {
+        return repository.findAll().stream().filter(row -> row.getRecipient().equals(recipient)).findFirst()
+                .orElseThrow();
+    }
+
+    private static SimpleMailMessage message(String... to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("no-reply@example.com");
+        message.setTo(to);
+        message.setSubject("Password Reset OTP");
+        message.setText("Your code is 123456");
+        return message;
+    }
+
+    private static OutboxEmail outboxRow(String recipient, OutboxEmailStatus status, LocalDateTime createdAt) {
+        return OutboxEmail.builder().sender("no-reply@example.com").recipient(recipient).subject("Hello")
+                .status(status).nextAttemptAt(createdAt).createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.rentalsystem.service;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.service.ImageMigrationServiceImpl;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class ImageMigrationServiceImplTest {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2};
+    @Mock
+    private PropertyRepository propertyRepository;
+    @Mock
+    private BlobStore blobStore;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private ImageMigrationServiceImpl imageMigrationService;
+    @BeforeEach
+    void setUp() {
+        imageMigrationService = new ImageMigrationServiceImpl(propertyRepository, blobStore, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(imageMigrationService, "batchSize", 2);
+    }
+    @Test
+    void migrateLegacyImages_shouldMoveEveryBatchInItsOwnTransaction() throws IOException {
+        when(propertyRepository.findIdsWithLegacyImage(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(propertyRepository.findIdsWithLegacyImage(2L, Limit.of(2))).thenReturn(List.of(3L));
+        when(propertyRepository.findImageById(anyLong())).thenReturn(Optional.of(PNG));
+        when(blobStore.put(any(InputStream.class))).thenReturn(new BlobInfo("a".repeat(64), PNG.length));
+        when(propertyRepository.moveImageToBlobStore(anyLong(), eq("a".repeat(64)), eq("image/png"), eq((long) PNG.length)))
+                .thenReturn(1);
+        assertEquals(3, imageMigrationService.migrateLegacyImages());
+        verify(transactionManager, times(2)).commit(any());
+        // Nothing failed, so later runs do not scan for legacy rows again.
+        assertEquals(0, imageMigrationService.migrateLegacyImages());
+        verify(propertyRepository, times(2)).findIdsWithLegacyImage(anyLong(), any(Limit.class));
+    }
+    @Test
+    void migrateLegacyImages_shouldLeaveFailedRowsForTheNextRun() throws IOException {
+        when(propertyRepository.findIdsWithLegacyImage(0L, Limit.of(2))).thenReturn(List.of(1L));
+        when(propertyRepository.findImageById(1L)).thenReturn(Optional.of(PNG));
+        when(blobStore.put(any(InputStream.class))).thenThrow(new IOException("disk full"));
+        assertEquals(0, imageMigrationService.migrateLegacyImages());
+        verify(propertyRepository, never()).moveImageToBlobStore(anyLong(), any(), any(), any());
+        imageMigrationService.migrateLegacyImages();
+        verify(propertyRepository, times(2)).findIdsWithLegacyImage(0L, Limit.of(2));
+    }
+}
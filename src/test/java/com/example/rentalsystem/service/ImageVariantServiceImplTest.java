@@ -0,0 +1,236 @@
+package com.example.rentalsystem.service;
+import com.rental.property.entity.PropertyImageVariant;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.repo.PropertyImageVariantRepository;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.service.ImageVariantServiceImpl;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.FileSystemBlobStore;
+import com.rental.property.storage.ImageRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceImplTest {
+    @Mock
+    private PropertyRepository propertyRepository;
+    @Mock
+    private PropertyImageVariantRepository variantRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    private Path blobRoot;
+    private FileSystemBlobStore blobStore;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageVariantServiceImpl imageVariantService;
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(blobRoot);
+        meterRegistry = new SimpleMeterRegistry();
+        imageVariantService = newService(2, 10);
+    }
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+    private ImageVariantServiceImpl newService(int workers, int queueCapacity) {
+        return new ImageVariantServiceImpl(propertyRepository, variantRepository, blobStore,
+                new TransactionTemplate(transactionManager), meterRegistry, workers, queueCapacity);
+    }
+    private ImageRef store(byte[] image, String contentType) throws IOException {
+        BlobInfo blob = blobStore.put(new ByteArrayInputStream(image));
+        return new ImageRef(blob.getHash(), contentType, blob.getSize());
+    }
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+    private static BufferedImage gradient(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new java.awt.GradientPaint(0, 0, Color.BLUE, width, height, new Color(255, 0, 0, 128)));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+    @SuppressWarnings("unchecked")
+    private Map<ImageVariant, PropertyImageVariant> savedVariants() {
+        ArgumentCaptor<List<PropertyImageVariant>> captor = ArgumentCaptor.forClass(List.class);
+        verify(variantRepository).saveAll(captor.capture());
+        return captor.getValue().stream().collect(Collectors.toMap(PropertyImageVariant::getVariant, Function.identity()));
+    }
+    @Test
+    void generateVariants_shouldDownscaleOpaqueImagesToJpegAndReuseOriginalWhenSmallEnough() throws Exception {
+        ImageRef source = store(encode(gradient(1000, 500, BufferedImage.TYPE_INT_RGB), "png"), "image/png");
+        when(propertyRepository.findImageRefById(1L)).thenReturn(Optional.of(source));
+        assertTrue(imageVariantService.generateVariants(1L));
+        Map<ImageVariant, PropertyImageVariant> variants = savedVariants();
+        verify(variantRepository).deleteByPropertyId(1L);
+        PropertyImageVariant thumbnail = variants.get(ImageVariant.THUMBNAIL);
+        assertEquals(200, thumbnail.getWidth());
+        assertEquals(100, thumbnail.getHeight());
+        assertEquals("image/jpeg", thumbnail.getContentType());
+        assertEquals(source.getHash(), thumbnail.getSourceHash());
+        BufferedImage decoded = ImageIO.read(blobStore.get(thumbnail.getHash()).orElseThrow().getInputStream());
+        assertEquals(200, decoded.getWidth());
+        assertEquals(640, variants.get(ImageVariant.CARD).getWidth());
+        // Already within the FULL bound, so the original bytes are the rendition.
+        assertEquals(source.getHash(), variants.get(ImageVariant.FULL).getHash());
+        assertEquals("image/png", variants.get(ImageVariant.FULL).getContentType());
+    }
+    @Test
+    void generateVariants_shouldKeepTransparencyAsPng() throws Exception {
+        ImageRef source = store(encode(gradient(800, 800, BufferedImage.TYPE_INT_ARGB), "png"), "image/png");
+        when(propertyRepository.findImageRefById(2L)).thenReturn(Optional.of(source));
+        assertTrue(imageVariantService.generateVariants(2L));
+        PropertyImageVariant thumbnail = savedVariants().get(ImageVariant.THUMBNAIL);
+        assertEquals("image/png", thumbnail.getContentType());
+        BufferedImage decoded = ImageIO.read(blobStore.get(thumbnail.getHash()).orElseThrow().getInputStream());
+        assertTrue(decoded.getColorModel().hasAlpha());
+    }
+    @Test
+    void generateVariants_shouldFallBackToOriginalForUndecodableImages() throws Exception {
+        byte[] webp = {'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P', 1, 2, 3};
+        ImageRef source = store(webp, "image/webp");
+        when(propertyRepository.findImageRefById(3L)).thenReturn(Optional.of(source));
+        assertTrue(imageVariantService.generateVariants(3L));
+        Map<ImageVariant, PropertyImageVariant> variants = savedVariants();
+        assertEquals(1, variants.size());
+        assertEquals(source.getHash(), variants.get(ImageVariant.FULL).getHash());
+        assertNull(variants.get(ImageVariant.FULL).getWidth());
+    }
+    @Test
+    void generateVariants_shouldNotDecodeDecompressionBombs() throws Exception {
+        ImageRef source = store(pngHeader(20_000, 20_000), "image/png");
+        when(propertyRepository.findImageRefById(4L)).thenReturn(Optional.of(source));
+        assertTrue(imageVariantService.generateVariants(4L));
+        Map<ImageVariant, PropertyImageVariant> variants = savedVariants();
+        assertEquals(List.of(ImageVariant.FULL), List.copyOf(variants.keySet()));
+        assertEquals(source.getHash(), variants.get(ImageVariant.FULL).getHash());
+    }
+    @Test
+    void generateVariants_shouldCountCorruptImagesAsFailures() throws Exception {
+        ImageRef source = store(pngHeader(10, 10), "image/png");
+        when(propertyRepository.findImageRefById(10L)).thenReturn(Optional.of(source));
+        assertFalse(imageVariantService.generateVariants(10L));
+        verify(variantRepository, never()).saveAll(any());
+        assertEquals(1.0, meterRegistry.get("renthub.image.pipeline.failures").counter().count());
+        verify(propertyRepository).recordVariantFailure(eq(10L), eq(source.getHash()), any());
+    }
+    @Test
+    void generateVariants_shouldRecordAMissingBlobAsAFailure() {
+        when(propertyRepository.findImageRefById(11L)).thenReturn(Optional.of(new ImageRef("c".repeat(64), "image/png", 1L)));
+        assertFalse(imageVariantService.generateVariants(11L));
+        verify(propertyRepository).recordVariantFailure(eq(11L), eq("c".repeat(64)), any());
+        verify(variantRepository, never()).saveAll(any());
+    }
+    @Test
+    void generateVariants_shouldDiscardRenditionsOfAReplacedImage() throws Exception {
+        ImageRef source = store(encode(gradient(300, 300, BufferedImage.TYPE_INT_RGB), "png"), "image/png");
+        when(propertyRepository.findImageRefById(5L)).thenReturn(Optional.of(source),
+                Optional.of(new ImageRef("f".repeat(64), "image/png", 1L)));
+        assertFalse(imageVariantService.generateVariants(5L));
+        verify(variantRepository, never()).deleteByPropertyId(anyLong());
+        verify(variantRepository, never()).saveAll(any());
+    }
+    @Test
+    void generateVariants_shouldSkipImagesThatAreAlreadyRendered() {
+        when(propertyRepository.findImageRefById(6L)).thenReturn(Optional.of(new ImageRef("a".repeat(64), "image/png", 1L)));
+        when(variantRepository.existsByPropertyIdAndSourceHash(6L, "a".repeat(64))).thenReturn(true);
+        assertFalse(imageVariantService.generateVariants(6L));
+        verify(variantRepository, never()).saveAll(any());
+    }
+    @Test
+    void generateVariants_shouldDropRenditionsOfDeletedProperties() {
+        when(propertyRepository.findImageRefById(7L)).thenReturn(Optional.empty());
+        assertFalse(imageVariantService.generateVariants(7L));
+        verify(variantRepository).deleteByPropertyId(7L);
+    }
+    @Test
+    void submit_shouldRejectWhenQueueIsFullAndReportQueueDepth() throws Exception {
+        imageVariantService.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        imageVariantService = newService(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(propertyRepository.findImageRefById(anyLong())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        assertTrue(imageVariantService.submit(1L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(imageVariantService.submit(2L));
+        // Already queued, so not queued twice.
+        assertTrue(imageVariantService.submit(2L));
+        assertFalse(imageVariantService.submit(3L));
+        assertEquals(1.0, meterRegistry.get("renthub.image.pipeline.queue.depth").gauge().value());
+        release.countDown();
+        verify(variantRepository, timeout(5000)).deleteByPropertyId(2L);
+        verify(propertyRepository, never()).findImageRefById(3L);
+        assertTrue(meterRegistry.get("renthub.image.pipeline.processing").timer().count() >= 1);
+    }
+    @Test
+    void queueMissingVariants_shouldWalkAllBatches() {
+        ReflectionTestUtils.setField(imageVariantService, "sweepBatchSize", 2);
+        when(propertyRepository.findIdsWithoutImageVariants(0L, 3, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(propertyRepository.findIdsWithoutImageVariants(2L, 3, Limit.of(2))).thenReturn(List.of(3L));
+        when(propertyRepository.findImageRefById(anyLong())).thenReturn(Optional.empty());
+        assertEquals(3, imageVariantService.queueMissingVariants());
+        verify(variantRepository, timeout(5000)).deleteByPropertyId(3L);
+    }
+    @Test
+    void onPropertyChanged_shouldQueueOnlyWhenTheImageChanged() {
+        PropertyDocument before = PropertyDocument.builder().propertyId(8L).imageHash("a".repeat(64)).build();
+        PropertyDocument same = PropertyDocument.builder().propertyId(8L).imageHash("a".repeat(64)).rentAmount(1).build();
+        imageVariantService.onPropertyChanged(new PropertyChangedEvent(8L, before, same));
+        PropertyDocument added = PropertyDocument.builder().propertyId(9L).imageHash("b".repeat(64)).build();
+        when(propertyRepository.findImageRefById(9L)).thenReturn(Optional.empty());
+        imageVariantService.onPropertyChanged(new PropertyChangedEvent(9L, null, added));
+        verify(variantRepository, timeout(5000)).deleteByPropertyId(9L);
+        verify(propertyRepository, never()).findImageRefById(8L);
+    }
+    /** A PNG whose header claims the given size; readers learn the dimensions without decoding any pixels. */
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(17).put("IHDR".getBytes()).putInt(width).putInt(height)
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(8 + 4 + 17 + 4)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue()).array();
+    }
+}
@@ -8,6 +8,7 @@ import com.rental.property.entity.RentalTransaction;
 import com.rental.property.entity.User;
 import com.rental.property.entity.Address;
 import com.rental.property.enums.LeaseStatus;
+import com.rental.property.event.PropertyChangedEvent;
 import com.rental.property.repo.LeaseRepository;
 import com.rental.property.repo.PropertyRepository;
 import com.rental.property.repo.RentalTransactionRepository;
@@ -20,6 +21,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -43,6 +45,9 @@ class LeaseServiceImplTest {
     @Mock
     private LeaseRepository leaseRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private LeaseServiceImpl leaseService;
 
@@ -103,6 +108,7 @@ class LeaseServiceImplTest {
         assertEquals(lease.getLeaseId(), responseDTO.getLeaseId());
         verify(propertyRepository, times(1)).save(property);
         verify(leaseRepository, times(1)).save(any(Lease.class));
+        verify(eventPublisher).publishEvent(any(PropertyChangedEvent.class));
     }
 
 
@@ -118,6 +124,7 @@ class LeaseServiceImplTest {
         assertEquals("Available", property.getAvailabilityStatus());
         verify(leaseRepository, times(1)).save(lease);
         verify(propertyRepository, times(1)).save(property);
+        verify(eventPublisher).publishEvent(any(PropertyChangedEvent.class));
     }
 
     @Test
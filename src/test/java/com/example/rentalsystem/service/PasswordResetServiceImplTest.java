@@ -5,8 +5,10 @@ import com.rental.property.dto.OtpVerifyDTO;
 import com.rental.property.dto.PasswordResetDTO;
 import com.rental.property.entity.User;
 import com.rental.property.exception.UserNotFoundException;
+import com.rental.property.otp.OtpStore;
 import com.rental.property.repo.UserRepository;
 import com.rental.property.service.PasswordResetServiceImpl;
+import com.rental.property.service.TokenVersionService;
 import com.rental.property.util.EmailUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,11 +18,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,6 +38,12 @@ class PasswordResetServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private OtpStore otpStore;
+
     @InjectMocks
     private PasswordResetServiceImpl passwordResetService;
 
@@ -48,36 +53,11 @@ class PasswordResetServiceImplTest {
     private static final String VALID_PASSWORD = "Password@123";
 
     @BeforeEach
-    void setUp() throws Exception {
+    void setUp() {
         testUser = new User();
         testUser.setEmail(EMAIL);
         testUser.setMobileNo(Long.parseLong(MOBILE));
         testUser.setPassword("encodedPassword");
-        clearOtpStore();
-    }
-
-    private void clearOtpStore() throws Exception {
-        Field otpStoreField = PasswordResetServiceImpl.class.getDeclaredField("otpStore");
-        otpStoreField.setAccessible(true);
-        Map<String, Object> otpStore = (Map<String, Object>) otpStoreField.get(passwordResetService);
-        otpStore.clear();
-        otpStoreField.setAccessible(false);
-    }
-
-    private void storeOtp(String email, String otp, LocalDateTime expirationTime) throws Exception {
-        Class<?> otpDataClass = Class.forName("com.rental.property.service.PasswordResetServiceImpl$OtpData");
-
-        Constructor<?> constructor = otpDataClass.getDeclaredConstructor(String.class, LocalDateTime.class);
-        constructor.setAccessible(true);
-
-        Object otpData = constructor.newInstance(otp, expirationTime);
-        constructor.setAccessible(false);
-
-        Field otpStoreField = PasswordResetServiceImpl.class.getDeclaredField("otpStore");
-        otpStoreField.setAccessible(true);
-        Map<String, Object> otpStore = (Map<String, Object>) otpStoreField.get(passwordResetService);
-        otpStore.put(email, otpData);
-        otpStoreField.setAccessible(false);
     }
 
     @Test
@@ -89,7 +69,8 @@ class PasswordResetServiceImplTest {
         passwordResetService.initiatePasswordReset(otpRequest);
 
         verify(userRepository).findByEmail(EMAIL);
-        verify(emailUtil).sendOtpEmail(eq(EMAIL), any(String.class));
+        verify(otpStore).save(eq(EMAIL), matches("\\d{6}"), any(Duration.class));
+        verify(emailUtil).sendOtpEmail(eq(EMAIL), any(String.class), any(Duration.class));
     }
 
     @Test
@@ -101,7 +82,7 @@ class PasswordResetServiceImplTest {
         passwordResetService.initiatePasswordReset(otpRequest);
 
         verify(userRepository).findAll();
-        verify(emailUtil).sendOtpEmail(eq(EMAIL), any(String.class));
+        verify(emailUtil).sendOtpEmail(eq(EMAIL), any(String.class), any(Duration.class));
     }
 
     @Test
@@ -112,7 +93,7 @@ class PasswordResetServiceImplTest {
 
         assertThrows(UserNotFoundException.class, () ->
                 passwordResetService.initiatePasswordReset(otpRequest));
-        verify(emailUtil, never()).sendOtpEmail(any(), any());
+        verify(emailUtil, never()).sendOtpEmail(any(), any(), any());
     }
 
     @Test
@@ -122,36 +103,32 @@ class PasswordResetServiceImplTest {
 
         assertThrows(IllegalArgumentException.class, () ->
                 passwordResetService.initiatePasswordReset(otpRequest));
-        verify(emailUtil, never()).sendOtpEmail(any(), any());
+        verify(emailUtil, never()).sendOtpEmail(any(), any(), any());
     }
 
     @Test
-    void verifyOtp_ValidOtp_Success() throws Exception {
-
+    void verifyOtp_ValidOtp_Success() {
         String[] capturedOtp = new String[1];
         when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(testUser));
         doAnswer(invocation -> {
-            String email = invocation.getArgument(0);
-            String otp = invocation.getArgument(1);
-            capturedOtp[0] = otp;
-            storeOtp(email, otp, LocalDateTime.now().plusMinutes(5));
+            capturedOtp[0] = invocation.getArgument(1);
             return null;
-        }).when(emailUtil).sendOtpEmail(anyString(), anyString());
+        }).when(emailUtil).sendOtpEmail(anyString(), anyString(), any(Duration.class));
 
         OtpRequestDTO otpRequest = new OtpRequestDTO();
         otpRequest.setIdentifier(EMAIL);
         passwordResetService.initiatePasswordReset(otpRequest);
+        verify(otpStore).save(eq(EMAIL), eq(capturedOtp[0]), any(Duration.class));
 
-        OtpVerifyDTO otpVerify = new OtpVerifyDTO(EMAIL, capturedOtp[0]);
-        passwordResetService.verifyOtp(otpVerify);
-
+        when(otpStore.verify(EMAIL, capturedOtp[0])).thenReturn(OtpStore.Result.VALID);
+        passwordResetService.verifyOtp(new OtpVerifyDTO(EMAIL, capturedOtp[0]));
+        verify(otpStore, never()).remove(any());
     }
 
     @Test
-    void verifyOtp_InvalidOtp_ThrowsIllegalArgumentException() throws Exception {
+    void verifyOtp_InvalidOtp_ThrowsIllegalArgumentException() {
 
-        String validOtp = "123456";
-        storeOtp(EMAIL, validOtp, LocalDateTime.now().plusMinutes(5));
+        when(otpStore.verify(EMAIL, "999999")).thenReturn(OtpStore.Result.INVALID);
         OtpVerifyDTO otpVerify = new OtpVerifyDTO(EMAIL, "999999");
 
         assertThrows(IllegalArgumentException.class, () ->
@@ -159,21 +136,30 @@ class PasswordResetServiceImplTest {
     }
 
     @Test
-    void verifyOtp_ExpiredOtp_ThrowsIllegalArgumentException() throws Exception {
+    void verifyOtp_ExpiredOtp_ThrowsIllegalArgumentException() {
 
         String validOtp = "123456";
-        storeOtp(EMAIL, validOtp, LocalDateTime.now().minusMinutes(5));
+        when(otpStore.verify(EMAIL, validOtp)).thenReturn(OtpStore.Result.EXPIRED);
         OtpVerifyDTO otpVerify = new OtpVerifyDTO(EMAIL, validOtp);
 
-
-        assertThrows(IllegalArgumentException.class, () ->
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
                 passwordResetService.verifyOtp(otpVerify));
+        assertEquals("OTP has expired", e.getMessage());
+    }
+
+    @Test
+    void verifyOtp_AttemptsExhausted_ThrowsIllegalArgumentException() {
+        when(otpStore.verify(EMAIL, "123456")).thenReturn(OtpStore.Result.EXHAUSTED);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                passwordResetService.verifyOtp(new OtpVerifyDTO(EMAIL, "123456")));
+        assertEquals("Too many attempts, request a new OTP", e.getMessage());
     }
 
     @Test
-    void resetPassword_ValidInput_Success() throws Exception {
+    void resetPassword_ValidInput_Success() {
         String validOtp = "123456";
-        storeOtp(EMAIL, validOtp, LocalDateTime.now().plusMinutes(5));
+        when(otpStore.verify(EMAIL, validOtp)).thenReturn(OtpStore.Result.VALID);
         PasswordResetDTO passwordReset = new PasswordResetDTO();
         passwordReset.setEmail(EMAIL);
         passwordReset.setOtp(validOtp);
@@ -186,13 +172,15 @@ class PasswordResetServiceImplTest {
 
         verify(userRepository).save(testUser);
         verify(passwordEncoder).encode(VALID_PASSWORD);
+        verify(tokenVersionService).revokeTokens(testUser.getId());
+        verify(otpStore).remove(EMAIL);
         assertEquals("encodedNewPassword", testUser.getPassword());
     }
 
     @Test
-    void resetPassword_InvalidPassword_ThrowsIllegalArgumentException() throws Exception {
+    void resetPassword_InvalidPassword_ThrowsIllegalArgumentException() {
         String validOtp = "123456";
-        storeOtp(EMAIL, validOtp, LocalDateTime.now().plusMinutes(5));
+        when(otpStore.verify(EMAIL, validOtp)).thenReturn(OtpStore.Result.VALID);
         PasswordResetDTO passwordReset = new PasswordResetDTO();
         passwordReset.setEmail(EMAIL);
         passwordReset.setOtp(validOtp);
@@ -202,13 +190,14 @@ class PasswordResetServiceImplTest {
         assertThrows(IllegalArgumentException.class, () ->
                 passwordResetService.resetPassword(passwordReset));
         verify(userRepository, never()).save(any());
+        verify(otpStore, never()).remove(any());
     }
 
     @Test
-    void resetPassword_UserNotFound_ThrowsUserNotFoundException() throws Exception {
+    void resetPassword_UserNotFound_ThrowsUserNotFoundException() {
 
         String validOtp = "123456";
-        storeOtp(EMAIL, validOtp, LocalDateTime.now().plusMinutes(5));
+        when(otpStore.verify(EMAIL, validOtp)).thenReturn(OtpStore.Result.VALID);
         PasswordResetDTO passwordReset = new PasswordResetDTO();
         passwordReset.setEmail(EMAIL);
         passwordReset.setOtp(validOtp);
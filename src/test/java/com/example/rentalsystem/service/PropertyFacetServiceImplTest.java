@@ -0,0 +1,72 @@
+package com.example.rentalsystem.service;
+import com.rental.property.dto.PropertyFacetsDto;
+import com.rental.property.event.PropertyChangedEvent;
+import com.rental.property.repo.PropertyRepository;
+import com.rental.property.search.FacetGroup;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.service.PropertyFacetServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+@ExtendWith(MockitoExtension.class)
+class PropertyFacetServiceImplTest {
+    @Mock
+    private PropertyRepository propertyRepository;
+    @InjectMocks
+    private PropertyFacetServiceImpl propertyFacetService;
+    @BeforeEach
+    void setUp() {
+        when(propertyRepository.countAvailableByFacets("Available")).thenReturn(List.of(
+                new FacetGroup("Chennai", "2BHK", "Apartment", "10000-20000", 3),
+                new FacetGroup("Chennai", "3BHK", "Villa", "50000+", 1),
+                new FacetGroup("Bangalore", "2BHK", "Apartment", "0-10000", 2)));
+        propertyFacetService.reconcile();
+    }
+    @Test
+    void reconcile_shouldLoadCountsFromDatabase() {
+        PropertyFacetsDto facets = propertyFacetService.getFacets();
+        assertEquals(List.of("Chennai", "Bangalore"), List.copyOf(facets.getCities().keySet()));
+        assertEquals(4L, facets.getCities().get("Chennai"));
+        assertEquals(5L, facets.getBhk().get("2BHK"));
+        assertEquals(Map.of("Apartment", 5L, "Villa", 1L), facets.getPropertyTypes());
+        assertEquals(List.of("0-10000", "10000-20000", "20000-30000", "30000-50000", "50000+"),
+                List.copyOf(facets.getRentBands().keySet()));
+        assertEquals(2L, facets.getRentBands().get("0-10000"));
+        assertEquals(0L, facets.getRentBands().get("20000-30000"));
+        assertEquals(1L, facets.getRentBands().get("50000+"));
+    }
+    @Test
+    void onPropertyChanged_shouldMoveCountsOnStatusChangeAndCreate() {
+        PropertyDocument available = document("Bangalore", "2BHK", 9000, "Available");
+        propertyFacetService.onPropertyChanged(new PropertyChangedEvent(1L, available, document("Bangalore", "2BHK", 9000, "Rented")));
+        propertyFacetService.onPropertyChanged(new PropertyChangedEvent(2L, available, null));
+        propertyFacetService.onPropertyChanged(new PropertyChangedEvent(3L, null, document("Pune", "1BHK", 25000, "Available")));
+        PropertyFacetsDto facets = propertyFacetService.getFacets();
+        assertNull(facets.getCities().get("Bangalore"));
+        assertEquals(1L, facets.getCities().get("Pune"));
+        assertEquals(3L, facets.getBhk().get("2BHK"));
+        assertEquals(0L, facets.getRentBands().get("0-10000"));
+        assertEquals(1L, facets.getRentBands().get("20000-30000"));
+    }
+    @Test
+    void onPropertyChanged_shouldIgnoreRentedListingsAndReconcileShouldRepairDrift() {
+        propertyFacetService.onPropertyChanged(new PropertyChangedEvent(4L, null, document("Pune", "1BHK", 8000, "Rented")));
+        propertyFacetService.onPropertyChanged(new PropertyChangedEvent(5L, document("Mumbai", "1BHK", 8000, "Available"), null));
+        assertNull(propertyFacetService.getFacets().getCities().get("Pune"));
+        assertNull(propertyFacetService.getFacets().getCities().get("Mumbai"));
+        propertyFacetService.onPropertyChanged(new PropertyChangedEvent(6L, null, document("Delhi", "1BHK", 8000, "Available")));
+        propertyFacetService.reconcile();
+        assertNull(propertyFacetService.getFacets().getCities().get("Delhi"));
+    }
+    private PropertyDocument document(String city, String bhk, double rent, String status) {
+        return PropertyDocument.builder().city(city).bhk(bhk).propertyType("Apartment").rentAmount(rent)
+                .availabilityStatus(status).build();
+    }
+}
@@ -3,11 +3,24 @@ package com.example.rentalsystem.service;
 import com.rental.property.dto.PropertyRequestDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.entity.Property;
+import com.rental.property.entity.PropertyImage;
 import com.rental.property.entity.User;
+import com.rental.property.event.PropertyChangedEvent;
 import com.rental.property.exception.PropertyNotFoundException;
+import com.rental.property.entity.PropertyImageVariant;
+import com.rental.property.enums.ImageVariant;
+import com.rental.property.repo.PropertyImageRepository;
+import com.rental.property.repo.PropertyImageVariantRepository;
 import com.rental.property.repo.PropertyRepository;
 import com.rental.property.repo.UserRepository;
+import com.rental.property.search.PropertyDocument;
 import com.rental.property.service.PropertyServiceImpl;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.BlobStore;
+import com.rental.property.storage.FileSystemBlobStore;
+import com.rental.property.storage.ImageRef;
+import com.rental.property.storage.ImageCache;
+import com.rental.property.storage.ImageContent;
 import com.rental.property.util.EntityMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,14 +28,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,23 +63,41 @@ class PropertyServiceImplTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private PropertyImageVariantRepository imageVariantRepository;
+
+    @Mock
+    private PropertyImageRepository propertyImageRepository;
+
+    @Mock
+    private ImageCache imageCache;
+
     @InjectMocks
     private PropertyServiceImpl propertyService;
 
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0};
+
     private Property property;
+    private Authentication authentication;
     private User landlord;
     private PropertyRequestDto propertyRequestDto;
 
     @BeforeEach
     void setUpSecurityContext() {
         SecurityContext securityContext = mock(SecurityContext.class);
-        Authentication authentication = mock(Authentication.class);
+        authentication = mock(Authentication.class);
         UserDetails userDetails = mock(UserDetails.class);
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn("test_landlord");
+        lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
+        lenient().when(authentication.isAuthenticated()).thenReturn(true);
+        lenient().when(authentication.getPrincipal()).thenReturn(userDetails);
+        lenient().when(userDetails.getUsername()).thenReturn("test_landlord");
 
         SecurityContextHolder.setContext(securityContext);
 
@@ -94,4 +138,219 @@ class PropertyServiceImplTest {
 
         assertThrows(RuntimeException.class, () -> propertyService.deleteProperty(1L));
     }
+
+    @Test
+    void testDeleteProperty_PublishesDeletedEvent() {
+        property.setUser(landlord);
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+
+        propertyService.deleteProperty(1L);
+
+        verify(propertyRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PropertyChangedEvent changed
+                && changed.isDeleted() && changed.getPropertyId().equals(1L)));
+    }
+
+    @Test
+    void testGetPropertyImage_ServesBlobWithoutLoadingEntity() {
+        String hash = "c".repeat(64);
+        Resource content = new ByteArrayResource(new byte[]{1, 2, 3});
+        when(propertyRepository.findImageRefById(1L)).thenReturn(Optional.of(new ImageRef(hash, "image/jpeg", 3L)));
+        when(imageCache.get(hash)).thenReturn(Optional.of(content));
+        ImageContent image = propertyService.getPropertyImage(1L, 1);
+        assertSame(content, image.getContent());
+        assertEquals("image/jpeg", image.getContentType());
+        assertEquals(hash, image.getHash());
+        verify(propertyRepository, never()).findById(anyLong());
+        verify(propertyRepository, never()).findImageById(anyLong());
+    }
+
+    @Test
+    void testGetPropertyImage_FallsBackToLegacyColumnBeforeMigration() throws IOException {
+        byte[] legacy = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 1};
+        when(propertyRepository.findImageRefById(1L)).thenReturn(Optional.of(new ImageRef(null, null, null)));
+        when(propertyRepository.findImageById(1L)).thenReturn(Optional.of(legacy));
+        ImageContent image = propertyService.getPropertyImage(1L, 1);
+        assertArrayEquals(legacy, image.getContent().getContentAsByteArray());
+        assertEquals("image/jpeg", image.getContentType());
+        assertEquals(FileSystemBlobStore.hashOf(legacy), image.getHash());
+        verifyNoInteractions(imageCache);
+    }
+
+    @Test
+    void testGetPropertyImage_MissingProperty() {
+        when(propertyRepository.findImageRefById(99L)).thenReturn(Optional.empty());
+        assertThrows(PropertyNotFoundException.class, () -> propertyService.getPropertyImage(99L, 1));
+    }
+
+    @Test
+    void testGetPropertyImage_UnknownImageNumber() {
+        when(propertyImageRepository.findImageRef(1L, 2)).thenReturn(Optional.empty());
+        assertThrows(PropertyNotFoundException.class, () -> propertyService.getPropertyImage(1L, 2));
+        verifyNoInteractions(imageCache);
+    }
+
+    @Test
+    void testGetPropertyImage_LaterImage_ServedAsUploadedEvenForVariant() {
+        String hash = "a".repeat(64);
+        Resource content = new ByteArrayResource(new byte[]{7});
+        when(propertyImageRepository.findImageRef(1L, 3)).thenReturn(Optional.of(new ImageRef(hash, "image/webp", 1L)));
+        when(imageCache.get(hash)).thenReturn(Optional.of(content));
+        ImageContent image = propertyService.getPropertyImage(1L, 3, ImageVariant.THUMBNAIL);
+        assertSame(content, image.getContent());
+        assertEquals("image/webp", image.getContentType());
+        assertNull(image.getVersion());
+        verifyNoInteractions(imageVariantRepository);
+    }
+
+    private void signInAsLandlord() {
+        doReturn(List.of(new SimpleGrantedAuthority("ROLE_LANDLORD"))).when(authentication).getAuthorities();
+    }
+
+    @Test
+    void testAddNewProperty_StoresImagesInOrderWithFirstAsCover() throws IOException {
+        signInAsLandlord();
+        MockMultipartFile first = new MockMultipartFile("images", "a.png", "image/png", PNG);
+        MockMultipartFile second = new MockMultipartFile("images", "b.png", "image/png", PNG);
+        when(entityMapper.convertPropRequestDtoToProperty(propertyRequestDto)).thenReturn(property);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(landlord));
+        when(blobStore.put(any(InputStream.class))).thenReturn(new BlobInfo("a".repeat(64), 9), new BlobInfo("b".repeat(64), 9));
+        when(propertyRepository.save(property)).thenReturn(property);
+
+        propertyService.addNewProperty(propertyRequestDto, List.of(first, second));
+
+        assertEquals("a".repeat(64), property.getImageHash());
+        assertEquals("image/png", property.getImageContentType());
+        assertEquals(List.of(1, 2), property.getImages().stream().map(PropertyImage::getPosition).toList());
+        assertEquals("b".repeat(64), property.getImages().get(1).getHash());
+        assertSame(property, property.getImages().get(1).getProperty());
+        verify(eventPublisher).publishEvent(any(PropertyChangedEvent.class));
+    }
+
+    @Test
+    void testAddNewProperty_RejectsMissingEmptyOrTooManyImages() {
+        signInAsLandlord();
+        lenient().when(entityMapper.convertPropRequestDtoToProperty(propertyRequestDto)).thenReturn(property);
+        lenient().when(userRepository.findById(1L)).thenReturn(Optional.of(landlord));
+        MockMultipartFile image = new MockMultipartFile("images", "a.png", "image/png", PNG);
+
+        assertThrows(IllegalArgumentException.class, () -> propertyService.addNewProperty(propertyRequestDto, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> propertyService.addNewProperty(propertyRequestDto,
+                List.of(new MockMultipartFile("images", "empty.png", "image/png", new byte[0]))));
+        assertThrows(IllegalArgumentException.class, () -> propertyService.addNewProperty(propertyRequestDto,
+                Collections.nCopies(11, image)));
+        verifyNoInteractions(blobStore);
+        verify(propertyRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddPropertyImages_AppendsAfterLastPosition() throws IOException {
+        property.setUser(landlord);
+        property.setImageHash("c".repeat(64));
+        when(propertyRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(property));
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(propertyImageRepository.findLastPosition(1L)).thenReturn(2);
+        when(blobStore.put(any(InputStream.class))).thenReturn(new BlobInfo("d".repeat(64), 9));
+        when(entityMapper.convertPropToPropResponseDto(property)).thenReturn(new PropertyResponseDto());
+
+        propertyService.addPropertyImages(1L, List.of(new MockMultipartFile("images", "c.png", "image/png", PNG)));
+
+        verify(propertyImageRepository).saveAll(argThat((List<PropertyImage> images) -> images.size() == 1
+                && images.get(0).getPosition() == 3 && images.get(0).getHash().equals("d".repeat(64))));
+        verify(propertyRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testAddPropertyImages_LegacyCoverCountsAsFirstImage() throws IOException {
+        property.setUser(landlord);
+        property.setImageHash("c".repeat(64));
+        when(propertyRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(property));
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(propertyImageRepository.findLastPosition(1L)).thenReturn(0);
+        when(blobStore.put(any(InputStream.class))).thenReturn(new BlobInfo("d".repeat(64), 9));
+        when(entityMapper.convertPropToPropResponseDto(property)).thenReturn(new PropertyResponseDto());
+
+        propertyService.addPropertyImages(1L, List.of(new MockMultipartFile("images", "c.png", "image/png", PNG)));
+
+        verify(propertyImageRepository).saveAll(argThat((List<PropertyImage> images) -> images.get(0).getPosition() == 2));
+    }
+
+    @Test
+    void testAddPropertyImages_NotOwnedByCurrentUser() {
+        User otherUser = new User();
+        otherUser.setId(2L);
+        property.setUser(otherUser);
+        when(propertyRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(property));
+
+        assertThrows(AuthorizationDeniedException.class, () -> propertyService.addPropertyImages(1L,
+                List.of(new MockMultipartFile("images", "c.png", "image/png", PNG))));
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void testGetPropertyImageVariant_ServesCurrentRendition() {
+        String source = "c".repeat(64);
+        String thumb = "e".repeat(64);
+        Resource content = new ByteArrayResource(new byte[]{4});
+        when(propertyRepository.findImageRefById(1L)).thenReturn(Optional.of(new ImageRef(source, "image/png", 3L)));
+        when(imageVariantRepository.findByPropertyIdAndVariant(1L, ImageVariant.THUMBNAIL)).thenReturn(Optional.of(
+                PropertyImageVariant.builder().variant(ImageVariant.THUMBNAIL).sourceHash(source).hash(thumb)
+                        .contentType("image/jpeg").build()));
+        when(imageCache.get(thumb)).thenReturn(Optional.of(content));
+        ImageContent image = propertyService.getPropertyImage(1L, 1, ImageVariant.THUMBNAIL);
+        assertSame(content, image.getContent());
+        assertEquals("image/jpeg", image.getContentType());
+        assertEquals(thumb, image.getHash());
+        assertEquals(source, image.getVersion());
+    }
+
+    @Test
+    void testGetPropertyImageVariant_StaleRendition_ServesUnversionedOriginal() {
+        String source = "c".repeat(64);
+        Resource original = new ByteArrayResource(new byte[]{1, 2, 3});
+        when(propertyRepository.findImageRefById(1L)).thenReturn(Optional.of(new ImageRef(source, "image/png", 3L)));
+        when(imageVariantRepository.findByPropertyIdAndVariant(1L, ImageVariant.CARD)).thenReturn(Optional.of(
+                PropertyImageVariant.builder().variant(ImageVariant.CARD).sourceHash("f".repeat(64)).hash("e".repeat(64)).build()));
+        when(imageCache.get(source)).thenReturn(Optional.of(original));
+        ImageContent image = propertyService.getPropertyImage(1L, 1, ImageVariant.CARD);
+        assertSame(original, image.getContent());
+        assertEquals(source, image.getHash());
+        assertNull(image.getVersion());
+        verify(imageCache, never()).get("e".repeat(64));
+    }
+
+    @Test
+    void testGetPropertyById_DoesNotReadImage() {
+        property.setImageHash("d".repeat(64));
+        PropertyResponseDto dto = new PropertyResponseDto();
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(entityMapper.convertPropToPropResponseDto(property)).thenReturn(dto);
+        assertSame(dto, propertyService.getPropertyById(1L));
+        verifyNoInteractions(blobStore, imageCache);
+    }
+
+    @Test
+    void testGetPropertyById_ListsCoverThenLaterImages() {
+        property.setImageHash("d".repeat(64));
+        PropertyImage cover = PropertyImage.builder().position(1).hash("d".repeat(64)).build();
+        PropertyImage second = PropertyImage.builder().position(2).hash("e".repeat(64)).build();
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(entityMapper.convertPropToPropResponseDto(property)).thenReturn(new PropertyResponseDto());
+        when(propertyImageRepository.findByProperty_PropertyIdOrderByPosition(1L)).thenReturn(List.of(cover, second));
+
+        assertEquals(List.of("/api/v1/public/properties/1/images/1?v=" + "d".repeat(16),
+                        "/api/v1/public/properties/1/images/2?v=" + "e".repeat(16)),
+                propertyService.getPropertyById(1L).getImageUrls());
+    }
+
+    @Test
+    void testGetAllPropertyById_UsesRentedProjection() {
+        PropertyDocument rented = PropertyDocument.builder().propertyId(1L).availabilityStatus("Rented").build();
+        PropertyResponseDto responseDto = PropertyResponseDto.builder().propertyId(1L).build();
+        when(userRepository.existsById(5L)).thenReturn(true);
+        when(propertyRepository.findRentedDocumentsByTenantId(5L)).thenReturn(List.of(rented));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(rented))).thenReturn(List.of(responseDto));
+        assertEquals(List.of(responseDto), propertyService.getAllPropertyById(5L));
+    }
 }
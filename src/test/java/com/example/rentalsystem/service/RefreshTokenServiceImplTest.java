@@ -0,0 +1,145 @@
+package com.example.rentalsystem.service;
+
+import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.dto.RotatedRefreshToken;
+import com.rental.property.entity.RefreshToken;
+import com.rental.property.entity.Role;
+import com.rental.property.entity.User;
+import com.rental.property.exception.InvalidRefreshTokenException;
+import com.rental.property.repo.RefreshTokenRepository;
+import com.rental.property.repo.UserRepository;
+import com.rental.property.service.RefreshTokenServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceImplTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private RefreshTokenServiceImpl refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, userRepository, Duration.ofDays(14));
+        Role role = new Role();
+        role.setName("ROLE_TENANT");
+        user = new User();
+        user.setId(7L);
+        user.setUsername("tenant");
+        user.setTokenVersion(2);
+        user.setRoles(Set.of(role));
+    }
+
+    private String issuedToken;
+
+    private RefreshToken issue() {
+        when(userRepository.getReferenceById(7L)).thenReturn(user);
+        issuedToken = refreshTokenService.issue(new CustomUserDetails(user));
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        RefreshToken row = saved.getValue();
+        row.setId(1L);
+        lenient().when(refreshTokenRepository.findByTokenHash(row.getTokenHash())).thenReturn(Optional.of(row));
+        clearInvocations(refreshTokenRepository);
+        return row;
+    }
+
+    @Test
+    void testIssue_StoresOnlyHashWithUserVersionAndExpiry() {
+        RefreshToken row = issue();
+
+        assertEquals(64, row.getTokenHash().length());
+        assertFalse(row.getTokenHash().contains(issuedToken));
+        assertEquals(2, row.getTokenVersion());
+        assertSame(user, row.getUser());
+        assertNotNull(row.getFamilyId());
+        assertTrue(row.getExpiresAt().isAfter(LocalDateTime.now().plusDays(13)));
+    }
+
+    @Test
+    void testRotate_IssuesReplacementInSameFamily() {
+        RefreshToken row = issue();
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+
+        RotatedRefreshToken rotated = refreshTokenService.rotate(issuedToken);
+
+        assertEquals(7L, rotated.getUser().getUserId());
+        assertEquals(2, rotated.getUser().getTokenVersion());
+        assertNotEquals(issuedToken, rotated.getRefreshToken());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(row.getFamilyId(), saved.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void testRotate_ReusedTokenRevokesFamily() {
+        RefreshToken row = issue();
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(0);
+
+        InvalidRefreshTokenException ex = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate(issuedToken));
+
+        assertEquals("Refresh token was already used", ex.getMessage());
+        verify(refreshTokenRepository).revokeFamily(row.getFamilyId());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_AfterLogoutRevokesFamily() {
+        RefreshToken row = issue();
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+        user.setTokenVersion(3);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(issuedToken));
+
+        verify(refreshTokenRepository).revokeFamily(row.getFamilyId());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_ExpiredToken() {
+        RefreshToken row = issue();
+        row.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(issuedToken));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void testRotate_UnknownOrMissingToken() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(" "));
+    }
+
+    @Test
+    void testPurgeExpired() {
+        when(refreshTokenRepository.deleteExpired(any())).thenReturn(3);
+
+        assertEquals(3, refreshTokenService.purgeExpired());
+    }
+}
@@ -1,4 +1,6 @@
 package com.example.rentalsystem.service;
+import com.rental.property.dto.LocalitySuggestionDto;
+import com.rental.property.dto.PropertyCatalogPageDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
@@ -6,21 +8,44 @@ import com.rental.property.entity.Address;
 import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
 import com.rental.property.entity.User;
+import com.rental.property.geo.GeoPoint;
+import com.rental.property.geo.PinCodeDirectory;
 import com.rental.property.repo.PropertyRepository;
 import com.rental.property.repo.RentalTransactionRepository;
 import com.rental.property.repo.UserRepository;
+import com.rental.property.search.CityMatch;
+import com.rental.property.search.LocalityAutocomplete;
+import com.rental.property.search.NearbyProperty;
+import com.rental.property.search.PropertySearchCache;
+import com.rental.property.search.PropertyDocument;
+import com.rental.property.search.PropertySearchCriteria;
+import com.rental.property.search.PropertySearchIndex;
+import com.rental.property.search.PropertySort;
 import com.rental.property.service.RentalTransactionServiceImpl;
+import com.rental.property.util.CatalogCursorUtil;
 import com.rental.property.util.EntityMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class RentalTransactionServiceImplTest {
@@ -32,11 +57,20 @@ class RentalTransactionServiceImplTest {
     private RentalTransactionRepository rentalTransactionRepository;
     @Mock
     private EntityMapper entityMapper;
+    @Mock
+    private PropertySearchIndex propertySearchIndex;
+    @Mock
+    private PinCodeDirectory pinCodeDirectory;
+    @Mock
+    private LocalityAutocomplete localityAutocomplete;
+    @Spy
+    private PropertySearchCache propertySearchCache = new PropertySearchCache(new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(1));
     // Note: RentalTransactionMapper has static methods, so mocking it directly might not be the best approach.
     // We'll need to handle its behavior differently or consider making it a Spring Bean for easier mocking.
     @InjectMocks
     private RentalTransactionServiceImpl rentalTransactionService;
     private Property property;
+    private PropertyDocument document;
     private User user;
     private RentalTransaction rentalTransaction;
     private RentalTransactionDto rentalTransactionDto;
@@ -57,6 +91,7 @@ class RentalTransactionServiceImplTest {
                 .bhk("3BHK")
                 .description("Nice property")
                 .build();
+        document = PropertyDocument.from(property);
         user = User.builder()
                 .username("tenant1")
                 .mobileNo(9876543210L)
@@ -88,33 +123,171 @@ class RentalTransactionServiceImplTest {
     }
     @Test
     void getAllProperty_shouldReturnListOfPropertyResponseDtos() {
-        List<Property> propertyList = List.of(property);
+        List<PropertyDocument> propertyList = List.of(document);
         List<PropertyResponseDto> responseList = List.of(propertyResponseDto);
-        when(propertyRepository.findAll()).thenReturn(propertyList);
-        when(entityMapper.propListToPropResponseDtoList(propertyList)).thenReturn(responseList);
+        when(propertyRepository.findAllDocuments()).thenReturn(propertyList);
+        when(entityMapper.documentListToPropResponseDtoList(propertyList)).thenReturn(responseList);
         List<PropertyResponseDto> result = rentalTransactionService.getAllProperty();
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(propertyResponseDto.getPropertyId(), result.get(0).getPropertyId());
-        verify(propertyRepository, times(1)).findAll();
-        verify(entityMapper, times(1)).propListToPropResponseDtoList(propertyList);
+        verify(propertyRepository, times(1)).findAllDocuments();
+        verify(propertyRepository, never()).findAll();
+        verify(entityMapper, times(1)).documentListToPropResponseDtoList(propertyList);
     }
     @Test
     void searchProperties_shouldReturnListOfPropertyResponseDtos() {
-        List<Property> propertyList = List.of(property);
+        List<PropertyDocument> propertyList = List.of(document);
         List<PropertyResponseDto> responseList = List.of(propertyResponseDto);
-        String city = "Chennai";
-        String minPrice = "10000";
-        String maxPrice = "20000";
-        String bhk = "3BHK";
-        when(propertyRepository.searchProperties(city, maxPrice, minPrice, bhk)).thenReturn(propertyList);
-        when(entityMapper.propListToPropResponseDtoList(propertyList)).thenReturn(responseList);
-        List<PropertyResponseDto> result = rentalTransactionService.searchProperties(city, minPrice, maxPrice, bhk);
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder()
+                .city("Chennai").minRent(10000.0).maxRent(20000.0).bhk("3BHK").page(0).size(20).build();
+        when(propertyRepository.findDocuments(any(Specification.class), any(Pageable.class))).thenReturn(propertyList);
+        when(entityMapper.documentListToPropResponseDtoList(propertyList)).thenReturn(responseList);
+        List<PropertyResponseDto> result = rentalTransactionService.searchProperties(criteria);
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(propertyResponseDto.getPropertyId(), result.get(0).getPropertyId());
-        verify(propertyRepository, times(1)).searchProperties(city, maxPrice, minPrice, bhk);
-        verify(entityMapper, times(1)).propListToPropResponseDtoList(propertyList);
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(propertyRepository, times(1)).findDocuments(any(Specification.class), pageableCaptor.capture());
+        assertEquals(PropertySort.NEWEST.getSort(), pageableCaptor.getValue().getSort());
+        assertEquals(CityMatch.PREFIX, criteria.getCityMatch());
+        verify(entityMapper, times(1)).documentListToPropResponseDtoList(propertyList);
     }
 
+    @Test
+    void getPropertyCatalog_shouldReturnNextCursorWhenMoreRowsExist() {
+        PropertyDocument second = PropertyDocument.builder().propertyId(102L).build();
+        when(propertyRepository.findDocumentsAfter(0L, Limit.of(2))).thenReturn(List.of(document, second));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(document))).thenReturn(List.of(propertyResponseDto));
+        PropertyCatalogPageDto page = rentalTransactionService.getPropertyCatalog(null, 1);
+        assertTrue(page.isHasMore());
+        assertEquals(1, page.getProperties().size());
+        assertEquals(101L, CatalogCursorUtil.decode(page.getNextCursor()));
+    }
+    @Test
+    void getPropertyCatalog_shouldResumeAfterCursorAndEndOnLastPage() {
+        String cursor = CatalogCursorUtil.encode(100L);
+        when(propertyRepository.findDocumentsAfter(100L, Limit.of(11))).thenReturn(List.of(document));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(document))).thenReturn(List.of(propertyResponseDto));
+        PropertyCatalogPageDto page = rentalTransactionService.getPropertyCatalog(cursor, 10);
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+    @Test
+    void getPropertyCatalog_shouldRejectInvalidCursorAndPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.getPropertyCatalog("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.getPropertyCatalog(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.getPropertyCatalog(null, 1000));
+    }
+    @Test
+    void streamAllProperty_shouldWalkKeysetBatchesOfProjections() {
+        List<PropertyDocument> fullBatch = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            fullBatch.add(PropertyDocument.builder().propertyId(id).build());
+        }
+        List<PropertyDocument> lastBatch = List.of(PropertyDocument.builder().propertyId(501L).build());
+        when(propertyRepository.findDocumentsAfter(0L, Limit.of(500))).thenReturn(fullBatch);
+        when(propertyRepository.findDocumentsAfter(500L, Limit.of(500))).thenReturn(lastBatch);
+        when(entityMapper.documentListToPropResponseDtoList(anyList())).thenReturn(List.of(propertyResponseDto));
+        List<List<PropertyResponseDto>> written = new ArrayList<>();
+        rentalTransactionService.streamAllProperty(written::add);
+        assertEquals(2, written.size());
+        verify(propertyRepository, never()).findAll();
+    }
+    @Test
+    void searchProperties_shouldUseSearchIndexWhenReadyAndKeepIndexOrder() {
+        PropertyDocument second = PropertyDocument.builder().propertyId(102L).build();
+        PropertyResponseDto secondDto = PropertyResponseDto.builder().propertyId(102L).build();
+        when(propertySearchIndex.isReady()).thenReturn(true);
+        when(propertySearchIndex.search(any(PropertySearchCriteria.class))).thenReturn(List.of(102L, 101L));
+        when(propertyRepository.findDocumentsByIds(List.of(102L, 101L))).thenReturn(List.of(document, second));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(second, document))).thenReturn(List.of(secondDto, propertyResponseDto));
+        List<PropertyResponseDto> result = rentalTransactionService.searchProperties(
+                PropertySearchCriteria.builder().city("Chennai").sort(PropertySort.RENT_DESC).size(20).build());
+        assertEquals(2, result.size());
+        assertEquals(102L, result.get(0).getPropertyId());
+        verify(propertyRepository, never()).findDocuments(any(Specification.class), any(Pageable.class));
+    }
+    @Test
+    void searchProperties_shouldDefaultToRelevanceForTextQueries() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder().query("balcony").size(20).build();
+        when(propertySearchIndex.isReady()).thenReturn(true);
+        when(propertySearchIndex.search(criteria)).thenReturn(List.of());
+        assertTrue(rentalTransactionService.searchProperties(criteria).isEmpty());
+        assertEquals(PropertySort.RELEVANCE, criteria.getSort());
+    }
+    @Test
+    void searchProperties_shouldServeRepeatedSearchFromCache() {
+        when(propertySearchIndex.isReady()).thenReturn(true);
+        when(propertySearchIndex.search(any(PropertySearchCriteria.class))).thenReturn(List.of(101L));
+        when(propertyRepository.findDocumentsByIds(List.of(101L))).thenReturn(List.of(document));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(document))).thenReturn(List.of(propertyResponseDto));
+        rentalTransactionService.searchProperties(PropertySearchCriteria.builder().city("Chennai").size(20).build());
+        List<PropertyResponseDto> result = rentalTransactionService.searchProperties(
+                PropertySearchCriteria.builder().city(" chennai ").size(20).build());
+        assertEquals(1, result.size());
+        verify(propertySearchIndex, times(1)).search(any(PropertySearchCriteria.class));
+    }
+    @Test
+    void searchProperties_shouldRejectInvertedRentRange() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder().minRent(20000.0).maxRent(10000.0).size(20).build();
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.searchProperties(criteria));
+    }
+    @Test
+    void searchProperties_shouldRejectOutOfRangePageSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rentalTransactionService.searchProperties(PropertySearchCriteria.builder().size(101).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> rentalTransactionService.searchProperties(PropertySearchCriteria.builder().page(-1).size(20).build()));
+    }
+    @Test
+    void searchNearby_shouldReturnIndexMatchesWithDistance() {
+        GeoPoint tNagar = new GeoPoint(13.0418, 80.2341);
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder().page(0).size(20).build();
+        when(pinCodeDirectory.locate(600017L)).thenReturn(Optional.of(tNagar));
+        when(propertySearchIndex.isReady()).thenReturn(true);
+        when(propertySearchIndex.searchNearby(tNagar, 5, criteria)).thenReturn(List.of(new NearbyProperty(101L, 1.2345)));
+        when(propertyRepository.findDocumentsByIds(List.of(101L))).thenReturn(List.of(document));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(document))).thenReturn(List.of(propertyResponseDto));
+        List<PropertyResponseDto> result = rentalTransactionService.searchNearby(600017L, 5, criteria);
+        assertEquals(1, result.size());
+        assertEquals(1.23, result.get(0).getDistanceKm());
+    }
+    @Test
+    void searchNearby_shouldFallBackToPinCodesWithinRadiusWhenIndexNotReady() {
+        GeoPoint tNagar = new GeoPoint(13.0418, 80.2341);
+        document = PropertyDocument.builder().propertyId(101L).pinCode(600040L).build();
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder().page(0).size(20).build();
+        when(pinCodeDirectory.locate(600017L)).thenReturn(Optional.of(tNagar));
+        when(pinCodeDirectory.locate(600040L)).thenReturn(Optional.of(new GeoPoint(13.0850, 80.2101)));
+        when(pinCodeDirectory.pinCodesWithin(tNagar, 10)).thenReturn(Set.of(600017L, 600040L));
+        when(propertyRepository.findDocuments(any(Specification.class), eq(PageRequest.of(0, 20)))).thenReturn(List.of(document));
+        when(propertyRepository.findDocumentsByIds(List.of(101L))).thenReturn(List.of(document));
+        when(entityMapper.documentListToPropResponseDtoList(List.of(document))).thenReturn(List.of(propertyResponseDto));
+        List<PropertyResponseDto> result = rentalTransactionService.searchNearby(600017L, 10, criteria);
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).getDistanceKm() > 5);
+    }
+    @Test
+    void searchNearby_shouldRejectUnknownPinCodeAndBadRadius() {
+        PropertySearchCriteria criteria = PropertySearchCriteria.builder().page(0).size(20).build();
+        when(pinCodeDirectory.locate(999999L)).thenReturn(Optional.empty());
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.searchNearby(999999L, 5, criteria));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.searchNearby(600017L, 0, criteria));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.searchNearby(600017L, 51, criteria));
+    }
+    @Test
+    void suggestLocalities_shouldDelegateToAutocomplete() {
+        List<LocalitySuggestionDto> suggestions = List.of(LocalitySuggestionDto.builder().value("Chennai").listings(2).build());
+        when(localityAutocomplete.suggest("che", 5)).thenReturn(suggestions);
+        assertEquals(suggestions, rentalTransactionService.suggestLocalities("che", 5));
+    }
+    @Test
+    void suggestLocalities_shouldRejectBlankPrefixAndBadLimit() {
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.suggestLocalities(" ", 5));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.suggestLocalities("x".repeat(51), 5));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.suggestLocalities("che", 0));
+        assertThrows(IllegalArgumentException.class, () -> rentalTransactionService.suggestLocalities("che", 21));
+        verifyNoInteractions(localityAutocomplete);
+    }
 }
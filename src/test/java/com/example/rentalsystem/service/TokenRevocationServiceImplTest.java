@@ -0,0 +1,102 @@
+package com.example.rentalsystem.service;
+
+import com.rental.property.entity.RevokedToken;
+import com.rental.property.repo.RevokedTokenRepository;
+import com.rental.property.service.TokenRevocationServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceImplTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationServiceImpl revocationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationService = new TokenRevocationServiceImpl(revokedTokenRepository, meterRegistry, 1000,
+                Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testRevoke_PersistsAndIsSeenImmediately() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        revocationService.revoke("jti-1", expiresAt);
+
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertEquals("jti-1", saved.getValue().getTokenId());
+        assertTrue(revocationService.isRevoked("jti-1"));
+        assertFalse(revocationService.isRevoked("jti-2"));
+        assertFalse(revocationService.isRevoked(null));
+    }
+
+    @Test
+    void testRevoke_AlreadyExpiredTokenIsIgnored() {
+        revocationService.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        verifyNoInteractions(revokedTokenRepository);
+        assertFalse(revocationService.isRevoked("jti-1"));
+    }
+
+    @Test
+    void testIsRevoked_FilterRulesOutAlmostEveryOtherToken() {
+        for (int i = 0; i < 1000; i++) {
+            revocationService.revoke("revoked-" + i, Instant.now().plusSeconds(600));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(revocationService.isRevoked("live-" + i));
+        }
+        int falsePositives = (int) meterRegistry.get("renthub.auth.revocation.filter.false.positives").counter().count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testSync_LoadsOtherInstancesRevocationsOnce() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+        RevokedToken row = new RevokedToken("jti-remote", expiresAt, LocalDateTime.now());
+        when(revokedTokenRepository.findActiveSince(any(), any())).thenReturn(List.of(row));
+
+        revocationService.sync();
+        revocationService.sync();
+
+        assertTrue(revocationService.isRevoked("jti-remote"));
+        assertEquals(1, revocationService.size());
+        assertEquals(1, meterRegistry.get("renthub.auth.revoked.tokens").gauge().value());
+    }
+
+    @Test
+    void testPurgeExpired_DropsExpiredEntriesFromMemoryAndTable() throws InterruptedException {
+        revocationService.revoke("short", Instant.now().plusMillis(50));
+        revocationService.revoke("long", Instant.now().plusSeconds(600));
+        when(revokedTokenRepository.deleteExpired(any())).thenReturn(1);
+        Thread.sleep(100);
+
+        assertFalse(revocationService.isRevoked("short"));
+        assertEquals(1, revocationService.purgeExpired());
+
+        assertEquals(1, revocationService.size());
+        assertTrue(revocationService.isRevoked("long"));
+        assertFalse(revocationService.isRevoked("short"));
+        assertEquals(0, meterRegistry.get("renthub.auth.revocation.filter.false.positives").counter().count());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.rentalsystem.service;
+
+import com.rental.property.repo.UserRepository;
+import com.rental.property.service.CustomUserDetailsService;
+import com.rental.property.service.TokenVersionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private TokenVersionServiceImpl tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionServiceImpl(userRepository, new TransactionTemplate(transactionManager),
+                userDetailsService, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testIsCurrent_ReadsVersionOnceThenFromCache() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(2));
+
+        assertTrue(tokenVersionService.isCurrent(1L, 2));
+        assertFalse(tokenVersionService.isCurrent(1L, 1));
+        assertTrue(tokenVersionService.isCurrent(1L, 2));
+
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void testIsCurrent_DeletedUser() {
+        when(userRepository.findTokenVersionById(9L)).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionService.isCurrent(9L, 0));
+    }
+
+    @Test
+    void testRevokeTokens_BumpsVersionAndDropsCachedOne() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0), Optional.of(1));
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+
+        tokenVersionService.revokeTokens(1L);
+
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(transactionManager).commit(any());
+        verify(userDetailsService).invalidate(1L);
+        assertFalse(tokenVersionService.isCurrent(1L, 0));
+        assertTrue(tokenVersionService.isCurrent(1L, 1));
+    }
+
+    @Test
+    void testRevokeTokens_InsideATransactionWaitsForTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenVersionService.revokeTokens(1L);
+            verifyNoInteractions(userRepository);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+}
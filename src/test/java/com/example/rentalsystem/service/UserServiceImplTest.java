@@ -5,6 +5,8 @@ import com.rental.property.entity.Role;
 import com.rental.property.entity.User;
 import com.rental.property.repo.RoleRepository;
 import com.rental.property.repo.UserRepository;
+import com.rental.property.service.CustomUserDetailsService;
+import com.rental.property.service.TokenVersionService;
 import com.rental.property.service.UserServiceImpl;
 import com.rental.property.util.EntityMapper;
 import com.rental.property.util.UserUtil;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -48,6 +51,12 @@ public class UserServiceImplTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
     private UserDto userDto;
     private User user;
     private Role role;
@@ -151,10 +160,38 @@ public class UserServiceImplTest {
 
         verify(userRepository).findById(1L);
         verify(passwordEncoder).encode("Password1!");
-        verify(userRepository).save(existingUser);
+        InOrder saveThenInvalidate = inOrder(userRepository, userDetailsService, tokenVersionService);
+        saveThenInvalidate.verify(userRepository).save(existingUser);
+        saveThenInvalidate.verify(userDetailsService).invalidate("olduser");
+        saveThenInvalidate.verify(tokenVersionService).revokeTokens(1L);
         verify(userUtil).convertUserToUserDto(any(User.class));
     }
 
+    @Test
+    void updateProfile_PasswordChange_RevokesTokens() {
+        User existingUser = User.builder().id(1L).username("testuser").password("oldHash").build();
+        UserDto update = UserDto.builder().username("testuser").password("Password2!").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.matches("Password2!", "oldHash")).thenReturn(false);
+
+        userService.updateProfile(1L, update);
+
+        verify(tokenVersionService).revokeTokens(1L);
+    }
+
+    @Test
+    void updateProfile_SameCredentials_KeepsTokens() {
+        User existingUser = User.builder().id(1L).username("testuser").password("oldHash").build();
+        UserDto update = UserDto.builder().username("testuser").password("Password1!").firstName("New").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.matches("Password1!", "oldHash")).thenReturn(true);
+
+        userService.updateProfile(1L, update);
+
+        verify(userDetailsService).invalidate("testuser");
+        verifyNoInteractions(tokenVersionService);
+    }
+
     @Test
     void viewProfile_Success() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
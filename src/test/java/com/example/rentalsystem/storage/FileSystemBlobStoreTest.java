@@ -0,0 +1,58 @@
+package com.example.rentalsystem.storage;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.FileSystemBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+class FileSystemBlobStoreTest {
+    @TempDir
+    Path root;
+    private FileSystemBlobStore blobStore;
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+    }
+    @Test
+    void put_shouldStoreContentUnderItsSha256() throws Exception {
+        byte[] content = "front elevation".getBytes(StandardCharsets.UTF_8);
+        BlobInfo blob = blobStore.put(new ByteArrayInputStream(content));
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals(expected, blob.getHash());
+        assertEquals(content.length, blob.getSize());
+        Path stored = root.resolve(expected.substring(0, 2)).resolve(expected.substring(2, 4)).resolve(expected);
+        assertArrayEquals(content, Files.readAllBytes(stored));
+        Optional<Resource> resource = blobStore.get(expected);
+        assertTrue(resource.isPresent());
+        assertArrayEquals(content, resource.get().getContentAsByteArray());
+    }
+    @Test
+    void put_shouldKeepIdenticalContentOnceAndLeaveNoTempFiles() throws IOException {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        BlobInfo first = blobStore.put(new ByteArrayInputStream(content));
+        BlobInfo second = blobStore.put(new ByteArrayInputStream(content));
+        assertEquals(first.getHash(), second.getHash());
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+    @Test
+    void get_shouldRejectUnknownAndMalformedHashes() {
+        assertTrue(blobStore.get("0".repeat(64)).isEmpty());
+        assertTrue(blobStore.get("../../etc/passwd").isEmpty());
+        assertTrue(blobStore.get(null).isEmpty());
+    }
+}
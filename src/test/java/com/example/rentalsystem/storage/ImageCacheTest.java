@@ -0,0 +1,126 @@
+package com.example.rentalsystem.storage;
+import com.rental.property.storage.BlobInfo;
+import com.rental.property.storage.FileSystemBlobStore;
+import com.rental.property.storage.ImageCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+class ImageCacheTest {
+    private static final int PAGE = 16;
+    @TempDir
+    Path root;
+    private FileSystemBlobStore blobStore;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageCache cache;
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+        meterRegistry = new SimpleMeterRegistry();
+        // Room for two 20-byte images, each taking two pages.
+        cache = new ImageCache(blobStore, meterRegistry, 4 * PAGE, 3 * PAGE, PAGE);
+    }
+    private String store(byte[] content) throws IOException {
+        BlobInfo blob = blobStore.put(new ByteArrayInputStream(content));
+        return blob.getHash();
+    }
+    private static byte[] bytes(int length, int seed) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (seed + i);
+        }
+        return content;
+    }
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+    @Test
+    void get_MissServesStoreThenHitServesOffHeapCopy() throws IOException {
+        byte[] content = bytes(20, 1);
+        String hash = store(content);
+        Resource first = cache.get(hash).orElseThrow();
+        assertTrue(first.isFile());
+        Resource second = cache.get(hash).orElseThrow();
+        assertFalse(second.isFile());
+        assertEquals(20, second.contentLength());
+        assertArrayEquals(content, second.getContentAsByteArray());
+        assertEquals(0.5, gauge("renthub.image.cache.hit.ratio"));
+        assertEquals(2 * PAGE, gauge("renthub.image.cache.resident"));
+    }
+    @Test
+    void get_UnknownHash_IsEmpty() {
+        assertTrue(cache.get("0".repeat(64)).isEmpty());
+        assertEquals(0, cache.size());
+    }
+    @Test
+    void get_EvictsLeastRecentlyUsedWhenBudgetIsFull() throws IOException {
+        String a = store(bytes(20, 1));
+        String b = store(bytes(20, 2));
+        String c = store(bytes(20, 3));
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        assertEquals(2, cache.size());
+        assertFalse(cache.get(a).orElseThrow().isFile());
+        assertFalse(cache.get(c).orElseThrow().isFile());
+        assertTrue(cache.get(b).orElseThrow().isFile());
+        assertEquals(4 * PAGE, gauge("renthub.image.cache.resident"));
+    }
+    @Test
+    void get_ImageOverEntryLimit_IsNotCached() throws IOException {
+        String hash = store(bytes(3 * PAGE + 1, 1));
+        cache.get(hash);
+        assertTrue(cache.get(hash).orElseThrow().isFile());
+        assertEquals(0, cache.size());
+    }
+    @Test
+    void get_EvictedWhileStreaming_KeepsPagesUntilStreamCloses() throws IOException {
+        byte[] content = bytes(20, 1);
+        String a = store(content);
+        cache.get(a);
+        InputStream in = cache.get(a).orElseThrow().getInputStream();
+        assertEquals(5, in.skip(5));
+        cache.get(store(bytes(20, 2)));
+        cache.get(store(bytes(20, 3)));
+        // Evicting the first image freed nothing while it was being read, so the second had to go too.
+        assertEquals(1, cache.size());
+        assertArrayEquals(Arrays.copyOfRange(content, 5, 20), in.readAllBytes());
+        in.close();
+        assertEquals(2 * PAGE, gauge("renthub.image.cache.resident"));
+    }
+    @Test
+    void get_ChecksumMismatch_DropsEntryAndServesStore() throws Exception {
+        byte[] content = bytes(20, 1);
+        String hash = store(content);
+        cache.get(hash);
+        Field entriesField = ImageCache.class.getDeclaredField("entries");
+        entriesField.setAccessible(true);
+        Object entry = ((Map<?, ?>) entriesField.get(cache)).get(hash);
+        Field pagesField = entry.getClass().getDeclaredField("pages");
+        pagesField.setAccessible(true);
+        ((ByteBuffer[]) pagesField.get(entry))[0].put(0, (byte) 99);
+        Resource served = cache.get(hash).orElseThrow();
+        assertTrue(served.isFile());
+        assertArrayEquals(content, served.getContentAsByteArray());
+        assertEquals(1, meterRegistry.get("renthub.image.cache.corruptions").counter().count());
+    }
+    @Test
+    void get_ZeroBudget_PassesStraightThrough() throws IOException {
+        ImageCache disabled = new ImageCache(blobStore, new SimpleMeterRegistry(), 0, 3 * PAGE, PAGE);
+        String hash = store(bytes(20, 1));
+        disabled.get(hash);
+        assertTrue(disabled.get(hash).orElseThrow().isFile());
+        assertEquals(0, disabled.size());
+    }
+}
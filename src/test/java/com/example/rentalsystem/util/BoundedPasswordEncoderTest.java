@@ -0,0 +1,96 @@
+package com.example.rentalsystem.util;
+
+import com.rental.property.exception.PasswordHashingRejectedException;
+import com.rental.property.util.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.close();
+    }
+
+    @Test
+    void testEncodeAndMatches_RunOnPoolAndAreTimed() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("renthub.password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("renthub.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testUpgradeEncoding_WhenConfiguredCostIsHigher() {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(weak));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void testSaturatedPool_ShedsInsteadOfQueueing() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        encoder = new BoundedPasswordEncoder(slow, meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (meterRegistry.get("renthub.password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("c"));
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("renthub.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void testSlowHash_TimesOut() {
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.matches(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return true;
+        });
+        encoder = new BoundedPasswordEncoder(slow, meterRegistry, 1, 1, Duration.ofMillis(50));
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.matches("a", "hash"));
+    }
+
+    @Test
+    void testDelegateFailure_IsRethrownAsIs() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(null));
+    }
+}
@@ -3,6 +3,7 @@ import com.rental.property.dto.PropertyRequestDto;
 import com.rental.property.dto.PropertyResponseDto;
 import com.rental.property.entity.Address;
 import com.rental.property.entity.Property;
+import com.rental.property.search.PropertyDocument;
 import com.rental.property.util.EntityMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,7 @@ import java.util.Arrays;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 @ExtendWith(MockitoExtension.class)
 public class EntityMapperTest {
     @InjectMocks
@@ -70,7 +72,7 @@ public class EntityMapperTest {
         assertEquals(property.getRentAmount(), propertyResponseDto.getRentAmount());
         assertEquals(property.getAvailabilityStatus(), propertyResponseDto.getAvailabilityStatus());
         assertEquals(property.getDescription(), propertyResponseDto.getDescription());
-        assertEquals(property.getImage1(), propertyResponseDto.getImage1());
+        assertEquals("/api/v1/public/properties/" + property.getPropertyId() + "/images/1", propertyResponseDto.getImageUrl());
         assertEquals(property.getAddress().getStreetName(), propertyResponseDto.getAddress().getStreetName());
         assertEquals(property.getAddress().getCity(), propertyResponseDto.getAddress().getCity());
         assertEquals(property.getAddress().getState(), propertyResponseDto.getAddress().getState());
@@ -134,6 +136,32 @@ public class EntityMapperTest {
         assertEquals(property2.getAddress().getPinCode(), responseDto2.getAddress().getPinCode());
     }
     @Test
+    void documentListToPropResponseDtoList_Success() {
+        PropertyDocument document = PropertyDocument.builder()
+                .propertyId(7L)
+                .landlordId(103L)
+                .streetName("789 Lake Rd")
+                .city("Chennai")
+                .state("TN")
+                .pinCode(600040L)
+                .propertyType("Apartment")
+                .bhk("2BHK")
+                .rentAmount(15000.0)
+                .availabilityStatus("Available")
+                .description("Lake view")
+                .build();
+        List<PropertyResponseDto> responseDtoList = entityMapper.documentListToPropResponseDtoList(List.of(document));
+        assertEquals(1, responseDtoList.size());
+        PropertyResponseDto responseDto = responseDtoList.get(0);
+        assertEquals(7L, responseDto.getPropertyId());
+        assertEquals(103L, responseDto.getLandLordId());
+        assertEquals("789 Lake Rd", responseDto.getAddress().getStreetName());
+        assertEquals(600040L, responseDto.getAddress().getPinCode());
+        assertEquals(15000.0, responseDto.getRentAmount());
+        assertEquals("/api/v1/public/properties/7/images/1", responseDto.getImageUrl());
+        assertEquals("/api/v1/public/properties/7/images/1/thumbnail", responseDto.getThumbnailUrl());
+    }
+    @Test
     void propRequestDtoListToPropList_Success() {
         PropertyRequestDto propertyRequestDto1 = PropertyRequestDto.builder()
                 .address(Address.builder()
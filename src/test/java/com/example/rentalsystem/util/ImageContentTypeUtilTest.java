@@ -0,0 +1,21 @@
+package com.example.rentalsystem.util;
+import com.rental.property.util.ImageContentTypeUtil;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+class ImageContentTypeUtilTest {
+    @Test
+    void detect_shouldRecogniseRasterFormatsByMagicBytes() {
+        assertEquals("image/png", ImageContentTypeUtil.detect(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}));
+        assertEquals("image/jpeg", ImageContentTypeUtil.detect(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0}));
+        assertEquals("image/gif", ImageContentTypeUtil.detect("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("image/webp", ImageContentTypeUtil.detect("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+    }
+    @Test
+    void detect_shouldNeverReportMarkupAsRenderable() {
+        assertEquals("application/octet-stream", ImageContentTypeUtil.detect("<html><script>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("application/octet-stream", ImageContentTypeUtil.detect("<svg onload=x>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("application/octet-stream", ImageContentTypeUtil.detect(new byte[0]));
+        assertEquals("application/octet-stream", ImageContentTypeUtil.detect((byte[]) null));
+    }
+}
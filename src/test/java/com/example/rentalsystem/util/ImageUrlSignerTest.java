@@ -0,0 +1,78 @@
+package com.example.rentalsystem.util;
+
+import com.rental.property.util.ImageUrlSigner;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageUrlSignerTest {
+
+    private static final String URL = "/api/v1/public/properties/7/images/1?v=0123456789abcdef";
+    private final ImageUrlSigner signer = new ImageUrlSigner("mysecretkey123456789012345678901234567890", Duration.ofHours(1));
+
+    private static MultiValueMap<String, String> params(String url) {
+        return UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+    }
+
+    @Test
+    void testSign_AppendsExpiryAtTheEndOfTheNextWindow() {
+        UriComponents signed = UriComponentsBuilder.fromUriString(signer.sign(URL)).build();
+        long expiresAt = Long.parseLong(signed.getQueryParams().getFirst("exp"));
+        long now = Instant.now().getEpochSecond();
+
+        assertEquals("/api/v1/public/properties/7/images/1", signed.getPath());
+        assertEquals("0123456789abcdef", signed.getQueryParams().getFirst("v"));
+        assertEquals(0, expiresAt % 3600);
+        assertTrue(expiresAt > now + 3600 - 1 && expiresAt <= now + 7200);
+        assertEquals(signer.sign(URL), signer.sign(URL));
+    }
+
+    @Test
+    void testIsValid_AcceptsMintedUrl() {
+        MultiValueMap<String, String> params = params(signer.sign(URL));
+        assertTrue(signer.isValid("/api/v1/public/properties/7/images/1", "0123456789abcdef",
+                params.getFirst("exp"), params.getFirst("sig")));
+    }
+
+    @Test
+    void testIsValid_RejectsTampering() {
+        MultiValueMap<String, String> params = params(signer.sign(URL));
+        String expires = params.getFirst("exp");
+        String signature = params.getFirst("sig");
+        String path = "/api/v1/public/properties/7/images/1";
+
+        assertFalse(signer.isValid("/api/v1/public/properties/8/images/1", "0123456789abcdef", expires, signature));
+        assertFalse(signer.isValid(path, "ffffffffffffffff", expires, signature));
+        assertFalse(signer.isValid(path, "0123456789abcdef", String.valueOf(Long.parseLong(expires) + 3600), signature));
+        assertFalse(signer.isValid(path, "0123456789abcdef", expires, signature.substring(0, 21)
+                + (signature.charAt(21) == 'A' ? 'B' : 'A')));
+        assertFalse(signer.isValid(path, "0123456789abcdef", "soon", signature));
+        assertFalse(signer.isValid(path, "0123456789abcdef", null, signature));
+        assertFalse(signer.isValid(path, "0123456789abcdef", expires, null));
+    }
+
+    @Test
+    void testIsValid_RejectsExpiredUrl() {
+        String past = String.valueOf(Instant.now().getEpochSecond() - 1);
+        assertFalse(signer.isValid("/api/v1/public/properties/7/images/1", null, past, "AAAAAAAAAAAAAAAAAAAAAA"));
+    }
+
+    @Test
+    void testIsValid_RejectsUrlSignedWithAnotherSecret() {
+        ImageUrlSigner other = new ImageUrlSigner("anothersecretkey12345678901234567890123", Duration.ofHours(1));
+        MultiValueMap<String, String> params = params(other.sign(URL));
+        assertFalse(signer.isValid("/api/v1/public/properties/7/images/1", "0123456789abcdef",
+                params.getFirst("exp"), params.getFirst("sig")));
+    }
+
+    @Test
+    void testSign_NullUrl() {
+        assertNull(signer.sign(null));
+    }
+}
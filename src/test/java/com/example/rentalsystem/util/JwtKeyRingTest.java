@@ -0,0 +1,157 @@
+package com.example.rentalsystem.util;
+
+import com.rental.property.entity.SigningKey;
+import com.rental.property.repo.SigningKeyRepository;
+import com.rental.property.util.JwtKeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "mysecretkey123456789012345678901234567890";
+    private final List<SigningKey> saved = new ArrayList<>();
+    private final MovableClock clock = new MovableClock();
+    private SigningKeyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SigningKeyRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(repository.findAllByOrderByActivatesAtAsc()).thenAnswer(invocation -> saved.stream()
+                .sorted(Comparator.comparing(SigningKey::getActivatesAt)).toList());
+        doAnswer(invocation -> {
+            Iterable<?> ids = invocation.getArgument(0);
+            ids.forEach(id -> saved.removeIf(key -> key.getKid().equals(id)));
+            return null;
+        }).when(repository).deleteAllById(anyIterable());
+    }
+
+    @Test
+    void init_CreatesFirstKeyActiveImmediately() {
+        JwtKeyRing ring = newRing(SECRET);
+        ring.init();
+
+        assertEquals(1, saved.size());
+        assertNotNull(ring.current());
+        assertEquals(saved.get(0).getKid(), ring.current().getKid());
+        assertNotNull(ring.publicKey(ring.current().getKid()));
+    }
+
+    @Test
+    void init_ReusesStoredKeysAndKeepsPrivateKeyEncrypted() {
+        JwtKeyRing first = newRing(SECRET);
+        first.init();
+        JwtKeyRing second = newRing(SECRET);
+        second.init();
+
+        assertEquals(1, saved.size());
+        assertEquals(first.current().getKid(), second.current().getKid());
+        assertEquals(first.current().getPrivateKey(), second.current().getPrivateKey());
+        assertFalse(Arrays.equals(first.current().getPrivateKey().getEncoded(), saved.get(0).getPrivateKey()));
+    }
+
+    @Test
+    void init_KeySealedWithAnotherSecretIsSkipped() {
+        newRing(SECRET).init();
+        JwtKeyRing other = newRing("othersecretkey12345678901234567890123456789");
+        other.init();
+
+        assertEquals(2, saved.size());
+        assertNotEquals(saved.get(0).getKid(), other.current().getKid());
+    }
+
+    @Test
+    void rotate_PublishesNextKeyAheadThenSwitchesAndRetiresOldKey() {
+        JwtKeyRing ring = newRing(SECRET);
+        ring.init();
+        String firstKid = ring.current().getKid();
+
+        clock.advance(Duration.ofDays(30).minusMinutes(59));
+        ring.rotate();
+        assertEquals(2, saved.size());
+        assertEquals(firstKid, ring.current().getKid());
+        assertEquals(2, ((Collection<?>) ring.jwks().get("keys")).size());
+
+        clock.advance(Duration.ofHours(1));
+        ring.rotate();
+        assertNotEquals(firstKid, ring.current().getKid());
+        assertNotNull(ring.publicKey(firstKid));
+
+        clock.advance(Duration.ofHours(2));
+        ring.rotate();
+        assertEquals(1, saved.size());
+        assertEquals(1, ((Collection<?>) ring.jwks().get("keys")).size());
+        assertNull(ring.publicKey(firstKid));
+    }
+
+    @Test
+    void publicKey_UnknownKidPicksUpKeyCreatedByAnotherInstance() {
+        JwtKeyRing ring = newRing(SECRET);
+        ring.init();
+        JwtKeyRing other = newRing(SECRET);
+        other.init();
+        saved.clear();
+        JwtKeyRing fresh = newRing(SECRET);
+        fresh.init();
+        String kid = fresh.current().getKid();
+
+        assertNull(ring.publicKey(kid));
+        clock.advance(Duration.ofSeconds(6));
+        assertNotNull(ring.publicKey(kid));
+    }
+
+    @Test
+    void constructor_RotationMustOutlastPublishAhead() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(repository, SECRET, "RS256",
+                Duration.ofHours(1), Duration.ofHours(1), Duration.ofMinutes(15), clock));
+    }
+
+    private JwtKeyRing newRing(String secret) {
+        return new JwtKeyRing(repository, secret, "EdDSA", Duration.ofDays(30), Duration.ofHours(1),
+                Duration.ofMinutes(15), clock);
+    }
+
+    private static final class MovableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,28 +1,54 @@
 package com.example.rentalsystem.util;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.property.dto.CustomUserDetails;
+import com.rental.property.entity.Role;
+import com.rental.property.entity.SigningKey;
+import com.rental.property.entity.User;
+import com.rental.property.repo.SigningKeyRepository;
+import com.rental.property.util.JwtKeyRing;
 import com.rental.property.util.JwtUtil;
+import com.rental.property.util.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class JwtUtilTest {
 
+    private static final Map<String, JwtKeyRing> KEY_RINGS = new ConcurrentHashMap<>();
     private JwtUtil jwtUtil;
     private final String secret = "mysecretkey123456789012345678901234567890";
-    private final Long expiration = 1000L;
+    private final Long expiration = 60000L;
     private UserDetails userDetails;
 
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        jwtUtil.setSecret(secret);
-        jwtUtil.setExpiration(expiration);
+        jwtUtil = newJwtUtil(secret, "RS256");
 
         userDetails = mock(UserDetails.class);
         when(userDetails.getUsername()).thenReturn("testUser");
@@ -35,6 +61,109 @@ class JwtUtilTest {
         assertFalse(token.isEmpty());
     }
 
+    @Test
+    void testExtractUserDetails_RoundTripsIdRolesAndVersion() {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("landlord");
+        user.setTokenVersion(5);
+        Role role = new Role();
+        role.setName("ROLE_LANDLORD");
+        user.setRoles(Set.of(role));
+
+        CustomUserDetails principal = jwtUtil.extractUserDetails(jwtUtil.generateToken(new CustomUserDetails(user)));
+
+        assertEquals(42L, principal.getUserId());
+        assertEquals("landlord", principal.getUsername());
+        assertEquals(5, principal.getTokenVersion());
+        assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_LANDLORD")), principal.getAuthorities());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void testExtractUserDetails_TokenWithoutClaims() {
+        assertNull(jwtUtil.extractUserDetails(jwtUtil.generateToken(userDetails)));
+    }
+
+    @Test
+    void testVerify_RepeatedTokenServedFromCache() {
+        String token = jwtUtil.generateToken(userDetails);
+        VerifiedToken first = jwtUtil.verify(token);
+        assertEquals("testUser", first.getSubject());
+        assertNull(first.getUserId());
+        assertNotNull(first.getTokenId());
+        assertNotEquals(first.getTokenId(), jwtUtil.verify(jwtUtil.generateToken(userDetails)).getTokenId());
+        assertSame(first, jwtUtil.verify(token));
+    }
+
+    @Test
+    void testVerify_TamperedTokenRejectedEvenAfterOriginalCached() {
+        String token = jwtUtil.generateToken(userDetails);
+        jwtUtil.verify(token);
+        int payloadEnd = token.lastIndexOf('.');
+        String tampered = token.substring(0, payloadEnd - 1)
+                + (token.charAt(payloadEnd - 1) == 'A' ? 'B' : 'A') + token.substring(payloadEnd);
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+    }
+
+    @Test
+    void testVerify_TokenFromOtherKeyRingRejected() {
+        JwtUtil other = newJwtUtil("othersecretkey12345678901234567890123456789", "RS256");
+        assertThrows(SignatureException.class, () -> jwtUtil.verify(other.generateToken(userDetails)));
+    }
+
+    @Test
+    void testGenerateToken_SignedWithCurrentKeyPublishedInJwks() throws Exception {
+        String token = jwtUtil.generateToken(userDetails);
+        Map<?, ?> header = new ObjectMapper().readValue(Base64.getUrlDecoder().decode(token.split("\\.")[0]), Map.class);
+        assertEquals("RS256", header.get("alg"));
+        List<?> keys = List.copyOf((Collection<?>) jwtUtil.jwks().get("keys"));
+        assertEquals(1, keys.size());
+        Map<?, ?> jwk = (Map<?, ?>) keys.get(0);
+        assertEquals(header.get("kid"), jwk.get("kid"));
+        assertEquals("sig", jwk.get("use"));
+        assertNull(jwk.get("d"));
+    }
+
+    @Test
+    void testVerify_EdDsaToken() {
+        JwtUtil eddsa = newJwtUtil(secret, "EdDSA");
+        assertEquals("testUser", eddsa.verify(eddsa.generateToken(userDetails)).getSubject());
+    }
+
+    @Test
+    void testVerify_LegacyHmacTokenAcceptedUntilCutoff() {
+        String legacy = legacyToken();
+        assertThrows(UnsupportedJwtException.class, () -> jwtUtil.verify(legacy));
+
+        JwtUtil migrating = newJwtUtil(secret, "RS256");
+        migrating.setLegacyHmacAcceptedUntil(Instant.now().plus(Duration.ofDays(1)));
+        assertEquals("testUser", migrating.verify(legacy).getSubject());
+
+        JwtUtil pastCutoff = newJwtUtil(secret, "RS256");
+        pastCutoff.setLegacyHmacAcceptedUntil(Instant.now().minusSeconds(1));
+        assertThrows(UnsupportedJwtException.class, () -> pastCutoff.verify(legacy));
+    }
+
+    @Test
+    void testVerify_CachedLegacyHmacTokenDroppedAtCutoff() throws InterruptedException {
+        String legacy = legacyToken();
+        jwtUtil.setLegacyHmacAcceptedUntil(Instant.now().plusMillis(200));
+        jwtUtil.verify(legacy);
+
+        Thread.sleep(300);
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtUtil.verify(legacy));
+    }
+
+    @Test
+    void testVerify_ExpiredTokenRejected() throws InterruptedException {
+        jwtUtil.setExpiration(1L);
+        String token = jwtUtil.generateToken(userDetails);
+        Thread.sleep(10);
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+    }
+
     @Test
     void testExtractUsername() {
         String token = jwtUtil.generateToken(userDetails);
@@ -82,4 +211,34 @@ class JwtUtilTest {
 
         assertFalse(jwtUtil.validateToken(token, userDetails));
     }
+
+    private String legacyToken() {
+        return Jwts.builder().subject("testUser")
+                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private JwtUtil newJwtUtil(String secret, String algorithm) {
+        JwtUtil util = new JwtUtil();
+        util.setKeyRing(KEY_RINGS.computeIfAbsent(secret + "/" + algorithm, key -> newKeyRing(secret, algorithm)));
+        util.setSecret(secret);
+        util.setExpiration(expiration);
+        return util;
+    }
+
+    /** RSA key generation takes a while, so each secret and algorithm gets one key ring for the whole class. */
+    private JwtKeyRing newKeyRing(String secret, String algorithm) {
+        List<SigningKey> saved = new ArrayList<>();
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(repository.findAllByOrderByActivatesAtAsc()).thenAnswer(invocation -> List.copyOf(saved));
+        JwtKeyRing keyRing = new JwtKeyRing(repository, secret, algorithm, Duration.ofDays(30), Duration.ofHours(1),
+                Duration.ofMillis(expiration), Clock.systemDefaultZone());
+        keyRing.init();
+        return keyRing;
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.rentalsystem.util;
+
+import com.rental.property.util.KeyedHmac;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedHmacTest {
+
+    private static final String SECRET = "mysecretkey123456789012345678901234567890";
+
+    @Test
+    void testSign_IsAnHmacUnderTheDerivedKey() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KeyedHmac.deriveKey(SECRET, "renthub-otp"), "HmacSHA256"));
+
+        assertArrayEquals(mac.doFinal("message".getBytes(StandardCharsets.UTF_8)),
+                KeyedHmac.forPurpose(SECRET, "renthub-otp").sign("message"));
+    }
+
+    @Test
+    void testDeriveKey_IsTheHmacOfThePurpose() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+
+        assertArrayEquals(mac.doFinal("renthub-jwt-signing-key".getBytes(StandardCharsets.UTF_8)),
+                KeyedHmac.deriveKey(SECRET, "renthub-jwt-signing-key"));
+    }
+
+    @Test
+    void testSign_DiffersByPurpose() {
+        assertFalse(Arrays.equals(KeyedHmac.forPurpose(SECRET, "renthub-otp").sign("message"),
+                KeyedHmac.forPurpose(SECRET, "renthub-image-url").sign("message")));
+    }
+}
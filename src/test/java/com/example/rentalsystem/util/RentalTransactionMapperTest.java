@@ -3,6 +3,7 @@ package com.example.rentalsystem.util;
 import com.rental.property.dto.RentalTransactionDto;
 import com.rental.property.dto.RentalTransactionResponseDto;
 import com.rental.property.dto.RentalTransactionTenantResponse;
+import com.rental.property.dto.RentalTransactionView;
 import com.rental.property.entity.Address;
 import com.rental.property.entity.Property;
 import com.rental.property.entity.RentalTransaction;
@@ -98,7 +99,7 @@ public class RentalTransactionMapperTest {
         assertEquals(entity1.getStatus(), responseDtoList.get(0).getStatus());
         assertEquals(entity1.getStartDate(), responseDtoList.get(0).getStartDate());
         assertEquals(entity1.getEndDate(), responseDtoList.get(0).getEndDate());
-        assertEquals(entity1.getProperty().getImage1(), responseDtoList.get(0).getImage());
+        assertEquals("/api/v1/public/properties/" + entity1.getProperty().getPropertyId() + "/images/1", responseDtoList.get(0).getImageUrl());
         assertEquals(entity1.getUser().getUsername(), responseDtoList.get(0).getUserName());
         assertEquals(String.valueOf(entity1.getUser().getMobileNo()), responseDtoList.get(0).getMobileNo());
     }
@@ -119,7 +120,7 @@ public class RentalTransactionMapperTest {
         assertEquals(entity.getStatus(), responseDto.getStatus());
         assertEquals(entity.getStartDate(), responseDto.getStartDate());
         assertEquals(entity.getEndDate(), responseDto.getEndDate());
-        assertEquals(entity.getProperty().getImage1(), responseDto.getImage());
+        assertEquals("/api/v1/public/properties/" + entity.getProperty().getPropertyId() + "/images/1", responseDto.getImageUrl());
         assertEquals(entity.getUser().getUsername(), responseDto.getUserName());
         assertEquals(String.valueOf(entity.getUser().getMobileNo()), responseDto.getMobileNo());
     }
@@ -140,7 +141,7 @@ public class RentalTransactionMapperTest {
         assertEquals(entity1.getProperty().getBhk(), responseDtoList.get(0).getBhk());
         assertEquals(entity1.getProperty().getDescription(), responseDtoList.get(0).getDescription());
         assertEquals(entity1.getStatus(), responseDtoList.get(0).getStatus());
-        assertEquals(entity1.getProperty().getImage1(), responseDtoList.get(0).getImage());
+        assertEquals("/api/v1/public/properties/" + entity1.getProperty().getPropertyId() + "/images/1", responseDtoList.get(0).getImageUrl());
     }
 
     @Test
@@ -157,6 +158,37 @@ public class RentalTransactionMapperTest {
         assertEquals(entity.getProperty().getBhk(), responseDto.getBhk());
         assertEquals(entity.getProperty().getDescription(), responseDto.getDescription());
         assertEquals(entity.getStatus(), responseDto.getStatus());
-        assertEquals(entity.getProperty().getImage1(), responseDto.getImage());
+        assertEquals("/api/v1/public/properties/" + entity.getProperty().getPropertyId() + "/images/1", responseDto.getImageUrl());
     }
-}
\ No newline at end of file
+
+    @Test
+    void viewToResponseDto_shouldMapProjectionWithImageUrl() {
+        RentalTransactionView view = new RentalTransactionView(505L, 5L, "View Street", "View City", "View State", 600040L,
+                "2BHK", "Projection", "Applied", LocalDate.now(), LocalDate.now().plusMonths(6), "viewer", 9123456780L, "0123456789abcdef".repeat(4));
+
+        RentalTransactionResponseDto responseDto = RentalTransactionMapper.viewToResponseDto(view);
+
+        assertEquals(505L, responseDto.getTransactionId());
+        assertEquals(5L, responseDto.getPropertyId());
+        assertEquals("View Street, View City, View State 600040", responseDto.getAddress());
+        assertEquals("/api/v1/public/properties/5/images/1?v=0123456789abcdef", responseDto.getImageUrl());
+        assertEquals("/api/v1/public/properties/5/images/1/thumbnail?v=0123456789abcdef", responseDto.getThumbnailUrl());
+        assertEquals("viewer", responseDto.getUserName());
+        assertEquals("9123456780", responseDto.getMobileNo());
+    }
+
+    @Test
+    void viewsToTenantResponseList_shouldMapProjectionsWithImageUrl() {
+        RentalTransactionView view = new RentalTransactionView(606L, 6L, "Tenant Street", "Tenant City", "Tenant State", 789L,
+                "1BHK", "Cozy 1BHK", "Completed", null, null, "tenant", 9000000000L, null);
+
+        List<RentalTransactionTenantResponse> responseList = RentalTransactionMapper.viewsToTenantResponseList(List.of(view));
+
+        assertEquals(1, responseList.size());
+        assertEquals(606L, responseList.get(0).getTransactionId());
+        assertEquals("Tenant Street, Tenant City, Tenant State 789", responseList.get(0).getAddress());
+        assertEquals("Cozy 1BHK", responseList.get(0).getDescription());
+        assertEquals("/api/v1/public/properties/6/images/1", responseList.get(0).getImageUrl());
+        assertEquals("/api/v1/public/properties/6/images/1/thumbnail", responseList.get(0).getThumbnailUrl());
+    }
+}
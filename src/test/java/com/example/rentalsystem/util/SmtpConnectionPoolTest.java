@@ -0,0 +1,137 @@
+package com.example.rentalsystem.util;
+
+import com.rental.property.util.SmtpConnectionPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpConnectionPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FakeSmtpServer server;
+    private SmtpConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeSmtpServer();
+        pool = newPool(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    void send_ReusesTheConnectionAcrossMessagesAndBorrows() throws Exception {
+        SmtpConnectionPool.Connection connection = pool.borrow();
+        connection.send(message(connection, "a@example.com"));
+        connection.send(message(connection, "b@example.com"));
+        pool.release(connection);
+
+        SmtpConnectionPool.Connection again = pool.borrow();
+        assertSame(connection, again);
+        again.send(message(again, "c@example.com"));
+        pool.release(again);
+
+        assertEquals(3, server.getReceived().size());
+        assertEquals(1, server.getConnections());
+        assertEquals(1.0, meterRegistry.get("renthub.mail.smtp.connections.opened").counter().count());
+    }
+
+    @Test
+    void send_RejectedRecipientKeepsTheSessionUsable() throws Exception {
+        SmtpConnectionPool.Connection connection = pool.borrow();
+        SendFailedException error = assertThrows(SendFailedException.class,
+                () -> connection.send(message(connection, "reject@example.com")));
+        assertEquals(1, error.getInvalidAddresses().length);
+
+        connection.send(message(connection, "a@example.com"));
+        assertEquals(1, server.getReceived().size());
+        assertEquals(1, server.getConnections());
+    }
+
+    @Test
+    void borrow_ReplacesAConnectionTheServerDropped() throws Exception {
+        SmtpConnectionPool.Connection connection = pool.borrow();
+        connection.send(message(connection, "a@example.com"));
+        pool.release(connection);
+        server.dropClients();
+
+        SmtpConnectionPool.Connection replacement = pool.borrow();
+        assertNotSame(connection, replacement);
+        replacement.send(message(replacement, "b@example.com"));
+
+        assertEquals(2, server.getReceived().size());
+        assertEquals(2, server.getConnections());
+    }
+
+    @Test
+    void release_UnopenedConnectionIsNotPooled() {
+        pool.release(pool.borrow());
+        assertEquals(0, pool.idleCount());
+    }
+
+    @Test
+    void evictIdle_ClosesConnectionsIdleTooLong() throws Exception {
+        pool = newPool(Duration.ZERO);
+        SmtpConnectionPool.Connection connection = pool.borrow();
+        connection.open();
+        pool.release(connection);
+        assertEquals(1, pool.idleCount());
+
+        pool.evictIdle();
+
+        assertEquals(0, pool.idleCount());
+        assertEquals(1, server.getQuits());
+    }
+
+    @Test
+    void release_KeepsNoMoreThanMaxIdle() throws Exception {
+        SmtpConnectionPool.Connection first = pool.borrow();
+        SmtpConnectionPool.Connection second = pool.borrow();
+        SmtpConnectionPool.Connection third = pool.borrow();
+        first.open();
+        second.open();
+        third.open();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(2, pool.idleCount());
+        assertEquals(1, server.getQuits());
+    }
+
+    private SmtpConnectionPool newPool(Duration idleTimeout) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.getPort());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        properties.put("mail.smtp.timeout", "2000");
+        mailSender.setJavaMailProperties(properties);
+        return new SmtpConnectionPool(mailSender, meterRegistry, 2, idleTimeout);
+    }
+
+    private static MimeMessage message(SmtpConnectionPool.Connection connection, String to) throws MessagingException {
+        MimeMessage message = connection.createMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setFrom("no-reply@example.com");
+        helper.setTo(to);
+        helper.setSubject("Hello");
+        helper.setText("Hello there");
+        return message;
+    }
+}